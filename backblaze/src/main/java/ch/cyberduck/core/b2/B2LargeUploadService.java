@@ -21,20 +21,21 @@ import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.concurrency.Interruptibles;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.MultipartChecksum;
+import ch.cyberduck.core.io.ParallelChecksumCompute;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
+import ch.cyberduck.core.transfer.SegmentScheduler;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
@@ -44,10 +45,10 @@ import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Future;
 
 import synapticloop.b2.exception.B2ApiException;
 import synapticloop.b2.response.B2FileInfoResponse;
@@ -110,7 +111,22 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
     public BaseB2Response upload(final Path file, final Local local,
                                  final BandwidthThrottle throttle, final StreamListener listener, final TransferStatus status,
                                  final ConnectionCallback callback, final Long partSize) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("largeupload", concurrency);
+        // Full size of file
+        final long size = status.getLength() + status.getOffset();
+        final long partlength = Math.max((size / B2LargeUploadService.MAXIMUM_UPLOAD_PARTS), partSize);
+        // Keep part size for uploads to vault
+        final long maximum = file.getType().contains(Path.Type.encrypted) ? partlength : Math.max(partlength,
+                new HostPreferences(session.getHost()).getLong("queue.upload.multipart.partsize.maximum"));
+        final SegmentScheduler<B2UploadPartResponse> scheduler;
+        if(maximum > partlength) {
+            // Part size grows with throughput. Compute digest for every part when read instead of ahead for fixed parts
+            status.setMultipartChecksum(null);
+            scheduler = new SegmentScheduler<>(concurrency, partlength, maximum);
+        }
+        else {
+            this.checksum(file, local, status, size, partlength);
+            scheduler = new SegmentScheduler<>(concurrency, partlength);
+        }
         try {
             // Get the results of the uploads in the order they were submitted
             // this is important for building the manifest, and is not a problem in terms of performance
@@ -149,35 +165,36 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                 fileId = session.getClient().startLargeFileUpload(fileid.getVersionId(containerService.getContainer(file)),
                         containerService.getKey(file), status.getMime(), fileinfo).getFileId();
             }
-            // Full size of file
-            final long size = status.getLength() + status.getOffset();
             // Submit file segments for concurrent upload
-            final List<Future<B2UploadPartResponse>> parts = new ArrayList<>();
-            long remaining = status.getLength();
+            // Offset and length of parts only depend on part number
             long offset = 0;
-            for(int partNumber = 1; remaining > 0; partNumber++) {
+            for(int partNumber = 1; offset < size; partNumber++) {
+                final long length = Math.min(scheduler.getSegmentsize(partNumber), size - offset);
                 boolean skip = false;
                 if(status.isAppend()) {
                     log.info("Determine if part number {} can be skipped", partNumber);
                     for(B2UploadPartResponse c : completed) {
                         if(c.getPartNumber().equals(partNumber)) {
-                            log.info("Skip completed part number {}", partNumber);
-                            skip = true;
-                            offset += c.getContentLength();
+                            if(c.getContentLength() == length) {
+                                log.info("Skip completed part number {}", partNumber);
+                                skip = true;
+                            }
+                            else {
+                                log.warn("Upload part number {} again with size {} not matching length {}", partNumber, c.getContentLength(), length);
+                                completed.remove(c);
+                            }
                             break;
                         }
                     }
                 }
                 if(!skip) {
-                    final long length = Math.min(Math.max((size / B2LargeUploadService.MAXIMUM_UPLOAD_PARTS), partSize), remaining);
                     // Submit to queue
-                    parts.add(this.submit(pool, file, local, throttle, listener, status, fileId, partNumber, offset, length, callback));
+                    this.submit(scheduler, file, local, throttle, listener, status, fileId, partNumber, offset, length, callback);
                     log.debug("Part {} submitted with size {} and offset {}", partNumber, length, offset);
-                    remaining -= length;
-                    offset += length;
                 }
+                offset += length;
             }
-            completed.addAll(Interruptibles.awaitAll(parts));
+            completed.addAll(scheduler.await());
             completed.sort(new Comparator<B2UploadPartResponse>() {
                 @Override
                 public int compare(final B2UploadPartResponse o1, final B2UploadPartResponse o2) {
@@ -202,18 +219,18 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
             throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
         }
         finally {
-            pool.shutdown(false);
+            scheduler.cancel();
         }
     }
 
-    private Future<B2UploadPartResponse> submit(final ThreadPool pool, final Path file, final Local local,
-                                                final BandwidthThrottle throttle, final StreamListener listener,
-                                                final TransferStatus overall,
-                                                final String fileId, final int partNumber,
-                                                final Long offset, final Long length, final ConnectionCallback callback) {
+    private void submit(final SegmentScheduler<B2UploadPartResponse> scheduler, final Path file, final Local local,
+                        final BandwidthThrottle throttle, final StreamListener listener,
+                        final TransferStatus overall,
+                        final String fileId, final int partNumber,
+                        final Long offset, final Long length, final ConnectionCallback callback) throws BackgroundException {
         log.info("Submit part {} of {} to queue with offset {} and length {}", partNumber, file, offset, length);
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<B2UploadPartResponse>() {
+        scheduler.submit(length, new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<B2UploadPartResponse>() {
             @Override
             public B2UploadPartResponse call() throws BackgroundException {
                 overall.validate();
@@ -224,7 +241,15 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                 requestParameters.put("fileId", fileId);
                 status.setParameters(requestParameters);
                 status.setHeader(overall.getHeader());
-                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                final MultipartChecksum parts = overall.getMultipartChecksum();
+                final Checksum checksum = null == parts ? Checksum.NONE : parts.get(HashAlgorithm.sha1, offset, length);
+                if(Checksum.NONE == checksum) {
+                    status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                }
+                else {
+                    log.debug("Use checksum {} computed ahead for part {}", checksum, partNumber);
+                    status.setChecksum(checksum);
+                }
                 status.setSegment(true);
                 status.setPart(partNumber);
                 return (B2UploadPartResponse) B2LargeUploadService.this.upload(file, local, throttle, counter, status, overall, status, callback);
@@ -232,6 +257,29 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
         }, overall, counter));
     }
 
+    /**
+     * Compute digests for all parts in a single pass ahead of upload for large files
+     *
+     * @param size       Full size of file
+     * @param partlength Size of parts
+     */
+    private void checksum(final Path file, final Local local, final TransferStatus status, final long size, final long partlength) throws BackgroundException {
+        if(file.getType().contains(Path.Type.encrypted)) {
+            log.debug("Skip computing checksum for parts of {} in vault", file);
+            return;
+        }
+        if(size < new HostPreferences(session.getHost()).getLong("queue.upload.checksum.parallel.threshold")) {
+            return;
+        }
+        final MultipartChecksum cached = status.getMultipartChecksum();
+        if(null != cached && cached.getLength() == size && cached.getPartsize() == partlength) {
+            log.debug("Reuse checksum {} for parts of {}", cached, file);
+            return;
+        }
+        status.setMultipartChecksum(new ParallelChecksumCompute().compute(local, size, partlength,
+                EnumSet.of(HashAlgorithm.sha1), status));
+    }
+
     @Override
     public Write.Append append(final Path file, final TransferStatus status) throws BackgroundException {
         final B2LargeUploadPartService partService = new B2LargeUploadPartService(session, fileid);
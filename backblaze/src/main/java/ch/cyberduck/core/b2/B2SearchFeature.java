@@ -92,6 +92,6 @@ public class B2SearchFeature implements Search {
 
     @Override
     public EnumSet<Flags> features() {
-        return EnumSet.of(Flags.recursive);
+        return EnumSet.of(Flags.recursive, Flags.listing);
     }
 }
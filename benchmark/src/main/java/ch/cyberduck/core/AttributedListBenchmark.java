@@ -0,0 +1,110 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.ui.browser.DefaultBrowserFilter;
+import ch.cyberduck.ui.comparator.FilenameComparator;
+import ch.cyberduck.ui.comparator.SizeComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build directory listings, lookup children by reference and filter and sort as for display in browser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributedListBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Path[] children;
+    private AttributedList<Path> list;
+    private Filter<Path> filter;
+
+    @Setup
+    public void setup() {
+        directory = new Path("/container/directory", EnumSet.of(Path.Type.directory));
+        children = new Path[size];
+        list = new AttributedList<>();
+        for(int i = 0; i < size; i++) {
+            children[i] = new Path(directory, String.format("file-%d", i), EnumSet.of(Path.Type.file));
+            list.add(children[i]);
+        }
+        filter = new DefaultBrowserFilter();
+        // Build index before measurement
+        list.find(new SimplePathPredicate(children[0]));
+        list.contains(children[0]);
+    }
+
+    @Benchmark
+    public AttributedList<Path> add() {
+        final AttributedList<Path> list = new AttributedList<>();
+        for(Path child : children) {
+            list.add(child);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Path find() {
+        return list.find(new SimplePathPredicate(children[ThreadLocalRandom.current().nextInt(size)]));
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return list.contains(children[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    public Path findMissing() {
+        return list.find(new SimplePathPredicate(new Path(directory, "missing", EnumSet.of(Path.Type.file))));
+    }
+
+    @Benchmark
+    public AttributedList<Path> filter() {
+        return list.filter(filter);
+    }
+
+    @Benchmark
+    public AttributedList<Path> sort() {
+        return list.filter(new FilenameComparator(true));
+    }
+
+    @Benchmark
+    public AttributedList<Path> sortBySize() {
+        return list.filter(new SizeComparator(false), filter);
+    }
+}
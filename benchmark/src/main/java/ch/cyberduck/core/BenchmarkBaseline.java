@@ -0,0 +1,208 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compare benchmark results in JMH JSON format with stored baseline. Exits with status 1 if the confidence interval
+ * of any benchmark is worse than the confidence interval in the baseline without overlapping.
+ * <p>
+ * Usage: <code>BenchmarkBaseline baseline.json result.json</code> to compare with baseline or
+ * <code>BenchmarkBaseline -record result.json baseline.json</code> to save result as baseline without fields
+ * specific to the machine that recorded it.
+ */
+public final class BenchmarkBaseline {
+
+    /**
+     * Minimum number of forks for result saved as baseline
+     */
+    private static final int MINIMUM_FORKS = 3;
+    /**
+     * Minimum number of measurement iterations per fork for result saved as baseline
+     */
+    private static final int MINIMUM_ITERATIONS = 5;
+
+    private BenchmarkBaseline() {
+        //
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length == 3 && "-record".equals(args[0])) {
+            System.exit(record(args[1], args[2]));
+        }
+        if(args.length != 2) {
+            System.err.println("Usage: BenchmarkBaseline baseline.json result.json");
+            System.err.println("       BenchmarkBaseline -record result.json baseline.json");
+            System.exit(2);
+        }
+        System.exit(compare(args[0], args[1]));
+    }
+
+    private static int compare(final String baselineFile, final String resultFile) throws IOException {
+        final Map<String, Score> baseline = scores(read(baselineFile));
+        final Map<String, Score> result = scores(read(resultFile));
+        int regressions = 0;
+        for(Map.Entry<String, Score> entry : result.entrySet()) {
+            final Score current = entry.getValue();
+            final Score previous = baseline.get(entry.getKey());
+            if(null == previous) {
+                System.out.printf("%-100s %30s %s%n", entry.getKey(), current, "NEW");
+                continue;
+            }
+            final boolean regression = current.isWorse(previous);
+            if(regression) {
+                regressions++;
+            }
+            System.out.printf("%-100s %30s %30s%s%n", entry.getKey(), previous, current,
+                    regression ? " REGRESSION" : current.isBetter(previous) ? " IMPROVEMENT" : "");
+        }
+        if(regressions > 0) {
+            System.err.printf("%d benchmarks with confidence interval worse than baseline%n", regressions);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Save result with measurement settings and scores only
+     */
+    private static int record(final String resultFile, final String baselineFile) throws IOException {
+        final JsonArray baseline = new JsonArray();
+        for(JsonElement element : read(resultFile)) {
+            final JsonObject result = element.getAsJsonObject();
+            if(result.get("forks").getAsInt() < MINIMUM_FORKS || result.get("measurementIterations").getAsInt() < MINIMUM_ITERATIONS) {
+                System.err.printf("Result for %s with %d forks and %d iterations. Run with at least -f %d -i %d%n",
+                        result.get("benchmark").getAsString(), result.get("forks").getAsInt(),
+                        result.get("measurementIterations").getAsInt(), MINIMUM_FORKS, MINIMUM_ITERATIONS);
+                return 1;
+            }
+            final JsonObject entry = new JsonObject();
+            for(String key : new String[]{"jmhVersion", "benchmark", "mode", "threads", "forks", "jdkVersion",
+                    "warmupIterations", "warmupTime", "measurementIterations", "measurementTime", "params"}) {
+                if(result.has(key)) {
+                    entry.add(key, result.get(key));
+                }
+            }
+            final JsonObject metric = result.getAsJsonObject("primaryMetric");
+            final JsonObject primary = new JsonObject();
+            for(String key : new String[]{"score", "scoreError", "scoreConfidence", "scoreUnit"}) {
+                primary.add(key, metric.get(key));
+            }
+            entry.add("primaryMetric", primary);
+            baseline.add(entry);
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(baselineFile), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create().toJson(baseline, writer);
+        }
+        return 0;
+    }
+
+    private static JsonArray read(final String file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonArray();
+        }
+    }
+
+    private static Map<String, Score> scores(final JsonArray results) {
+        final Map<String, Score> scores = new LinkedHashMap<>();
+        for(JsonElement element : results) {
+            final JsonObject result = element.getAsJsonObject();
+            final StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+            if(result.has("params")) {
+                final Map<String, String> params = new TreeMap<>();
+                for(Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+                    params.put(param.getKey(), param.getValue().getAsString());
+                }
+                key.append(params);
+            }
+            final JsonObject metric = result.getAsJsonObject("primaryMetric");
+            final JsonArray confidence = metric.getAsJsonArray("scoreConfidence");
+            scores.put(key.toString(), new Score(result.get("mode").getAsString(), metric.get("score").getAsDouble(),
+                    confidence.get(0).getAsDouble(), confidence.get(1).getAsDouble(), metric.get("scoreUnit").getAsString()));
+        }
+        return scores;
+    }
+
+    private static final class Score {
+        private final String mode;
+        private final double score;
+        /**
+         * Lower bound of 99.9% confidence interval
+         */
+        private final double lower;
+        /**
+         * Upper bound of 99.9% confidence interval
+         */
+        private final double upper;
+        private final String unit;
+
+        private Score(final String mode, final double score, final double lower, final double upper, final String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.lower = lower;
+            this.upper = upper;
+            this.unit = unit;
+        }
+
+        /**
+         * @return False if either interval is not known from a single measurement
+         */
+        private boolean isComparable(final Score previous) {
+            return !Double.isNaN(lower) && !Double.isNaN(upper) && !Double.isNaN(previous.lower) && !Double.isNaN(previous.upper);
+        }
+
+        /**
+         * @return True if confidence interval is entirely worse than interval of previous score
+         */
+        private boolean isWorse(final Score previous) {
+            if(!this.isComparable(previous)) {
+                return false;
+            }
+            if("thrpt".equals(mode)) {
+                // Higher is better
+                return upper < previous.lower;
+            }
+            // Time per operation where lower is better
+            return lower > previous.upper;
+        }
+
+        /**
+         * @return True if confidence interval is entirely better than interval of previous score
+         */
+        private boolean isBetter(final Score previous) {
+            return this.isComparable(previous) && previous.isWorse(this);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f [%.3f, %.3f] %s", score, lower, upper, unit);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct paths and attributes as done for every file in a directory listing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathBenchmark {
+
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void setup() {
+        directory = new Path("/container/directory/subdirectory", EnumSet.of(Path.Type.directory));
+        file = new Path(directory, "file.txt", EnumSet.of(Path.Type.file), this.attributes());
+    }
+
+    @Benchmark
+    public Path child() {
+        return new Path(directory, "file.txt", EnumSet.of(Path.Type.file));
+    }
+
+    @Benchmark
+    public Path absolute() {
+        return new Path("/container/directory/subdirectory/file.txt", EnumSet.of(Path.Type.file));
+    }
+
+    @Benchmark
+    public PathAttributes attributes() {
+        final PathAttributes attributes = new PathAttributes()
+                .withSize(1024L)
+                .withModificationDate(1700000000000L)
+                .withETag("d41d8cd98f00b204e9800998ecf8427e")
+                .withChecksum(new Checksum(HashAlgorithm.md5, "d41d8cd98f00b204e9800998ecf8427e"))
+                .withVersionId("v1");
+        attributes.setOwner("owner");
+        attributes.setGroup("group");
+        attributes.setPermission(new Permission(644));
+        return attributes;
+    }
+
+    @Benchmark
+    public Path copy() {
+        return new Path(file);
+    }
+
+    @Benchmark
+    public int hash() {
+        return new Path(directory, "file.txt", EnumSet.of(Path.Type.file)).hashCode();
+    }
+}
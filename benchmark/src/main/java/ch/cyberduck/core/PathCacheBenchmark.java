@@ -0,0 +1,152 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cache.LRUCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare directory listing cache with striped segments against previous implementation backed by single Guava cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class PathCacheBenchmark {
+
+    @Param({"lru", "striped"})
+    public String implementation;
+
+    @Param({"1000"})
+    public int directories;
+
+    private Path[] keys;
+    private AttributedList<Path>[] listings;
+    private Listings cache;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        keys = new Path[directories * 2];
+        listings = new AttributedList[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = new Path(String.format("/container/directory-%d", i), EnumSet.of(Path.Type.directory));
+            listings[i] = new AttributedList<>();
+            for(int j = 0; j < 100; j++) {
+                listings[i].add(new Path(keys[i], String.format("file-%d", j), EnumSet.of(Path.Type.file)));
+            }
+        }
+        switch(implementation) {
+            case "lru":
+                cache = new LRUListings(directories);
+                break;
+            default:
+                cache = new StripedListings(directories);
+                break;
+        }
+        for(int i = 0; i < directories; i++) {
+            cache.put(keys[i], listings[i]);
+        }
+    }
+
+    @Benchmark
+    public void get(final Blackhole bh) {
+        bh.consume(cache.get(keys[ThreadLocalRandom.current().nextInt(directories)]));
+    }
+
+    /**
+     * Lookups with one in ten writes replacing listings including directories not cached
+     */
+    @Benchmark
+    public void mixed(final Blackhole bh) {
+        final int index = ThreadLocalRandom.current().nextInt(keys.length);
+        if(index % 10 == 0) {
+            cache.put(keys[index], listings[index]);
+        }
+        else {
+            bh.consume(cache.get(keys[index]));
+        }
+    }
+
+    private interface Listings {
+        AttributedList<Path> get(Path directory);
+
+        void put(Path directory, AttributedList<Path> children);
+    }
+
+    /**
+     * Previous implementation of AbstractCache
+     */
+    private static final class LRUListings implements Listings {
+        private final LRUCache<CacheReference<Path>, AttributedList<Path>> impl;
+
+        private LRUListings(final int size) {
+            impl = LRUCache.build(size);
+        }
+
+        @Override
+        public AttributedList<Path> get(final Path directory) {
+            final AttributedList<Path> children = impl.get(new DefaultPathPredicate(directory));
+            if(null == children) {
+                return AttributedList.emptyList();
+            }
+            return children;
+        }
+
+        @Override
+        public void put(final Path directory, final AttributedList<Path> children) {
+            impl.put(new DefaultPathPredicate(directory), children);
+        }
+    }
+
+    private static final class StripedListings implements Listings {
+        private final PathCache impl;
+
+        private StripedListings(final int size) {
+            impl = new PathCache(size);
+        }
+
+        @Override
+        public AttributedList<Path> get(final Path directory) {
+            return impl.get(directory);
+        }
+
+        @Override
+        public void put(final Path directory, final AttributedList<Path> children) {
+            impl.put(directory, children);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.cryptomator.features.CryptoReadFeature;
+import ch.cyberduck.core.cryptomator.features.CryptoWriteFeature;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalReadFeature;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.nio.LocalWriteFeature;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.proxy.DisabledProxyFinder;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content encryption and decryption for file in vault on local disk with number of chunks processed in parallel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoStreamBenchmark {
+
+    private static final int SIZE = 64 * 1024 * 1024;
+
+    @Param({"1", "4"})
+    public int parallel;
+
+    private byte[] data;
+    private LocalSession session;
+    private CryptoVault vault;
+    private Path home;
+    private Path file;
+
+    @Setup
+    public void setup() throws Exception {
+        PreferencesFactory.get().setProperty("cryptomator.stream.parallel", parallel);
+        data = new byte[SIZE];
+        ThreadLocalRandom.current().nextBytes(data);
+        session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()));
+        session.open(new DisabledProxyFinder(), new DisabledHostKeyCallback(), new DisabledLoginCallback(), new DisabledCancelCallback());
+        session.login(new DisabledLoginCallback(), new DisabledCancelCallback());
+        home = new Path(new File(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random()).getAbsolutePath(),
+                EnumSet.of(Path.Type.directory));
+        vault = new CryptoVault(home);
+        vault.create(session, new VaultCredentials("benchmark"), CryptoVault.VAULT_VERSION);
+        file = new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        this.write();
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        vault.close();
+        session.close();
+        FileUtils.deleteDirectory(new File(home.getAbsolute()));
+    }
+
+    @Benchmark
+    public TransferStatus write() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(SIZE);
+        status.setHeader(vault.getFileHeaderCryptor().encryptHeader(vault.getFileHeaderCryptor().create()));
+        new StreamCopier(status, status).transfer(new ByteArrayInputStream(data),
+                new CryptoWriteFeature<>(session, new LocalWriteFeature(session), vault).write(file, status, new DisabledConnectionCallback()));
+        return status;
+    }
+
+    @Benchmark
+    public TransferStatus read() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(SIZE);
+        new StreamCopier(status, status).transfer(
+                new CryptoReadFeature(session, new LocalReadFeature(session), vault).read(file, status, new DisabledConnectionCallback()),
+                NullOutputStream.NULL_OUTPUT_STREAM);
+        return status;
+    }
+}
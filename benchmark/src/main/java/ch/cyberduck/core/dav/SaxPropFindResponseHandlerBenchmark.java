@@ -0,0 +1,91 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sardine.impl.handler.MultiStatusResponseHandler;
+import com.github.sardine.model.Multistatus;
+
+/**
+ * Parse PROPFIND multistatus response with SAX handler compared to JAXB unmarshalling
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaxPropFindResponseHandlerBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private byte[] response;
+
+    @Setup
+    public void setup() {
+        final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<d:multistatus xmlns:d=\"DAV:\">\n");
+        for(int i = 0; i < size; i++) {
+            xml.append("<d:response>")
+                    .append(String.format("<d:href>/directory/file-%d.txt</d:href>", i))
+                    .append("<d:propstat><d:prop>")
+                    .append(String.format("<d:displayname>file-%d.txt</d:displayname>", i))
+                    .append("<d:getlastmodified>Fri, 12 Jan 2024 10:00:00 GMT</d:getlastmodified>")
+                    .append("<d:creationdate>2024-01-12T10:00:00Z</d:creationdate>")
+                    .append(String.format("<d:getcontentlength>%d</d:getcontentlength>", i * 1024))
+                    .append("<d:getcontenttype>text/plain</d:getcontenttype>")
+                    .append(String.format("<d:getetag>\"%08x\"</d:getetag>", i))
+                    .append("<d:resourcetype/>")
+                    .append("</d:prop><d:status>HTTP/1.1 200 OK</d:status></d:propstat>")
+                    .append("</d:response>\n");
+        }
+        xml.append("</d:multistatus>");
+        response = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Multistatus sax() throws IOException {
+        return new SaxPropFindResponseHandler().getMultistatus(new ByteArrayInputStream(response));
+    }
+
+    @Benchmark
+    public Multistatus jaxb() throws IOException {
+        return new JaxbPropFindResponseHandler().getMultistatus(new ByteArrayInputStream(response));
+    }
+
+    private static final class JaxbPropFindResponseHandler extends MultiStatusResponseHandler {
+        @Override
+        protected Multistatus getMultistatus(final InputStream stream) throws IOException {
+            return super.getMultistatus(stream);
+        }
+    }
+}
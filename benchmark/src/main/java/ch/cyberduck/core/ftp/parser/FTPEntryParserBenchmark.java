@@ -0,0 +1,111 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+import ch.cyberduck.core.ftp.list.FTPInvalidListException;
+import ch.cyberduck.core.ftp.list.FTPListResponseReader;
+
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse directory listing replies from servers with Unix and Windows listing format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FTPEntryParserBenchmark {
+
+    @Param({"UNIX", "Windows_NT"})
+    public String system;
+
+    @Param({"10000"})
+    public int size;
+
+    private final Path directory = new Path("/directory", EnumSet.of(Path.Type.directory));
+    private List<String> replies;
+    private FTPFileEntryParser parser;
+
+    @Setup
+    public void setup() {
+        replies = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            switch(system) {
+                case "UNIX":
+                    if(i % 10 == 0) {
+                        replies.add(String.format("drwxr-xr-x   2 user     group        4096 Mar  4 12:%02d directory-%d", i % 60, i));
+                    }
+                    else {
+                        replies.add(String.format("-rw-r--r--   1 user     group    %8d Jan 12  2023 file-%d.txt", i * 1024, i));
+                    }
+                    break;
+                default:
+                    if(i % 10 == 0) {
+                        replies.add(String.format("03-04-24  12:%02dPM       <DIR>          directory-%d", i % 60, i));
+                    }
+                    else {
+                        replies.add(String.format("01-12-23  10:00AM             %8d file-%d.txt", i * 1024, i));
+                    }
+                    break;
+            }
+        }
+        parser = new FTPParserSelector().getParser(system);
+    }
+
+    @Benchmark
+    public void parse(final Blackhole bh) {
+        for(String line : replies) {
+            bh.consume(parser.parseFTPEntry(line));
+        }
+    }
+
+    /**
+     * Parse with new parser selecting matching implementation on first entry
+     */
+    @Benchmark
+    public void select(final Blackhole bh) {
+        final FTPFileEntryParser parser = new FTPParserSelector().getParser(system);
+        for(String line : replies) {
+            bh.consume(parser.parseFTPEntry(line));
+        }
+    }
+
+    @Benchmark
+    public AttributedList<Path> read() throws FTPInvalidListException {
+        return new FTPListResponseReader(parser).read(directory, replies);
+    }
+}
@@ -0,0 +1,109 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy between in-memory streams and between files on local disk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamCopierBenchmark {
+
+    private static final int SIZE = 16 * 1024 * 1024;
+
+    @Param({"32768", "131072"})
+    public int chunksize;
+
+    private byte[] data;
+    private Local source;
+    private Local target;
+
+    @Setup
+    public void setup() throws Exception {
+        data = new byte[SIZE];
+        ThreadLocalRandom.current().nextBytes(data);
+        source = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        target = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try (OutputStream out = source.getOutputStream(false)) {
+            out.write(data);
+        }
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        source.delete();
+        if(target.exists()) {
+            target.delete();
+        }
+    }
+
+    @Benchmark
+    public TransferStatus memory() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(SIZE);
+        new StreamCopier(status, status).withChunksize(chunksize)
+                .transfer(new ByteArrayInputStream(data), NullOutputStream.NULL_OUTPUT_STREAM);
+        return status;
+    }
+
+    /**
+     * Copy between file channels
+     */
+    @Benchmark
+    public TransferStatus file() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(SIZE);
+        new StreamCopier(status, status).withChunksize(chunksize)
+                .transfer(source.getInputStream(), target.getOutputStream(false));
+        return status;
+    }
+
+    /**
+     * Copy from file to stream not backed by channel
+     */
+    @Benchmark
+    public TransferStatus stream() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(SIZE);
+        new StreamCopier(status, status).withChunksize(chunksize)
+                .transfer(source.getInputStream(), NullOutputStream.NULL_OUTPUT_STREAM);
+        return status;
+    }
+}
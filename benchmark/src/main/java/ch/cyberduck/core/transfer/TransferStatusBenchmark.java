@@ -0,0 +1,106 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create segments for a large file, copy status and track progress of all segments to completion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferStatusBenchmark {
+
+    private static final long LENGTH = 16L * 1024L * 1024L * 1024L;
+
+    @Param({"16", "128", "1024"})
+    public int count;
+
+    private TransferStatus status;
+
+    @Setup
+    public void setup() {
+        status = this.segment();
+    }
+
+    @Benchmark
+    public TransferStatus segment() {
+        final TransferStatus status = new TransferStatus().withLength(LENGTH);
+        final long size = LENGTH / count;
+        final List<TransferStatus> segments = new ArrayList<>(count);
+        long remaining = LENGTH, offset = 0;
+        for(int part = 1; remaining > 0; part++) {
+            final long length = Math.min(size, remaining);
+            final TransferStatus segment = new TransferStatus()
+                    .segment(true)
+                    .append(true)
+                    .withOffset(offset)
+                    .withLength(length);
+            segment.setPart(part);
+            segments.add(segment);
+            remaining -= length;
+            offset += length;
+        }
+        return status.withSegments(segments);
+    }
+
+    @Benchmark
+    public TransferStatus copy() {
+        final TransferStatus copy = new TransferStatus(status);
+        final List<TransferStatus> segments = new ArrayList<>(count);
+        for(TransferStatus segment : status.getSegments()) {
+            segments.add(new TransferStatus(segment));
+        }
+        return copy.withSegments(segments);
+    }
+
+    /**
+     * Progress in chunks of 1 MiB for each segment and check completion of all segments
+     */
+    @Benchmark
+    public boolean progress() {
+        final TransferStatus copy = this.copy();
+        for(TransferStatus segment : copy.getSegments()) {
+            for(int i = 0; i < 64; i++) {
+                segment.setOffset(segment.getOffset() + 1024L * 1024L);
+            }
+            segment.setComplete();
+        }
+        for(TransferStatus segment : copy.getSegments()) {
+            if(!segment.isComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
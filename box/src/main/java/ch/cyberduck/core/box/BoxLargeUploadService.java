@@ -23,7 +23,6 @@ import ch.cyberduck.core.box.io.swagger.client.model.File;
 import ch.cyberduck.core.box.io.swagger.client.model.Files;
 import ch.cyberduck.core.box.io.swagger.client.model.UploadPart;
 import ch.cyberduck.core.box.io.swagger.client.model.UploadSession;
-import ch.cyberduck.core.concurrency.Interruptibles;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Upload;
@@ -35,21 +34,18 @@ import ch.cyberduck.core.io.SHA1ChecksumCompute;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
+import ch.cyberduck.core.transfer.SegmentScheduler;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.security.MessageDigest;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest> {
@@ -80,25 +76,25 @@ public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest
     @Override
     public File upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                        final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        if(status.getChecksum().algorithm != HashAlgorithm.sha1) {
+            status.setChecksum(new SHA1ChecksumCompute().compute(local.getInputStream(), status));
+        }
+        final BoxUploadHelper helper = new BoxUploadHelper(session, fileid);
+        final UploadSession uploadSession = helper.createUploadSession(status, file);
+        // Part size is determined by upload session
+        final SegmentScheduler<Part> scheduler = new SegmentScheduler<>(concurrency, uploadSession.getPartSize());
         try {
-            if(status.getChecksum().algorithm != HashAlgorithm.sha1) {
-                status.setChecksum(new SHA1ChecksumCompute().compute(local.getInputStream(), status));
-            }
-            final List<Future<Part>> parts = new ArrayList<>();
             long offset = 0;
             long remaining = status.getLength();
-            final BoxUploadHelper helper = new BoxUploadHelper(session, fileid);
-            final UploadSession uploadSession = helper.createUploadSession(status, file);
             for(int partNumber = 1; remaining > 0; partNumber++) {
-                final long length = Math.min(uploadSession.getPartSize(), remaining);
-                parts.add(this.submit(pool, file, local, throttle, listener, status,
-                        uploadSession.getId(), partNumber, offset, length, callback));
+                final long length = Math.min(scheduler.getSegmentsize(partNumber), remaining);
+                this.submit(scheduler, file, local, throttle, listener, status,
+                        uploadSession.getId(), partNumber, offset, length, callback);
                 remaining -= length;
                 offset += length;
             }
             // Checksums for uploaded segments
-            final List<Part> chunks = Interruptibles.awaitAll(parts);
+            final List<Part> chunks = scheduler.await();
             final Files files = helper.commitUploadSession(file, uploadSession.getId(), status,
                     chunks.stream().map(f -> new UploadPart().sha1(f.part.getSha1())
                             .size(f.status.getLength()).offset(f.status.getOffset()).partId(f.part.getId())).collect(Collectors.toList()));
@@ -113,16 +109,16 @@ public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest
         }
         finally {
             // Cancel future tasks
-            pool.shutdown(false);
+            scheduler.cancel();
         }
     }
 
-    private Future<Part> submit(final ThreadPool pool, final Path file, final Local local,
-                                final BandwidthThrottle throttle, final StreamListener listener,
-                                final TransferStatus overall, final String uploadSessionId, final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
+    private void submit(final SegmentScheduler<Part> scheduler, final Path file, final Local local,
+                        final BandwidthThrottle throttle, final StreamListener listener,
+                        final TransferStatus overall, final String uploadSessionId, final int partNumber, final long offset, final long length, final ConnectionCallback callback) throws BackgroundException {
         log.info("Submit {} to queue with offset {} and length {}", file, offset, length);
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Part>() {
+        scheduler.submit(length, new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Part>() {
             @Override
             public Part call() throws BackgroundException {
                 overall.validate();
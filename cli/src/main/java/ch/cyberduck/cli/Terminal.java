@@ -170,7 +170,7 @@ public class Terminal {
         this.options = options;
         log.info("Parsed options {} from input {}", options, input);
         this.input = input;
-        this.cache = new PathCache(preferences.getInteger("browser.cache.size"));
+        this.cache = new PathCache(preferences.getInteger("browser.cache.size"), preferences.getLong("browser.cache.weight"));
         this.progress = input.hasOption(TerminalOptionsBuilder.Params.quiet.name())
                 ? new DisabledListProgressListener() : new TerminalProgressListener();
         this.transcript = input.hasOption(TerminalOptionsBuilder.Params.verbose.name())
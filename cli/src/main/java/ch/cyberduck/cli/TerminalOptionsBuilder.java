@@ -26,6 +26,7 @@ import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 public final class TerminalOptionsBuilder {
@@ -145,6 +146,10 @@ public final class TerminalOptionsBuilder {
                 .longOpt(Params.throttle.name())
                 .desc("Throttle bandwidth")
                 .hasArg().argName("bytes per second").build());
+        options.addOption(Option.builder()
+                .longOpt(Params.priority.name())
+                .desc(String.format("Share of connections relative to other transfers. One of %s", Arrays.toString(Transfer.Priority.values())))
+                .hasArg().argName("priority").build());
         options.addOption(Option.builder()
                 .longOpt(Params.nochecksum.name())
                 .desc("Skip verifying checksum").build());
@@ -205,6 +210,7 @@ public final class TerminalOptionsBuilder {
         udt,
         parallel,
         throttle,
+        priority,
         nochecksum,
         nokeychain,
         vault,
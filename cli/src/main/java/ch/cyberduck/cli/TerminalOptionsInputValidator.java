@@ -99,6 +99,14 @@ public class TerminalOptionsInputValidator {
                     break;
             }
         }
+        if(input.hasOption(TerminalOptionsBuilder.Params.priority.name())) {
+            final String arg = input.getOptionValue(TerminalOptionsBuilder.Params.priority.name());
+            if(Arrays.stream(Transfer.Priority.values()).noneMatch(p -> p.name().equals(arg))) {
+                console.printf("Invalid argument '%s' for option %s. Must be one of %s%n",
+                    arg, TerminalOptionsBuilder.Params.priority.name(), Arrays.toString(Transfer.Priority.values()));
+                return false;
+            }
+        }
         // Validate arguments
         switch(action) {
             case list:
@@ -81,6 +81,9 @@ public final class TerminalTransferFactory {
                 //
             }
         }
+        if(input.hasOption(TerminalOptionsBuilder.Params.priority.name())) {
+            transfer.setPriority(Transfer.Priority.valueOf(input.getOptionValue(TerminalOptionsBuilder.Params.priority.name())));
+        }
         return transfer;
     }
 }
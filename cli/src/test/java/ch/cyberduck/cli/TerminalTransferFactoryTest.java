@@ -47,6 +47,15 @@ public class TerminalTransferFactoryTest  {
         assertEquals(Transfer.Type.download, transfer.getType());
     }
 
+    @Test
+    public void testPriority() throws Exception {
+        final CommandLineParser parser = new PosixParser();
+
+        final Transfer transfer = new TerminalTransferFactory().create(parser.parse(TerminalOptionsBuilder.options(), new String[]{"--download", "rackspace://cdn.cyberduck.ch/remote", "--priority", "high"}),
+                new Host(new SwiftProtocol()), new Path("/remote", EnumSet.of(Path.Type.directory)), Collections.<TransferItem>emptyList());
+        assertEquals(Transfer.Priority.high, transfer.getPriority());
+    }
+
     @Test
     public void testFilter() throws Exception {
         final CommandLineParser parser = new PosixParser();
@@ -108,6 +108,14 @@ public class FSEventWatchService extends AbstractWatchService {
         return key;
     }
 
+    /**
+     * Event streams report changes in subdirectories with the path of the changed folder
+     */
+    @Override
+    public boolean isRecursive() {
+        return true;
+    }
+
     private final class CFRunLoop implements Runnable {
 
         private final CountDownLatch lock;
@@ -48,7 +48,7 @@ public class FinderLocalAttributes extends LocalAttributes {
     private final FinderLocal local;
 
     public FinderLocalAttributes(final FinderLocal local) {
-        super(local.getAbsolute());
+        super(local);
         this.local = local;
     }
 
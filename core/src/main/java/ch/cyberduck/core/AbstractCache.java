@@ -18,7 +18,7 @@ package ch.cyberduck.core;
  *  dkocher@cyberduck.ch
  */
 
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.StripedLRUCache;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,22 +28,45 @@ import java.util.Map;
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = LogManager.getLogger(AbstractCache.class);
 
-    private final LRUCache<CacheReference<T>, AttributedList<T>> impl;
+    private final StripedLRUCache<CacheReference<T>, AttributedList<T>> impl;
 
-    public AbstractCache(int size) {
-        if(size == Integer.MAX_VALUE) {
-            // Unlimited
-            impl = LRUCache.build();
-        }
-        else {
-            // Will inflate to the given size
-            impl = LRUCache.build(size);
-        }
+    /**
+     * @param size Maximum number of cached directory listings or Integer.MAX_VALUE for unlimited
+     */
+    public AbstractCache(final int size) {
+        this(size, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param size   Maximum number of cached directory listings or Integer.MAX_VALUE for unlimited
+     * @param weight Maximum estimated memory in bytes used by cached directory listings
+     */
+    public AbstractCache(final int size, final long weight) {
+        impl = new StripedLRUCache<>(size, weight, this::weigh);
+    }
+
+    /**
+     * Estimate memory used by directory listing
+     *
+     * @param reference Key
+     * @param children  Directory listing
+     * @return Weight in bytes
+     */
+    protected long weigh(final CacheReference<T> reference, final AttributedList<T> children) {
+        return 64L + 128L * children.size();
+    }
+
+    /**
+     * @param reference Key to store in cache
+     * @return Canonical instance of equal reference
+     */
+    protected CacheReference<T> intern(final CacheReference<T> reference) {
+        return reference;
     }
 
     @Override
     public T lookup(final CacheReference<T> reference) {
-        for(AttributedList<T> entry : impl.asMap().values()) {
+        for(AttributedList<T> entry : impl.values()) {
             final T f = entry.find(reference);
             if(null == f) {
                 continue;
@@ -84,8 +107,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
      * @return The previously cached directory listing
      */
     public AttributedList<T> remove(final T key) {
-        final AttributedList<T> removed = impl.get(this.reference(key));
-        impl.remove(this.reference(key));
+        final AttributedList<T> removed = impl.remove(this.reference(key));
         if(null == removed) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -96,8 +118,6 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
     /**
      * @param key Absolute path
      * @return An empty list if no cached file listing is available
-     * @throws java.util.ConcurrentModificationException If the caller is iterating of the cache himself
-     *                                                   and requests a new filter here.
      */
     public AttributedList<T> get(final T key) {
         final AttributedList<T> children = impl.get(this.reference(key));
@@ -115,8 +135,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
      */
     public AttributedList<T> put(final T key, final AttributedList<T> children) {
         log.debug("Caching {}", key);
-        final AttributedList<T> replaced = impl.get(this.reference(key));
-        impl.put(this.reference(key), children);
+        final AttributedList<T> replaced = impl.put(this.intern(this.reference(key)), children);
         if(null == replaced) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -159,10 +178,42 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         impl.clear();
     }
 
+    /**
+     * @return Estimated memory in bytes used by cached directory listings
+     */
+    public long weight() {
+        return impl.weight();
+    }
+
+    /**
+     * @return Number of lookups for directory listings found in cache
+     */
+    public long getHitCount() {
+        return impl.getHitCount();
+    }
+
+    /**
+     * @return Number of lookups for directory listings not found in cache
+     */
+    public long getMissCount() {
+        return impl.getMissCount();
+    }
+
+    /**
+     * @return Number of directory listings removed from cache to stay within limits
+     */
+    public long getEvictionCount() {
+        return impl.getEvictionCount();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Cache{");
         sb.append("size=").append(impl.size());
+        sb.append(", weight=").append(impl.weight());
+        sb.append(", hits=").append(impl.getHitCount());
+        sb.append(", misses=").append(impl.getMissCount());
+        sb.append(", evictions=").append(impl.getEvictionCount());
         sb.append('}');
         return sb.toString();
     }
@@ -21,23 +21,40 @@ package ch.cyberduck.core;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
- * A sortable list with a map to lookup values by key.
+ * A sortable list with a map to lookup values by key. Readers iterate over a snapshot not affected by concurrent
+ * modifications. Appending does not copy previous elements. Lookup by element or by a cache reference providing an
+ * index key does not require iterating all elements.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = LogManager.getLogger(AttributedList.class);
 
+    /**
+     * Index of elements for lookup by equality with key not depending on mutable attributes of path
+     */
+    private static final Function<Object, Object> EQUALITY = e -> e instanceof Path ? PathIndexer.sensitive.apply((Path) e) : e;
+
+    /**
+     * Placeholder for null key in index
+     */
+    private static final Object NULL_KEY = new Object();
+
     public static final AttributedList EMPTY = new AttributedList() {
         @Override
         public boolean add(final Referenceable o) {
@@ -55,8 +72,15 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         }
     };
 
-    private final List<E> impl
-            = new CopyOnWriteArrayList<>();
+    /**
+     * Guard modifications
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Elements visible to readers replaced on modification
+     */
+    private volatile Snapshot<E> snapshot = new Snapshot<>(new Object[0], 0);
 
     /**
      * Metadata of file listing
@@ -75,8 +99,14 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @param collection Default content
      */
     public AttributedList(final Iterable<E> collection) {
-        for(E e : collection) {
-            this.add(e);
+        if(collection instanceof AttributedList) {
+            final Snapshot<E> other = ((AttributedList<E>) collection).snapshot;
+            snapshot = new Snapshot<>(Arrays.copyOf(other.elements, other.size), other.size);
+        }
+        else {
+            for(E e : collection) {
+                this.add(e);
+            }
         }
     }
 
@@ -95,11 +125,39 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean add(final E e) {
-        return impl.add(e);
+        synchronized(lock) {
+            final Snapshot<E> current = snapshot;
+            Object[] elements = current.elements;
+            if(current.size == elements.length) {
+                // Previous snapshots keep reference to smaller array
+                elements = Arrays.copyOf(elements, Math.max(16, elements.length + (elements.length >> 1)));
+            }
+            // Slot is not visible to previous snapshots
+            elements[current.size] = e;
+            for(Map.Entry<Function<? super E, ?>, Map<Object, int[]>> index : current.indexes.entrySet()) {
+                index(index.getValue(), index.getKey().apply(e), current.size);
+            }
+            snapshot = new Snapshot<>(elements, current.size + 1, current.indexes);
+            return true;
+        }
     }
 
     public void add(final int index, final E e) {
-        impl.add(index, e);
+        synchronized(lock) {
+            final Snapshot<E> current = snapshot;
+            if(index == current.size) {
+                this.add(e);
+                return;
+            }
+            if(index < 0 || index > current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, current.size));
+            }
+            final Object[] elements = new Object[current.size + 1];
+            System.arraycopy(current.elements, 0, elements, 0, index);
+            elements[index] = e;
+            System.arraycopy(current.elements, index, elements, index + 1, current.size - index);
+            snapshot = new Snapshot<>(elements, elements.length);
+        }
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
@@ -110,24 +168,49 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public E get(final int index) {
-        return impl.get(index);
+        return snapshot.get(index);
     }
 
     public E get(final E reference) {
-        final int index = impl.indexOf(reference);
+        final Snapshot<E> current = snapshot;
+        final int index = this.indexOf(current, reference);
         if(-1 == index) {
             return null;
         }
-        return impl.get(index);
+        return current.get(index);
     }
 
     public void set(final int i, final E e) {
-        impl.set(i, e);
+        synchronized(lock) {
+            final Snapshot<E> current = snapshot;
+            if(i < 0 || i >= current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", i, current.size));
+            }
+            final Object[] elements = Arrays.copyOf(current.elements, current.size);
+            elements[i] = e;
+            snapshot = new Snapshot<>(elements, elements.length);
+        }
     }
 
     @Override
     public Iterator<E> iterator() {
-        return impl.iterator();
+        final Snapshot<E> current = snapshot;
+        return new Iterator<E>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < current.size;
+            }
+
+            @Override
+            public E next() {
+                if(cursor >= current.size) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(cursor++);
+            }
+        };
     }
 
     /**
@@ -156,7 +239,7 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @return Filtered list sorted with comparator. Does not modify this list but returns a copy instead.
      */
     public AttributedList<E> filter(final Comparator<E> comparator, final Filter<E> filter) {
-        return this.filter(new AttributedList<>(impl), comparator, filter);
+        return this.filter(new AttributedList<>(this), comparator, filter);
     }
 
     /**
@@ -165,14 +248,27 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @param filter     Filter
      * @return Filtered list
      */
+    @SuppressWarnings("unchecked")
     public AttributedList<E> filter(final AttributedList<E> filtered, final Comparator<E> comparator, final Filter<E> filter) {
-        if(null != comparator) {
-            log.debug("Sort list {} with comparator {}", this, comparator);
-            filtered.impl.sort(comparator);
-        }
-        if(null != filter) {
-            log.debug("Filter list {} with filter {}", this, filter);
-            filtered.impl.removeIf(e -> !filter.accept(e));
+        synchronized(filtered.lock) {
+            final Snapshot<E> current = filtered.snapshot;
+            final Object[] elements = Arrays.copyOf(current.elements, current.size);
+            if(null != comparator) {
+                log.debug("Sort list {} with comparator {}", this, comparator);
+                Arrays.sort(elements, (Comparator) comparator);
+            }
+            int size = elements.length;
+            if(null != filter) {
+                log.debug("Filter list {} with filter {}", this, filter);
+                size = 0;
+                for(Object e : elements) {
+                    if(filter.accept((E) e)) {
+                        elements[size++] = e;
+                    }
+                }
+                Arrays.fill(elements, size, elements.length, null);
+            }
+            filtered.snapshot = new Snapshot<>(elements, size);
         }
         return filtered;
     }
@@ -181,57 +277,264 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * Clear the list and all references.
      */
     public void clear() {
-        impl.clear();
+        synchronized(lock) {
+            snapshot = new Snapshot<>(new Object[0], 0);
+        }
     }
 
     public boolean isEmpty() {
-        return impl.isEmpty();
+        return snapshot.size == 0;
     }
 
     public int size() {
-        return impl.size();
+        return snapshot.size;
     }
 
     public boolean contains(final E e) {
-        return impl.contains(e);
+        return -1 != this.indexOf(e);
     }
 
+    /**
+     * Lookup in index if predicate is a cache reference providing a key for elements
+     *
+     * @param predicate Condition
+     * @return First element in list matching predicate or null
+     */
+    @SuppressWarnings("unchecked")
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        final Snapshot<E> current = snapshot;
+        if(predicate instanceof CacheReference) {
+            final CacheReference<E> reference = (CacheReference<E>) predicate;
+            final Function<E, ?> indexer = reference.indexer();
+            if(null != indexer) {
+                final int index = this.first(current, indexer, reference.key(), predicate);
+                if(-1 == index) {
+                    return null;
+                }
+                return current.get(index);
+            }
+        }
+        for(int i = 0; i < current.size; i++) {
+            final E e = current.get(i);
+            if(predicate.test(e)) {
+                return e;
+            }
+        }
+        return null;
     }
 
+    /**
+     * Lookup in index if predicate is a cache reference providing a key for elements
+     *
+     * @param predicate Condition
+     * @return All elements in list matching predicate
+     */
+    @SuppressWarnings("unchecked")
     public Set<E> findAll(final Predicate<E> predicate) {
-        return impl.stream().filter(predicate).collect(Collectors.toSet());
+        final Snapshot<E> current = snapshot;
+        final Set<E> found = new HashSet<>();
+        if(predicate instanceof CacheReference) {
+            final CacheReference<E> reference = (CacheReference<E>) predicate;
+            final Function<E, ?> indexer = reference.indexer();
+            if(null != indexer) {
+                final int[] positions = this.index(current, indexer).get(null == reference.key() ? NULL_KEY : reference.key());
+                if(null != positions) {
+                    for(int position : positions) {
+                        if(position >= current.size) {
+                            break;
+                        }
+                        final E e = current.get(position);
+                        if(predicate.test(e)) {
+                            found.add(e);
+                        }
+                    }
+                }
+                return found;
+            }
+        }
+        for(int i = 0; i < current.size; i++) {
+            final E e = current.get(i);
+            if(predicate.test(e)) {
+                found.add(e);
+            }
+        }
+        return found;
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        final Snapshot<E> current = snapshot;
+        return (E[]) Arrays.copyOf(current.elements, current.size, Referenceable[].class);
     }
 
+    /**
+     * @return Unmodifiable snapshot of elements
+     */
     public List<E> toList() {
-        return impl;
+        return snapshot;
     }
 
     public Stream<E> toStream() {
-        return impl.parallelStream();
+        return snapshot.parallelStream();
     }
 
     public int indexOf(final E e) {
-        return impl.indexOf(e);
+        return this.indexOf(snapshot, e);
+    }
+
+    private int indexOf(final Snapshot<E> current, final E e) {
+        if(e instanceof Path || e instanceof Local) {
+            return this.first(current, EQUALITY, EQUALITY.apply(e), f -> e.equals(f));
+        }
+        return current.indexOf(e);
     }
 
     public void remove(final int index) {
-        impl.remove(index);
+        synchronized(lock) {
+            final Snapshot<E> current = snapshot;
+            if(index < 0 || index >= current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, current.size));
+            }
+            final Object[] elements = new Object[current.size - 1];
+            System.arraycopy(current.elements, 0, elements, 0, index);
+            System.arraycopy(current.elements, index + 1, elements, index, current.size - index - 1);
+            snapshot = new Snapshot<>(elements, elements.length);
+        }
     }
 
     public boolean remove(final E e) {
-        return impl.remove(e);
+        synchronized(lock) {
+            final int index = this.indexOf(e);
+            if(-1 == index) {
+                return false;
+            }
+            this.remove(index);
+            return true;
+        }
+    }
+
+    public boolean removeAll(final Collection<E> e) {
+        synchronized(lock) {
+            final Snapshot<E> current = snapshot;
+            final Object[] elements = new Object[current.size];
+            int size = 0;
+            for(int i = 0; i < current.size; i++) {
+                if(!e.contains(current.elements[i])) {
+                    elements[size++] = current.elements[i];
+                }
+            }
+            if(size == current.size) {
+                return false;
+            }
+            snapshot = new Snapshot<>(elements, size);
+            return true;
+        }
+    }
+
+    /**
+     * @param current   Snapshot
+     * @param indexer   Compute key of element
+     * @param key       Key to lookup
+     * @param predicate Condition element must satisfy
+     * @return Position of first element in snapshot with key or -1
+     */
+    private int first(final Snapshot<E> current, final Function<? super E, ?> indexer, final Object key, final Predicate<E> predicate) {
+        final int[] positions = this.index(current, indexer).get(null == key ? NULL_KEY : key);
+        if(null == positions) {
+            return -1;
+        }
+        for(int position : positions) {
+            if(position >= current.size) {
+                // Appended after snapshot
+                break;
+            }
+            if(predicate.test(current.get(position))) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build index on first use and keep it updated when appending elements
+     *
+     * @param current Snapshot
+     * @param indexer Compute key of element
+     * @return Positions by key
+     */
+    private Map<Object, int[]> index(final Snapshot<E> current, final Function<? super E, ?> indexer) {
+        Map<Object, int[]> index = current.indexes.get(indexer);
+        if(null != index) {
+            return index;
+        }
+        synchronized(lock) {
+            index = current.indexes.get(indexer);
+            if(null != index) {
+                return index;
+            }
+            final Snapshot<E> latest = snapshot;
+            if(latest.indexes != current.indexes) {
+                // Snapshot outdated by modification other than appending
+                return build(current, indexer);
+            }
+            index = build(latest, indexer);
+            // Shared with snapshots appending to the same elements
+            latest.indexes.put(indexer, index);
+            return index;
+        }
+    }
+
+    private static <E> Map<Object, int[]> build(final Snapshot<E> snapshot, final Function<? super E, ?> indexer) {
+        final Map<Object, int[]> index = new ConcurrentHashMap<>(Math.max(16, snapshot.size * 4 / 3 + 1));
+        for(int i = 0; i < snapshot.size; i++) {
+            index(index, indexer.apply(snapshot.get(i)), i);
+        }
+        return index;
     }
 
-    public boolean removeAll(final java.util.Collection<E> e) {
-        return impl.removeAll(e);
+    private static void index(final Map<Object, int[]> index, final Object key, final int position) {
+        // Replace array to publish positions to concurrent readers
+        index.merge(null == key ? NULL_KEY : key, new int[]{position}, (previous, value) -> {
+            final int[] positions = Arrays.copyOf(previous, previous.length + 1);
+            positions[previous.length] = position;
+            return positions;
+        });
+    }
+
+    /**
+     * Elements with positions below size are never modified
+     */
+    private static final class Snapshot<E> extends AbstractList<E> {
+        private final Object[] elements;
+        private final int size;
+        /**
+         * Positions of elements by key for every indexer in use
+         */
+        private final Map<Function<? super E, ?>, Map<Object, int[]>> indexes;
+
+        private Snapshot(final Object[] elements, final int size) {
+            this(elements, size, new ConcurrentHashMap<>());
+        }
+
+        private Snapshot(final Object[] elements, final int size, final Map<Function<? super E, ?>, Map<Object, int[]>> indexes) {
+            this.elements = elements;
+            this.size = size;
+            this.indexes = indexes;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(final int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, size));
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 
     @Override
@@ -243,11 +546,11 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
             return false;
         }
         final AttributedList<?> that = (AttributedList<?>) o;
-        return Objects.equals(impl, that.impl);
+        return Objects.equals(snapshot, that.snapshot);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(impl);
+        return Objects.hash(snapshot);
     }
 }
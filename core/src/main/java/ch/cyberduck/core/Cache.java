@@ -72,6 +72,15 @@ public interface Cache<T extends Referenceable> {
      */
     AttributedList<T> remove(T parent);
 
+    /**
+     * Remove from cache without retrieving the previously cached directory listing
+     *
+     * @param parent Directory
+     */
+    default void delete(T parent) {
+        this.remove(parent);
+    }
+
     /**
      * Mark cached directory listing as out of date
      *
@@ -18,8 +18,25 @@ package ch.cyberduck.core;
  * dkocher@cyberduck.ch
  */
 
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 public interface CacheReference<T> extends Predicate<T> {
-    // Marker only
+
+    /**
+     * Allow lookup in index of attributed list instead of testing all elements
+     *
+     * @return Shared function to compute key of element or null if not supported
+     * @see #key()
+     */
+    default Function<T, ?> indexer() {
+        return null;
+    }
+
+    /**
+     * @return Key equal to key computed by indexer for all elements accepted by this predicate
+     */
+    default Object key() {
+        return null;
+    }
 }
\ No newline at end of file
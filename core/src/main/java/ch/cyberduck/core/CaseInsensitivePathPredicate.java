@@ -20,6 +20,8 @@ import ch.cyberduck.core.unicode.UnicodeNormalizer;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.function.Function;
+
 public final class CaseInsensitivePathPredicate extends SimplePathPredicate {
 
     private static final UnicodeNormalizer normalizer = new NFCNormalizer();
@@ -33,4 +35,9 @@ public final class CaseInsensitivePathPredicate extends SimplePathPredicate {
     public boolean test(final Path test) {
         return this.equals(new CaseInsensitivePathPredicate(test));
     }
+
+    @Override
+    public Function<Path, ?> indexer() {
+        return PathIndexer.insensitive;
+    }
 }
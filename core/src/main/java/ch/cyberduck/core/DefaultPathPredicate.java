@@ -23,6 +23,8 @@ import ch.cyberduck.core.unicode.UnicodeNormalizer;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.function.Function;
+
 /**
  * Path predicate that takes the region and version id of the path into account for comparisons.
  */
@@ -30,6 +32,7 @@ public class DefaultPathPredicate implements CacheReference<Path> {
 
     private static final UnicodeNormalizer normalizer = new NFCNormalizer();
 
+    private final String path;
     private final String reference;
 
     public DefaultPathPredicate(final Path file) {
@@ -48,7 +51,8 @@ public class DefaultPathPredicate implements CacheReference<Path> {
                 qualifier += file.attributes().getVersionId();
             }
         }
-        reference = "[" + type + "]" + "-" + qualifier + normalizer.normalize(file.getAbsolute());
+        path = normalizer.normalize(file.getAbsolute()).toString();
+        reference = "[" + type + "]" + "-" + qualifier + path;
     }
 
     /**
@@ -86,4 +90,14 @@ public class DefaultPathPredicate implements CacheReference<Path> {
     public boolean test(final Path test) {
         return this.equals(new DefaultPathPredicate(test));
     }
+
+    @Override
+    public Function<Path, ?> indexer() {
+        return PathIndexer.sensitive;
+    }
+
+    @Override
+    public Object key() {
+        return path;
+    }
 }
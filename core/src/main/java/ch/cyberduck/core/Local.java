@@ -22,6 +22,8 @@ import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LocalNotfoundException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.ChannelOutputStream;
+import ch.cyberduck.core.io.SeekableByteChannelInputStream;
 import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.TildeExpander;
 import ch.cyberduck.core.local.WorkdirPrefixer;
@@ -39,13 +41,11 @@ import org.apache.logging.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
-import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystemException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.LinkOption;
@@ -55,6 +55,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.text.MessageFormat;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -69,6 +71,11 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      */
     private String path;
 
+    /**
+     * Attributes read with a single stat when listed in parent directory. Null if not read or invalidated.
+     */
+    private transient volatile BasicFileAttributes snapshot;
+
     public Local(final String parent, final String name) {
         this(parent, name, PreferencesFactory.get().getProperty("local.delimiter"));
     }
@@ -146,6 +153,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @see Local#exists()
      */
     public boolean isDirectory() {
+        final BasicFileAttributes attributes = this.target();
+        if(null != attributes) {
+            return attributes.isDirectory();
+        }
         return Paths.get(path).toFile().isDirectory();
     }
 
@@ -155,6 +166,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @see Local#exists()
      */
     public boolean isFile() {
+        final BasicFileAttributes attributes = this.target();
+        if(null != attributes) {
+            return attributes.isRegularFile();
+        }
         return Paths.get(path).toFile().isFile();
     }
 
@@ -164,6 +179,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @return true if the file is a symbolic link.
      */
     public boolean isSymbolicLink() {
+        final BasicFileAttributes attributes = snapshot;
+        if(null != attributes) {
+            return attributes.isSymbolicLink();
+        }
         return Files.isSymbolicLink(Paths.get(path));
     }
 
@@ -197,7 +216,55 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     public LocalAttributes attributes() {
-        return new LocalAttributes(path);
+        return new LocalAttributes(this);
+    }
+
+    /**
+     * @return Attributes of file not following symbolic links read when listed or null if not available
+     */
+    public BasicFileAttributes getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Read attributes with single stat of file to answer type and attribute queries until invalidated
+     *
+     * @return Null if attributes cannot be read
+     */
+    public BasicFileAttributes snapshot() {
+        snapshot = snapshot(Paths.get(path));
+        return snapshot;
+    }
+
+    /**
+     * Discard attributes read with last stat of file. Must be called when the file is modified.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * @return Snapshot of attributes unless file is a symbolic link and attributes of target are required
+     */
+    private BasicFileAttributes target() {
+        final BasicFileAttributes attributes = snapshot;
+        if(null == attributes || attributes.isSymbolicLink()) {
+            return null;
+        }
+        return attributes;
+    }
+
+    private static BasicFileAttributes snapshot(final Path file) {
+        try {
+            if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                return Files.readAttributes(file, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            }
+            return Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+        catch(IOException | UnsupportedOperationException e) {
+            log.warn("Failure reading attributes of {}. {}", file, e.getMessage());
+            return null;
+        }
     }
 
     @Override
@@ -206,6 +273,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     public void mkdir() throws AccessDeniedException {
+        this.invalidate();
         new DefaultLocalDirectoryFeature().mkdir(this);
     }
 
@@ -213,6 +281,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * Delete the file
      */
     public void delete() throws AccessDeniedException, NotfoundException {
+        this.invalidate();
         try {
             Files.delete(Paths.get(path));
         }
@@ -229,6 +298,9 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         return this.list(path, filter);
     }
 
+    /**
+     * List directory with attributes of each child read with a single stat
+     */
     public AttributedList<Local> list(final String path, final Filter<String> filter) throws AccessDeniedException {
         final AttributedList<Local> children = new AttributedList<>();
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(path), new DirectoryStream.Filter<Path>() {
@@ -242,7 +314,9 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         })) {
             try {
                 for(Path entry : stream) {
-                    children.add(LocalFactory.get(entry.toString()));
+                    final Local child = LocalFactory.get(entry.toString());
+                    child.snapshot = snapshot(entry);
+                    children.add(child);
                 }
             }
             catch(DirectoryIteratorException e) {
@@ -338,6 +412,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @return True if the path exists on the file system.
      */
     public boolean exists(LinkOption... options) {
+        final BasicFileAttributes attributes = options.length == 0 ? this.target() : snapshot;
+        if(null != attributes) {
+            return true;
+        }
         if(options.length == 0) {
             return Paths.get(path).toFile().exists();
         }
@@ -345,6 +423,8 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     public void rename(final Local renamed) throws AccessDeniedException {
+        this.invalidate();
+        renamed.invalidate();
         try {
             try {
                 Files.move(Paths.get(path), Paths.get(renamed.getAbsolute()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
@@ -374,6 +454,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         }
         else {
             log.debug("Copy to {} with options {}", copy, options);
+            copy.invalidate();
             FileChannel in = null;
             FileChannel out = null;
             try {
@@ -454,11 +535,39 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     protected OutputStream getOutputStream(final String path, final boolean append) throws AccessDeniedException {
-        return Channels.newOutputStream(getWriteChannel(path, append, !this.exists()));
+        this.invalidate();
+        return new ChannelOutputStream(getWriteChannel(path, append, !this.exists()));
     }
 
     public OutputStream getOutputStream(final boolean append) throws AccessDeniedException {
-        return Channels.newOutputStream(getWriteChannel(path, append, !this.exists()));
+        this.invalidate();
+        return new ChannelOutputStream(getWriteChannel(path, append, !this.exists()));
+    }
+
+    protected OutputStream getOutputStream(final String path, final long offset) throws AccessDeniedException {
+        this.invalidate();
+        return new ChannelOutputStream(getWriteChannel(path, offset));
+    }
+
+    /**
+     * Open file for writing at position without truncating existing content
+     *
+     * @param offset Position in file
+     */
+    public OutputStream getOutputStream(final long offset) throws AccessDeniedException {
+        this.invalidate();
+        return new ChannelOutputStream(getWriteChannel(path, offset));
+    }
+
+    private static FileChannel getWriteChannel(final String path, final long offset) throws LocalAccessDeniedException {
+        try {
+            final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            channel.position(offset);
+            return channel;
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
     }
 
     private static FileChannel getWriteChannel(final String path, final boolean append, final boolean create) throws LocalAccessDeniedException {
@@ -540,72 +649,4 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         sb.append('}');
         return sb.toString();
     }
-
-    private static final class SeekableByteChannelInputStream extends InputStream {
-        private final SeekableByteChannel channel;
-        private long markPosition = 0L;
-
-        public SeekableByteChannelInputStream(final SeekableByteChannel channel) {
-            this.channel = channel;
-        }
-
-        @Override
-        public int read() throws IOException {
-            final ByteBuffer buffer = ByteBuffer.wrap(new byte[1]);
-            final int bytesRead = channel.read(buffer);
-            if(bytesRead > 0) {
-                buffer.position(0);
-                return Byte.toUnsignedInt(buffer.get());
-            }
-            else {
-                return -1;
-            }
-        }
-
-        @Override
-        public int read(final byte[] b, final int off, final int len) throws IOException {
-            final ByteBuffer buffer = ByteBuffer.wrap(b);
-            buffer.position(off);
-            buffer.limit(off + len);
-            final int bytesRead = channel.read(buffer);
-            if(bytesRead > 0) {
-                return bytesRead;
-            }
-            else {
-                return -1;
-            }
-        }
-
-        @Override
-        public long skip(final long n) throws IOException {
-            channel.position(channel.position() + n);
-            return channel.position();
-        }
-
-        @Override
-        public boolean markSupported() {
-            return true;
-        }
-
-        @Override
-        public void mark(final int readlimit) {
-            try {
-                markPosition = channel.position();
-            }
-            catch(final IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-        @Override
-        public void reset() throws IOException {
-            channel.position(markPosition);
-            markPosition = 0;
-        }
-
-        @Override
-        public void close() throws IOException {
-            channel.close();
-        }
-    }
 }
@@ -38,13 +38,50 @@ public class LocalAttributes extends Attributes {
     private static final Logger log = LogManager.getLogger(LocalAttributes.class);
 
     private final String path;
+    /**
+     * File with attributes read when listed or null
+     */
+    private final Local local;
 
     public LocalAttributes(final String path) {
         this.path = path;
+        this.local = null;
+    }
+
+    /**
+     * @param local File with attributes to answer queries from when read with a single stat of the file
+     */
+    public LocalAttributes(final Local local) {
+        this.path = local.getAbsolute();
+        this.local = local;
+    }
+
+    /**
+     * @return Attributes read when listed unless file is a symbolic link or null if not available
+     */
+    private BasicFileAttributes snapshot() {
+        if(null == local) {
+            return null;
+        }
+        final BasicFileAttributes attributes = local.getSnapshot();
+        if(null == attributes || attributes.isSymbolicLink()) {
+            return null;
+        }
+        return attributes;
+    }
+
+    private void invalidate() {
+        if(null != local) {
+            local.invalidate();
+        }
     }
 
     @Override
     public long getModificationDate() {
+        final BasicFileAttributes attributes = this.snapshot();
+        if(null != attributes) {
+            return attributes.lastModifiedTime().toMillis();
+        }
         try {
             return Files.getLastModifiedTime(Paths.get(path)).toMillis();
         }
@@ -74,6 +111,7 @@ public class LocalAttributes extends Attributes {
         if(timestamp < 0) {
             return;
         }
+        this.invalidate();
         try {
             Files.setLastModifiedTime(Paths.get(path), FileTime.fromMillis(timestamp));
         }
@@ -84,6 +122,10 @@ public class LocalAttributes extends Attributes {
 
     @Override
     public long getSize() {
+        final BasicFileAttributes attributes = this.snapshot();
+        if(null != attributes) {
+            return attributes.size();
+        }
         try {
             return Files.size(Paths.get(path));
         }
@@ -93,10 +135,34 @@ public class LocalAttributes extends Attributes {
         }
     }
 
+    /**
+     * @return Identifier of file on disk such as device and inode or null if not supported by file system
+     */
+    public String getFileKey() {
+        try {
+            final BasicFileAttributes attributes = this.snapshot();
+            final Object key = null != attributes ? attributes.fileKey() : Files.readAttributes(Paths.get(path), BasicFileAttributes.class).fileKey();
+            if(null == key) {
+                return null;
+            }
+            return key.toString();
+        }
+        catch(IOException e) {
+            log.warn("Failure getting file key of {}. {}", path, e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public Permission getPermission() {
         if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
-            final BasicFileAttributes attributes;
+            if(null != local) {
+                // Permissions of symbolic link itself
+                final BasicFileAttributes attributes = local.getSnapshot();
+                if(attributes instanceof PosixFileAttributes) {
+                    return new LocalPermission(PosixFilePermissions.toString(((PosixFileAttributes) attributes).permissions()));
+                }
+            }
             try {
                 return new LocalPermission(PosixFilePermissions.toString(Files.readAttributes(Paths.get(path), PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS).permissions()));
             }
@@ -109,6 +175,7 @@ public class LocalAttributes extends Attributes {
 
     public void setPermission(final Permission permission) throws AccessDeniedException {
         if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            this.invalidate();
             try {
                 Files.setPosixFilePermissions(Paths.get(path), PosixFilePermissions.fromString(permission.getSymbol()));
             }
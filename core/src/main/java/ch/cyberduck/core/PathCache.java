@@ -19,10 +19,23 @@ package ch.cyberduck.core;
 
 import ch.cyberduck.core.features.Home;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 public class PathCache extends AbstractCache<Path> {
 
     private static final CacheReference<Path> NULL_KEY = new DefaultPathPredicate(Home.ROOT);
 
+    /**
+     * Share equal keys between all caches
+     */
+    private static final Interner<CacheReference<Path>> interner = Interners.newWeakInterner();
+
+    /**
+     * Estimated fixed size of path with attributes excluding strings
+     */
+    private static final long PATH_OVERHEAD = 384L;
+
     private static final PathCache EMPTY = new PathCache(0) {
         @Override
         public AttributedList<Path> put(final Path key, final AttributedList<Path> children) {
@@ -38,6 +51,14 @@ public class PathCache extends AbstractCache<Path> {
         super(size);
     }
 
+    /**
+     * @param size   Maximum number of cached directory listings
+     * @param weight Maximum estimated memory in bytes used by cached directory listings
+     */
+    public PathCache(final int size, final long weight) {
+        super(size, weight);
+    }
+
     @Override
     public CacheReference<Path> reference(final Path file) {
         if(null == file) {
@@ -45,4 +66,22 @@ public class PathCache extends AbstractCache<Path> {
         }
         return new DefaultPathPredicate(file);
     }
+
+    @Override
+    protected CacheReference<Path> intern(final CacheReference<Path> reference) {
+        if(reference instanceof DefaultPathPredicate) {
+            return interner.intern(reference);
+        }
+        return reference;
+    }
+
+    @Override
+    protected long weigh(final CacheReference<Path> reference, final AttributedList<Path> children) {
+        long weight = PATH_OVERHEAD + 2L * reference.toString().length();
+        for(Path child : children) {
+            // Characters in absolute path
+            weight += PATH_OVERHEAD + 2L * child.getAbsolute().length();
+        }
+        return weight;
+    }
 }
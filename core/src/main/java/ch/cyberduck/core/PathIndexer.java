@@ -0,0 +1,49 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.function.Function;
+
+/**
+ * Key of path in index of attributed list regardless of type and attributes
+ */
+public enum PathIndexer implements Function<Path, String> {
+    /**
+     * Normalized absolute path
+     */
+    sensitive {
+        @Override
+        public String apply(final Path file) {
+            return normalizer.normalize(file.getAbsolute()).toString();
+        }
+    },
+    /**
+     * Normalized absolute path in lower case
+     */
+    insensitive {
+        @Override
+        public String apply(final Path file) {
+            return StringUtils.lowerCase(normalizer.normalize(file.getAbsolute()).toString());
+        }
+    };
+
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+}
@@ -20,6 +20,8 @@ import ch.cyberduck.core.unicode.UnicodeNormalizer;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.function.Function;
+
 public class SimplePathPredicate implements CacheReference<Path> {
 
     private static final UnicodeNormalizer normalizer = new NFCNormalizer();
@@ -59,6 +61,16 @@ public class SimplePathPredicate implements CacheReference<Path> {
         return this.equals(new SimplePathPredicate(test));
     }
 
+    @Override
+    public Function<Path, ?> indexer() {
+        return PathIndexer.sensitive;
+    }
+
+    @Override
+    public Object key() {
+        return path;
+    }
+
     /**
      * @param directory Parent directory
      * @return True if this is child of parameter based on path comparison
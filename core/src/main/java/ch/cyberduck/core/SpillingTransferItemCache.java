@@ -0,0 +1,297 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.serializer.TransferItemDictionary;
+import ch.cyberduck.core.serializer.impl.dd.PlistDeserializer;
+import ch.cyberduck.core.serializer.impl.dd.PlistSerializer;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Cache for files pending transfer writing directory listings to a temporary file when the number of items kept in
+ * memory exceeds a threshold. Listings are written in the format used to save transfers and only if all files can be
+ * restored from their serialized form without losing attributes. Files read from disk are restored with the
+ * original parent directory. Failure reading a listing back from disk is thrown as {@link UncheckedIOException} instead
+ * of returning an empty listing that would skip its files.
+ */
+public class SpillingTransferItemCache extends TransferItemCache {
+    private static final Logger log = LogManager.getLogger(SpillingTransferItemCache.class);
+
+    private final DeserializerFactory<NSDictionary> factory = new DeserializerFactory<>(PlistDeserializer.class);
+
+    /**
+     * Maximum number of files in directory listings kept in memory
+     */
+    private final long threshold;
+
+    /**
+     * Number of files in directory listings kept in memory
+     */
+    private final AtomicLong items = new AtomicLong();
+
+    /**
+     * Offset in temporary file to write next listing
+     */
+    private final AtomicLong position = new AtomicLong();
+
+    /**
+     * Directory listings written to temporary file
+     */
+    private final Map<CacheReference<TransferItem>, Extent> spilled = new ConcurrentHashMap<>();
+
+    /**
+     * Temporary file deleted when closed
+     */
+    private FileChannel channel;
+
+    /**
+     * @param size      Maximum number of cached directory listings or Integer.MAX_VALUE for unlimited
+     * @param threshold Number of files in directory listings kept in memory before writing further listings to disk
+     */
+    public SpillingTransferItemCache(final int size, final long threshold) {
+        super(size);
+        this.threshold = threshold;
+    }
+
+    @Override
+    public AttributedList<TransferItem> put(final TransferItem key, final AttributedList<TransferItem> children) {
+        final Extent previous = spilled.remove(this.reference(key));
+        if(items.get() + children.size() > threshold && this.isSerializable(children)) {
+            try {
+                final Extent extent = this.write(children);
+                log.debug("Wrote {} files in listing of {} to disk", children.size(), key);
+                spilled.put(this.reference(key), extent);
+                return null == previous ? this.evict(key) : this.read(previous);
+            }
+            catch(IOException e) {
+                log.warn("Failure writing listing of {} to disk. {}", key, e.getMessage());
+            }
+        }
+        items.addAndGet(children.size());
+        final AttributedList<TransferItem> replaced = super.put(key, children);
+        items.addAndGet(-replaced.size());
+        return null == previous ? replaced : this.read(previous);
+    }
+
+    @Override
+    public AttributedList<TransferItem> get(final TransferItem key) {
+        final Extent extent = spilled.get(this.reference(key));
+        if(null == extent) {
+            return super.get(key);
+        }
+        return this.read(extent);
+    }
+
+    @Override
+    public AttributedList<TransferItem> remove(final TransferItem key) {
+        final Extent extent = spilled.remove(this.reference(key));
+        if(null == extent) {
+            return this.evict(key);
+        }
+        return this.read(extent);
+    }
+
+    @Override
+    public void delete(final TransferItem key) {
+        if(null == spilled.remove(this.reference(key))) {
+            this.evict(key);
+        }
+    }
+
+    /**
+     * Remove listing kept in memory
+     */
+    private AttributedList<TransferItem> evict(final TransferItem key) {
+        final AttributedList<TransferItem> removed = super.remove(key);
+        items.addAndGet(-removed.size());
+        return removed;
+    }
+
+    @Override
+    public boolean containsKey(final TransferItem key) {
+        return spilled.containsKey(this.reference(key)) || super.containsKey(key);
+    }
+
+    @Override
+    public long size() {
+        return super.size() + spilled.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return super.isEmpty() && spilled.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        spilled.clear();
+        items.set(0L);
+        synchronized(this) {
+            if(channel != null) {
+                try {
+                    channel.close();
+                }
+                catch(IOException e) {
+                    log.warn("Failure closing temporary file. {}", e.getMessage());
+                }
+                channel = null;
+                position.set(0L);
+            }
+        }
+    }
+
+    /**
+     * @return Number of directory listings written to disk
+     */
+    public long getSpillCount() {
+        return spilled.size();
+    }
+
+    /**
+     * @param children Directory listing
+     * @return False if any file has attributes or type not preserved when serialized
+     */
+    private boolean isSerializable(final AttributedList<TransferItem> children) {
+        if(children.isEmpty()) {
+            return false;
+        }
+        final Path parent = children.get(0).remote.getParent();
+        for(TransferItem item : children) {
+            if(item.remote.getClass() != Path.class) {
+                return false;
+            }
+            if(item.remote.getParent() != parent) {
+                return false;
+            }
+            final PathAttributes attributes = item.remote.attributes();
+            if(attributes.getVault() != null || attributes.getEncrypted() != null || attributes.getDecrypted() != null) {
+                return false;
+            }
+            if(attributes.getDirectoryId() != null || attributes.getVerdict() != null) {
+                return false;
+            }
+            if(!Encryption.Algorithm.NONE.equals(attributes.getEncryption()) || attributes.getAccessedDate() != -1) {
+                return false;
+            }
+            if(!attributes.getCustom().isEmpty() || !attributes.getMetadata().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Extent write(final AttributedList<TransferItem> children) throws IOException {
+        final NSArray list = new NSArray(children.size());
+        for(int i = 0; i < children.size(); i++) {
+            list.setValue(i, children.get(i).serialize(new PlistSerializer()));
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(BinaryPropertyListWriter.writeToArray(list));
+        final int length = buffer.remaining();
+        final long offset = position.getAndAdd(length);
+        final FileChannel temporary = this.open();
+        while(buffer.hasRemaining()) {
+            temporary.write(buffer, offset + length - buffer.remaining());
+        }
+        return new Extent(children.get(0).remote.getParent(), offset, length);
+    }
+
+    /**
+     * @throws UncheckedIOException Failure reading listing from temporary file
+     */
+    private AttributedList<TransferItem> read(final Extent extent) {
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate(extent.length);
+            final FileChannel temporary = this.open();
+            while(buffer.hasRemaining()) {
+                if(temporary.read(buffer, extent.offset + buffer.position()) < 0) {
+                    throw new IOException(String.format("Unexpected end of file reading %s", extent));
+                }
+            }
+            final NSObject[] list = ((NSArray) BinaryPropertyListParser.parse(buffer.array())).getArray();
+            final List<TransferItem> children = new ArrayList<>(list.length);
+            for(NSObject dict : list) {
+                final TransferItem item = new TransferItemDictionary<>(factory).deserialize((NSDictionary) dict);
+                // Restore with original parent directory
+                final Path file = new Path(extent.parent, item.remote.getName(), item.remote.getType(), item.remote.attributes());
+                file.setSymlinkTarget(item.remote.getSymlinkTarget());
+                children.add(new TransferItem(file, item.local));
+            }
+            return new AttributedList<>(children);
+        }
+        catch(IOException e) {
+            log.error("Failure reading listing {} from disk. {}", extent, e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        catch(PropertyListFormatException e) {
+            log.error("Failure parsing listing {} from disk. {}", extent, e.getMessage());
+            throw new UncheckedIOException(new IOException(e.getMessage(), e));
+        }
+    }
+
+    private synchronized FileChannel open() throws IOException {
+        if(null == channel) {
+            channel = FileChannel.open(Files.createTempFile("transfer", ".cache"),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            log.debug("Opened temporary file {} for directory listings", channel);
+        }
+        return channel;
+    }
+
+    private static final class Extent {
+        private final Path parent;
+        private final long offset;
+        private final int length;
+
+        private Extent(final Path parent, final long offset, final int length) {
+            this.parent = parent;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Extent{");
+            sb.append("parent=").append(parent);
+            sb.append(", offset=").append(offset);
+            sb.append(", length=").append(length);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
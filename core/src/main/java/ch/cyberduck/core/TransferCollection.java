@@ -94,6 +94,7 @@ public class TransferCollection extends Collection<Transfer> {
     @Override
     public void collectionItemRemoved(final Transfer transfer) {
         try {
+            transfer.close();
             this.getFile(transfer).delete();
             preferences.deleteProperty(String.format("%s%s", prefix, transfer.getUuid()));
         }
@@ -0,0 +1,348 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Least recently used cache partitioned into segments each guarded by its own lock to reduce contention with concurrent
+ * writers. Lookups do not block and record access order only if the segment lock is not contended. Entries are bounded
+ * by count and by total weight as calculated by the weigher. When a limit is exceeded the least recently used entries are
+ * evicted from the segment of the added entry first and then from the other segments. The most recently added entry is
+ * retained even if it exceeds the weight limit on its own.
+ *
+ * @param <Key>   Key type
+ * @param <Value> Cached value
+ */
+public class StripedLRUCache<Key, Value> {
+    private static final Logger log = LogManager.getLogger(StripedLRUCache.class);
+
+    private static final int DEFAULT_CONCURRENCY = 16;
+
+    private final Segment[] segments;
+    private final int shift;
+    private final ToLongBiFunction<Key, Value> weigher;
+
+    private final long maximumSize;
+    private final long maximumWeight;
+
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize   Maximum number of entries or Integer.MAX_VALUE for unlimited
+     * @param maximumWeight Maximum total weight or Long.MAX_VALUE for unlimited
+     * @param weigher       Calculate weight of entry
+     */
+    public StripedLRUCache(final long maximumSize, final long maximumWeight, final ToLongBiFunction<Key, Value> weigher) {
+        this(DEFAULT_CONCURRENCY, maximumSize, maximumWeight, weigher);
+    }
+
+    /**
+     * @param concurrency   Number of segments. Rounded down to power of two
+     * @param maximumSize   Maximum number of entries or Integer.MAX_VALUE for unlimited
+     * @param maximumWeight Maximum total weight or Long.MAX_VALUE for unlimited
+     * @param weigher       Calculate weight of entry
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLRUCache(final int concurrency, final long maximumSize, final long maximumWeight, final ToLongBiFunction<Key, Value> weigher) {
+        this.maximumSize = maximumSize <= 0 || maximumSize == Integer.MAX_VALUE ? Long.MAX_VALUE : maximumSize;
+        this.maximumWeight = maximumWeight <= 0 ? Long.MAX_VALUE : maximumWeight;
+        final int count = Integer.highestOneBit(Math.max(1, concurrency));
+        this.segments = new StripedLRUCache.Segment[count];
+        for(int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        // Select segment by high bits not used for bucket in segment table
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+        this.weigher = weigher;
+    }
+
+    private int index(final Object key) {
+        if(segments.length == 1) {
+            return 0;
+        }
+        // Spread hash code
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * @return Cached value or null and record hit or miss
+     */
+    public Value get(final Key key) {
+        final Value value = segments[this.index(key)].get(key);
+        if(null == value) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public boolean contains(final Key key) {
+        return null != segments[this.index(key)].get(key);
+    }
+
+    /**
+     * @return Previous value or null
+     */
+    public Value put(final Key key, final Value value) {
+        if(null == key) {
+            log.warn("Discard caching {}={}", key, value);
+            return null;
+        }
+        if(null == value) {
+            return this.remove(key);
+        }
+        final int index = this.index(key);
+        final Value previous = segments[index].put(key, value, weigher.applyAsLong(key, value));
+        if(this.isExceeded()) {
+            // Evict from segment of added entry first
+            for(int i = 0; i < segments.length && this.isExceeded(); i++) {
+                segments[(index + i) & (segments.length - 1)].evict(key);
+            }
+        }
+        return previous;
+    }
+
+    private boolean isExceeded() {
+        return size.get() > maximumSize || weight.get() > maximumWeight;
+    }
+
+    /**
+     * @return Removed value or null
+     */
+    public Value remove(final Key key) {
+        return segments[this.index(key)].remove(key);
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0L;
+    }
+
+    /**
+     * @return Sum of weights of all cached entries
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    public void clear() {
+        for(Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return Snapshot of cached values not affecting access order
+     */
+    public List<Value> values() {
+        final List<Value> values = new ArrayList<>();
+        for(Segment segment : segments) {
+            for(Entry entry : segment.table.values()) {
+                values.add(entry.value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return Unmodifiable snapshot of cached entries not affecting access order
+     */
+    public Map<Key, Value> asMap() {
+        final Map<Key, Value> snapshot = new HashMap<>();
+        for(Segment segment : segments) {
+            for(Map.Entry<Key, Entry> entry : segment.table.entrySet()) {
+                snapshot.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return Number of lookups returning a cached value
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of lookups without cached value
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of entries removed to stay within size or weight limit
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private final class Entry {
+        private final Value value;
+        private final long weight;
+
+        private Entry(final Value value, final long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Lookup without locking
+         */
+        private final Map<Key, Entry> table = new ConcurrentHashMap<>();
+        /**
+         * Entries in access order with least recently used first guarded by lock
+         */
+        private final LinkedHashMap<Key, Entry> order = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Value get(final Object key) {
+            final Entry entry = table.get(key);
+            if(null == entry) {
+                return null;
+            }
+            // Record access unless contended in which case order is approximate
+            if(lock.tryLock()) {
+                try {
+                    order.get(key);
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+            return entry.value;
+        }
+
+        private Value put(final Key key, final Value value, final long w) {
+            lock.lock();
+            try {
+                final Entry entry = new Entry(value, w);
+                final Entry previous = order.put(key, entry);
+                table.put(key, entry);
+                if(null == previous) {
+                    size.incrementAndGet();
+                    weight.addAndGet(w);
+                    return null;
+                }
+                weight.addAndGet(w - previous.weight);
+                return previous.value;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private Value remove(final Object key) {
+            lock.lock();
+            try {
+                final Entry previous = order.remove(key);
+                if(null == previous) {
+                    return null;
+                }
+                table.remove(key);
+                size.decrementAndGet();
+                weight.addAndGet(-previous.weight);
+                return previous.value;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Remove least recently used entries while limits are exceeded
+         *
+         * @param retain Most recently added key not to evict
+         */
+        private void evict(final Object retain) {
+            lock.lock();
+            try {
+                final Iterator<Map.Entry<Key, Entry>> iterator = order.entrySet().iterator();
+                while(isExceeded() && iterator.hasNext()) {
+                    final Map.Entry<Key, Entry> eldest = iterator.next();
+                    if(eldest.getKey().equals(retain)) {
+                        continue;
+                    }
+                    log.debug("Evict {} with weight {} from cache", eldest.getKey(), eldest.getValue().weight);
+                    iterator.remove();
+                    table.remove(eldest.getKey());
+                    size.decrementAndGet();
+                    weight.addAndGet(-eldest.getValue().weight);
+                    evictions.increment();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                for(Entry entry : order.values()) {
+                    size.decrementAndGet();
+                    weight.addAndGet(-entry.weight);
+                }
+                order.clear();
+                table.clear();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("StripedLRUCache{");
+        sb.append("segments=").append(segments.length);
+        sb.append(", size=").append(size);
+        sb.append(", weight=").append(weight);
+        sb.append(", hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append(", evictions=").append(evictions);
+        sb.append('}');
+        return sb.toString();
+    }
+}
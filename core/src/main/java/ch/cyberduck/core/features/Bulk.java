@@ -48,4 +48,12 @@ public interface Bulk<R> {
     void post(Transfer.Type type, Map<TransferItem, TransferStatus> files, ConnectionCallback callback) throws BackgroundException;
 
     Bulk<R> withDelete(Delete delete);
+
+    /**
+     * @return True if {@link #pre(Transfer.Type, Map, ConnectionCallback)} can be invoked for files individually
+     * instead of once with all files of a transfer
+     */
+    default boolean isIncremental() {
+        return false;
+    }
 }
@@ -55,6 +55,11 @@ public interface Search {
         /**
          * Support deleting directories recursively
          */
-        recursive
+        recursive,
+        /**
+         * Recursive search lists all files in directory tree and applies filter to listing. Search with a filter
+         * accepting all files returns all files in directory tree
+         */
+        listing
     }
 }
@@ -24,6 +24,8 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.vault.DisabledVault;
 import ch.cyberduck.core.vault.VaultCredentials;
 
+import java.util.List;
+
 public interface Vault {
 
     /**
@@ -76,6 +78,12 @@ public interface Vault {
      */
     Path decrypt(Session<?> session, Path file) throws BackgroundException;
 
+    /**
+     * @param files Encrypted files or directory metadata files from listing
+     * @return Decrypted human readable paths in order of files with null for files that failed to decrypt
+     */
+    List<Path> decrypt(Session<?> session, List<Path> files);
+
     long toCiphertextSize(final long cleartextFileOffset, long cleartextFileSize);
 
     long toCleartextSize(final long cleartextFileOffset, long ciphertextFileSize) throws BackgroundException;
@@ -0,0 +1,118 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of bandwidth throttles shared by all transfers. Throttles of transfers use the throttle for their host as
+ * parent which in turn is limited by the global throttle. Throttles for hosts are shared by all transfers with the same
+ * hostname and port.
+ */
+public final class BandwidthScheduler {
+    private static final Logger log = LogManager.getLogger(BandwidthScheduler.class);
+
+    private static BandwidthThrottle global;
+
+    private static final Map<String, Shared> hosts = new ConcurrentHashMap<>();
+
+    private BandwidthScheduler() {
+        //
+    }
+
+    /**
+     * @return Throttle limiting bandwidth of all transfers
+     */
+    public static synchronized BandwidthThrottle global() {
+        if(null == global) {
+            global = new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.bandwidth.bytes"));
+        }
+        return global;
+    }
+
+    /**
+     * @param host Server
+     * @return Throttle limiting bandwidth of all transfers with host
+     */
+    public static BandwidthThrottle get(final Host host) {
+        return hosts.computeIfAbsent(String.format("%s:%d", StringUtils.lowerCase(StringUtils.defaultString(host.getHostname())), host.getPort()), key -> {
+            final float rate = new HostPreferences(host).getFloat("queue.bandwidth.host.bytes");
+            log.debug("Create bandwidth throttle for {} with rate {}", key, rate);
+            return new Shared(host, new BandwidthThrottle(global(), rate));
+        }).throttle;
+    }
+
+    /**
+     * @param host           Server
+     * @param bytesPerSecond Limit for single transfer
+     * @return Throttle for transfer sharing bandwidth with other transfers with host
+     */
+    public static BandwidthThrottle create(final Host host, final float bytesPerSecond) {
+        final BandwidthThrottle parent = get(host);
+        // Apply limits changed in preferences since throttles were created
+        reload();
+        return new BandwidthThrottle(parent, bytesPerSecond);
+    }
+
+    /**
+     * Save limit for all transfers and apply to transfers in progress
+     *
+     * @param bytesPerSecond Limit or negative for no limit
+     */
+    public static void setRate(final float bytesPerSecond) {
+        PreferencesFactory.get().setProperty("queue.bandwidth.bytes", bytesPerSecond);
+        global().setRate(bytesPerSecond);
+    }
+
+    /**
+     * Save limit for transfers with any host and apply to transfers in progress
+     *
+     * @param bytesPerSecond Limit or negative for no limit
+     */
+    public static void setHostRate(final float bytesPerSecond) {
+        PreferencesFactory.get().setProperty("queue.bandwidth.host.bytes", bytesPerSecond);
+        reload();
+    }
+
+    /**
+     * Apply limits from preferences to throttles shared by transfers in progress
+     */
+    public static void reload() {
+        global().setRate(PreferencesFactory.get().getFloat("queue.bandwidth.bytes"));
+        for(Shared shared : hosts.values()) {
+            shared.throttle.setRate(new HostPreferences(shared.host).getFloat("queue.bandwidth.host.bytes"));
+        }
+    }
+
+    private static final class Shared {
+        private final Host host;
+        private final BandwidthThrottle throttle;
+
+        private Shared(final Host host, final BandwidthThrottle throttle) {
+            this.host = host;
+            this.throttle = throttle;
+        }
+    }
+}
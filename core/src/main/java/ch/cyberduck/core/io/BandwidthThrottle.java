@@ -1,19 +1,22 @@
 package ch.cyberduck.core.io;
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
- * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and thread-safe.<p>
+ * Limits throughput of streams to at most N bytes per second.  Mutable and thread-safe.<p>
  * <p/>
  * In the following example, <tt>throttle</tt> is used to send the contents of
- * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N/T</tt> bytes per second:
+ * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N</tt> bytes per second:
  * <pre>
- *      BandwidthThrottle throttle=new BandwidthThrottle(N, T);
+ *      BandwidthThrottle throttle=new BandwidthThrottle(N);
  *      OutputStream out=...;
  *      byte[] buf=...;
  *      for (int i=0; i<buf.length; ) {
@@ -23,85 +26,100 @@ import com.google.common.util.concurrent.Uninterruptibles;
  *      }
  * </pre>
  * <p/>
- * This class works by allowing exactly N bytes to be sent every T seconds.  If the number of bytes for a given window
- * have been exceeded, subsequent calls to request(..) will block.  The default value of T is 100 milliseconds. Smaller
- * window values T allow fairer bandwidth sharing and less noticeable pauses but may decrease efficiency slightly.<p>
- * <p/>
- * Note that throttles are <i>not</i> cumulative.  In the future, this may allow enable fancier control.  Also,
- * BandwidthThrottle may be able delegate to other throttles.  This would allow, for example, a 15 KB/s Gnutella
- * messaging throttle, with no more than 10 KB/s devoted to uploads.<p>
+ * This class is a token bucket kept as a single virtual timestamp when all bytes granted so far have been paid for at
+ * the configured rate. Callers reserve bytes by advancing the timestamp with a compare-and-set and sleep until their
+ * reservation is due, which serves concurrent streams in order of arrival without holding a lock. While idle, credit
+ * for up to the burst duration accumulates and can be used without delay. Grants are limited to the bytes allowed per
+ * tick so that streams sharing a throttle take turns.<p>
  * <p/>
- * This implementation is based on the <a href="http://cvs.sourceforge.net/cgi-bin/viewcvs.cgi/freenet/freenet/src/freenet/support/io/Bandwidth.java">Bandwidth</a>
- * class from the Freenet project.  It has been simplified and better documented.<p>
+ * Throttles are cumulative with their parent. A request is granted by this throttle and all its ancestors, allowing
+ * to limit the bandwidth of a single transfer, of all transfers with a host and of all transfers in total by sharing
+ * the parent throttles returned by {@link BandwidthScheduler}. The rate can be changed at any time and applies to
+ * subsequent requests.
  */
 public final class BandwidthThrottle {
     private static final Logger log = LogManager.getLogger(BandwidthThrottle.class);
 
     /**
-     * The number of windows per second.
+     * The number of grants per second.
      */
     private static final int TICKS_PER_SECOND = 10;
+
     /**
-     * The value of T, in milliseconds.
+     * No throttling
      */
-    private static final int MILLIS_PER_TICK = 1000 / TICKS_PER_SECOND;
+    public static final int UNLIMITED = -1;
 
     /**
-     * The bytes to send per tick.  Modified by setThrottle.
+     * Throttle to share bandwidth with or null
      */
-    private volatile int bytesPerTick;
+    private final BandwidthThrottle parent;
 
     /**
-     * Whether or not we're only allowing bandwidth to be used every other second.
+     * Duration in nanoseconds of credit accumulated while idle
      */
-    private volatile boolean switching = false;
+    private final long burst;
 
     /**
-     * The number of bytes remaining in this window.
+     * Virtual time in nanoseconds when all bytes reserved so far are paid for
      */
-    private int availableBytes;
+    private final AtomicLong horizon;
+
     /**
-     * The system time when the window is reset so more bytes can be sent.
+     * Bytes per second allowed
      */
-    private long nextTickTime;
+    private volatile float rate = UNLIMITED;
+
+    /**
+     * Whether or not we're only allowing bandwidth to be used every other second.
+     */
+    private volatile boolean switching = false;
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate. The default windows size T is used.  The bytes per
-     * windows N is calculated from bytesPerSecond.
+     * Creates a new bandwidth throttle at the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
     public BandwidthThrottle(float bytesPerSecond) {
-        this.setRate(bytesPerSecond);
+        this(null, bytesPerSecond);
     }
 
     /**
      * Creates a new bandwidth throttle at the given throttle rate, only allowing bandwidth to be used every other
-     * second if switching is true. The default windows size T is used.  The bytes per windows N is calculated from
-     * bytesPerSecond.
+     * second if switching is true.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      * @param switching      true if we should only allow bandwidth to be used every other second.
      */
     public BandwidthThrottle(float bytesPerSecond, boolean switching) {
-        this.setRate(bytesPerSecond);
+        this(bytesPerSecond);
         this.setSwitching(switching);
-
     }
 
     /**
-     * No throttling
+     * @param parent         Throttle limiting the bandwidth shared with other throttles or null
+     * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
-    public static final int UNLIMITED = -1;
+    public BandwidthThrottle(final BandwidthThrottle parent, final float bytesPerSecond) {
+        this(parent, bytesPerSecond, TimeUnit.MILLISECONDS.toNanos(
+                PreferencesFactory.get().getLong("queue.bandwidth.burst.milliseconds")));
+    }
 
     /**
-     * Bytes per second allowed
+     * @param parent         Throttle limiting the bandwidth shared with other throttles or null
+     * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
+     * @param burst          Maximum credit in nanoseconds accumulated while idle
      */
-    private float rate = UNLIMITED;
+    public BandwidthThrottle(final BandwidthThrottle parent, final float bytesPerSecond, final long burst) {
+        this.parent = parent;
+        this.burst = Math.max(0L, burst);
+        // Start with full burst credit
+        this.horizon = new AtomicLong(System.nanoTime() - this.burst);
+        this.setRate(bytesPerSecond);
+    }
 
     /**
-     * Sets the throttle to the given throttle rate.  The default windows size T is used.  The bytes per windows N is
-     * calculated from bytesPerSecond.
+     * Sets the throttle to the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
@@ -112,10 +130,6 @@ public final class BandwidthThrottle {
         else {
             log.debug("Set rate to {} bytes per second", bytesPerSecond);
             rate = bytesPerSecond;
-            bytesPerTick = (int) (bytesPerSecond / TICKS_PER_SECOND);
-        }
-        if(switching) {
-            this.fixBytesPerTick(true);
         }
     }
 
@@ -126,86 +140,107 @@ public final class BandwidthThrottle {
         return rate;
     }
 
+    /**
+     * @return Throttle shared with other throttles or null
+     */
+    public BandwidthThrottle getParent() {
+        return parent;
+    }
+
     /**
      * Sets whether or not this throttle is switching bandwidth on/off.
      */
     public void setSwitching(boolean switching) {
         log.debug("setSwitching:{}", switching);
-        if(this.switching != switching) {
-            fixBytesPerTick(switching);
-        }
         this.switching = switching;
     }
 
     /**
-     * Modifies bytesPerTick to either be double or half of what it was. This is necessary because of the 'switching',
-     * which can effectively reduce or raise the amount of data transferred.
+     * Blocks until the caller can send at least one byte without violating bandwidth constraints of this throttle and
+     * its parents.  Records the number of byte sent.
+     *
+     * @param desired the number of bytes the caller would like to send
+     * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
+     * equal to desired
      */
-    private void fixBytesPerTick(boolean raise) {
-        int newBytesPerTick = bytesPerTick;
-        if(raise) {
-            newBytesPerTick *= 2;
+    public int request(int desired) {
+        if(desired <= 0) {
+            return desired;
         }
-        else {
-            newBytesPerTick /= 2;
+        int granted = desired;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            final float limit = t.effective();
+            if(limit >= 0) {
+                granted = Math.min(granted, quantum(limit));
+            }
         }
-        if(newBytesPerTick < 0) // overflowed?
-        {
-            newBytesPerTick = Integer.MAX_VALUE;
+        long delay = 0L;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            final float limit = t.effective();
+            if(limit >= 0) {
+                delay = Math.max(delay, t.reserve(granted, limit));
+            }
         }
-        bytesPerTick = newBytesPerTick;
+        if(delay > 0L) {
+            log.debug("Throttling bandwidth for {} milliseconds", TimeUnit.NANOSECONDS.toMillis(delay));
+            Uninterruptibles.sleepUninterruptibly(delay, TimeUnit.NANOSECONDS);
+        }
+        return granted;
     }
 
     /**
-     * Blocks until the caller can send at least one byte without violating bandwidth constraints.  Records the number
-     * of byte sent.
-     *
-     * @param desired the number of bytes the caller would like to send
-     * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
-     * equal to desired
+     * @param limit Bytes per second
+     * @return Maximum number of bytes granted at once
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
-            return desired;
+    private static int quantum(final float limit) {
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, (long) (limit / TICKS_PER_SECOND)));
+    }
+
+    /**
+     * @return Rate in bytes per second while bandwidth can be used or negative if unlimited
+     */
+    private float effective() {
+        final float limit = rate;
+        if(UNLIMITED == limit) {
+            return UNLIMITED;
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
-        return result;
+        // Allow double the rate while on to keep average when switching
+        return switching ? limit * 2 : limit;
     }
 
     /**
-     * Waits until data is _availableBytes.
+     * Advance virtual time by the cost of sending bytes at the current rate
+     *
+     * @param bytes Number of bytes to send
+     * @param limit Bytes per second
+     * @return Nanoseconds to wait before sending
      */
-    private void waitForBandwidth() {
+    private long reserve(final int bytes, final float limit) {
+        final long cost = (long) (bytes * (TimeUnit.SECONDS.toNanos(1L) / Math.max(1f, limit)));
         while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
-                break;
+            final long now = System.nanoTime();
+            final long previous = horizon.get();
+            // Credit accumulated while idle is limited to burst duration
+            long start = Math.max(previous, now - burst);
+            if(switching) {
+                start = this.switching(start);
+            }
+            if(horizon.compareAndSet(previous, start + cost)) {
+                return Math.max(0L, start - now);
             }
-            log.info("Throttling bandwidth for {} milliseconds", nextTickTime - now);
-            Uninterruptibles.sleepUninterruptibly(nextTickTime - now, TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * Updates _availableBytes and _nextTickTime if possible.
+     * @param time Virtual time in nanoseconds
+     * @return Start of next even second if time is within odd second
      */
-    private void updateWindow(long now) {
-        if(now >= nextTickTime) {
-            if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
-            }
-            else {
-                availableBytes = 0;
-                // the next tick time is the time we'll hit
-                // the next second.
-                long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
-            }
+    private long switching(final long time) {
+        final long second = TimeUnit.SECONDS.toNanos(1L);
+        if(Math.floorMod(Math.floorDiv(time, second), 2L) == 0L) {
+            return time;
         }
+        return (Math.floorDiv(time, second) + 1L) * second;
     }
 
     @Override
@@ -227,4 +262,13 @@ public final class BandwidthThrottle {
     public int hashCode() {
         return (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
     }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BandwidthThrottle{");
+        sb.append("rate=").append(rate);
+        sb.append(", parent=").append(parent);
+        sb.append('}');
+        return sb.toString();
+    }
 }
@@ -0,0 +1,29 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.nio.channels.Channel;
+
+/**
+ * Stream backed by a channel that allows to bypass the stream for bulk copies
+ */
+public interface ChannelStream {
+
+    /**
+     * @return Underlying channel or null if not backed by a channel that can be written to or read from directly
+     */
+    Channel getChannel();
+}
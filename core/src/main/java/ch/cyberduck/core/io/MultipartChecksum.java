@@ -0,0 +1,220 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.ChecksumException;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Digests for consecutive parts of equal size of a file with the last part possibly smaller
+ */
+public final class MultipartChecksum {
+
+    private final long length;
+    private final long partsize;
+    private final Map<HashAlgorithm, byte[][]> digests;
+
+    /**
+     * @param length   Total length of file
+     * @param partsize Length of parts
+     * @param digests  Digest for every part by algorithm
+     */
+    public MultipartChecksum(final long length, final long partsize, final Map<HashAlgorithm, byte[][]> digests) {
+        this.length = length;
+        this.partsize = partsize;
+        this.digests = new EnumMap<>(digests);
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getPartsize() {
+        return partsize;
+    }
+
+    /**
+     * @return Number of parts
+     */
+    public int size() {
+        return parts(length, partsize);
+    }
+
+    public Set<HashAlgorithm> getAlgorithms() {
+        return Collections.unmodifiableSet(digests.keySet());
+    }
+
+    /**
+     * @param algorithm  Hash algorithm
+     * @param partNumber Part number starting with 1
+     * @return Digest of part or Checksum.NONE if not computed for algorithm
+     */
+    public Checksum get(final HashAlgorithm algorithm, final int partNumber) {
+        final byte[][] parts = digests.get(algorithm);
+        if(null == parts || partNumber < 1 || partNumber > parts.length) {
+            return Checksum.NONE;
+        }
+        return new Checksum(algorithm, parts[partNumber - 1]);
+    }
+
+    /**
+     * @param offset Offset of segment in file
+     * @param length Length of segment
+     * @return Digests for all algorithms or empty set if segment is not aligned with part boundaries
+     */
+    public Set<Checksum> get(final long offset, final long length) {
+        final int part = this.find(offset, length);
+        if(-1 == part) {
+            return Collections.emptySet();
+        }
+        final Set<Checksum> checksums = new HashSet<>();
+        for(HashAlgorithm algorithm : digests.keySet()) {
+            checksums.add(this.get(algorithm, part));
+        }
+        return checksums;
+    }
+
+    /**
+     * @param offset Offset of segment in file
+     * @param length Length of segment
+     * @return Digest for algorithm or Checksum.NONE if segment is not aligned with part boundaries
+     */
+    public Checksum get(final HashAlgorithm algorithm, final long offset, final long length) {
+        final int part = this.find(offset, length);
+        if(-1 == part) {
+            return Checksum.NONE;
+        }
+        return this.get(algorithm, part);
+    }
+
+    /**
+     * @return Part number or -1 if not aligned
+     */
+    private int find(final long offset, final long length) {
+        if(offset < 0 || offset % partsize != 0) {
+            return -1;
+        }
+        if(offset + length > this.length) {
+            return -1;
+        }
+        if(length != Math.min(partsize, this.length - offset)) {
+            return -1;
+        }
+        return (int) (offset / partsize) + 1;
+    }
+
+    /**
+     * Digest of concatenated part digests as used for multipart ETag in S3 with part count appended
+     *
+     * @param algorithm Hash algorithm
+     * @return Hex encoded digest with number of parts appended or null if not computed for algorithm
+     */
+    public String composite(final HashAlgorithm algorithm) throws ChecksumException {
+        final byte[][] parts = digests.get(algorithm);
+        if(null == parts) {
+            return null;
+        }
+        final MessageDigest md = digest(algorithm);
+        for(byte[] part : parts) {
+            md.update(part);
+        }
+        return String.format("%s-%d", Hex.encodeHexString(md.digest()), parts.length);
+    }
+
+    /**
+     * Tree hash with part digests as leaves and parent nodes computed from the concatenated digests of two children
+     *
+     * @param algorithm Hash algorithm
+     * @return Root digest or Checksum.NONE if not computed for algorithm
+     */
+    public Checksum tree(final HashAlgorithm algorithm) throws ChecksumException {
+        final byte[][] parts = digests.get(algorithm);
+        if(null == parts || parts.length == 0) {
+            return Checksum.NONE;
+        }
+        final MessageDigest md = digest(algorithm);
+        byte[][] level = parts;
+        while(level.length > 1) {
+            final byte[][] parent = new byte[(level.length + 1) / 2][];
+            for(int i = 0; i < level.length; i += 2) {
+                if(i + 1 < level.length) {
+                    md.update(level[i]);
+                    md.update(level[i + 1]);
+                    parent[i / 2] = md.digest();
+                }
+                else {
+                    // Promote odd node
+                    parent[i / 2] = level[i];
+                }
+            }
+            level = parent;
+        }
+        return new Checksum(algorithm, level[0]);
+    }
+
+    /**
+     * @return Number of parts for length
+     */
+    public static int parts(final long length, final long partsize) {
+        if(length <= 0) {
+            return 0;
+        }
+        return (int) ((length + partsize - 1) / partsize);
+    }
+
+    /**
+     * @return Message digest for algorithm
+     * @throws ChecksumException Algorithm is not supported
+     */
+    public static MessageDigest digest(final HashAlgorithm algorithm) throws ChecksumException {
+        try {
+            switch(algorithm) {
+                case md5:
+                    return MessageDigest.getInstance("MD5");
+                case sha1:
+                    return MessageDigest.getInstance("SHA-1");
+                case sha256:
+                    return MessageDigest.getInstance("SHA-256");
+                case sha512:
+                    return MessageDigest.getInstance("SHA-512");
+            }
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new ChecksumException(e);
+        }
+        throw new ChecksumException(new NoSuchAlgorithmException(algorithm.name()));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MultipartChecksum{");
+        sb.append("length=").append(length);
+        sb.append(", partsize=").append(partsize);
+        sb.append(", algorithms=").append(digests.keySet());
+        sb.append(", parts=").append(this.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ChecksumCanceledException;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Compute digests for parts of a file in parallel reading from memory mapped regions. Digests for all algorithms are
+ * computed in a single pass over each part. Parts are read sequentially when the file is not backed by a file channel.
+ */
+public class ParallelChecksumCompute {
+    private static final Logger log = LogManager.getLogger(ParallelChecksumCompute.class);
+
+    /**
+     * Number of threads computing digests
+     */
+    private final int threads;
+    /**
+     * Size of region mapped into memory at once
+     */
+    private final long window;
+
+    public ParallelChecksumCompute() {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), PreferencesFactory.get().getInteger("queue.upload.checksum.parallel.threads")),
+                PreferencesFactory.get().getLong("queue.upload.checksum.parallel.window"));
+    }
+
+    public ParallelChecksumCompute(final int threads, final long window) {
+        this.threads = Math.max(1, threads);
+        this.window = window;
+    }
+
+    /**
+     * @param file       File to read
+     * @param length     Number of bytes from start of file
+     * @param partsize   Length of parts
+     * @param algorithms Hash algorithms
+     * @param cancel     Cancel callback checked between mapped regions
+     * @return Digests for every part
+     * @throws ChecksumException         Error reading file or algorithm not supported
+     * @throws ChecksumCanceledException File closed while reading
+     */
+    public MultipartChecksum compute(final Local file, final long length, final long partsize,
+                                     final Set<HashAlgorithm> algorithms, final StreamCancelation cancel) throws BackgroundException {
+        for(HashAlgorithm algorithm : algorithms) {
+            // Fail early for unsupported algorithm
+            MultipartChecksum.digest(algorithm);
+        }
+        final int count = MultipartChecksum.parts(length, partsize);
+        log.debug("Compute {} for {} parts of {} with size {}", algorithms, count, file, partsize);
+        final Map<HashAlgorithm, byte[][]> digests = new EnumMap<>(HashAlgorithm.class);
+        for(HashAlgorithm algorithm : algorithms) {
+            digests.put(algorithm, new byte[count][]);
+        }
+        try (InputStream in = file.getInputStream()) {
+            final Channel channel = in instanceof ChannelStream ? ((ChannelStream) in).getChannel() : null;
+            if(channel instanceof FileChannel) {
+                this.compute((FileChannel) channel, length, partsize, count, algorithms, digests, cancel);
+            }
+            else {
+                log.debug("Compute digests sequentially for {} not backed by file channel", file);
+                this.compute(in, length, partsize, count, algorithms, digests, cancel);
+            }
+        }
+        catch(IOException e) {
+            throw new ChecksumException(e);
+        }
+        return new MultipartChecksum(length, partsize, digests);
+    }
+
+    private void compute(final FileChannel channel, final long length, final long partsize, final int count,
+                         final Set<HashAlgorithm> algorithms, final Map<HashAlgorithm, byte[][]> digests,
+                         final StreamCancelation cancel) throws BackgroundException, IOException {
+        if(channel.size() < length) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"),
+                    String.format("File size %d less than %d", channel.size(), length));
+        }
+        final ThreadPool pool = ThreadPoolFactory.get("checksum", Math.min(threads, Math.max(1, count)));
+        final List<Future<Void>> tasks = new ArrayList<>(count);
+        try {
+            for(int i = 0; i < count; i++) {
+                final int part = i;
+                final long offset = part * partsize;
+                tasks.add(pool.execute(() -> {
+                    final Map<HashAlgorithm, MessageDigest> md = this.digests(algorithms);
+                    this.digest(channel, offset, Math.min(partsize, length - offset), md.values(), cancel);
+                    for(Map.Entry<HashAlgorithm, MessageDigest> entry : md.entrySet()) {
+                        digests.get(entry.getKey())[part] = entry.getValue().digest();
+                    }
+                    return null;
+                }));
+            }
+            for(Future<Void> task : tasks) {
+                task.get();
+            }
+        }
+        catch(InterruptedException e) {
+            throw new ChecksumCanceledException(e);
+        }
+        catch(ExecutionException e) {
+            for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+            }
+            throw new ChecksumException(Throwables.getRootCause(e));
+        }
+        finally {
+            for(Future<Void> task : tasks) {
+                task.cancel(true);
+            }
+            pool.shutdown(false);
+        }
+    }
+
+    private void compute(final InputStream in, final long length, final long partsize, final int count,
+                         final Set<HashAlgorithm> algorithms, final Map<HashAlgorithm, byte[][]> digests,
+                         final StreamCancelation cancel) throws BackgroundException, IOException {
+        final byte[] buffer = new byte[(int) Math.min(window, Integer.MAX_VALUE)];
+        for(int part = 0; part < count; part++) {
+            final Map<HashAlgorithm, MessageDigest> md = this.digests(algorithms);
+            long remaining = Math.min(partsize, length - part * partsize);
+            while(remaining > 0) {
+                cancel.validate();
+                final int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if(read == -1) {
+                    throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"),
+                            String.format("File size less than %d", length));
+                }
+                for(MessageDigest digest : md.values()) {
+                    digest.update(buffer, 0, read);
+                }
+                remaining -= read;
+            }
+            for(Map.Entry<HashAlgorithm, MessageDigest> entry : md.entrySet()) {
+                digests.get(entry.getKey())[part] = entry.getValue().digest();
+            }
+        }
+    }
+
+    private Map<HashAlgorithm, MessageDigest> digests(final Set<HashAlgorithm> algorithms) throws ChecksumException {
+        final Map<HashAlgorithm, MessageDigest> md = new EnumMap<>(HashAlgorithm.class);
+        for(HashAlgorithm algorithm : algorithms) {
+            md.put(algorithm, MultipartChecksum.digest(algorithm));
+        }
+        return md;
+    }
+
+    private void digest(final FileChannel channel, final long offset, final long length,
+                        final Iterable<MessageDigest> digests, final StreamCancelation cancel) throws ConnectionCanceledException, ChecksumException {
+        try {
+            long position = offset;
+            final long end = offset + length;
+            while(position < end) {
+                cancel.validate();
+                final long size = Math.min(window, end - position);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                for(MessageDigest md : digests) {
+                    md.update(buffer.duplicate());
+                }
+                position += size;
+            }
+        }
+        catch(ClosedChannelException e) {
+            throw new ChecksumCanceledException(e);
+        }
+        catch(IOException e) {
+            throw new ChecksumException(e);
+        }
+    }
+}
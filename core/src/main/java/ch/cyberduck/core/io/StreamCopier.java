@@ -27,6 +27,13 @@ import org.apache.logging.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class StreamCopier {
     private static final Logger log = LogManager.getLogger(StreamCopier.class);
@@ -42,6 +49,12 @@ public final class StreamCopier {
     private Integer chunksize
             = PreferencesFactory.get().getInteger("connection.chunksize");
 
+    /**
+     * Maximum number of bytes to transfer between channels at once
+     */
+    private Integer channelsize
+            = PreferencesFactory.get().getInteger("connection.chunksize.channel");
+
     private Long offset = 0L;
     private Long limit = -1L;
 
@@ -60,6 +73,11 @@ public final class StreamCopier {
         return this;
     }
 
+    public StreamCopier withChannelsize(final Integer channelsize) {
+        this.channelsize = channelsize;
+        return this;
+    }
+
     public StreamCopier withListener(final StreamListener listener) {
         this.listener = listener;
         return this;
@@ -85,7 +103,8 @@ public final class StreamCopier {
     }
 
     /**
-     * Updates the current number of bytes transferred in the status reference.
+     * Updates the current number of bytes transferred in the status reference. Copies between channels without
+     * intermediate heap buffer when both streams are backed by a channel and at least one end is a file.
      *
      * @param in  The stream to read from
      * @param out The stream to write to
@@ -95,35 +114,24 @@ public final class StreamCopier {
             if(offset > 0) {
                 skip(in, offset);
             }
-            final byte[] buffer = new byte[chunksize];
-            long total = 0;
-            int len = chunksize;
-            if(limit > 0 && limit < chunksize) {
-                // Cast will work because chunk size is int
-                len = limit.intValue();
-            }
-            while(len > 0) {
-                cancel.validate();
-                final int read = in.read(buffer, 0, len);
-                if(-1 == read) {
-                    log.debug("End of file reached with {} bytes read from stream", total);
-                    progress.setComplete();
-                    break;
-                }
-                else {
-                    listener.recv(read);
-                    out.write(buffer, 0, read);
-                    listener.sent(read);
-                    total += read;
-                }
-                if(limit > 0) {
-                    // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
-                    len = (int) Math.min(limit - total, chunksize);
-                }
-                if(limit == total) {
-                    log.debug("Limit {} reached reading from stream", limit);
-                    progress.setComplete();
-                }
+            final List<BandwidthThrottle> throttles = new ArrayList<>();
+            final Channel source = channel(in, throttles);
+            final Channel target = channel(out, throttles);
+            if(source instanceof FileChannel && target instanceof WritableByteChannel) {
+                log.debug("Transfer from file channel {} to {}", source, target);
+                this.transfer(new TransferToChannelCopy((FileChannel) source, (WritableByteChannel) target), throttles);
+            }
+            else if(source instanceof ReadableByteChannel && target instanceof FileChannel) {
+                log.debug("Transfer from {} to file channel {}", source, target);
+                this.transfer(new TransferFromChannelCopy((ReadableByteChannel) source, (FileChannel) target), throttles);
+            }
+            else if(source instanceof ReadableByteChannel && target instanceof WritableByteChannel) {
+                log.debug("Transfer from {} to {} using direct buffer", source, target);
+                this.transfer(new BufferChannelCopy((ReadableByteChannel) source, (WritableByteChannel) target,
+                        ByteBuffer.allocateDirect(channelsize)), throttles);
+            }
+            else {
+                this.copy(in, out);
             }
             final StreamCloser c = new DefaultStreamCloser();
             c.close(out);
@@ -139,6 +147,181 @@ public final class StreamCopier {
         }
     }
 
+    private void copy(final InputStream in, final OutputStream out) throws IOException, BackgroundException {
+        final byte[] buffer = new byte[chunksize];
+        long total = 0;
+        int len = chunksize;
+        if(limit > 0 && limit < chunksize) {
+            // Cast will work because chunk size is int
+            len = limit.intValue();
+        }
+        while(len > 0) {
+            cancel.validate();
+            final int read = in.read(buffer, 0, len);
+            if(-1 == read) {
+                log.debug("End of file reached with {} bytes read from stream", total);
+                progress.setComplete();
+                break;
+            }
+            else {
+                listener.recv(read);
+                out.write(buffer, 0, read);
+                listener.sent(read);
+                total += read;
+            }
+            if(limit > 0) {
+                // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
+                len = (int) Math.min(limit - total, chunksize);
+            }
+            if(limit == total) {
+                log.debug("Limit {} reached reading from stream", limit);
+                progress.setComplete();
+            }
+        }
+    }
+
+    private void transfer(final ChannelCopy copy, final List<BandwidthThrottle> throttles) throws IOException, BackgroundException {
+        long total = 0;
+        int len = channelsize;
+        if(limit > 0 && limit < channelsize) {
+            len = limit.intValue();
+        }
+        while(len > 0) {
+            cancel.validate();
+            for(BandwidthThrottle throttle : throttles) {
+                len = throttle.request(len);
+            }
+            final long transferred = copy.transfer(len);
+            if(-1 == transferred) {
+                log.debug("End of file reached with {} bytes read from channel", total);
+                progress.setComplete();
+                break;
+            }
+            listener.recv(transferred);
+            listener.sent(transferred);
+            total += transferred;
+            if(limit > 0) {
+                len = (int) Math.min(limit - total, channelsize);
+            }
+            else {
+                len = channelsize;
+            }
+            if(limit == total) {
+                log.debug("Limit {} reached reading from channel", limit);
+                progress.setComplete();
+            }
+        }
+    }
+
+    /**
+     * @param stream     Input or output stream
+     * @param throttles Collects bandwidth throttles of streams unwrapped
+     * @return Channel backing the stream or null if not available
+     */
+    private static Channel channel(final Object stream, final List<BandwidthThrottle> throttles) {
+        if(stream instanceof ThrottledInputStream) {
+            throttles.add(((ThrottledInputStream) stream).getThrottle());
+            return channel(((ThrottledInputStream) stream).getProxy(), throttles);
+        }
+        if(stream instanceof ThrottledOutputStream) {
+            throttles.add(((ThrottledOutputStream) stream).getThrottle());
+            return channel(((ThrottledOutputStream) stream).getProxy(), throttles);
+        }
+        if(stream instanceof ChannelStream) {
+            final Channel channel = ((ChannelStream) stream).getChannel();
+            if(null != channel && channel.isOpen()) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    private interface ChannelCopy {
+        /**
+         * @param len Maximum number of bytes to transfer
+         * @return Number of bytes transferred or -1 when end of file is reached
+         */
+        long transfer(int len) throws IOException;
+    }
+
+    /**
+     * Zero copy from file using source position
+     */
+    private static final class TransferToChannelCopy implements ChannelCopy {
+        private final FileChannel source;
+        private final WritableByteChannel target;
+
+        public TransferToChannelCopy(final FileChannel source, final WritableByteChannel target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public long transfer(final int len) throws IOException {
+            final long position = source.position();
+            final long transferred = source.transferTo(position, len, target);
+            if(0L == transferred && position >= source.size()) {
+                return -1L;
+            }
+            source.position(position + transferred);
+            return transferred;
+        }
+    }
+
+    /**
+     * Copy to file using target position
+     */
+    private static final class TransferFromChannelCopy implements ChannelCopy {
+        private final ReadableByteChannel source;
+        private final FileChannel target;
+
+        public TransferFromChannelCopy(final ReadableByteChannel source, final FileChannel target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public long transfer(final int len) throws IOException {
+            final long position = target.position();
+            final long transferred = target.transferFrom(source, position, len);
+            if(0L == transferred) {
+                return -1L;
+            }
+            target.position(position + transferred);
+            return transferred;
+        }
+    }
+
+    /**
+     * Copy between channels using off-heap buffer
+     */
+    private static final class BufferChannelCopy implements ChannelCopy {
+        private final ReadableByteChannel source;
+        private final WritableByteChannel target;
+        private final ByteBuffer buffer;
+
+        public BufferChannelCopy(final ReadableByteChannel source, final WritableByteChannel target, final ByteBuffer buffer) {
+            this.source = source;
+            this.target = target;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long transfer(final int len) throws IOException {
+            buffer.clear();
+            buffer.limit(Math.min(len, buffer.capacity()));
+            final int read = source.read(buffer);
+            if(-1 == read) {
+                return -1L;
+            }
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            return read;
+        }
+    }
+
     public static InputStream skip(final InputStream in, final long offset) throws BackgroundException {
         try {
             if(offset > 0) {
@@ -79,4 +79,12 @@ public class ThrottledOutputStream extends ProxyOutputStream {
             offset += length;
         }
     }
+
+    public OutputStream getProxy() {
+        return delegate;
+    }
+
+    public BandwidthThrottle getThrottle() {
+        return throttle;
+    }
 }
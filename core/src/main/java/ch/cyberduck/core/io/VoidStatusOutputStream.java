@@ -18,8 +18,9 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.exception.BackgroundException;
 
 import java.io.OutputStream;
+import java.nio.channels.Channel;
 
-public class VoidStatusOutputStream extends StatusOutputStream<Void> {
+public class VoidStatusOutputStream extends StatusOutputStream<Void> implements ChannelStream {
 
     public VoidStatusOutputStream(final OutputStream proxy) {
         super(proxy);
@@ -30,4 +31,12 @@ public class VoidStatusOutputStream extends StatusOutputStream<Void> {
         // No remote attributes from server returned after upload
         return null;
     }
+
+    @Override
+    public Channel getChannel() {
+        if(out instanceof ChannelStream) {
+            return ((ChannelStream) out).getChannel();
+        }
+        return null;
+    }
 }
@@ -29,6 +29,13 @@ public interface RegisterWatchService extends WatchService {
                       WatchEvent.Kind<?>[] events,
                       WatchEvent.Modifier... modifiers) throws IOException;
 
+    /**
+     * @return True if events are reported for files in all subdirectories of a registered folder
+     */
+    default boolean isRecursive() {
+        return false;
+    }
+
     /**
      * Closes this watch service. This method is invoked by the close
      * method to perform the actual work of closing the watch service.
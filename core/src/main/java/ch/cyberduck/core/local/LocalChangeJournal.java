@@ -0,0 +1,312 @@
+package ch.cyberduck.core.local;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.io.watchservice.RegisterWatchService;
+import ch.cyberduck.core.io.watchservice.WatchServiceFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Journal of files created, modified and deleted in a directory tree registered for file system events in every
+ * directory. Changes are drained before each transfer to only list changed subtrees. A full scan is required before
+ * the first drain, after an overflow of events, when a directory cannot be registered or when the number of changes
+ * exceeds the limit.
+ */
+public class LocalChangeJournal {
+    private static final Logger log = LogManager.getLogger(LocalChangeJournal.class);
+
+    private final Local folder;
+    private final RegisterWatchService monitor;
+    private final ThreadPool pool;
+    /**
+     * Maximum number of changed files to keep
+     */
+    private final int limit;
+
+    /**
+     * Directory for registered key
+     */
+    private final Map<WatchKey, Local> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Absolute paths of changed files since last drain
+     */
+    private NavigableSet<String> changed = new TreeSet<>();
+    /**
+     * Full scan required with changes not known
+     */
+    private boolean full = true;
+
+    public LocalChangeJournal(final Local folder) {
+        this(folder, WatchServiceFactory.get());
+    }
+
+    public LocalChangeJournal(final Local folder, final RegisterWatchService monitor) {
+        this(folder, monitor, PreferencesFactory.get().getInteger("local.journal.limit"));
+    }
+
+    public LocalChangeJournal(final Local folder, final RegisterWatchService monitor, final int limit) {
+        this.folder = folder;
+        this.monitor = monitor;
+        this.limit = limit;
+        this.pool = new DefaultThreadPool("journal", 1);
+    }
+
+    /**
+     * Start recording changes in folder
+     *
+     * @param folder Root of directory tree
+     * @return Null if folder cannot be watched
+     */
+    public static LocalChangeJournal watch(final Local folder) {
+        final LocalChangeJournal journal = new LocalChangeJournal(folder);
+        try {
+            journal.register();
+            return journal;
+        }
+        catch(IOException e) {
+            log.warn("Failure watching {} for changes. {}", folder, e.getMessage());
+            journal.close();
+            return null;
+        }
+    }
+
+    /**
+     * Register for events in all directories of tree and start recording changes
+     */
+    public void register() throws IOException {
+        this.register(Paths.get(folder.getAbsolute()));
+        pool.execute(() -> {
+            while(true) {
+                final WatchKey key;
+                try {
+                    key = monitor.take();
+                }
+                catch(ClosedWatchServiceException e) {
+                    log.debug("Exit journal for {} with closed monitor {}", folder, monitor);
+                    return true;
+                }
+                catch(InterruptedException e) {
+                    return false;
+                }
+                final Local directory = keys.get(key);
+                for(WatchEvent<?> event : key.pollEvents()) {
+                    if(event.kind() == OVERFLOW || null == directory) {
+                        log.warn("Overflow event {} for {}", event, directory);
+                        this.invalidate();
+                        continue;
+                    }
+                    this.handle(directory, event);
+                }
+                if(!key.reset()) {
+                    log.debug("Directory {} no longer watched", directory);
+                    keys.remove(key);
+                    if(folder.equals(directory)) {
+                        this.invalidate();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Register directory and all subdirectories without following symbolic links. Only the directory is registered
+     * with a watch service reporting events in subdirectories.
+     */
+    private void register(final Path directory) throws IOException {
+        if(monitor.isRecursive()) {
+            final WatchKey key = monitor.register(directory, new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY});
+            if(!key.isValid()) {
+                throw new IOException(String.format("Failure registering for events in %s", directory));
+            }
+            keys.put(key, LocalFactory.get(directory.toString()));
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                final WatchKey key = monitor.register(dir, new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY});
+                if(!key.isValid()) {
+                    throw new IOException(String.format("Failure registering for events in %s", dir));
+                }
+                keys.put(key, LocalFactory.get(dir.toString()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void handle(final Local directory, final WatchEvent<?> event) {
+        final WatchEvent.Kind<?> kind = event.kind();
+        // The filename is the context of the event. May be absolute or relative path name.
+        final String name = event.context().toString();
+        final Local file = StringUtils.startsWith(name, String.valueOf(directory.getDelimiter())) ?
+                LocalFactory.get(name) : LocalFactory.get(directory, name);
+        log.debug("Process file system event {} for {}", kind.name(), file);
+        if(ENTRY_CREATE == kind) {
+            if(!monitor.isRecursive() && Files.isDirectory(Paths.get(file.getAbsolute()), LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    // Files created before registration are part of the changed subtree
+                    this.register(Paths.get(file.getAbsolute()));
+                }
+                catch(IOException e) {
+                    log.warn("Failure registering {}. {}", file, e.getMessage());
+                    this.invalidate();
+                    return;
+                }
+            }
+            this.record(file);
+        }
+        else if(ENTRY_MODIFY == kind) {
+            // Modification of directory is reported for entries added or removed
+            if(!Files.isDirectory(Paths.get(file.getAbsolute()), LinkOption.NOFOLLOW_LINKS)) {
+                this.record(file);
+            }
+        }
+        else if(ENTRY_DELETE == kind) {
+            this.record(file);
+        }
+    }
+
+    private synchronized void record(final Local file) {
+        if(full) {
+            return;
+        }
+        changed.add(file.getAbsolute());
+        if(changed.size() > limit) {
+            log.warn("Require full scan of {} with more than {} changes", folder, limit);
+            this.invalidate();
+        }
+    }
+
+    /**
+     * Require full scan of directory tree for next transfer
+     */
+    public synchronized void invalidate() {
+        full = true;
+        changed = new TreeSet<>();
+    }
+
+    /**
+     * Retrieve changes since last drain and start new journal
+     *
+     * @return Changed files or all files if changes are not known
+     */
+    public synchronized Changes drain() {
+        final Changes changes = full ? Changes.ALL : new Changes(changed, folder.getDelimiter());
+        log.debug("Drain {} for {}", changes, folder);
+        changed = new TreeSet<>();
+        full = false;
+        return changes;
+    }
+
+    public void close() {
+        try {
+            monitor.close();
+        }
+        catch(IOException e) {
+            log.error("Failure closing journal monitor", e);
+        }
+        finally {
+            pool.shutdown(false);
+            keys.clear();
+        }
+    }
+
+    /**
+     * Changed files in directory tree
+     */
+    public static final class Changes {
+        /**
+         * Changes not known requiring full scan
+         */
+        public static final Changes ALL = new Changes(null, '/');
+
+        /**
+         * Absolute paths of changed files or null for all files
+         */
+        private final NavigableSet<String> paths;
+        private final char delimiter;
+
+        private Changes(final NavigableSet<String> paths, final char delimiter) {
+            this.paths = null == paths ? null : Collections.unmodifiableNavigableSet(paths);
+            this.delimiter = delimiter;
+        }
+
+        public boolean isAll() {
+            return null == paths;
+        }
+
+        /**
+         * @return True if file is changed, within a changed directory or a parent directory of a changed file
+         */
+        public boolean contains(final Local file) {
+            if(null == paths) {
+                return true;
+            }
+            final String path = file.getAbsolute();
+            // Parent directory of changed file
+            final String prefix = StringUtils.appendIfMissing(path, String.valueOf(delimiter));
+            final String next = paths.ceiling(prefix);
+            if(null != next && next.startsWith(prefix)) {
+                return true;
+            }
+            // Changed file or within changed directory
+            int end = path.length();
+            while(end > 0) {
+                if(paths.contains(path.substring(0, end))) {
+                    return true;
+                }
+                end = path.lastIndexOf(delimiter, end - 1);
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Changes{");
+            sb.append("paths=").append(null == paths ? "all" : String.valueOf(paths.size()));
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ch.cyberduck.core.local;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.AccessDeniedException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * List directory tree with subdirectories listed in parallel on a fork join pool. Entries are listed with attributes
+ * read with a single stat. Symbolic links are not followed. Stops descending when the number of entries listed
+ * exceeds the limit.
+ */
+public class LocalTreeWalker {
+    private static final Logger log = LogManager.getLogger(LocalTreeWalker.class);
+
+    /**
+     * Directories to descend into
+     */
+    private final Filter<Local> filter;
+    private final int parallelism;
+    private final int limit;
+
+    /**
+     * @param filter      Directories to descend into
+     * @param parallelism Number of threads listing directories
+     * @param limit       Maximum number of entries to list
+     */
+    public LocalTreeWalker(final Filter<Local> filter, final int parallelism, final int limit) {
+        this.filter = filter;
+        this.parallelism = Math.max(1, parallelism);
+        this.limit = limit;
+    }
+
+    /**
+     * Directories that cannot be listed or are beyond the limit are missing in the result
+     *
+     * @param directory Root of tree
+     * @return Listing for each directory in tree
+     */
+    public Map<Local, AttributedList<Local>> walk(final Local directory) {
+        final Map<Local, AttributedList<Local>> listings = new ConcurrentHashMap<>();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ListAction(directory, null, listings, new AtomicInteger(limit), null));
+        }
+        finally {
+            pool.shutdown();
+        }
+        log.debug("Listed {} directories in {}", listings.size(), directory);
+        return listings;
+    }
+
+    /**
+     * List subdirectories of tree in the background. Listings are added to the map as soon as read unless the map
+     * already contains an entry for the directory. No more directories are listed once the returned task is canceled.
+     *
+     * @param directory Root of tree
+     * @param list      Listing of root already read
+     * @param listings  Listing for each subdirectory in tree
+     * @return Task completed when tree is listed
+     */
+    public Future<?> walk(final Local directory, final AttributedList<Local> list, final Map<Local, AttributedList<Local>> listings) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(new ListAction(directory, list, listings, new AtomicInteger(limit), null));
+        }
+        finally {
+            // Submitted task is completed before pool terminates
+            pool.shutdown();
+        }
+    }
+
+    private final class ListAction extends RecursiveAction {
+        private final Local directory;
+        /**
+         * Listing already read or null
+         */
+        private final AttributedList<Local> list;
+        private final Map<Local, AttributedList<Local>> listings;
+        /**
+         * Remaining number of entries to list
+         */
+        private final AtomicInteger remaining;
+        /**
+         * Task for root of tree
+         */
+        private final ListAction root;
+
+        public ListAction(final Local directory, final AttributedList<Local> list, final Map<Local, AttributedList<Local>> listings,
+                          final AtomicInteger remaining, final ListAction root) {
+            this.directory = directory;
+            this.list = list;
+            this.listings = listings;
+            this.remaining = remaining;
+            this.root = null == root ? this : root;
+        }
+
+        @Override
+        protected void compute() {
+            if(root.isCancelled()) {
+                log.debug("Skip listing {} with walk canceled", directory);
+                return;
+            }
+            if(remaining.get() <= 0) {
+                log.debug("Skip listing {} with limit reached", directory);
+                return;
+            }
+            final AttributedList<Local> list;
+            if(null == this.list) {
+                try {
+                    list = directory.list();
+                }
+                catch(AccessDeniedException e) {
+                    // Failure is reported when listed again
+                    log.warn("Failure listing {}. {}", directory, e.getMessage());
+                    return;
+                }
+                if(root.isCancelled()) {
+                    return;
+                }
+                listings.putIfAbsent(directory, list);
+            }
+            else {
+                list = this.list;
+            }
+            remaining.addAndGet(-list.size());
+            final List<ListAction> subdirectories = new ArrayList<>();
+            for(Local f : list) {
+                if(f.isSymbolicLink()) {
+                    continue;
+                }
+                if(f.isDirectory() && filter.accept(f)) {
+                    subdirectories.add(new ListAction(f, null, listings, remaining, root));
+                }
+            }
+            invokeAll(subdirectories);
+        }
+    }
+}
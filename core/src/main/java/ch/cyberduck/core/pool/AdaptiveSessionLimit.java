@@ -0,0 +1,352 @@
+package ch.cyberduck.core.pool;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundActionState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limit for number of sessions in use adjusted with additive increase and multiplicative decrease. The limit is
+ * halved on network failures. It is increased by one after a window of completed borrows when borrowers are waiting
+ * and neither latency nor throughput deteriorated. Waiting borrowers are woken in order of arrival.
+ */
+public class AdaptiveSessionLimit {
+    private static final Logger log = LogManager.getLogger(AdaptiveSessionLimit.class);
+
+    /**
+     * Interval in milliseconds to check for cancellation while waiting
+     */
+    private static final long CANCEL_CHECK_INTERVAL = 1000L;
+    /**
+     * Factor of baseline latency considered as congestion
+     */
+    private static final double LATENCY_TOLERANCE = 2d;
+    /**
+     * Lower bound for baseline latency in milliseconds to ignore jitter of borrows served from idle sessions
+     */
+    private static final double LATENCY_MINIMUM = 50d;
+    /**
+     * Minimum relative decrease in throughput considered as congestion
+     */
+    private static final double THROUGHPUT_THRESHOLD = 0.1d;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Borrowers waiting in order of arrival
+     */
+    private final Deque<Condition> waiters = new ArrayDeque<>();
+
+    private final int minimum;
+    private int maximum;
+    private int limit;
+    private int inflight;
+    private boolean closed;
+
+    /**
+     * Statistics for current window
+     */
+    private long epoch = System.currentTimeMillis();
+    private int completed;
+    private int peak;
+    private long latency;
+    private int samples;
+    /**
+     * Lowest average latency in milliseconds observed
+     */
+    private double baseline = Double.MAX_VALUE;
+    /**
+     * Completions per second in previous window
+     */
+    private double throughput;
+    private boolean increased;
+
+    private long waits;
+    private long waited;
+    private long maxWaited;
+
+    public AdaptiveSessionLimit(final int maximum) {
+        this(1, maximum);
+    }
+
+    /**
+     * @param minimum Lower bound for limit
+     * @param maximum Upper bound and initial limit
+     */
+    public AdaptiveSessionLimit(final int minimum, final int maximum) {
+        this.minimum = Math.max(1, minimum);
+        this.maximum = Math.max(this.minimum, maximum);
+        this.limit = this.maximum;
+    }
+
+    /**
+     * Block until number of sessions in use is below limit and all previously waiting borrowers are served
+     *
+     * @param state Cancel status
+     * @return Time in milliseconds waited
+     * @throws ConnectionCanceledException Cancel while waiting
+     */
+    public long acquire(final BackgroundActionState state) throws ConnectionCanceledException {
+        lock.lock();
+        try {
+            if(closed) {
+                throw new ConnectionCanceledException();
+            }
+            if(waiters.isEmpty() && inflight < limit) {
+                this.acquired(0L);
+                return 0L;
+            }
+            final long start = System.currentTimeMillis();
+            final Condition condition = lock.newCondition();
+            waiters.addLast(condition);
+            try {
+                while(waiters.peekFirst() != condition || inflight >= limit) {
+                    if(closed || state.isCanceled()) {
+                        throw new ConnectionCanceledException();
+                    }
+                    log.debug("Wait for {} sessions in use with limit {}", inflight, limit);
+                    condition.await(CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+                final long wait = System.currentTimeMillis() - start;
+                this.acquired(wait);
+                return wait;
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            finally {
+                waiters.remove(condition);
+                this.signal();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquired(final long wait) {
+        inflight++;
+        peak = Math.max(peak, inflight);
+        waits++;
+        waited += wait;
+        maxWaited = Math.max(maxWaited, wait);
+    }
+
+    /**
+     * Wake first waiting borrower if below limit
+     */
+    private void signal() {
+        if(inflight < limit) {
+            final Condition next = waiters.peekFirst();
+            if(null != next) {
+                next.signal();
+            }
+        }
+    }
+
+    /**
+     * Return permit
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inflight = Math.max(0, inflight - 1);
+            this.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param latency Time in milliseconds to obtain usable session already connected. Borrows opening a new connection
+     *                must not be sampled
+     */
+    public void latency(final long latency) {
+        lock.lock();
+        try {
+            this.latency += latency;
+            samples++;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record successful use of session and adjust limit after each window of completions
+     */
+    public void success() {
+        lock.lock();
+        try {
+            if(++completed < Math.max(1, Math.min(limit, peak))) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            final double current = completed * 1000d / Math.max(1L, now - epoch);
+            final double average = samples > 0 ? (double) latency / samples : 0d;
+            if(samples > 0) {
+                baseline = Math.min(baseline, Math.max(LATENCY_MINIMUM, average));
+            }
+            if(samples > 0 && average > baseline * LATENCY_TOLERANCE) {
+                this.decrease(limit - 1, String.format("latency %.0fms above baseline %.0fms", average, baseline));
+            }
+            else if(increased && current < throughput * (1 - THROUGHPUT_THRESHOLD)) {
+                this.decrease(limit - 1, String.format("throughput %.2f/s below %.2f/s", current, throughput));
+            }
+            else if(!waiters.isEmpty() && limit < maximum) {
+                // Additive increase while saturated
+                limit++;
+                increased = true;
+                log.debug("Increase limit to {} with throughput {}/s", limit, current);
+                this.signal();
+            }
+            else {
+                increased = false;
+            }
+            throughput = current;
+            this.reset(now);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Multiplicative decrease after network failure
+     */
+    public void failure() {
+        lock.lock();
+        try {
+            this.decrease(Math.min(limit, Math.max(inflight, 1)) / 2, "network failure");
+            this.reset(System.currentTimeMillis());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(final int target, final String reason) {
+        final int previous = limit;
+        limit = Math.max(minimum, Math.min(limit, target));
+        increased = false;
+        if(limit != previous) {
+            log.warn("Decrease limit from {} to {} after {}", previous, limit, reason);
+        }
+    }
+
+    private void reset(final long now) {
+        epoch = now;
+        completed = 0;
+        peak = inflight;
+        latency = 0L;
+        samples = 0;
+    }
+
+    /**
+     * Reject waiting and future borrowers
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for(Condition condition : waiters) {
+                condition.signal();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set upper bound and reset limit to this value
+     */
+    public void setMaximum(final int maximum) {
+        lock.lock();
+        try {
+            this.maximum = Math.max(minimum, maximum);
+            this.limit = this.maximum;
+            this.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Average time in milliseconds waited for permit
+     */
+    public long getMeanWait() {
+        lock.lock();
+        try {
+            return waits > 0 ? waited / waits : 0L;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Maximum time in milliseconds waited for permit
+     */
+    public long getMaxWait() {
+        lock.lock();
+        try {
+            return maxWaited;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveSessionLimit{");
+        sb.append("limit=").append(limit);
+        sb.append(", maximum=").append(maximum);
+        sb.append(", inflight=").append(inflight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
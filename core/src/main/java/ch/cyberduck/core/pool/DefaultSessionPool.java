@@ -22,6 +22,7 @@ import ch.cyberduck.core.SessionFactory;
 import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.ssl.X509KeyManager;
@@ -42,7 +43,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultSessionPool implements SessionPool {
     private static final Logger log = LogManager.getLogger(DefaultSessionPool.class);
@@ -60,6 +64,11 @@ public class DefaultSessionPool implements SessionPool {
     private final VaultRegistry registry;
 
     private final GenericObjectPool<Session> pool;
+    private final AdaptiveSessionLimit limit;
+    /**
+     * Sessions borrowed and not yet released
+     */
+    private final Set<Session<?>> borrowed = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
     private SessionPool features = SessionPool.DISCONNECTED;
 
@@ -75,10 +84,18 @@ public class DefaultSessionPool implements SessionPool {
         configuration.setEvictionPolicyClassName(CustomPoolEvictionPolicy.class.getName());
         configuration.setBlockWhenExhausted(true);
         configuration.setMaxWait(Duration.ofMillis(BORROW_MAX_WAIT_INTERVAL));
+        configuration.setFairness(true);
+        // Validate idle sessions in background
+        final HostPreferences preferences = new HostPreferences(bookmark);
+        configuration.setTestOnBorrow(false);
+        configuration.setTestWhileIdle(true);
+        configuration.setTimeBetweenEvictionRuns(Duration.ofSeconds(preferences.getLong("connection.pool.validate.interval")));
+        configuration.setMinEvictableIdleDuration(Duration.ofSeconds(preferences.getLong("connection.pool.idle.timeout")));
         this.pool = new GenericObjectPool<>(new PooledSessionFactory(connect, trust, key, bookmark, registry), configuration);
         final AbandonedConfig abandon = new AbandonedConfig();
         abandon.setUseUsageTracking(true);
         this.pool.setAbandonedConfig(abandon);
+        this.limit = new AdaptiveSessionLimit(pool.getMaxTotal());
     }
 
     public DefaultSessionPool(final ConnectionService connect, final VaultRegistry registry,
@@ -88,6 +105,7 @@ public class DefaultSessionPool implements SessionPool {
         this.bookmark = bookmark;
         this.registry = registry;
         this.pool = pool;
+        this.limit = new AdaptiveSessionLimit(pool.getMaxTotal());
     }
 
     public static final class CustomPoolEvictionPolicy implements EvictionPolicy<Session<?>> {
@@ -97,8 +115,11 @@ public class DefaultSessionPool implements SessionPool {
 
         @Override
         public boolean evict(final EvictionConfig config, final PooledObject<Session<?>> underTest, final int idleCount) {
-            log.warn("Evict idle session {} from pool", underTest);
-            return true;
+            if(underTest.getIdleDuration().compareTo(config.getIdleEvictDuration()) > 0) {
+                log.warn("Evict idle session {} from pool", underTest);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -117,6 +138,7 @@ public class DefaultSessionPool implements SessionPool {
     public DefaultSessionPool withMaxTotal(final int count) {
         log.debug("Configure with max total {}", count);
         pool.setMaxTotal(count);
+        limit.setMaximum(count);
         return this;
     }
 
@@ -126,15 +148,29 @@ public class DefaultSessionPool implements SessionPool {
         if(numActive > POOL_WARNING_THRESHOLD) {
             log.warn("Possibly large number of open connections ({}) in pool {}", numActive, this);
         }
+        if(pool.isClosed()) {
+            throw new ConnectionCanceledException();
+        }
+        // Wait in order of arrival for number of sessions in use below limit
+        limit.acquire(callback);
+        boolean acquired = false;
         try {
             while(!callback.isCanceled()) {
                 try {
                     log.info("Borrow session from pool {}", this);
+                    final long connects = this.getConnectCount();
+                    final long start = System.currentTimeMillis();
                     final Session<?> session = pool.borrowObject();
                     log.info("Borrowed session {} from pool {}", session, this);
+                    if(connects == this.getConnectCount()) {
+                        // Sample only borrows of open sessions. Time to connect and login is no sign of congestion
+                        limit.latency(System.currentTimeMillis() - start);
+                    }
                     if(DISCONNECTED == features) {
                         features = new StatelessSessionPool(connect, session, transcript, registry);
                     }
+                    borrowed.add(session);
+                    acquired = true;
                     return session.withListener(transcript);
                 }
                 catch(IllegalStateException e) {
@@ -154,9 +190,8 @@ public class DefaultSessionPool implements SessionPool {
                         final BackgroundException failure = (BackgroundException) cause;
                         log.warn("Failure {} obtaining connection for {}", failure, this);
                         if(diagnostics.determine(failure) == FailureDiagnostics.Type.network) {
-                            final int max = Math.max(1, pool.getMaxIdle() - 1);
-                            log.warn("Lower maximum idle pool size to {} connections.", max);
-                            pool.setMaxIdle(max);
+                            // Multiplicative decrease of sessions in use
+                            limit.failure();
                             // Clear pool from idle connections
                             pool.clear();
                         }
@@ -177,11 +212,32 @@ public class DefaultSessionPool implements SessionPool {
             }
             throw new BackgroundException(e.getMessage(), e);
         }
+        finally {
+            if(!acquired) {
+                limit.release();
+            }
+        }
+    }
+
+    /**
+     * @return Number of connections opened by pool
+     */
+    private long getConnectCount() {
+        return pool.getFactory() instanceof PooledSessionFactory ? ((PooledSessionFactory) pool.getFactory()).getConnectCount() : 0L;
     }
 
     @Override
     public void release(final Session<?> session, final BackgroundException failure) {
         log.info("Release session {} to pool", session);
+        if(borrowed.remove(session)) {
+            if(null != failure && diagnostics.determine(failure) == FailureDiagnostics.Type.network) {
+                limit.failure();
+            }
+            else {
+                limit.success();
+            }
+            limit.release();
+        }
         try {
             if(null != failure) {
                 if(diagnostics.determine(failure) == FailureDiagnostics.Type.network) {
@@ -217,6 +273,7 @@ public class DefaultSessionPool implements SessionPool {
     public void shutdown() {
         try {
             log.info("Close connection pool {}", this);
+            limit.close();
             this.evict();
             pool.close();
         }
@@ -246,6 +303,16 @@ public class DefaultSessionPool implements SessionPool {
         return pool.getNumIdle();
     }
 
+    /**
+     * @return Snapshot of pool gauges
+     */
+    public SessionPoolGauges getGauges() {
+        return new SessionPoolGauges(pool.getNumActive(), pool.getNumIdle(), limit.getWaiting() + pool.getNumWaiters(),
+                limit.getLimit(), limit.getMeanWait(), limit.getMaxWait(),
+                pool.getFactory() instanceof PooledSessionFactory ? ((PooledSessionFactory) pool.getFactory()).getMeanConnectTime() : 0L,
+                pool.getCreatedCount(), pool.getDestroyedCount());
+    }
+
     @Override
     public Session.State getState() {
         if(pool.isClosed()) {
@@ -271,7 +338,8 @@ public class DefaultSessionPool implements SessionPool {
         sb.append("bookmark=").append(bookmark);
         sb.append(", idle=").append(pool.getNumIdle());
         sb.append(", active=").append(pool.getNumActive());
-        sb.append(", waiters=").append(pool.getNumWaiters());
+        sb.append(", waiters=").append(limit.getWaiting() + pool.getNumWaiters());
+        sb.append(", limit=").append(limit.getLimit());
         sb.append('}');
         return sb.toString();
     }
@@ -29,10 +29,13 @@ import ch.cyberduck.core.vault.VaultRegistry;
 
 import org.apache.commons.pool2.BasePooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectState;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class PooledSessionFactory extends BasePooledObjectFactory<Session> {
     private static final Logger log = LogManager.getLogger(PooledSessionFactory.class);
 
@@ -42,6 +45,12 @@ public class PooledSessionFactory extends BasePooledObjectFactory<Session> {
     private final Host bookmark;
     private final VaultRegistry registry;
 
+    /**
+     * Number of connections opened and total time in milliseconds
+     */
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder connectTime = new LongAdder();
+
     public PooledSessionFactory(final ConnectionService connect, final X509TrustManager trust, final X509KeyManager key,
                                 final Host bookmark, final VaultRegistry registry) {
         this.connect = connect;
@@ -65,8 +74,45 @@ public class PooledSessionFactory extends BasePooledObjectFactory<Session> {
     @Override
     public void activateObject(final PooledObject<Session> p) throws BackgroundException {
         final Session session = p.getObject();
+        if(p.getState() == PooledObjectState.EVICTION) {
+            // Do not connect idle sessions tested in background
+            return;
+        }
         log.debug("Activate session {}", session);
+        final boolean connected = session.isConnected();
+        final long start = System.currentTimeMillis();
         connect.check(session, new DisabledCancelCallback());
+        if(!connected) {
+            connects.increment();
+            connectTime.add(System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Run for idle sessions in background by evictor
+     *
+     * @return False if connection was opened and is no longer connected
+     */
+    @Override
+    public boolean validateObject(final PooledObject<Session> p) {
+        final Session session = p.getObject();
+        log.debug("Validate session {}", session);
+        return null == session.getClient() || session.isConnected();
+    }
+
+    /**
+     * @return Number of connections opened
+     */
+    public long getConnectCount() {
+        return connects.sum();
+    }
+
+    /**
+     * @return Average time in milliseconds to open connection
+     */
+    public long getMeanConnectTime() {
+        final long count = connects.sum();
+        return count > 0 ? connectTime.sum() / count : 0L;
     }
 
     @Override
@@ -0,0 +1,117 @@
+package ch.cyberduck.core.pool;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+/**
+ * Snapshot of connection pool gauges for monitoring
+ */
+public final class SessionPoolGauges {
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final int limit;
+    private final long meanWait;
+    private final long maxWait;
+    private final long meanCreate;
+    private final long created;
+    private final long destroyed;
+
+    public SessionPoolGauges(final int active, final int idle, final int waiting, final int limit,
+                             final long meanWait, final long maxWait, final long meanCreate,
+                             final long created, final long destroyed) {
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.limit = limit;
+        this.meanWait = meanWait;
+        this.maxWait = maxWait;
+        this.meanCreate = meanCreate;
+        this.created = created;
+        this.destroyed = destroyed;
+    }
+
+    /**
+     * @return Number of sessions borrowed
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return Number of open sessions available for reuse
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return Number of borrowers waiting for session
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * @return Current limit of sessions in use
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Average time in milliseconds waited to borrow session
+     */
+    public long getMeanWait() {
+        return meanWait;
+    }
+
+    /**
+     * @return Maximum time in milliseconds waited to borrow session
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * @return Average time in milliseconds to open connection for new session
+     */
+    public long getMeanCreate() {
+        return meanCreate;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getDestroyed() {
+        return destroyed;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SessionPoolGauges{");
+        sb.append("active=").append(active);
+        sb.append(", idle=").append(idle);
+        sb.append(", waiting=").append(waiting);
+        sb.append(", limit=").append(limit);
+        sb.append(", meanWait=").append(meanWait);
+        sb.append(", maxWait=").append(maxWait);
+        sb.append(", meanCreate=").append(meanCreate);
+        sb.append(", created=").append(created);
+        sb.append(", destroyed=").append(destroyed);
+        sb.append('}');
+        return sb.toString();
+    }
+}
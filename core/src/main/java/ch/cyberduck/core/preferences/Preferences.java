@@ -62,6 +62,7 @@ import ch.cyberduck.core.urlhandler.DisabledSchemeHandler;
 import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.core.vault.DisabledVault;
 import ch.cyberduck.core.webloc.InternetShortcutFileWriter;
+import ch.cyberduck.core.worker.WorkStealingTransferScheduler;
 import ch.cyberduck.ui.quicklook.ApplicationLauncherQuicklook;
 
 import org.apache.commons.io.IOUtils;
@@ -536,6 +537,7 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("factory.updater.class", DisabledPeriodicUpdater.class.getName());
         this.setDefault("factory.updater.arguments.class", DisabledUpdateCheckerArguments.class.getName());
         this.setDefault("factory.threadpool.class", DefaultThreadPool.class.getName());
+        this.setDefault("factory.transferscheduler.class", WorkStealingTransferScheduler.class.getName());
         this.setDefault("factory.urlfilewriter.class", InternetShortcutFileWriter.class.getName());
         this.setDefault("factory.vault.class", DisabledVault.class.getName());
         this.setDefault("factory.vaultregistry.class", DefaultVaultRegistry.class.getName());
@@ -32,6 +32,7 @@ import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.UploadTransfer;
 
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -227,6 +228,10 @@ public class TransferDictionary<T> {
         if(bandwidthObj != null) {
             transfer.getBandwidth().setRate(Float.parseFloat(bandwidthObj.toString()));
         }
+        final Object priorityObj = dict.stringForKey("Priority");
+        if(priorityObj != null) {
+            transfer.setPriority(EnumUtils.getEnum(Transfer.Priority.class, priorityObj.toString(), Transfer.Priority.normal));
+        }
         return transfer;
     }
 }
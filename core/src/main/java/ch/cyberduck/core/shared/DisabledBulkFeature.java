@@ -36,6 +36,11 @@ public class DisabledBulkFeature implements Bulk<Map<TransferItem, TransferStatu
         return this;
     }
 
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
     @Override
     public void post(final Transfer.Type type, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
         //
@@ -22,6 +22,7 @@ import ch.cyberduck.core.DefaultPathPredicate;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathIndexer;
 import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
@@ -30,6 +31,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.function.Function;
+
 public abstract class ListFilteringFeature {
     private static final Logger log = LogManager.getLogger(ListFilteringFeature.class);
 
@@ -85,5 +88,22 @@ public abstract class ListFilteringFeature {
             }
             return false;
         }
+
+        @Override
+        public Function<Path, ?> indexer() {
+            if(StringUtils.isNotBlank(file.attributes().getVersionId())
+                    || StringUtils.isNotBlank(file.attributes().getFileId())) {
+                return PathIndexer.sensitive;
+            }
+            if(sensitivity == Protocol.Case.insensitive) {
+                return PathIndexer.insensitive;
+            }
+            return PathIndexer.sensitive;
+        }
+
+        @Override
+        public Object key() {
+            return this.indexer().apply(file);
+        }
     }
 }
@@ -77,6 +77,11 @@ public class CachingComparePathFilter implements ComparePathFilter {
         return this;
     }
 
+    public CachingComparePathFilter withIndex(final SyncIndex index) {
+        delegate.withIndex(index);
+        return this;
+    }
+
     @Override
     public CachingComparePathFilter withCache(final Map<TransferItem, Comparison> cache) {
         this.cache = cache;
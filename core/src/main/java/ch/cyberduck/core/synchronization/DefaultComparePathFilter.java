@@ -19,6 +19,7 @@ package ch.cyberduck.core.synchronization;
  */
 
 import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
@@ -46,6 +47,7 @@ public class DefaultComparePathFilter implements ComparePathFilter {
 
     private Find finder;
     private AttributesFinder attribute;
+    private SyncIndex index = new DisabledSyncIndex();
 
     private final ComparisonService comparison;
 
@@ -67,6 +69,14 @@ public class DefaultComparePathFilter implements ComparePathFilter {
         return this;
     }
 
+    /**
+     * @param index Local and remote state recorded in previous synchronization
+     */
+    public ComparePathFilter withIndex(final SyncIndex index) {
+        this.index = index;
+        return this;
+    }
+
     @Override
     public ComparePathFilter withCache(final Map<TransferItem, Comparison> cache) {
         return this;
@@ -81,9 +91,10 @@ public class DefaultComparePathFilter implements ComparePathFilter {
                     return Comparison.equal;
                 }
                 final PathAttributes remote = attribute.find(file);
+                final LocalAttributes attributes = local.attributes();
                 final PathAttributes current = new PathAttributes()
-                        .withModificationDate(local.attributes().getModificationDate())
-                        .withSize(local.attributes().getSize());
+                        .withModificationDate(attributes.getModificationDate())
+                        .withSize(attributes.getSize());
                 // We must always compare the size because the download filter will have already created a temporary 0 byte file
                 switch(new SizeComparisonService().compare(Path.Type.file, current, remote)) {
                     case remote:
@@ -91,16 +102,32 @@ public class DefaultComparePathFilter implements ComparePathFilter {
                     case local:
                         return Comparison.local;
                 }
+                final TransferItem item = new TransferItem(file, local);
+                final String key = attributes.getFileKey();
+                final SyncIndexEntry previous = index.get(item);
+                final boolean unchanged = null != previous && previous.isLocalUnchanged(key, current);
+                if(unchanged && previous.isRemoteUnchanged(remote) && Comparison.equal == previous.getComparison()) {
+                    log.debug("Skip comparison for {} unchanged since {}", file, previous);
+                    return Comparison.equal;
+                }
                 // Equal size
                 if(Checksum.NONE.equals(remote.getChecksum())) {
                     log.warn("Missing checksum for {}", file);
                 }
                 else {
-                    listener.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                    final Checksum checksum = this.checksum(remote.getChecksum().algorithm, local);
+                    final Checksum checksum;
+                    if(unchanged && remote.getChecksum().algorithm == previous.getLocal().getChecksum().algorithm) {
+                        log.debug("Reuse checksum of {} unchanged since {}", local, previous);
+                        checksum = previous.getLocal().getChecksum();
+                    }
+                    else {
+                        listener.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
+                        checksum = this.checksum(remote.getChecksum().algorithm, local);
+                    }
                     current.withETag(checksum.hash).withChecksum(checksum);
                 }
                 final Comparison result = comparison.compare(Path.Type.file, current, remote);
+                index.put(item, new SyncIndexEntry(key, current, remote, result));
                 switch(result) {
                     case unknown:
                     case local:
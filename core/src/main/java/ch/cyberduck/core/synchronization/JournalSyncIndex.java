@@ -0,0 +1,290 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of index entries in a single file. Entries are loaded into memory on first access with later
+ * records for the same item replacing earlier ones. The journal is rewritten with only the current entries when
+ * the number of superseded records exceeds the number of entries.
+ */
+public class JournalSyncIndex implements SyncIndex {
+    private static final Logger log = LogManager.getLogger(JournalSyncIndex.class);
+
+    private static final int VERSION = 1;
+
+    private final Local file;
+    /**
+     * Minimum number of records before compacting journal
+     */
+    private final int threshold;
+
+    private final Map<String, SyncIndexEntry> entries = new HashMap<>();
+
+    /**
+     * Number of records in journal including superseded entries
+     */
+    private int records;
+    private boolean loaded;
+    private DataOutputStream out;
+
+    public JournalSyncIndex(final Local file) {
+        this(file, PreferencesFactory.get().getInteger("queue.sync.index.compact.threshold"));
+    }
+
+    public JournalSyncIndex(final Local file, final int threshold) {
+        this.file = file;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized SyncIndexEntry get(final TransferItem item) {
+        this.load();
+        return entries.get(this.toKey(item));
+    }
+
+    @Override
+    public synchronized void put(final TransferItem item, final SyncIndexEntry entry) {
+        this.load();
+        final String key = this.toKey(item);
+        entries.put(key, entry);
+        if(null == out) {
+            return;
+        }
+        try {
+            this.write(out, key, entry);
+            records++;
+        }
+        catch(IOException e) {
+            log.warn("Failure writing index {}. {}", file, e.getMessage());
+            this.disable();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if(null != out) {
+            try {
+                out.close();
+            }
+            catch(IOException e) {
+                log.warn("Failure closing index {}. {}", file, e.getMessage());
+            }
+            out = null;
+        }
+        if(records > threshold && records > 2 * entries.size()) {
+            this.compact();
+        }
+        entries.clear();
+        records = 0;
+        loaded = false;
+    }
+
+    private String toKey(final TransferItem item) {
+        return String.format("%s\n%s", item.remote.getAbsolute(), item.local.getAbsolute());
+    }
+
+    private void load() {
+        if(loaded) {
+            return;
+        }
+        loaded = true;
+        // False if journal contains unreadable records
+        boolean clean = true;
+        if(file.exists()) {
+            log.debug("Load index from {}", file);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.getInputStream()))) {
+                if(in.readInt() != VERSION) {
+                    log.warn("Discard index {} with unknown version", file);
+                    clean = false;
+                }
+                else {
+                    while(true) {
+                        final String key;
+                        try {
+                            key = in.readUTF();
+                        }
+                        catch(EOFException e) {
+                            break;
+                        }
+                        entries.put(key, this.read(in));
+                        records++;
+                    }
+                }
+            }
+            catch(EOFException e) {
+                // Truncated record from interrupted write
+                log.warn("Ignore incomplete record in index {}", file);
+                clean = false;
+            }
+            catch(IOException | AccessDeniedException | IllegalArgumentException e) {
+                log.warn("Failure reading index {}. {}", file, e.getMessage());
+                entries.clear();
+                clean = false;
+            }
+            log.debug("Loaded {} entries from {} records in {}", entries.size(), records, file);
+        }
+        if(!clean) {
+            // Rewrite to drop unreadable records before appending
+            if(!this.compact()) {
+                return;
+            }
+        }
+        try {
+            out = this.open(file, file.exists());
+        }
+        catch(IOException | AccessDeniedException e) {
+            log.warn("Failure opening index {}. {}", file, e.getMessage());
+            this.disable();
+        }
+    }
+
+    private DataOutputStream open(final Local target, final boolean append) throws IOException, AccessDeniedException {
+        final Local parent = target.getParent();
+        if(!parent.exists()) {
+            parent.mkdir();
+        }
+        final DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(target.getOutputStream(append)));
+        if(!append) {
+            stream.writeInt(VERSION);
+        }
+        return stream;
+    }
+
+    /**
+     * @return False if failure writing index
+     */
+    private boolean compact() {
+        log.debug("Compact {} records to {} entries in {}", records, entries.size(), file);
+        final Local temporary = LocalFactory.get(file.getParent(), String.format("%s.tmp", file.getName()));
+        try {
+            try (DataOutputStream stream = this.open(temporary, false)) {
+                for(Map.Entry<String, SyncIndexEntry> entry : entries.entrySet()) {
+                    this.write(stream, entry.getKey(), entry.getValue());
+                }
+            }
+            temporary.rename(file);
+            records = entries.size();
+            return true;
+        }
+        catch(IOException | AccessDeniedException e) {
+            log.warn("Failure compacting index {}. {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private void disable() {
+        IOUtils.closeQuietly(out);
+        out = null;
+    }
+
+    private void write(final DataOutputStream stream, final String key, final SyncIndexEntry entry) throws IOException {
+        stream.writeUTF(key);
+        this.writeString(stream, entry.getKey());
+        stream.writeLong(entry.getLocal().getSize());
+        stream.writeLong(entry.getLocal().getModificationDate());
+        this.writeChecksum(stream, entry.getLocal().getChecksum());
+        final PathAttributes remote = entry.getRemote();
+        stream.writeLong(remote.getSize());
+        stream.writeLong(remote.getModificationDate());
+        this.writeChecksum(stream, remote.getChecksum());
+        this.writeString(stream, remote.getETag());
+        this.writeString(stream, remote.getVersionId());
+        stream.writeBoolean(null != remote.getRevision());
+        if(null != remote.getRevision()) {
+            stream.writeLong(remote.getRevision());
+        }
+        stream.writeUTF(entry.getComparison().name());
+    }
+
+    private SyncIndexEntry read(final DataInputStream stream) throws IOException {
+        final String key = this.readString(stream);
+        final PathAttributes local = new PathAttributes()
+                .withSize(stream.readLong())
+                .withModificationDate(stream.readLong())
+                .withChecksum(this.readChecksum(stream));
+        final PathAttributes remote = new PathAttributes()
+                .withSize(stream.readLong())
+                .withModificationDate(stream.readLong())
+                .withChecksum(this.readChecksum(stream))
+                .withETag(this.readString(stream))
+                .withVersionId(this.readString(stream));
+        if(stream.readBoolean()) {
+            remote.setRevision(stream.readLong());
+        }
+        return new SyncIndexEntry(key, local, remote, Comparison.valueOf(stream.readUTF()));
+    }
+
+    private void writeChecksum(final DataOutputStream stream, final Checksum checksum) throws IOException {
+        stream.writeBoolean(null != checksum.algorithm);
+        if(null != checksum.algorithm) {
+            stream.writeUTF(checksum.algorithm.name());
+            this.writeString(stream, checksum.hex);
+            this.writeString(stream, checksum.base64);
+        }
+    }
+
+    private Checksum readChecksum(final DataInputStream stream) throws IOException {
+        if(stream.readBoolean()) {
+            return new Checksum(HashAlgorithm.valueOf(stream.readUTF()), this.readString(stream), this.readString(stream));
+        }
+        return Checksum.NONE;
+    }
+
+    private void writeString(final DataOutputStream stream, final String value) throws IOException {
+        stream.writeBoolean(null != value);
+        if(null != value) {
+            stream.writeUTF(value);
+        }
+    }
+
+    private String readString(final DataInputStream stream) throws IOException {
+        if(stream.readBoolean()) {
+            return stream.readUTF();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("JournalSyncIndex{");
+        sb.append("file=").append(file);
+        sb.append(", entries=").append(entries.size());
+        sb.append(", records=").append(records);
+        sb.append('}');
+        return sb.toString();
+    }
+}
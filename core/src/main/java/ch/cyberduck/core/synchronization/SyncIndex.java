@@ -0,0 +1,42 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.transfer.TransferItem;
+
+/**
+ * Persistent record of local and remote file state from previous synchronization runs
+ */
+public interface SyncIndex {
+
+    /**
+     * @param item Remote and local file
+     * @return State recorded in a previous comparison or null if unknown
+     */
+    SyncIndexEntry get(TransferItem item);
+
+    /**
+     * Record state after comparison
+     *
+     * @param item  Remote and local file
+     * @param entry Local and remote state with comparison result
+     */
+    void put(TransferItem item, SyncIndexEntry entry);
+
+    /**
+     * Write pending changes to disk
+     */
+    void close();
+}
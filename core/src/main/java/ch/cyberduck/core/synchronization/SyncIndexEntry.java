@@ -0,0 +1,95 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.PathAttributes;
+
+import java.util.Objects;
+
+/**
+ * Local state with file key, size, modification date and checksum and remote state with size, modification date,
+ * checksum, ETag, version and revision of a file at the time of comparison
+ */
+public final class SyncIndexEntry {
+
+    /**
+     * Identifier of local file such as device and inode or null if not available
+     */
+    private final String key;
+    private final PathAttributes local;
+    private final PathAttributes remote;
+    private final Comparison comparison;
+
+    public SyncIndexEntry(final String key, final PathAttributes local, final PathAttributes remote, final Comparison comparison) {
+        this.key = key;
+        this.local = local;
+        this.remote = remote;
+        this.comparison = comparison;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public PathAttributes getLocal() {
+        return local;
+    }
+
+    public PathAttributes getRemote() {
+        return remote;
+    }
+
+    public Comparison getComparison() {
+        return comparison;
+    }
+
+    /**
+     * @param key     Current identifier of local file
+     * @param current Current size and modification date of local file
+     * @return True if local file has not been replaced or modified since recorded
+     */
+    public boolean isLocalUnchanged(final String key, final PathAttributes current) {
+        if(current.getModificationDate() == -1L) {
+            return false;
+        }
+        return Objects.equals(this.key, key)
+                && local.getSize() == current.getSize()
+                && local.getModificationDate() == current.getModificationDate();
+    }
+
+    /**
+     * @param current Current attributes of remote file
+     * @return True if remote file has not been modified since recorded
+     */
+    public boolean isRemoteUnchanged(final PathAttributes current) {
+        return remote.getSize() == current.getSize()
+                && remote.getModificationDate() == current.getModificationDate()
+                && Objects.equals(remote.getChecksum(), current.getChecksum())
+                && Objects.equals(remote.getETag(), current.getETag())
+                && Objects.equals(remote.getVersionId(), current.getVersionId())
+                && Objects.equals(remote.getRevision(), current.getRevision());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SyncIndexEntry{");
+        sb.append("key='").append(key).append('\'');
+        sb.append(", local=").append(local);
+        sb.append(", remote=").append(remote);
+        sb.append(", comparison=").append(comparison);
+        sb.append('}');
+        return sb.toString();
+    }
+}
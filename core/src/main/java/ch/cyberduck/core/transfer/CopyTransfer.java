@@ -24,6 +24,7 @@ import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Copy;
 import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.io.BandwidthScheduler;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -52,7 +53,7 @@ public class CopyTransfer extends Transfer {
     private final Comparator<Path> comparator = new NullComparator<>();
 
     private Cache<Path> cache
-            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"), PreferencesFactory.get().getLong("transfer.cache.weight"));
 
     /**
      * Temporary mapping for source to destination files
@@ -70,7 +71,7 @@ public class CopyTransfer extends Transfer {
 
     public CopyTransfer(final Host source, final Host destination,
                         final Map<Path, Path> selected) {
-        this(source, destination, selected, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        this(source, destination, selected, BandwidthScheduler.create(source, PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
     }
 
     public CopyTransfer(final Host source, final Host destination,
@@ -124,6 +125,9 @@ public class CopyTransfer extends Transfer {
         if(bandwidth != null) {
             dict.setStringForKey(String.valueOf(bandwidth.getRate()), "Bandwidth");
         }
+        if(priority != Priority.normal) {
+            dict.setStringForKey(priority.name(), "Priority");
+        }
         return dict.getSerialized();
     }
 
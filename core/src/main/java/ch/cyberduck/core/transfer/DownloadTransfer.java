@@ -27,7 +27,7 @@ import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.filter.DownloadDuplicateFilter;
 import ch.cyberduck.core.filter.DownloadRegexFilter;
-import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.BandwidthScheduler;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.LocalSymlinkFactory;
@@ -44,6 +44,7 @@ import ch.cyberduck.core.transfer.download.OverwriteFilter;
 import ch.cyberduck.core.transfer.download.RenameExistingFilter;
 import ch.cyberduck.core.transfer.download.RenameFilter;
 import ch.cyberduck.core.transfer.download.ResumeFilter;
+import ch.cyberduck.core.transfer.download.SegmentBandwidthEstimator;
 import ch.cyberduck.core.transfer.download.SkipFilter;
 import ch.cyberduck.core.transfer.download.TrashFilter;
 import ch.cyberduck.core.transfer.normalizer.DownloadRootPathsNormalizer;
@@ -68,7 +69,7 @@ public class DownloadTransfer extends Transfer {
     private final DownloadSymlinkResolver symlinkResolver;
 
     private Cache<Path> cache
-            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"), PreferencesFactory.get().getLong("transfer.cache.weight"));
 
     private DownloadFilterOptions options = new DownloadFilterOptions(host);
 
@@ -91,7 +92,7 @@ public class DownloadTransfer extends Transfer {
     }
 
     public DownloadTransfer(final Host host, final List<TransferItem> roots, final Filter<Path> f, final Comparator<Path> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        super(host, roots, BandwidthScheduler.create(host, PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
         this.filter = f;
         this.comparator = comparator;
         this.symlinkResolver = new DownloadSymlinkResolver(roots);
@@ -235,15 +236,8 @@ public class DownloadTransfer extends Transfer {
                     log.warn("Skip existing directory {}", file);
                     continue;
                 }
-                final Local local = entry.getKey().local;
-                progress.message(MessageFormat.format(LocaleFactory.localizedString("Making directory {0}", "Status"), local.getName()));
                 try {
-                    new DefaultLocalDirectoryFeature().mkdir(local);
-                    // Post process of file
-                    filter.complete(
-                            status.getRename().remote != null ? status.getRename().remote : entry.getKey().remote,
-                            status.getRename().local != null ? status.getRename().local : entry.getKey().local,
-                            status.complete(), progress);
+                    this.mkdir(entry.getKey(), status, filter, progress);
                 }
                 catch(AccessDeniedException e) {
                     if(error.prompt(entry.getKey(), status, e, files.size())) {
@@ -258,6 +252,35 @@ public class DownloadTransfer extends Transfer {
         }
     }
 
+    @Override
+    public void pre(final Session<?> source, final Session<?> destination, final TransferItem item, final TransferStatus status,
+                    final TransferPathFilter filter, final ProgressListener progress, final ConnectionCallback callback) throws BackgroundException {
+        source.getFeature(Bulk.class).pre(Type.download, Collections.singletonMap(item, status), callback);
+        if(item.remote.isDirectory()) {
+            if(status.isExists()) {
+                log.warn("Skip existing directory {}", item.remote);
+                return;
+            }
+            this.mkdir(item, status, filter, progress);
+        }
+    }
+
+    private void mkdir(final TransferItem item, final TransferStatus status,
+                       final TransferPathFilter filter, final ProgressListener progress) throws BackgroundException {
+        progress.message(MessageFormat.format(LocaleFactory.localizedString("Making directory {0}", "Status"), item.local.getName()));
+        new DefaultLocalDirectoryFeature().mkdir(item.local);
+        // Post process of file
+        filter.complete(
+                status.getRename().remote != null ? status.getRename().remote : item.remote,
+                status.getRename().local != null ? status.getRename().local : item.local,
+                status.complete(), progress);
+    }
+
+    @Override
+    public boolean isStreaming(final Session<?> source, final Session<?> destination) {
+        return source.getFeature(Bulk.class).isIncremental();
+    }
+
     @Override
     public void post(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files,
                      final TransferErrorCallback error, final ProgressListener listener, final ConnectionCallback callback) throws BackgroundException {
@@ -307,8 +330,13 @@ public class DownloadTransfer extends Transfer {
             }
             // Transfer
             final Download download = source.getFeature(Download.class);
+            final long start = System.currentTimeMillis();
             download.download(file, local, bandwidth, this.options.icon && segment.getLength() > PreferencesFactory.get().getLong("queue.download.icon.threshold") && !overall.isSegmented() ?
                     new IconUpdateStreamListener(streamListener, segment, local) : streamListener, segment, connectionCallback);
+            if(segment.isSegment()) {
+                // Sample for sizing segments of subsequent downloads
+                SegmentBandwidthEstimator.get().record(source.getHost(), segment.getLength(), System.currentTimeMillis() - start);
+            }
         }
     }
 
@@ -0,0 +1,318 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.LoggingUncaughtExceptionHandler;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Schedule segments of a file for upload on an executor shared by all uploads. The number of segments in flight is
+ * limited by a window that is adjusted from the throughput observed for every window of completed segments. The
+ * segment size is doubled up to a maximum after every fixed number of segments. The layout of segments only depends
+ * on the segment number to allow resuming an interrupted upload with the same offset and length for missing segments.
+ *
+ * @param <T> Response for segment
+ */
+public class SegmentScheduler<T> {
+    private static final Logger log = LogManager.getLogger(SegmentScheduler.class);
+
+    /**
+     * Minimum relative change in throughput to adjust window
+     */
+    private static final double THRESHOLD = 0.1d;
+
+    private static ThreadPool shared;
+
+    /**
+     * @return Executor with bounded number of threads shared by all segmented uploads
+     */
+    public static synchronized ThreadPool shared() {
+        if(null == shared) {
+            shared = new DefaultThreadPool("multipart", PreferencesFactory.get().getInteger("queue.upload.multipart.threads"),
+                    ThreadPool.Priority.norm, new LinkedBlockingQueue<>(), new LoggingUncaughtExceptionHandler());
+            // Idle threads terminate
+            ((ThreadPoolExecutor) shared.executor()).allowCoreThreadTimeOut(true);
+        }
+        return shared;
+    }
+
+    private final ThreadPool pool;
+    private final Window window;
+    /**
+     * Maximum number of segments in flight
+     */
+    private final int maximum;
+    private final long segmentsize;
+    private final long maximumSegmentsize;
+    /**
+     * Number of segments before segment size is doubled
+     */
+    private final int growth;
+
+    private final Map<Integer, Future<T>> running = new ConcurrentHashMap<>();
+    private final Map<Integer, T> results = new ConcurrentSkipListMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Sequence number of next segment submitted
+     */
+    private int sequence;
+
+    /**
+     * Current window size. Guarded by this
+     */
+    private int limit;
+    /**
+     * Number of submitted segments not yet completed. Guarded by this
+     */
+    private int pending;
+    /**
+     * Statistics of current window of completed segments. Guarded by this
+     */
+    private long epoch = System.currentTimeMillis();
+    private long bytes;
+    private int count;
+    /**
+     * Throughput in bytes per millisecond of previous window. Guarded by this
+     */
+    private double throughput;
+
+    /**
+     * @param concurrency Initial number of segments in flight
+     * @param segmentsize Fixed segment size
+     */
+    public SegmentScheduler(final int concurrency, final long segmentsize) {
+        this(concurrency, segmentsize, segmentsize);
+    }
+
+    /**
+     * @param concurrency        Initial number of segments in flight
+     * @param segmentsize        Initial segment size
+     * @param maximumSegmentsize Maximum segment size
+     */
+    public SegmentScheduler(final int concurrency, final long segmentsize, final long maximumSegmentsize) {
+        this(shared(), concurrency,
+                Math.max(concurrency, Math.min(2 * concurrency, PreferencesFactory.get().getInteger("queue.upload.multipart.threads"))),
+                segmentsize, maximumSegmentsize, PreferencesFactory.get().getInteger("queue.upload.multipart.partsize.growth"));
+    }
+
+    /**
+     * @param pool               Executor
+     * @param concurrency        Initial number of segments in flight
+     * @param maximum            Maximum number of segments in flight
+     * @param segmentsize        Initial segment size
+     * @param maximumSegmentsize Maximum segment size
+     * @param growth             Number of segments before segment size is doubled
+     */
+    public SegmentScheduler(final ThreadPool pool, final int concurrency, final int maximum,
+                            final long segmentsize, final long maximumSegmentsize, final int growth) {
+        this.pool = pool;
+        this.limit = Math.max(1, concurrency);
+        this.maximum = Math.max(limit, maximum);
+        this.window = new Window(limit);
+        this.segmentsize = segmentsize;
+        this.maximumSegmentsize = Math.max(segmentsize, maximumSegmentsize);
+        this.growth = Math.max(1, growth);
+    }
+
+    /**
+     * @param number Segment number starting with 1
+     * @return Length of segment when not the last segment of file
+     */
+    public long getSegmentsize(final int number) {
+        long size = segmentsize;
+        for(int i = 0; i < (number - 1) / growth && size < maximumSegmentsize; i++) {
+            size = Math.min(maximumSegmentsize, size * 2);
+        }
+        return size;
+    }
+
+    /**
+     * @return Current number of segments allowed in flight
+     */
+    public synchronized int getConcurrency() {
+        return limit;
+    }
+
+    /**
+     * Submit segment for upload. Blocks until segment fits in window
+     *
+     * @param length   Length of segment
+     * @param callable Upload of segment
+     * @throws BackgroundException Failure uploading previously submitted segment
+     */
+    public void submit(final long length, final Callable<T> callable) throws BackgroundException {
+        this.check();
+        try {
+            window.acquire();
+        }
+        catch(InterruptedException e) {
+            this.cancel();
+            throw new ConnectionCanceledException(e);
+        }
+        if(null != failure.get()) {
+            window.release();
+            this.check();
+        }
+        final int segment = sequence++;
+        synchronized(this) {
+            pending++;
+        }
+        // Discard references to completed segments
+        running.values().removeIf(Future::isDone);
+        log.debug("Submit segment {} with length {}", segment, length);
+        running.put(segment, pool.execute(() -> {
+            try {
+                final T result = callable.call();
+                results.put(segment, result);
+                this.completed(length);
+                return result;
+            }
+            catch(Exception e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+            finally {
+                window.release();
+                synchronized(this) {
+                    pending--;
+                    this.notifyAll();
+                }
+            }
+        }));
+    }
+
+    /**
+     * Wait for all submitted segments to complete
+     *
+     * @return Responses in order of submission
+     * @throws BackgroundException Failure uploading segment
+     */
+    public List<T> await() throws BackgroundException {
+        synchronized(this) {
+            while(pending > 0 && null == failure.get()) {
+                try {
+                    this.wait();
+                }
+                catch(InterruptedException e) {
+                    this.cancel();
+                    throw new ConnectionCanceledException(e);
+                }
+            }
+        }
+        this.check();
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Interrupt segments in flight
+     */
+    public void cancel() {
+        for(Future<T> future : running.values()) {
+            future.cancel(true);
+        }
+        running.clear();
+    }
+
+    private void check() throws BackgroundException {
+        final Throwable e = failure.get();
+        if(null != e) {
+            this.cancel();
+            for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+            }
+            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+        }
+    }
+
+    /**
+     * Adjust window after every window of completed segments
+     *
+     * @param length Length of segment
+     */
+    private synchronized void completed(final long length) {
+        bytes += length;
+        if(++count < limit) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final double current = (double) bytes / Math.max(1L, now - epoch);
+        if(0d == throughput || current > throughput * (1 + THRESHOLD)) {
+            // Probe with larger window while throughput increases
+            if(limit < maximum) {
+                limit++;
+                window.release();
+                log.debug("Increase window to {} with throughput {} bytes/ms", limit, current);
+            }
+        }
+        else if(current < throughput * (1 - THRESHOLD)) {
+            if(limit > 1) {
+                limit--;
+                window.reducePermits(1);
+                log.debug("Decrease window to {} with throughput {} bytes/ms", limit, current);
+            }
+        }
+        throughput = current;
+        epoch = now;
+        bytes = 0L;
+        count = 0;
+    }
+
+    private static final class Window extends Semaphore {
+        public Window(final int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        public void reducePermits(final int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SegmentScheduler{");
+        sb.append("segmentsize=").append(segmentsize);
+        sb.append(", maximumSegmentsize=").append(maximumSegmentsize);
+        sb.append(", window=").append(this.getConcurrency());
+        sb.append(", maximum=").append(maximum);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -24,8 +24,10 @@ import ch.cyberduck.core.CachingFindFeature;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.ProgressListener;
@@ -33,17 +35,23 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
-import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.BandwidthScheduler;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.local.LocalChangeJournal;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
 import ch.cyberduck.core.serializer.Serializer;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.synchronization.CachingComparePathFilter;
 import ch.cyberduck.core.synchronization.Comparison;
 import ch.cyberduck.core.synchronization.DefaultComparePathFilter;
+import ch.cyberduck.core.synchronization.DisabledSyncIndex;
+import ch.cyberduck.core.synchronization.JournalSyncIndex;
+import ch.cyberduck.core.synchronization.SyncIndex;
 import ch.cyberduck.core.transfer.synchronisation.SynchronizationPathFilter;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections4.map.LRUMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -62,7 +70,7 @@ public class SyncTransfer extends Transfer {
     /**
      * The delegate for files to upload
      */
-    private final Transfer upload;
+    private final UploadTransfer upload;
     /**
      * The delegate for files to download
      */
@@ -76,19 +84,39 @@ public class SyncTransfer extends Transfer {
     private TransferAction action;
 
     private Cache<Path> cache
-        = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+        = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"), PreferencesFactory.get().getLong("transfer.cache.weight"));
 
     private final Map<TransferItem, Comparison> comparisons = Collections.synchronizedMap(new LRUMap<>(
         PreferencesFactory.get().getInteger("transfer.cache.size")));
 
+    /**
+     * Local and remote state from previous runs
+     */
+    private SyncIndex index;
+
+    /**
+     * Changes recorded in watched folder or null
+     */
+    private LocalChangeJournal journal;
+    /**
+     * Watch root folder from first run
+     */
+    private boolean watch = PreferencesFactory.get().getBoolean("queue.journal.enable");
+    /**
+     * Changed files to include in this run
+     */
+    private LocalChangeJournal.Changes changes = LocalChangeJournal.Changes.ALL;
+
     public SyncTransfer(final Host host, final TransferItem item) {
         this(host, item, TransferAction.callback);
     }
 
     public SyncTransfer(final Host host, final TransferItem item, final TransferAction action) {
         super(host, Collections.singletonList(item),
-            new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
-        this.upload = new UploadTransfer(host, roots).withCache(cache);
+            BandwidthScheduler.create(host, PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
+        // Changes are recorded for synchronization and passed to upload
+        this.upload = new UploadTransfer(host, roots).withWatch(false);
+        this.upload.withCache(cache);
         this.download = new DownloadTransfer(host, roots).withCache(cache);
         this.item = item;
         this.action = action;
@@ -102,6 +130,17 @@ public class SyncTransfer extends Transfer {
         return this;
     }
 
+    /**
+     * Only compare files changed locally since the previous run with upload action in watched folder. All files are
+     * compared for download and mirror actions to find remote changes.
+     *
+     * @param journal Changes recorded for local root
+     */
+    public Transfer withJournal(final LocalChangeJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
     @Override
     public <T> T serialize(final Serializer<T> dict) {
         dict.setStringForKey(this.getType().name(), "Type");
@@ -116,6 +155,9 @@ public class SyncTransfer extends Transfer {
         if(bandwidth != null) {
             dict.setStringForKey(String.valueOf(bandwidth.getRate()), "Bandwidth");
         }
+        if(priority != Priority.normal) {
+            dict.setStringForKey(priority.name(), "Priority");
+        }
         if(action != null) {
             dict.setStringForKey(action.name(), "Action");
         }
@@ -155,6 +197,7 @@ public class SyncTransfer extends Transfer {
         // Set chosen action (upload, download, mirror) from prompt
         comparison = new CachingComparePathFilter(new DefaultComparePathFilter(source))
                 .withCache(comparisons)
+                .withIndex(this.index())
                 .withAttributes(attributes)
                 .withFinder(find);
         return new SynchronizationPathFilter(comparison,
@@ -168,6 +211,21 @@ public class SyncTransfer extends Transfer {
         );
     }
 
+    private synchronized SyncIndex index() {
+        if(null == index) {
+            if(PreferencesFactory.get().getBoolean("queue.sync.index.enable")) {
+                // Same index for repeated synchronization of directory with same server
+                index = new JournalSyncIndex(LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Synchronization"),
+                        String.format("%s.index", DigestUtils.sha256Hex(String.format("%s\n%s\n%s",
+                                new HostUrlProvider().get(host), item.remote.getAbsolute(), item.local.getAbsolute())))));
+            }
+            else {
+                index = new DisabledSyncIndex();
+            }
+        }
+        return index;
+    }
+
     @Override
     public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final TransferPathFilter filter, final TransferErrorCallback error, final ProgressListener listener, final ConnectionCallback callback) throws BackgroundException {
         final Map<TransferItem, TransferStatus> downloads = new HashMap<>();
@@ -198,6 +256,9 @@ public class SyncTransfer extends Transfer {
         if(local.exists()) {
             children.addAll(upload.list(session, directory, local, listener));
         }
+        if(!changes.isAll()) {
+            children.removeIf(child -> !changes.contains(child.local));
+        }
         return new ArrayList<>(children);
     }
 
@@ -252,18 +313,55 @@ public class SyncTransfer extends Transfer {
     public void stop() {
         download.stop();
         upload.stop();
+        if(journal != null && !this.isComplete()) {
+            // Changes drained for this run may not have been transferred
+            journal.invalidate();
+        }
         cache.clear();
         comparisons.clear();
+        synchronized(this) {
+            if(index != null) {
+                index.close();
+                index = null;
+            }
+        }
         super.stop();
     }
 
     @Override
     public void reset() {
+        synchronized(this) {
+            if(journal == null && watch && item.local.isDirectory()) {
+                // Full scan in first run with changes recorded from now on
+                journal = LocalChangeJournal.watch(item.local);
+            }
+        }
+        if(journal != null && TransferAction.upload.equals(action)) {
+            changes = journal.drain();
+            log.debug("Limit synchronization to {}", changes);
+        }
+        else {
+            // Remote changes are only found with full comparison. Keep changes recorded for next upload.
+            changes = LocalChangeJournal.Changes.ALL;
+        }
         download.reset();
         upload.reset();
+        // Skip reading local tree in advance
+        upload.withChanges(changes);
         super.reset();
     }
 
+    @Override
+    public synchronized void close() {
+        if(journal != null) {
+            journal.close();
+            journal = null;
+        }
+        watch = false;
+        upload.close();
+        download.close();
+    }
+
     @Override
     public void normalize() {
         download.normalize();
@@ -111,6 +111,30 @@ public abstract class Transfer implements Serializable {
 
     }
 
+    /**
+     * Share of connections in transfer queue relative to other transfers. Running transfers are not preempted when
+     * a transfer with higher priority is added. A transfer above its share only yields when it returns a
+     * connection after completing a task.
+     */
+    public enum Priority {
+        low(1),
+        normal(2),
+        high(4);
+
+        private final int weight;
+
+        Priority(final int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * @return Weight for share of connections
+         */
+        public int getWeight() {
+            return weight;
+        }
+    }
+
     protected final Host host;
 
     /**
@@ -118,6 +142,11 @@ public abstract class Transfer implements Serializable {
      */
     protected BandwidthThrottle bandwidth;
 
+    /**
+     * Scheduling priority in transfer queue
+     */
+    protected Priority priority = Priority.normal;
+
 
     /**
      * The transfer has been reset
@@ -191,6 +220,9 @@ public abstract class Transfer implements Serializable {
         if(bandwidth != null) {
             dict.setStringForKey(String.valueOf(bandwidth.getRate()), "Bandwidth");
         }
+        if(priority != Priority.normal) {
+            dict.setStringForKey(priority.name(), "Priority");
+        }
         return dict.getSerialized();
     }
 
@@ -213,6 +245,19 @@ public abstract class Transfer implements Serializable {
         return bandwidth;
     }
 
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Takes effect for connections requested after the change
+     *
+     * @param priority Share of connections in transfer queue relative to other transfers
+     */
+    public void setPriority(final Priority priority) {
+        this.priority = priority;
+    }
+
     /**
      * @return Time when transfer did end
      */
@@ -331,6 +376,35 @@ public abstract class Transfer implements Serializable {
         }
     }
 
+    /**
+     * Called for each file once its transfer status is known when files are transferred while preparing others is
+     * still in progress. Roots are locked by {@link #pre(Session, Session, Map, TransferPathFilter, TransferErrorCallback, ProgressListener, ConnectionCallback)}
+     * with no files prior.
+     *
+     * @param source      Connection to source server of transfer. May be null.
+     * @param destination Connection to target server of transfer
+     * @param item        File pending transfer
+     * @param status      Transfer status determined by filter
+     * @param filter      Transfer filter
+     * @param listener    Listener
+     * @param callback    Prompt
+     * @see #isStreaming(Session, Session)
+     */
+    public void pre(final Session<?> source, final Session<?> destination, final TransferItem item, final TransferStatus status,
+                    final TransferPathFilter filter, final ProgressListener listener, final ConnectionCallback callback) throws BackgroundException {
+        //
+    }
+
+    /**
+     * @param source      Connection to source server of transfer. May be null.
+     * @param destination Connection to target server of transfer
+     * @return True if files can be transferred as soon as their status is determined without waiting for all files
+     * to be prepared
+     */
+    public boolean isStreaming(final Session<?> source, final Session<?> destination) {
+        return false;
+    }
+
     /**
      * @param source      Connection to source server of transfer. May be null.
      * @param destination Connection to target server of transfer
@@ -394,6 +468,13 @@ public abstract class Transfer implements Serializable {
         timestamp = new Date();
     }
 
+    /**
+     * Release resources kept for later runs when transfer is removed from queue
+     */
+    public void close() {
+        //
+    }
+
     /**
      * Recalculate the size of the <code>queue</code>
      */
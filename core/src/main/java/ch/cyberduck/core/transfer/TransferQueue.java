@@ -21,38 +21,85 @@ package ch.cyberduck.core.transfer;
 
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.local.ApplicationBadgeLabeler;
 import ch.cyberduck.core.local.ApplicationBadgeLabelerFactory;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.notification.NotificationServiceFactory;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.Semaphore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Admits transfers to run up to the maximum number of concurrent transfers and schedules connections of running
+ * transfers within a global budget. Waiting transfers are admitted in order of priority and arrival. A transfer with
+ * higher priority than any running transfer is admitted immediately with running transfers yielding connections when
+ * returning them to the queue. Each transfer is guaranteed a share of the connection budget weighted by its priority and
+ * can use more connections only while no other transfer below its share is waiting.
+ */
 public final class TransferQueue {
     private static final Logger log = LogManager.getLogger(TransferQueue.class);
 
     private final ApplicationBadgeLabeler label = ApplicationBadgeLabelerFactory.get();
     private final NotificationService notification = NotificationServiceFactory.get();
 
-    private final ResizeableSemaphore semaphore;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    /**
+     * Transfers admitted to run
+     */
+    private final Set<Transfer> running = new LinkedHashSet<>();
+    /**
+     * Transfers waiting for admission in order of arrival
+     */
+    private final List<Transfer> waiting = new ArrayList<>();
+    /**
+     * Connections in use or requested by transfer
+     */
+    private final Map<Transfer, Slots> slots = new HashMap<>();
 
     /**
-     * Adjustable number of connections
+     * Adjustable number of concurrent transfers
      */
     private int permits;
+    /**
+     * Maximum number of connections of all transfers or zero for no limit
+     */
+    private final int budget;
+    /**
+     * Number of connections in use by all transfers
+     */
+    private int used;
 
     public TransferQueue() {
         this(PreferencesFactory.get().getInteger("queue.connections.limit"));
     }
 
     public TransferQueue(final int size) {
+        this(size, PreferencesFactory.get().getInteger("queue.connections.budget"));
+    }
+
+    /**
+     * @param size   Maximum number of concurrent transfers
+     * @param budget Maximum number of connections of all transfers or zero for no limit
+     */
+    public TransferQueue(final int size, final int budget) {
         this.permits = size == TransferConnectionLimiter.AUTO ?
                 PreferencesFactory.get().getInteger("queue.connections.limit.default") : size;
-        this.semaphore = new ResizeableSemaphore(permits, true);
+        this.budget = Math.max(0, budget);
     }
 
     /**
@@ -63,14 +110,80 @@ public final class TransferQueue {
      */
     public void add(final Transfer t, final ProgressListener listener) {
         log.debug("Add transfer {} to queue", t);
-        if(!semaphore.tryAcquire()) {
-            // The maximum number of transfers is already reached. Wait for transfer slot.
-            log.info("Queuing transfer {}", t);
-            listener.message(LocaleFactory.localizedString("Maximum allowed connections exceeded. Waiting", "Status"));
-            notification.notify(t.getName(), t.getUuid(), "Transfer queued", t.getName());
-            semaphore.acquireUninterruptibly();
-        }
-        label.badge(String.valueOf(permits - semaphore.availablePermits() + semaphore.getQueueLength()));
+        final boolean admitted;
+        lock.lock();
+        try {
+            waiting.add(t);
+            admitted = this.admit(t);
+            this.badge();
+        }
+        finally {
+            lock.unlock();
+        }
+        if(admitted) {
+            return;
+        }
+        // The maximum number of transfers is already reached. Wait for transfer slot.
+        log.info("Queuing transfer {}", t);
+        listener.message(LocaleFactory.localizedString("Maximum allowed connections exceeded. Waiting", "Status"));
+        notification.notify(t.getName(), t.getUuid(), "Transfer queued", t.getName());
+        final long start = System.nanoTime();
+        lock.lock();
+        try {
+            while(waiting.contains(t) && !this.admit(t)) {
+                available.awaitUninterruptibly();
+            }
+            this.badge();
+        }
+        finally {
+            lock.unlock();
+        }
+        log.info("Transfer {} waited {}ms in queue", t, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Move transfer to running if allowed
+     *
+     * @return True if transfer is no longer waiting
+     */
+    private boolean admit(final Transfer t) {
+        if(running.size() < permits) {
+            // First with highest priority in order of arrival
+            boolean ahead = true;
+            for(Transfer next : waiting) {
+                if(next == t) {
+                    ahead = false;
+                    continue;
+                }
+                final int order = next.getPriority().compareTo(t.getPriority());
+                if(order > 0 || order == 0 && ahead) {
+                    return false;
+                }
+            }
+        }
+        else if(!this.preempts(t)) {
+            return false;
+        }
+        waiting.remove(t);
+        running.add(t);
+        available.signalAll();
+        return true;
+    }
+
+    /**
+     * @return True if transfer has higher priority than any running transfer
+     */
+    private boolean preempts(final Transfer t) {
+        if(running.isEmpty()) {
+            return false;
+        }
+        for(Transfer r : running) {
+            if(r.getPriority().compareTo(t.getPriority()) >= 0) {
+                return false;
+            }
+        }
+        log.info("Admit transfer {} with priority {} preempting running transfers", t, t.getPriority());
+        return true;
     }
 
     /**
@@ -78,8 +191,25 @@ public final class TransferQueue {
      */
     public void remove(final Transfer t) {
         log.debug("Remove {} from queue", t);
-        semaphore.release();
-        final int size = permits - semaphore.availablePermits() + semaphore.getQueueLength();
+        lock.lock();
+        try {
+            if(!running.remove(t)) {
+                waiting.remove(t);
+            }
+            final Slots s = slots.get(t);
+            if(s != null && s.wait > 0L) {
+                log.info("Transfer {} waited {}ms for connections", t, TimeUnit.NANOSECONDS.toMillis(s.wait));
+            }
+            available.signalAll();
+            this.badge();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void badge() {
+        final int size = running.size() + waiting.size();
         if(0 == size) {
             label.clear();
         }
@@ -88,6 +218,119 @@ public final class TransferQueue {
         }
     }
 
+    /**
+     * Block until connection for transfer is available within budget
+     *
+     * @param t     Transfer requesting connection
+     * @param state Cancel state of transfer
+     */
+    public void acquire(final Transfer t, final BackgroundActionState state) throws ConnectionCanceledException {
+        lock.lock();
+        try {
+            final Slots s = slots.computeIfAbsent(t, k -> new Slots());
+            s.waiting++;
+            final long start = System.nanoTime();
+            try {
+                while(!this.isAvailable(t, s)) {
+                    if(state.isCanceled()) {
+                        throw new ConnectionCanceledException();
+                    }
+                    log.debug("Wait for connection of transfer {} with {} connections in use", t, s.used);
+                    available.await(1L, TimeUnit.SECONDS);
+                }
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            finally {
+                s.waiting--;
+                s.wait += System.nanoTime() - start;
+                if(s.waiting == 0 && s.used == 0) {
+                    slots.remove(t);
+                }
+            }
+            s.used++;
+            slots.put(t, s);
+            used++;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return connection of transfer to queue
+     *
+     * @param t Transfer
+     */
+    public void release(final Transfer t) {
+        lock.lock();
+        try {
+            final Slots s = slots.get(t);
+            if(null == s) {
+                log.warn("No connection in use for transfer {}", t);
+                return;
+            }
+            s.used--;
+            used--;
+            if(s.waiting == 0 && s.used == 0) {
+                slots.remove(t);
+            }
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isAvailable(final Transfer t, final Slots s) {
+        if(0 == budget) {
+            return true;
+        }
+        if(used >= budget) {
+            return false;
+        }
+        if(s.used < this.share(t)) {
+            return true;
+        }
+        // Yield to transfers waiting below their share
+        for(Map.Entry<Transfer, Slots> entry : slots.entrySet()) {
+            if(entry.getKey() == t) {
+                continue;
+            }
+            if(entry.getValue().waiting > 0 && entry.getValue().used < this.share(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of connections guaranteed to transfer weighted by priority of all transfers using connections
+     */
+    private int share(final Transfer t) {
+        int total = 0;
+        for(Transfer next : slots.keySet()) {
+            total += next.getPriority().getWeight();
+        }
+        return Math.max(1, budget * t.getPriority().getWeight() / Math.max(1, total));
+    }
+
+    /**
+     * @param t Transfer
+     * @return Number of connections in use by transfer
+     */
+    public int getConnections(final Transfer t) {
+        lock.lock();
+        try {
+            final Slots s = slots.get(t);
+            return null == s ? 0 : s.used;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Resize queue with current setting in preferences.
      *
@@ -97,25 +340,29 @@ public final class TransferQueue {
         int limit = size == TransferConnectionLimiter.AUTO ?
                 PreferencesFactory.get().getInteger("queue.connections.limit.default") : size;
         log.debug("Resize queue to {}", limit);
-        if(limit < permits) {
-            // Reduce number of permits
-            semaphore.reducePermits(permits - limit);
+        lock.lock();
+        try {
+            this.permits = limit;
+            // Admit waiting transfers
+            available.signalAll();
         }
-        else {
-            // Increase number of permits
-            semaphore.release(limit - permits);
+        finally {
+            lock.unlock();
         }
-        this.permits = limit;
     }
 
-    private static final class ResizeableSemaphore extends Semaphore {
-        public ResizeableSemaphore(final int permits, final boolean fair) {
-            super(permits, fair);
-        }
-
-        @Override
-        protected void reducePermits(int reduction) {
-            super.reducePermits(reduction);
-        }
+    private static final class Slots {
+        /**
+         * Connections in use
+         */
+        private int used;
+        /**
+         * Threads waiting for connection
+         */
+        private int waiting;
+        /**
+         * Total time in nanoseconds waited for connections
+         */
+        private long wait;
     }
 }
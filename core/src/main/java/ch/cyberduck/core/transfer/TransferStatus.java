@@ -29,6 +29,7 @@ import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.TransferStatusCanceledException;
 import ch.cyberduck.core.features.Encryption;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.MultipartChecksum;
 import ch.cyberduck.core.io.StreamCancelation;
 import ch.cyberduck.core.io.StreamProgress;
 import ch.cyberduck.core.random.NonceGenerator;
@@ -42,8 +43,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class TransferStatus implements TransferResponse, StreamCancelation, StreamProgress {
     private static final Logger log = LogManager.getLogger(TransferStatus.class);
@@ -69,35 +70,62 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
     /**
      * Target file or directory already exists
      */
-    private boolean exists = false;
+    private static final int EXISTS = 1;
 
     /**
      * Append to file with offset
      *
      * @see #offset
      */
-    private boolean append = false;
+    private static final int APPEND = 1 << 1;
 
     /**
      * This is a part of a segmented transfer
      */
-    private boolean segment = false;
+    private static final int SEGMENT = 1 << 2;
+
+    /**
+     * Segment is written at its offset to the target file shared with other segments
+     */
+    private static final int POSITIONAL = 1 << 3;
 
     /**
      * Not accepted
      */
-    private boolean rejected = false;
+    private static final int REJECTED = 1 << 4;
 
     /**
      * Set hidden flag on file if applicable
      */
-    private boolean hidden = false;
+    private static final int HIDDEN = 1 << 5;
+
+    /**
+     * The transfer has been canceled by the user.
+     */
+    private static final int CANCELED = 1 << 6;
+
+    private static final int COMPLETE = 1 << 7;
+
+    /**
+     * Transfer has finished with success, failure or cancel and waiting threads are released
+     */
+    private static final int DONE = 1 << 8;
+
+    private static final AtomicIntegerFieldUpdater<TransferStatus> FLAGS
+            = AtomicIntegerFieldUpdater.newUpdater(TransferStatus.class, "flags");
+
+    private static final AtomicReferenceFieldUpdater<TransferStatus, CountDownLatch> LATCH
+            = AtomicReferenceFieldUpdater.newUpdater(TransferStatus.class, CountDownLatch.class, "done");
+
+    /**
+     * Bit set of flags packed in a single field to keep the footprint small when transferring millions of files
+     */
+    private volatile int flags;
 
     /**
      * Offset to read from input stream. Must be less or equals size.
      */
-    private final AtomicLong offset
-            = new AtomicLong(0);
+    private volatile long offset = 0L;
     /**
      * Transfer size. May be less than the file size in attributes or 0 if creating symbolic links.
      */
@@ -109,19 +137,17 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
     private long destinationlength = TransferStatus.UNKNOWN_LENGTH;
 
     /**
-     * The transfer has been canceled by the user.
+     * Only allocated when awaiting completion
      */
-    private final AtomicBoolean canceled
-            = new AtomicBoolean();
-
-    private final AtomicBoolean complete
-            = new AtomicBoolean();
-
-    private final CountDownLatch done
-            = new CountDownLatch(1);
+    private volatile CountDownLatch done;
 
     private Checksum checksum = Checksum.NONE;
 
+    /**
+     * Digests of parts computed ahead of multipart upload
+     */
+    private MultipartChecksum multipart;
+
     /**
      * MIME type
      */
@@ -210,18 +236,14 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         this.rename.local = copy.rename.local;
         this.displayname.local = copy.displayname.local;
         this.displayname.remote = copy.displayname.remote;
-        this.exists = copy.exists;
-        this.append = copy.append;
-        this.segment = copy.segment;
+        // Copy flags excluding signal to waiting threads
+        this.flags = copy.flags & ~DONE;
         this.segments = copy.segments;
-        this.rejected = copy.rejected;
-        this.hidden = copy.hidden;
-        this.offset.set(copy.offset.get());
+        this.offset = copy.offset;
         this.length = copy.length;
         this.destinationlength = copy.destinationlength;
-        this.canceled.set(copy.canceled.get());
-        this.complete.set(copy.complete.get());
         this.checksum = copy.checksum;
+        this.multipart = copy.multipart;
         this.mime = copy.mime;
         this.remote = copy.remote;
         this.response = copy.response;
@@ -233,7 +255,6 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         this.created = copy.created;
         this.parameters = copy.parameters;
         this.metadata = copy.metadata;
-        this.segment = copy.segment;
         this.part = copy.part;
         this.url = copy.url;
         this.header = copy.header;
@@ -249,19 +270,50 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
      * @return True if complete
      */
     public boolean await() throws ConnectionCanceledException {
-        // Lock until complete
-        Interruptibles.await(done, ConnectionCanceledException.class);
-        return complete.get();
+        if(!this.is(DONE)) {
+            LATCH.compareAndSet(this, null, new CountDownLatch(1));
+            // Check again to not miss signal before latch was set
+            if(!this.is(DONE)) {
+                // Lock until complete
+                Interruptibles.await(done, ConnectionCanceledException.class);
+            }
+        }
+        return this.is(COMPLETE);
+    }
+
+    /**
+     * Release threads awaiting completion
+     */
+    private void signal() {
+        this.set(DONE, true);
+        final CountDownLatch latch = done;
+        if(latch != null) {
+            latch.countDown();
+        }
+    }
+
+    private boolean is(final int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private void set(final int flag, final boolean value) {
+        while(true) {
+            final int current = flags;
+            final int update = value ? current | flag : current & ~flag;
+            if(current == update || FLAGS.compareAndSet(this, current, update)) {
+                return;
+            }
+        }
     }
 
     public boolean isComplete() {
-        return complete.get();
+        return this.is(COMPLETE);
     }
 
     @Override
     public void setComplete() {
-        complete.set(true);
-        done.countDown();
+        this.set(COMPLETE, true);
+        this.signal();
     }
 
     public TransferStatus complete() {
@@ -271,8 +323,8 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
 
     @Override
     public void setFailure(final BackgroundException failure) {
-        complete.set(false);
-        done.countDown();
+        this.set(COMPLETE, false);
+        this.signal();
     }
 
     /**
@@ -282,8 +334,8 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         for(TransferStatus segment : segments) {
             segment.setCanceled();
         }
-        canceled.set(true);
-        done.countDown();
+        this.set(CANCELED, true);
+        this.signal();
     }
 
     /**
@@ -294,7 +346,7 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         for(TransferStatus segment : segments) {
             segment.validate();
         }
-        if(canceled.get()) {
+        if(this.is(CANCELED)) {
             throw new TransferStatusCanceledException();
         }
     }
@@ -303,14 +355,14 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
      * @return Offset to read from
      */
     public long getOffset() {
-        return offset.get();
+        return offset;
     }
 
     /**
      * @param bytes The already transferred bytes
      */
     public void setOffset(final long bytes) {
-        offset.set(bytes);
+        offset = bytes;
         log.trace("Offset set to {} bytes", bytes);
     }
 
@@ -358,20 +410,20 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
     }
 
     public boolean isExists() {
-        return exists;
+        return this.is(EXISTS);
     }
 
     public void setExists(final boolean exists) {
-        this.exists = exists;
+        this.set(EXISTS, exists);
     }
 
     public TransferStatus exists(boolean exists) {
-        this.exists = exists;
+        this.setExists(exists);
         return this;
     }
 
     public boolean isAppend() {
-        return append;
+        return this.is(APPEND);
     }
 
     /**
@@ -382,9 +434,9 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
      */
     public void setAppend(final boolean append) {
         if(!append) {
-            offset.set(0);
+            offset = 0L;
         }
-        this.append = append;
+        this.set(APPEND, append);
     }
 
     public TransferStatus append(final boolean append) {
@@ -393,20 +445,33 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
     }
 
     public boolean isSegment() {
-        return segment;
+        return this.is(SEGMENT);
     }
 
     public void setSegment(final boolean segment) {
-        this.segment = segment;
+        this.set(SEGMENT, segment);
     }
 
     public TransferStatus segment(final boolean segment) {
-        this.segment = segment;
+        this.setSegment(segment);
+        return this;
+    }
+
+    public boolean isPositional() {
+        return this.is(POSITIONAL);
+    }
+
+    public void setPositional(final boolean positional) {
+        this.set(POSITIONAL, positional);
+    }
+
+    public TransferStatus positional(final boolean positional) {
+        this.setPositional(positional);
         return this;
     }
 
     public void setRejected(boolean rejected) {
-        this.rejected = rejected;
+        this.set(REJECTED, rejected);
     }
 
     public TransferStatus reject(final boolean rejected) {
@@ -415,15 +480,15 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
     }
 
     public boolean isRejected() {
-        return rejected;
+        return this.is(REJECTED);
     }
 
     public boolean isHidden() {
-        return hidden;
+        return this.is(HIDDEN);
     }
 
     public void setHidden(final boolean hidden) {
-        this.hidden = hidden;
+        this.set(HIDDEN, hidden);
     }
 
     public TransferStatus hidden(final boolean hidden) {
@@ -492,6 +557,19 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
         return this;
     }
 
+    public MultipartChecksum getMultipartChecksum() {
+        return multipart;
+    }
+
+    public void setMultipartChecksum(final MultipartChecksum multipart) {
+        this.multipart = multipart;
+    }
+
+    public TransferStatus withMultipartChecksum(final MultipartChecksum multipart) {
+        this.setMultipartChecksum(multipart);
+        return this;
+    }
+
     public PathAttributes getRemote() {
         return remote;
     }
@@ -730,21 +808,22 @@ public class TransferStatus implements TransferResponse, StreamCancelation, Stre
             return false;
         }
         final TransferStatus that = (TransferStatus) o;
-        return length == that.length && Objects.equals(offset.longValue(), that.offset.longValue()) && Objects.equals(part, that.part);
+        return length == that.length && offset == that.offset && Objects.equals(part, that.part);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(offset.longValue(), length, part);
+        return Objects.hash(offset, length, part);
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("TransferStatus{");
         sb.append("rename=").append(rename);
-        sb.append(", exists=").append(exists);
-        sb.append(", append=").append(append);
-        sb.append(", segment=").append(segment);
+        sb.append(", exists=").append(this.isExists());
+        sb.append(", append=").append(this.isAppend());
+        sb.append(", segment=").append(this.isSegment());
+        sb.append(", positional=").append(this.isPositional());
         sb.append(", offset=").append(offset);
         sb.append(", length=").append(length);
         sb.append(", checksum=").append(checksum);
@@ -17,6 +17,7 @@ package ch.cyberduck.core.transfer;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.CachingAttributesFinderFeature;
 import ch.cyberduck.core.CachingFindFeature;
@@ -41,8 +42,10 @@ import ch.cyberduck.core.features.Symlink;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Versioning;
 import ch.cyberduck.core.filter.UploadRegexFilter;
-import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.BandwidthScheduler;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.local.LocalChangeJournal;
+import ch.cyberduck.core.local.LocalTreeWalker;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
@@ -70,6 +73,8 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class UploadTransfer extends Transfer {
@@ -79,10 +84,38 @@ public class UploadTransfer extends Transfer {
     private final Comparator<Local> comparator;
 
     private Cache<Path> cache
-            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"), PreferencesFactory.get().getLong("transfer.cache.weight"));
 
     private UploadFilterOptions options = new UploadFilterOptions(host);
 
+    /**
+     * Marker for directories listed for transfer before read in advance
+     */
+    private static final AttributedList<Local> CONSUMED = new AttributedList<>();
+
+    /**
+     * Listings of local directories read in advance for roots not yet prepared. Replaced with marker when listed for
+     * transfer.
+     */
+    private final Map<Local, AttributedList<Local>> prefetched = new ConcurrentHashMap<>();
+    /**
+     * Background listing of directory tree for roots
+     */
+    private final Map<Local, Future<?>> walked = new ConcurrentHashMap<>();
+
+    /**
+     * Changes recorded in watched folder or null
+     */
+    private LocalChangeJournal journal;
+    /**
+     * Watch root folder from first run
+     */
+    private boolean watch = PreferencesFactory.get().getBoolean("queue.journal.enable");
+    /**
+     * Changed files to include in this run
+     */
+    private LocalChangeJournal.Changes changes = LocalChangeJournal.Changes.ALL;
+
     public UploadTransfer(final Host host, final Path root, final Local local) {
         this(host, Collections.singletonList(new TransferItem(root, local)),
                 PreferencesFactory.get().getBoolean("queue.upload.skip.enable") ? new UploadRegexFilter() : new NullFilter<>());
@@ -102,7 +135,7 @@ public class UploadTransfer extends Transfer {
     }
 
     public UploadTransfer(final Host host, final List<TransferItem> roots, final Filter<Local> f, final Comparator<Local> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
+        super(host, roots, BandwidthScheduler.create(host, PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
         this.filter = f;
         this.comparator = comparator;
     }
@@ -118,6 +151,32 @@ public class UploadTransfer extends Transfer {
         return this;
     }
 
+    /**
+     * Only list files changed since the previous run in watched folder
+     *
+     * @param journal Changes recorded for local root
+     */
+    public Transfer withJournal(final LocalChangeJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * @param watch Record changes in root folder from first run
+     */
+    public UploadTransfer withWatch(final boolean watch) {
+        this.watch = watch;
+        return this;
+    }
+
+    /**
+     * @param changes Changed files to include in next run
+     */
+    public UploadTransfer withChanges(final LocalChangeJournal.Changes changes) {
+        this.changes = changes;
+        return this;
+    }
+
     @Override
     public Type getType() {
         return Type.upload;
@@ -136,8 +195,23 @@ public class UploadTransfer extends Transfer {
                 return Collections.emptyList();
             }
         }
+        // Keep listing read in background after this from being added
+        AttributedList<Local> list = walked.isEmpty() ? null : prefetched.put(directory, CONSUMED);
+        if(null == list || CONSUMED == list) {
+            list = directory.list();
+            // Only changed subtrees are listed for watched folder
+            if(changes.isAll() && roots.stream().anyMatch(item -> item.local.equals(directory)) && !walked.containsKey(directory)) {
+                // Read subdirectories in parallel with a single stat for every file while root listing is returned
+                walked.put(directory, new LocalTreeWalker(filter,
+                        PreferencesFactory.get().getInteger("queue.upload.prefetch.threads"),
+                        PreferencesFactory.get().getInteger("queue.upload.prefetch.limit")).walk(directory, list, prefetched));
+            }
+        }
         final List<TransferItem> children = new ArrayList<>();
-        for(Local local : directory.list().filter(comparator, filter)) {
+        for(Local local : list.filter(comparator, filter)) {
+            if(!changes.contains(local)) {
+                continue;
+            }
             children.add(new TransferItem(new Path(remote, local.getName(),
                     local.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file)), local));
         }
@@ -251,14 +325,8 @@ public class UploadTransfer extends Transfer {
                 continue;
             }
             status.validate();
-            progress.message(MessageFormat.format(LocaleFactory.localizedString("Making directory {0}", "Status"), file.getName()));
             try {
-                mkdir.mkdir(file, status);
-                // Post process of file
-                filter.complete(
-                        status.getRename().remote != null ? status.getRename().remote : entry.getKey().remote,
-                        status.getRename().local != null ? status.getRename().local : entry.getKey().local,
-                        status.complete(), progress);
+                this.mkdir(mkdir, entry.getKey(), status, filter, progress);
             }
             catch(BackgroundException e) {
                 if(error.prompt(entry.getKey(), status, e, files.size())) {
@@ -272,6 +340,36 @@ public class UploadTransfer extends Transfer {
         }
     }
 
+    @Override
+    public void pre(final Session<?> source, final Session<?> destination, final TransferItem item, final TransferStatus status,
+                    final TransferPathFilter filter, final ProgressListener progress, final ConnectionCallback callback) throws BackgroundException {
+        source.getFeature(Bulk.class).pre(Type.upload, Collections.singletonMap(item, status), callback);
+        if(item.remote.isDirectory()) {
+            if(status.isExists()) {
+                log.warn("Skip existing directory {}", item.remote);
+                return;
+            }
+            status.validate();
+            this.mkdir(source.getFeature(Directory.class), item, status, filter, progress);
+        }
+    }
+
+    private void mkdir(final Directory<?> feature, final TransferItem item, final TransferStatus status,
+                       final TransferPathFilter filter, final ProgressListener progress) throws BackgroundException {
+        progress.message(MessageFormat.format(LocaleFactory.localizedString("Making directory {0}", "Status"), item.remote.getName()));
+        feature.mkdir(item.remote, status);
+        // Post process of file
+        filter.complete(
+                status.getRename().remote != null ? status.getRename().remote : item.remote,
+                status.getRename().local != null ? status.getRename().local : item.local,
+                status.complete(), progress);
+    }
+
+    @Override
+    public boolean isStreaming(final Session<?> source, final Session<?> destination) {
+        return source.getFeature(Bulk.class).isIncremental();
+    }
+
     @Override
     public void post(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files,
                      final TransferErrorCallback error, final ProgressListener listener, final ConnectionCallback callback) throws BackgroundException {
@@ -344,9 +442,47 @@ public class UploadTransfer extends Transfer {
         roots.addAll(normalized);
     }
 
+    @Override
+    public synchronized void reset() {
+        this.cancel();
+        if(journal == null && watch && roots.size() == 1 && roots.get(0).local.isDirectory()) {
+            // Full scan in first run with changes recorded from now on
+            journal = LocalChangeJournal.watch(roots.get(0).local);
+        }
+        if(journal != null) {
+            changes = journal.drain();
+            log.debug("Limit transfer to {}", changes);
+        }
+        super.reset();
+    }
+
     @Override
     public void stop() {
         cache.clear();
+        this.cancel();
+        if(journal != null && !this.isComplete()) {
+            // Changes drained for this run may not have been transferred
+            journal.invalidate();
+        }
         super.stop();
     }
+
+    /**
+     * Stop listing directory trees in background and discard listings read in advance
+     */
+    private void cancel() {
+        walked.values().forEach(future -> future.cancel(false));
+        walked.clear();
+        prefetched.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.cancel();
+        if(journal != null) {
+            journal.close();
+            journal = null;
+        }
+        watch = false;
+    }
 }
@@ -59,6 +59,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
@@ -204,15 +205,24 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                         log.warn("Failure to determine disk space for {}", file.getParent());
                     }
                     long threshold = preferences.getLong("queue.download.segments.threshold");
-                    if(status.getLength() * 2 > space) {
+                    // Segments written in place do not require space for concatenation
+                    final boolean positional = preferences.getBoolean("queue.download.segments.positional");
+                    if(status.getLength() * (positional ? 1 : 2) > space) {
                         log.warn("Insufficient free disk space {} for segmented download of {}", space, file);
                     }
                     else if(status.getLength() > threshold) {
                         // if file is smaller than threshold do not attempt to segment
-                        final long segmentSize = findSegmentSize(status.getLength(),
-                                new AutoTransferConnectionLimiter().getLimit(session.getHost()), threshold,
-                                preferences.getLong("queue.download.segments.size"),
-                                preferences.getLong("queue.download.segments.count"));
+                        final int connections = new AutoTransferConnectionLimiter().getLimit(session.getHost());
+                        final long bandwidth = SegmentBandwidthEstimator.get().getBandwidth(session.getHost());
+                        final long segmentSize = bandwidth > 0L ?
+                                // Size segments from bandwidth observed per connection
+                                findSegmentSize(status.getLength(), connections, threshold,
+                                        preferences.getLong("queue.download.segments.size"),
+                                        preferences.getLong("queue.download.segments.count"),
+                                        bandwidth * preferences.getLong("queue.download.segments.duration")) :
+                                findSegmentSize(status.getLength(), connections, threshold,
+                                        preferences.getLong("queue.download.segments.size"),
+                                        preferences.getLong("queue.download.segments.count"));
 
                         // with default settings this can handle files up to 16 GiB, with 128 segments at 128 MiB.
                         // this scales down to files of size 20MiB with 2 segments at 10 MiB
@@ -220,13 +230,16 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                         // Sorted list
                         final List<TransferStatus> segments = new ArrayList<>();
                         final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
+                        // Shared temporary file for segments written in place
+                        final Local positionalFile = LocalFactory.get(local.getParent(), String.format("%s.cyberduckpart", local.getName()));
                         for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-                            final Local segmentFile = LocalFactory.get(
+                            final Local segmentFile = positional ? positionalFile : LocalFactory.get(
                                     segmentsFolder, String.format("%d.cyberducksegment", segmentNumber));
                             // Last part can be less than 5 MB. Adjust part size.
                             long length = Math.min(segmentSize, remaining);
                             final TransferStatus segmentStatus = new TransferStatus()
                                     .segment(true) // Skip completion filter for single segment
+                                    .positional(positional)
                                     .append(true) // Read with offset
                                     .withOffset(offset)
                                     .withLength(length)
@@ -250,7 +263,32 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented()) {
+            final TransferStatus last = status.getSegments().get(status.getSegments().size() - 1);
+            if(last.isPositional()) {
+                // Preallocate file for segments written in place
+                final Local segmentFile = last.getRename().local;
+                final long size = last.getOffset() + last.getLength();
+                final CompletedSegments completed = new CompletedSegments(segmentFile);
+                if(segmentFile.exists() && segmentFile.attributes().getSize() > size) {
+                    log.warn("Delete stale file {} larger than {} bytes", segmentFile, size);
+                    segmentFile.delete();
+                }
+                if(!segmentFile.exists() || status.getSegments().stream().noneMatch(TransferStatus::isComplete)) {
+                    // Segments recorded as complete are not resumed
+                    completed.delete();
+                }
+                if(!segmentFile.exists() || segmentFile.attributes().getSize() < size) {
+                    log.debug("Allocate {} bytes for segments in {}", size, segmentFile);
+                    try (OutputStream out = segmentFile.getOutputStream(size - 1)) {
+                        out.write(0);
+                    }
+                    catch(IOException e) {
+                        throw new LocalAccessDeniedException(e.getMessage(), e);
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -261,6 +299,10 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                          final TransferStatus status, final ProgressListener listener) throws BackgroundException {
         log.debug("Complete {} with status {}", file.getAbsolute(), status);
         if(status.isSegment()) {
+            if(status.isPositional() && status.isComplete()) {
+                // Resume only missing segments when interrupted
+                new CompletedSegments(status.getRename().local).add(status.getOffset(), status.getLength());
+            }
             log.debug("Skip completion for single segment {}", status);
             return;
         }
@@ -272,18 +314,27 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                 if(local.exists()) {
                     local.delete();
                 }
-                for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
-                    final TransferStatus segmentStatus = iterator.next();
-                    // Segment
-                    final Local segmentFile = segmentStatus.getRename().local;
-                    log.info("Append segment {} to {}", segmentFile, local);
-                    segmentFile.copy(local, new Local.CopyOptions().append(true));
-                    log.info("Delete segment {}", segmentFile);
-                    segmentFile.delete();
-                    if(!iterator.hasNext()) {
-                        final Local folder = segmentFile.getParent();
-                        log.info("Remove segment folder {}", folder);
-                        folder.delete();
+                if(segments.get(0).isPositional()) {
+                    // All segments written to single file
+                    final Local segmentFile = segments.get(0).getRename().local;
+                    log.info("Move segments {} to {}", segmentFile, local);
+                    segmentFile.rename(local);
+                    new CompletedSegments(segmentFile).delete();
+                }
+                else {
+                    for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
+                        final TransferStatus segmentStatus = iterator.next();
+                        // Segment
+                        final Local segmentFile = segmentStatus.getRename().local;
+                        log.info("Append segment {} to {}", segmentFile, local);
+                        segmentFile.copy(local, new Local.CopyOptions().append(true));
+                        log.info("Delete segment {}", segmentFile);
+                        segmentFile.delete();
+                        if(!iterator.hasNext()) {
+                            final Local folder = segmentFile.getParent();
+                            log.info("Remove segment folder {}", folder);
+                            folder.delete();
+                        }
                     }
                 }
             }
@@ -378,6 +429,23 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
         }
     }
 
+    /**
+     * @param length             File size
+     * @param connections        Number of connections available
+     * @param segmentThreshold   Minimum segment size
+     * @param segmentSizeMaximum Maximum segment size
+     * @param segmentCountLimit  Maximum number of segments
+     * @param target             Number of bytes transferred with observed bandwidth in target duration
+     * @return Segment size
+     */
+    static long findSegmentSize(final long length, final int connections, final long segmentThreshold, final long segmentSizeMaximum, final long segmentCountLimit, final long target) {
+        long segmentSize = Math.max(segmentThreshold, Math.min(segmentSizeMaximum, target));
+        // Make use of all connections
+        segmentSize = Math.min(segmentSize, Math.max(segmentThreshold, (length + connections - 1) / connections));
+        // Limit number of segments
+        return Math.max(segmentSize, (length + segmentCountLimit - 1) / segmentCountLimit);
+    }
+
     static long findSegmentSize(final long length, final int initialSplit, final long segmentThreshold, final long segmentSizeMaximum, final long segmentCountLimit) {
         // Make segments
         long parts, segmentSize, nextParts = initialSplit;
@@ -0,0 +1,130 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ranges of segments written in place to a shared temporary file that are complete. Recorded in a file next to the
+ * temporary file with a line for offset and length of every completed segment to resume only missing segments.
+ */
+public class CompletedSegments {
+    private static final Logger log = LogManager.getLogger(CompletedSegments.class);
+
+    /**
+     * Serialize writes from segments completed in parallel
+     */
+    private static final Object lock = new Object();
+
+    private final Local file;
+
+    /**
+     * @param segments Temporary file with segments written in place
+     */
+    public CompletedSegments(final Local segments) {
+        this.file = LocalFactory.get(segments.getParent(), String.format("%s.complete", segments.getName()));
+    }
+
+    /**
+     * Record segment as complete
+     *
+     * @param offset Offset of segment in file
+     * @param length Length of segment
+     */
+    public void add(final long offset, final long length) throws AccessDeniedException {
+        synchronized(lock) {
+            try (OutputStream out = file.getOutputStream(true)) {
+                out.write(String.format("%d %d\n", offset, length).getBytes(StandardCharsets.UTF_8));
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @param offset Offset of segment in file
+     * @param length Length of segment
+     * @return True if range is covered by segments recorded as complete
+     */
+    public boolean contains(final long offset, final long length) {
+        // Merge ranges recorded with possibly different segment sizes
+        long position = offset;
+        for(Map.Entry<Long, Long> range : this.read().entrySet()) {
+            if(range.getKey() > position) {
+                break;
+            }
+            position = Math.max(position, range.getKey() + range.getValue());
+            if(position >= offset + length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Length for offset of completed segments sorted by offset
+     */
+    private Map<Long, Long> read() {
+        final Map<Long, Long> ranges = new TreeMap<>();
+        if(!file.exists()) {
+            return ranges;
+        }
+        synchronized(lock) {
+            try (InputStream in = file.getInputStream()) {
+                for(String line : IOUtils.readLines(in, StandardCharsets.UTF_8)) {
+                    final String[] range = StringUtils.split(line, ' ');
+                    if(range.length != 2) {
+                        // Incomplete line when interrupted
+                        continue;
+                    }
+                    ranges.merge(NumberUtils.toLong(range[0]), NumberUtils.toLong(range[1]), Math::max);
+                }
+            }
+            catch(IOException | AccessDeniedException e) {
+                log.warn("Failure reading completed segments from {}. {}", file, e.getMessage());
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Discard recorded segments
+     */
+    public void delete() throws AccessDeniedException, NotfoundException {
+        if(file.exists()) {
+            log.debug("Delete {}", file);
+            file.delete();
+        }
+    }
+}
@@ -85,8 +85,21 @@ public class ResumeFilter extends AbstractDownloadFilter {
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
         if(status.isSegmented()) {
+            final TransferStatus last = status.getSegments().get(status.getSegments().size() - 1);
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
+                if(segmentStatus.isPositional()) {
+                    // Shared file preallocated with size of all segments
+                    if(segmentFile.exists() && segmentFile.attributes().getSize() == last.getOffset() + last.getLength()) {
+                        if(new CompletedSegments(segmentFile).contains(segmentStatus.getOffset(), segmentStatus.getLength())) {
+                            log.info("Skip part {} recorded as complete", segmentStatus);
+                            segmentStatus.setComplete();
+                            status.setLength(status.getLength() - segmentStatus.getLength());
+                            status.setOffset(status.getOffset() + segmentStatus.getLength());
+                        }
+                    }
+                    continue;
+                }
                 if(segmentFile.exists()) {
                     log.info("Determine if part {} can be skipped", segmentStatus);
                     if(segmentFile.attributes().getSize() == segmentStatus.getLength()) {
@@ -0,0 +1,69 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.Host;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moving average of bandwidth per connection observed for completed segments of downloads by host
+ */
+public final class SegmentBandwidthEstimator {
+    private static final Logger log = LogManager.getLogger(SegmentBandwidthEstimator.class);
+
+    /**
+     * Weight of new sample
+     */
+    private static final double ALPHA = 0.3d;
+
+    private static final SegmentBandwidthEstimator shared = new SegmentBandwidthEstimator();
+
+    public static SegmentBandwidthEstimator get() {
+        return shared;
+    }
+
+    private final Map<Host, Double> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * @param host     Server
+     * @param bytes    Number of bytes transferred in segment
+     * @param duration Time in milliseconds to transfer segment
+     */
+    public void record(final Host host, final long bytes, final long duration) {
+        if(bytes <= 0L || duration <= 0L) {
+            return;
+        }
+        final double sample = bytes * 1000d / duration;
+        final double estimate = estimates.merge(host, sample, (previous, current) -> ALPHA * current + (1 - ALPHA) * previous);
+        log.debug("Bandwidth estimate {} bytes/s for {} after sample {} bytes/s", estimate, host, sample);
+    }
+
+    /**
+     * @param host Server
+     * @return Bandwidth in bytes per second for single connection or zero if unknown
+     */
+    public long getBandwidth(final Host host) {
+        return estimates.getOrDefault(host, 0d).longValue();
+    }
+
+    public void reset(final Host host) {
+        estimates.remove(host);
+    }
+}
@@ -114,6 +114,8 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
     @Override
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         log.debug("Prepare {}", file);
+        // Replace attributes read when listed with single stat as file may have changed since
+        local.snapshot();
         final TransferStatus status = new TransferStatus()
                 .hidden(!hidden.accept(file))
                 .withLockId(parent.getLockId());
@@ -29,6 +29,10 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -39,6 +43,14 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
     private final Vault vault;
     private final ListProgressListener delegate;
     private final Filter<Path> skip;
+    /**
+     * Decrypted paths for files in chunk decrypted in bulk with null value for failure
+     */
+    private final Map<Path, Path> decrypted = new IdentityHashMap<>();
+    /**
+     * Index of first file in list not yet decrypted
+     */
+    private int offset = 0;
 
     public DecryptingListProgressListener(final Session<?> session, final Vault vault, final ListProgressListener delegate) {
         this(session, vault, delegate, new SkipRegexFilter(Pattern.compile(PreferencesFactory.get().getProperty("cryptomator.vault.skip.regex"))));
@@ -51,6 +63,13 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
         this.skip = skip;
     }
 
+    @Override
+    public IndexedListProgressListener reset() throws ConnectionCanceledException {
+        offset = 0;
+        decrypted.clear();
+        return super.reset();
+    }
+
     @Override
     public void visit(final AttributedList<Path> list, final int index, final Path f) {
         if(skip.accept(f)) {
@@ -58,6 +77,16 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
             list.remove(index);
             return;
         }
+        if(decrypted.containsKey(f)) {
+            final Path d = decrypted.remove(f);
+            if(null == d) {
+                list.remove(index);
+            }
+            else {
+                list.set(index, d);
+            }
+            return;
+        }
         try {
             f.getType().add(Path.Type.encrypted);
             list.set(index, vault.decrypt(session, f));
@@ -70,9 +99,35 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
 
     @Override
     public void chunk(final Path directory, final AttributedList<Path> list) throws ConnectionCanceledException {
+        this.decrypt(list);
         super.chunk(directory, list);
+        offset = list.size();
         delegate.chunk(directory, list);
+        this.decrypt(list);
         super.chunk(directory, list);
+        offset = list.size();
+    }
+
+    /**
+     * Decrypt all files added to list since last chunk at once
+     */
+    private void decrypt(final AttributedList<Path> list) {
+        final List<Path> files = new ArrayList<>(list.size() - offset);
+        for(int i = offset; i < list.size(); i++) {
+            final Path f = list.get(i);
+            if(skip.accept(f)) {
+                continue;
+            }
+            f.getType().add(Path.Type.encrypted);
+            files.add(f);
+        }
+        if(files.isEmpty()) {
+            return;
+        }
+        final List<Path> result = vault.decrypt(session, files);
+        for(int i = 0; i < files.size(); i++) {
+            decrypted.put(files.get(i), result.get(i));
+        }
     }
 
     @Override
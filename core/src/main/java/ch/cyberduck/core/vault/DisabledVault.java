@@ -21,6 +21,7 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.features.Vault;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
 
 public final class DisabledVault implements Vault {
@@ -70,6 +71,11 @@ public final class DisabledVault implements Vault {
         return file;
     }
 
+    @Override
+    public List<Path> decrypt(final Session<?> session, final List<Path> files) {
+        return files;
+    }
+
     @Override
     public long toCiphertextSize(final long cleartextFileOffset, final long cleartextFileSize) {
         return cleartextFileSize;
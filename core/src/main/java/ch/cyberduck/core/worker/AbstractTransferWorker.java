@@ -21,6 +21,7 @@ package ch.cyberduck.core.worker;
 import ch.cyberduck.core.*;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.TransferCanceledException;
 import ch.cyberduck.core.exception.TransferStatusCanceledException;
 import ch.cyberduck.core.io.StreamListener;
@@ -44,11 +45,14 @@ import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = LogManager.getLogger(AbstractTransferWorker.class);
@@ -77,6 +81,22 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final Cache<TransferItem> cache;
     private final ProgressListener progress;
     private final StreamListener stream;
+    /**
+     * Minimum length of segment to schedule in lane for large files
+     */
+    private final long threshold = PreferencesFactory.get().getLong("queue.scheduler.large.threshold");
+    /**
+     * Maximum number of transfer tasks pending when streaming before transferring in preparing thread
+     */
+    private final int window = PreferencesFactory.get().getInteger("queue.transfer.streaming.window");
+    /**
+     * Number of transfer tasks submitted not yet completed
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * Transfer files as soon as their status is determined
+     */
+    private volatile boolean streaming;
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -85,7 +105,8 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final StreamListener stream,
                                   final ConnectionCallback connect,
                                   final NotificationService notification) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, new TransferItemCache(Integer.MAX_VALUE));
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification,
+                new SpillingTransferItemCache(Integer.MAX_VALUE, PreferencesFactory.get().getLong("transfer.cache.spill.threshold")));
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -135,6 +156,18 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      */
     protected abstract Future<TransferStatus> submit(TransferCallable callable) throws BackgroundException;
 
+    /**
+     * Submit transfer to pool
+     *
+     * @param callable Repeatable
+     * @param lane     Kind of work to allow scheduling directories and small files ahead of large files
+     * @return Future transfer status
+     * @throws BackgroundException On transfer failure when executed instantly
+     */
+    protected Future<TransferStatus> submit(final TransferCallable callable, final TransferScheduler.Lane lane) throws BackgroundException {
+        return this.submit(callable);
+    }
+
     /**
      * Borrow session from pool for transfer
      */
@@ -189,6 +222,13 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             // Normalize Paths before preparing
             transfer.normalize();
 
+            streaming = PreferencesFactory.get().getBoolean("queue.transfer.streaming") && transfer.isStreaming(source, destination);
+            if(streaming) {
+                log.debug("Transfer files while preparing for transfer {}", transfer);
+                meter.reset();
+                // Lock roots with files passed individually when prepared
+                transfer.pre(source, destination, Collections.emptyMap(), transfer.filter(source, destination, action, progress), error, progress, connect);
+            }
             // Calculate information about the files in advance to give progress information
             for(TransferItem next : transfer.getRoots()) {
                 // Check if parent directory is found in set to determine status
@@ -196,13 +236,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         .exists(!transfer.getRoots().stream().anyMatch(f -> next.remote.isChild(f.remote))), action);
             }
             this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, transfer.filter(source, destination, action, progress), error, progress, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            if(!streaming) {
+                meter.reset();
+                transfer.pre(source, destination, table, transfer.filter(source, destination, action, progress), error, progress, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
+                this.await();
             }
-            this.await();
             transfer.post(source, destination, table, error, progress, connect);
             // Close transfer thread pool
             this.shutdown();
@@ -237,6 +279,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             return this.submit(new RetryTransferCallable(transfer.getSource()) {
                 @Override
                 public TransferStatus call() throws BackgroundException {
+                    final TransferStatus status = this.determine();
+                    if(streaming && status != null) {
+                        // Start transfer without waiting for other files to be prepared
+                        stream(new TransferItem(file, local), action);
+                    }
+                    return status;
+                }
+
+                private TransferStatus determine() throws BackgroundException {
                     parent.validate();
                     progress.message(MessageFormat.format(LocaleFactory.localizedString("Prepare {0} ({1})", "Status"),
                             file.getName(), action.getTitle()));
@@ -268,12 +319,23 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addSize(status.getLength() + status.getOffset());
                             // Add skipped bytes
                             transfer.addTransferred(status.getOffset());
+                            if(streaming) {
+                                // Create directory before transferring children
+                                transfer.pre(source, destination, new TransferItem(file, local), status, filter, progress, connect);
+                            }
                             // Recursive
                             if(file.isDirectory()) {
                                 // Call recursively for all children
                                 final List<TransferItem> children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
-                                // Put into cache for later reference when transferring
-                                cache.put(item, new AttributedList<>(children));
+                                if(!streaming) {
+                                    // Put into cache for later reference when transferring
+                                    try {
+                                        cache.put(item, new AttributedList<>(children));
+                                    }
+                                    catch(UncheckedIOException e) {
+                                        throw new LocalAccessDeniedException(e.getMessage(), e);
+                                    }
+                                }
                                 // Call recursively
                                 for(TransferItem f : children) {
                                     // Change download path relative to parent local folder
@@ -287,7 +349,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     catch(BackgroundException e) {
                         if(this.retry(e, progress, new TransferBackgroundActionState(parent))) {
                             // Retry immediately
-                            return call();
+                            return this.determine();
                         }
                         // Prompt to continue or abort for application errors
                         else if(error.prompt(new TransferItem(file, local), parent, e, table.size())) {
@@ -313,7 +375,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, file.isDirectory() ? TransferScheduler.Lane.directory : TransferScheduler.Lane.file);
         }
         else {
             log.info("Skip unchecked file {} for transfer {}", file, this);
@@ -321,11 +383,36 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return null;
     }
 
+    /**
+     * Transfer prepared file with backpressure. Submit transfer unless the number of pending transfer tasks exceeds
+     * the window in which case the file is transferred in the calling thread to slow down preparing further files.
+     *
+     * @param item   File to transfer
+     * @param action Transfer action for existing files
+     */
+    private Future<TransferStatus> stream(final TransferItem item, final TransferAction action) throws BackgroundException {
+        if(pending.get() >= window) {
+            log.debug("Transfer {} inline with {} transfers pending", item, pending);
+            return this.transfer(item, action, false, true);
+        }
+        return this.transfer(item, action, false, false);
+    }
+
     /**
      * @param item   File to transfer
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> transfer(final TransferItem item, final TransferAction action) throws BackgroundException {
+        return this.transfer(item, action, true, false);
+    }
+
+    /**
+     * @param item      File to transfer
+     * @param action    Transfer action for existing files
+     * @param recursive Transfer children of directory found in cache
+     * @param inline    Transfer in calling thread unless segmented
+     */
+    private Future<TransferStatus> transfer(final TransferItem item, final TransferAction action, final boolean recursive, final boolean inline) throws BackgroundException {
         if(this.isCanceled()) {
             throw new TransferStatusCanceledException();
         }
@@ -335,8 +422,9 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             final TransferStatus status = table.get(item);
             // Handle submit of one or more segments
             final List<TransferStatus> segments = status.getSegments();
+            final boolean sync = inline && !status.isSegmented();
             for(final TransferStatus segment : segments) {
-                this.submit(new RetryTransferCallable(transfer.getSource()) {
+                this.schedule(new RetryTransferCallable(transfer.getSource()) {
                     @Override
                     public TransferStatus call() throws BackgroundException {
                         status.validate();
@@ -363,15 +451,23 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             }
                         }
                         // Recursive
-                        if(item.remote.isDirectory()) {
+                        if(recursive && item.remote.isDirectory()) {
                             if(!cache.isCached(item)) {
                                 log.warn("Missing entry for {} in cache", item);
                             }
-                            for(TransferItem f : cache.get(item)) {
+                            final AttributedList<TransferItem> children;
+                            try {
+                                children = cache.get(item);
+                            }
+                            catch(UncheckedIOException e) {
+                                // Fail instead of skipping files in listing written to disk
+                                throw new LocalAccessDeniedException(e.getMessage(), e);
+                            }
+                            for(TransferItem f : children) {
                                 // Recursive
                                 transfer(f, action);
                             }
-                            cache.remove(item);
+                            cache.delete(item);
                         }
                         return segment;
                     }
@@ -398,7 +494,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 try {
                                     // Reset cache
                                     final TransferPathFilter resume = transfer
-                                            .withCache(new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size")))
+                                            .withCache(new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"), PreferencesFactory.get().getLong("transfer.cache.weight")))
                                             .filter(source, destination, TransferAction.resume, progress);
                                     log.debug("Ask filter {} to accept retry for segment {} of {}", resume, segment, item);
                                     if(resume.accept(
@@ -463,9 +559,9 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         sb.append('}');
                         return sb.toString();
                     }
-                });
+                }, toLane(item, segment), sync);
             }
-            return this.submit(new TransferCallable() {
+            return this.schedule(new TransferCallable() {
                 @Override
                 public TransferStatus call() throws BackgroundException {
                     status.validate();
@@ -511,7 +607,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, status.isSegmented() ? TransferScheduler.Lane.await : TransferScheduler.Lane.file, sync);
         }
         else {
             log.warn("Skip file {} with unknown transfer status", item);
@@ -519,6 +615,53 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * @param callable Transfer task
+     * @param lane     Kind of work
+     * @param inline   Run in calling thread
+     * @return Future transfer status
+     */
+    private Future<TransferStatus> schedule(final TransferCallable callable, final TransferScheduler.Lane lane, final boolean inline) throws BackgroundException {
+        if(inline) {
+            return ConcurrentUtils.constantFuture(callable.call());
+        }
+        if(!streaming) {
+            return this.submit(callable, lane);
+        }
+        pending.incrementAndGet();
+        return this.submit(new TransferCallable() {
+            @Override
+            public TransferStatus call() throws BackgroundException {
+                try {
+                    return callable.call();
+                }
+                finally {
+                    pending.decrementAndGet();
+                }
+            }
+
+            @Override
+            public String toString() {
+                return callable.toString();
+            }
+        }, lane);
+    }
+
+    /**
+     * @param item    File to transfer
+     * @param segment Segment or whole file to transfer
+     * @return Lane to submit transfer of segment to
+     */
+    protected TransferScheduler.Lane toLane(final TransferItem item, final TransferStatus segment) {
+        if(item.remote.isDirectory()) {
+            return TransferScheduler.Lane.directory;
+        }
+        if(segment.getLength() >= threshold) {
+            return TransferScheduler.Lane.large;
+        }
+        return TransferScheduler.Lane.file;
+    }
+
     protected void shutdown() {
         // No-op
     }
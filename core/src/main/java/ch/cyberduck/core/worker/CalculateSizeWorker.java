@@ -19,40 +19,74 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Calculate size of files and directory trees. Uses a single flat listing of all files in a directory tree when
+ * supported by the protocol. Otherwise directories are listed with multiple connections borrowed from the pool with
+ * listings found in the cache reused.
+ */
 public abstract class CalculateSizeWorker extends Worker<Long> {
+    private static final Logger log = LogManager.getLogger(CalculateSizeWorker.class);
 
     /**
      * Selected files.
      */
     private final List<Path> files;
 
+    private final Cache<Path> cache;
+
     private final ProgressListener listener;
 
+    /**
+     * Pool to borrow additional connections from for parallel listing
+     */
+    private final SessionPool pool;
+
     public CalculateSizeWorker(final List<Path> files, final ProgressListener listener) {
+        this(files, PathCache.empty(), listener, SessionPool.DISCONNECTED);
+    }
+
+    public CalculateSizeWorker(final List<Path> files, final Cache<Path> cache, final ProgressListener listener,
+                               final SessionPool pool) {
         this.files = files;
+        this.cache = cache;
         this.listener = listener;
+        this.pool = pool;
     }
 
-    private Long total = 0L;
+    private final AtomicLong total = new AtomicLong();
 
     @Override
     public Long run(final Session<?> session) throws BackgroundException {
         for(Path next : files) {
             next.attributes().setSize(this.calculateSize(session, next));
         }
-        return total;
+        return total.get();
     }
 
     /**
@@ -63,27 +97,93 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @return The size of the file or the sum of all containing files if a directory
      */
     private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
-        long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
+            final Search search = session.getFeature(Search.class);
+            // Only search implemented with listing of all files returns all files for filter accepting any file
+            if(search.features().contains(Search.Flags.listing)) {
+                return this.search(search, p);
             }
+            return this.traverse(session, p);
+        }
+        if(p.isFile()) {
+            final long size = p.attributes().getSize();
+            this.update(total.addAndGet(size));
+            return size;
         }
-        else if(p.isFile()) {
-            size += p.attributes().getSize();
-            total += size;
-            this.update(total);
+        return 0L;
+    }
+
+    /**
+     * Sum file sizes in single listing of all files in directory tree
+     */
+    private long search(final Search search, final Path directory) throws BackgroundException {
+        log.debug("Calculate size of {} with recursive listing from {}", directory, search);
+        final long offset = total.get();
+        final AttributedList<Path> list = search.search(directory, new NullFilter<>(), new WorkerListProgressListener(this, listener) {
+            /**
+             * Number of entries already counted by list
+             */
+            private final Map<AttributedList<Path>, Integer> counted = new IdentityHashMap<>();
+            private long partial;
+
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
+                super.chunk(folder, list);
+                final int start = counted.getOrDefault(list, 0);
+                for(int i = start; i < list.size(); i++) {
+                    final Path f = list.get(i);
+                    if(f.isFile()) {
+                        partial += f.attributes().getSize();
+                    }
+                }
+                counted.put(list, list.size());
+                // Partial total while listing is in progress
+                update(offset + partial);
+            }
+        });
+        long size = 0L;
+        for(Path f : list) {
+            if(f.isFile()) {
+                size += f.attributes().getSize();
+            }
         }
+        this.update(total.addAndGet(size));
         return size;
     }
 
     /**
-     * Incremental update with latest size value.
+     * Sum file sizes listing directories with multiple connections
+     */
+    private long traverse(final Session<?> session, final Path directory) throws BackgroundException {
+        final AtomicLong size = new AtomicLong();
+        new DirectoryTraversal(this, cache, pool, new HostPreferences(session.getHost()).getInteger("browser.size.connections")) {
+            @Override
+            protected AttributedList<Path> list(final Session<?> session, final Path directory) throws BackgroundException {
+                return session.getFeature(ListService.class).list(directory, new WorkerListProgressListener(CalculateSizeWorker.this, listener));
+            }
+
+            @Override
+            protected void found(final Path directory, final AttributedList<Path> list) {
+                long sum = 0L;
+                for(Path f : list) {
+                    if(f.isFile()) {
+                        sum += f.attributes().getSize();
+                    }
+                }
+                size.addAndGet(sum);
+                update(total.addAndGet(sum));
+            }
+        }.run(session, directory);
+        return size.get();
+    }
+
+    /**
+     * Incremental update with latest size value. May be called from multiple threads.
      *
      * @param size Current known size
      */
@@ -97,7 +197,7 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
 
     @Override
     public Long initialize() {
-        return total;
+        return 0L;
     }
 
     @Override
@@ -23,44 +23,34 @@ import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
-import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.threading.BackgroundActionState;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.AutoTransferConnectionLimiter;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPrompt;
+import ch.cyberduck.core.transfer.TransferQueue;
+import ch.cyberduck.core.transfer.TransferQueueFactory;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.transfer.TransferStatus;
 
-import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import com.google.common.base.Throwables;
 
 public class ConcurrentTransferWorker extends AbstractTransferWorker {
-    private static final Logger log = LogManager.getLogger(ConcurrentTransferWorker.class);
-
     private final SessionPool source;
     private final SessionPool destination;
 
-    private final CompletionService<TransferStatus> completion;
-    // Keep number of submitted tasks
-    private final AtomicInteger size = new AtomicInteger();
-    private final ThreadPool pool;
+    private final TransferScheduler scheduler;
+    private final Transfer transfer;
+
+    /**
+     * Connections shared with other transfers
+     */
+    private TransferQueue queue = TransferQueueFactory.get();
 
     public ConcurrentTransferWorker(final SessionPool source,
                                     final SessionPool destination,
@@ -89,12 +79,33 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
                                     final ProgressListener progressListener,
                                     final StreamListener streamListener,
                                     final NotificationService notification) {
+        this(source, destination, transfer, TransferSchedulerFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
+                        new AutoTransferConnectionLimiter().getLimit(transfer.getSource()), priority),
+                options, meter, prompt, error, connect, progressListener, streamListener, notification);
+    }
+
+    public ConcurrentTransferWorker(final SessionPool source,
+                                    final SessionPool destination,
+                                    final Transfer transfer,
+                                    final TransferScheduler scheduler,
+                                    final TransferOptions options,
+                                    final TransferSpeedometer meter,
+                                    final TransferPrompt prompt,
+                                    final TransferErrorCallback error,
+                                    final ConnectionCallback connect,
+                                    final ProgressListener progressListener,
+                                    final StreamListener streamListener,
+                                    final NotificationService notification) {
         super(transfer, options, prompt, meter, error, progressListener, streamListener, connect, notification);
         this.source = source;
         this.destination = destination;
-        this.pool = ThreadPoolFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
-                new AutoTransferConnectionLimiter().getLimit(transfer.getSource()), priority, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
-        this.completion = new ExecutorCompletionService<>(pool.executor());
+        this.scheduler = scheduler;
+        this.transfer = transfer;
+    }
+
+    public ConcurrentTransferWorker withQueue(final TransferQueue queue) {
+        this.queue = queue;
+        return this;
     }
 
     @Override
@@ -142,42 +153,54 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
 
     @Override
     public Future<TransferStatus> submit(final TransferCallable callable) {
-        log.info("Submit {} to pool", callable);
-        final Future<TransferStatus> f = completion.submit(callable);
-        size.incrementAndGet();
-        return f;
+        return this.submit(callable, TransferScheduler.Lane.file);
     }
 
     @Override
-    public void await() throws BackgroundException {
-        while(size.get() > 0) {
-            // Repeat until no new entries in queue found
-            try {
-                log.info("Await completion for {} submitted tasks in queue", size.get());
-                final TransferStatus status = completion.take().get();
-                log.info("Finished task with return value {}", status);
-            }
-            catch(InterruptedException e) {
-                // Errors are handled in transfer worker error callback already
-                log.warn("Unhandled failure {}", e.getMessage());
-                throw new ConnectionCanceledException(e);
-            }
-            catch(ExecutionException e) {
-                for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
-                    Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+    public Future<TransferStatus> submit(final TransferCallable callable, final TransferScheduler.Lane lane) {
+        if(lane == TransferScheduler.Lane.await) {
+            // Awaiting completion of other tasks without holding connection
+            return scheduler.submit(callable, lane);
+        }
+        return scheduler.submit(new TransferCallable() {
+            @Override
+            public TransferStatus call() throws BackgroundException {
+                // Wait for share of connections in queue
+                queue.acquire(transfer, new BackgroundActionState() {
+                    @Override
+                    public boolean isCanceled() {
+                        return ConcurrentTransferWorker.this.isCanceled();
+                    }
+
+                    @Override
+                    public boolean isRunning() {
+                        return true;
+                    }
+                });
+                try {
+                    return callable.call();
+                }
+                finally {
+                    queue.release(transfer);
                 }
-                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
             }
-            finally {
-                size.decrementAndGet();
+
+            @Override
+            public String toString() {
+                return callable.toString();
             }
-        }
+        }, lane);
+    }
+
+    @Override
+    public void await() throws BackgroundException {
+        scheduler.await();
     }
 
     @Override
     protected void shutdown() {
         // Always shutdown gracefully allowing the threads to return after checking transfer status
-        pool.shutdown(true);
+        scheduler.shutdown(true);
     }
 
     @Override
@@ -185,7 +208,7 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         final StringBuilder sb = new StringBuilder("ConcurrentTransferWorker{");
         sb.append("source=").append(source);
         sb.append(", destination=").append(destination);
-        sb.append(", pool=").append(completion);
+        sb.append(", scheduler=").append(scheduler);
         sb.append('}');
         return sb.toString();
     }
@@ -36,16 +36,21 @@ import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public class DeleteWorker extends Worker<List<Path>> {
     private static final Logger log = LogManager.getLogger(DeleteWorker.class);
@@ -108,55 +113,32 @@ public class DeleteWorker extends Worker<List<Path>> {
             delete = session.getFeature(Delete.class);
         }
         final ListService list = session.getFeature(ListService.class);
-        final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
+        final SelectionIndex selected = new SelectionIndex(files);
+        final Batch batch = new Batch(session, delete, selected);
+        final Set<Path> compiled = new HashSet<>();
         for(Path file : files) {
             if(this.isCanceled()) {
                 throw new ConnectionCanceledException();
             }
-            recursive.putAll(this.compile(delete, list, new WorkerListProgressListener(this, listener), file));
-        }
-        // Iterate again to delete any files that can be omitted when recursive operation is supported
-        if(delete.isRecursive()) {
-            recursive.keySet().removeIf(f -> !f.getType().contains(Path.Type.decrypted) && recursive.keySet().stream().anyMatch(f::isChild));
-        }
-        final HostPreferences preferences = new HostPreferences(session.getHost());
-        if(preferences.getBoolean("versioning.enable") && preferences.getBoolean("versioning.delete.enable")) {
-            switch(session.getHost().getProtocol().getVersioningMode()) {
-                case custom:
-                    final Versioning versioning = session.getFeature(Versioning.class);
-                    if(versioning != null) {
-                        for(Iterator<Path> iter = recursive.keySet().iterator(); iter.hasNext(); ) {
-                            final Path f = iter.next();
-                            if(versioning.getConfiguration(f).isEnabled()) {
-                                if(versioning.save(f)) {
-                                    log.debug("Skip deleting {}", f);
-                                    iter.remove();
-                                }
-                            }
-                        }
-                    }
+            if(!compiled.add(file)) {
+                continue;
             }
+            // Skip when already included in listing of selected parent directory
+            if(selected.isChild(file, parent -> !delete.isRecursive() || parent.getType().contains(Path.Type.decrypted))) {
+                log.debug("Skip {} included in selected parent directory", file);
+                continue;
+            }
+            this.compile(delete, list, new WorkerListProgressListener(this, listener), file, batch);
         }
-        if(!recursive.isEmpty()) {
-            delete.delete(recursive, prompt, new Delete.Callback() {
-                @Override
-                public void delete(final Path file) {
-                    listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"), file.getName()));
-                    callback.delete(file);
-                    if(file.isDirectory()) {
-                        if(delete.isRecursive()) {
-                            files.stream().filter(f -> f.isChild(file)).forEach(callback::delete);
-                        }
-                    }
-                }
-            });
-        }
-        return new ArrayList<>(recursive.keySet());
+        batch.flush();
+        return batch.deleted;
     }
 
-    protected Map<Path, TransferStatus> compile(final Delete delete, final ListService list, final ListProgressListener listener, final Path file) throws BackgroundException {
-        // Compile recursive list
-        final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
+    /**
+     * Add file and its descendants to batch with children before parent directory. The batch is deleted
+     * when full while listing continues.
+     */
+    protected void compile(final Delete delete, final ListService list, final ListProgressListener listener, final Path file, final Batch batch) throws BackgroundException {
         if(file.isFile() || file.isSymbolicLink()) {
             if(null != file.attributes().getVersionId()) {
                 if(file.attributes().isDuplicate()) {
@@ -174,7 +156,7 @@ public class DeleteWorker extends Worker<List<Path>> {
                     }
                 }
             }
-            recursive.put(file, new TransferStatus().withLockId(this.getLockId(file)));
+            batch.add(file, new TransferStatus().withLockId(this.getLockId(file)));
         }
         else if(file.isDirectory()) {
             if(!delete.isRecursive() || file.getType().contains(Path.Type.decrypted)) {
@@ -182,13 +164,135 @@ public class DeleteWorker extends Worker<List<Path>> {
                     if(this.isCanceled()) {
                         throw new ConnectionCanceledException();
                     }
-                    recursive.putAll(this.compile(delete, list, listener, child));
+                    this.compile(delete, list, listener, child, batch);
                 }
             }
             // Add parent after children
-            recursive.put(file, new TransferStatus().withLockId(this.getLockId(file)));
+            batch.add(file, new TransferStatus().withLockId(this.getLockId(file)));
+        }
+    }
+
+    /**
+     * Files to delete with a bounded number of entries
+     */
+    protected final class Batch {
+        private final Delete delete;
+        private final SelectionIndex selected;
+        private final Versioning versioning;
+        /**
+         * Maximum number of files to pass to delete feature at once
+         */
+        private final int size;
+        private final Map<Path, TransferStatus> pending = new LinkedHashMap<>();
+        private final List<Path> deleted = new ArrayList<>();
+
+        private Batch(final Session<?> session, final Delete delete, final SelectionIndex selected) {
+            this.delete = delete;
+            this.selected = selected;
+            final HostPreferences preferences = new HostPreferences(session.getHost());
+            if(preferences.getBoolean("versioning.enable") && preferences.getBoolean("versioning.delete.enable")) {
+                switch(session.getHost().getProtocol().getVersioningMode()) {
+                    case custom:
+                        this.versioning = session.getFeature(Versioning.class);
+                        break;
+                    default:
+                        this.versioning = null;
+                }
+            }
+            else {
+                this.versioning = null;
+            }
+            this.size = Math.max(1, preferences.getInteger("delete.batch.size"));
+        }
+
+        public void add(final Path file, final TransferStatus status) throws BackgroundException {
+            // Omit files deleted with selected parent directory when recursive operation is supported
+            if(delete.isRecursive() && !file.getType().contains(Path.Type.decrypted) && selected.isChild(file, parent -> true)) {
+                return;
+            }
+            pending.put(file, status);
+            if(pending.size() >= size) {
+                this.flush();
+            }
+        }
+
+        public void flush() throws BackgroundException {
+            if(null != versioning) {
+                for(Iterator<Path> iter = pending.keySet().iterator(); iter.hasNext(); ) {
+                    final Path f = iter.next();
+                    if(versioning.getConfiguration(f).isEnabled()) {
+                        if(versioning.save(f)) {
+                            log.debug("Skip deleting {}", f);
+                            iter.remove();
+                        }
+                    }
+                }
+            }
+            if(pending.isEmpty()) {
+                return;
+            }
+            log.debug("Delete batch of {} files", pending.size());
+            delete.delete(pending, prompt, new Delete.Callback() {
+                @Override
+                public void delete(final Path file) {
+                    listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"), file.getName()));
+                    callback.delete(file);
+                    if(file.isDirectory()) {
+                        if(delete.isRecursive()) {
+                            files.stream().filter(f -> f.isChild(file)).forEach(callback::delete);
+                        }
+                    }
+                }
+            });
+            deleted.addAll(pending.keySet());
+            pending.clear();
+        }
+    }
+
+    /**
+     * Trie of selected directories by path segment to lookup selected parents of a file
+     */
+    private static final class SelectionIndex {
+        private final Node root = new Node();
+
+        private SelectionIndex(final List<Path> files) {
+            for(Path file : files) {
+                if(!file.isDirectory()) {
+                    continue;
+                }
+                Node node = root;
+                for(String segment : StringUtils.split(file.getAbsolute(), Path.DELIMITER)) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node());
+                }
+                node.directories.add(file);
+            }
+        }
+
+        /**
+         * @param filter Condition for selected parent directory
+         * @return True if any selected parent directory of file matches
+         */
+        private boolean isChild(final Path file, final Predicate<Path> filter) {
+            Node node = root;
+            final String[] segments = StringUtils.split(file.getAbsolute(), Path.DELIMITER);
+            for(int i = 0; i < segments.length; i++) {
+                for(Path directory : node.directories) {
+                    if(filter.test(directory)) {
+                        return true;
+                    }
+                }
+                node = node.children.get(segments[i]);
+                if(null == node) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private static final class Node {
+            private final Map<String, Node> children = new HashMap<>();
+            private final List<Path> directories = new ArrayList<>(1);
         }
-        return recursive;
     }
 
     protected String getLockId(final Path file) {
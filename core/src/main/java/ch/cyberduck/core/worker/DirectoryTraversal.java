@@ -0,0 +1,219 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walk directory tree with listings of directories distributed to multiple connections borrowed from a pool.
+ * Directories to list are queued in a bounded frontier and listed inline by the current thread when the frontier is
+ * full. Listings found in the cache are reused and new listings are added to the cache. An instance walks a single
+ * directory tree.
+ */
+public abstract class DirectoryTraversal {
+    private static final Logger log = LogManager.getLogger(DirectoryTraversal.class);
+
+    private final Worker<?> worker;
+    private final Cache<Path> cache;
+    /**
+     * Pool to borrow additional connections from for parallel listing
+     */
+    private final SessionPool pool;
+    /**
+     * Number of connections including current connection
+     */
+    private final int connections;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+
+    private BlockingDeque<Path> frontier;
+
+    /**
+     * @param worker      Cancelable worker
+     * @param cache       Cached directory listings
+     * @param pool        Pool to borrow additional connections from
+     * @param connections Maximum number of connections to list directories in parallel
+     */
+    public DirectoryTraversal(final Worker<?> worker, final Cache<Path> cache, final SessionPool pool, final int connections) {
+        this.worker = worker;
+        this.cache = cache;
+        this.pool = pool;
+        this.connections = pool == SessionPool.DISCONNECTED ? 1 : Math.max(1, connections);
+    }
+
+    /**
+     * Walk directory tree. Failure borrowing additional connections does not fail traversal completed with
+     * current connection.
+     *
+     * @param session   Current connection
+     * @param directory Root of tree
+     */
+    public void run(final Session<?> session, final Path directory) throws BackgroundException {
+        frontier = new LinkedBlockingDeque<>(Math.max(1, new HostPreferences(session.getHost()).getInteger("browser.traversal.frontier")));
+        pending.incrementAndGet();
+        frontier.add(directory);
+        final ThreadPool threads = connections > 1 ? ThreadPoolFactory.get("traversal", connections - 1) : null;
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for(int i = 1; i < connections; i++) {
+                futures.add(threads.execute(() -> {
+                    final Session<?> borrowed = pool.borrow(new BackgroundActionState() {
+                        @Override
+                        public boolean isCanceled() {
+                            return worker.isCanceled() || null != failure.get() || pending.get() == 0;
+                        }
+
+                        @Override
+                        public boolean isRunning() {
+                            return true;
+                        }
+                    });
+                    BackgroundException error = null;
+                    try {
+                        this.poll(borrowed);
+                    }
+                    catch(BackgroundException e) {
+                        error = e;
+                        throw e;
+                    }
+                    finally {
+                        pool.release(borrowed, error);
+                    }
+                    return null;
+                }));
+            }
+            this.poll(session);
+            for(Future<Void> future : futures) {
+                try {
+                    future.get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    log.warn("Failure {} in parallel traversal", e.getCause().getMessage());
+                }
+            }
+        }
+        finally {
+            if(threads != null) {
+                threads.shutdown(false);
+            }
+        }
+        if(null != failure.get()) {
+            throw failure.get();
+        }
+    }
+
+    private void poll(final Session<?> session) throws BackgroundException {
+        while(pending.get() > 0) {
+            if(null != failure.get()) {
+                return;
+            }
+            final Path next;
+            try {
+                // Depth first to keep number of directories in frontier small
+                next = frontier.pollLast(100L, TimeUnit.MILLISECONDS);
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            if(null == next) {
+                continue;
+            }
+            try {
+                this.visit(session, next);
+            }
+            catch(BackgroundException e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+            finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void visit(final Session<?> session, final Path workdir) throws BackgroundException {
+        if(worker.isCanceled()) {
+            throw new ConnectionCanceledException();
+        }
+        final AttributedList<Path> list;
+        if(cache.isCached(workdir)) {
+            list = new AttributedList<>(cache.get(workdir));
+        }
+        else {
+            list = this.list(session, workdir);
+            cache.put(workdir, new AttributedList<>(list));
+        }
+        this.found(workdir, list);
+        for(Path f : list) {
+            if(f.isDirectory()) {
+                pending.incrementAndGet();
+                if(!frontier.offerLast(f)) {
+                    log.debug("Recursively list {} with frontier full", f);
+                    try {
+                        this.visit(session, f);
+                    }
+                    finally {
+                        pending.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * List directory not found in cache
+     *
+     * @param session   Connection used by calling thread
+     * @param directory Directory to list
+     * @return Directory listing added to cache
+     */
+    protected abstract AttributedList<Path> list(Session<?> session, Path directory) throws BackgroundException;
+
+    /**
+     * Called for every directory listed or found in cache. May be called from multiple threads.
+     *
+     * @param directory Directory
+     * @param list      Files and directories in directory
+     */
+    protected abstract void found(Path directory, AttributedList<Path> list);
+}
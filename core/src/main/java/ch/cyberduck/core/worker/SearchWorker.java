@@ -20,12 +20,13 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.LocaleFactory;
-import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,9 +34,14 @@ import org.apache.logging.log4j.Logger;
 import java.text.MessageFormat;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
+/**
+ * Search directory tree with listings of directories distributed to multiple connections
+ */
 public class SearchWorker extends Worker<AttributedList<Path>> {
     private static final Logger log = LogManager.getLogger(SearchWorker.class);
 
@@ -43,65 +49,119 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
     private final Filter<Path> filter;
     private final Cache<Path> cache;
     private final ListProgressListener listener;
+    /**
+     * Pool to borrow additional connections from for parallel listing
+     */
+    private final SessionPool pool;
 
     public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener) {
+        this(directory, filter, cache, listener, SessionPool.DISCONNECTED);
+    }
+
+    public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener,
+                        final SessionPool pool) {
         this.directory = directory;
         this.filter = filter;
         this.cache = cache;
         this.listener = listener;
+        this.pool = pool;
     }
 
     @Override
     public AttributedList<Path> run(final Session<?> session) throws BackgroundException {
-        // Run recursively
         final Search feature = session.getFeature(Search.class);
         log.debug("Run with feature {}", feature);
-        return this.search(feature, directory);
-    }
-
-    private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
-        if(this.isCanceled()) {
-            throw new ConnectionCanceledException();
-        }
-        final AttributedList<Path> list;
-        if(!search.isRecursive() && cache.isCached(workdir)) {
-            list = new AttributedList<>(cache.get(workdir));
-        }
-        else {
+        if(feature.isRecursive()) {
             // Get filtered list from search
-            list = search.search(workdir, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
-            if(!search.isRecursive()) {
-                cache.put(workdir, new AttributedList<>(list));
+            final AttributedList<Path> list = feature.search(directory, new RecursiveSearchFilter(filter),
+                    new SearchListProgressListener());
+            final Set<String> parents = new HashSet<>();
+            for(Path f : list) {
+                this.index(parents, f);
             }
+            return this.result(list, parents);
         }
-        final Set<Path> removal = new HashSet<>();
-        if(search.isRecursive()) {
-            for(Path directory : list) {
-                if(directory.isDirectory()) {
-                    if(!list.toStream().filter(f -> f.isChild(directory)).findAny().isPresent()) {
-                        removal.add(directory);
+        final Queue<Path> directories = new ConcurrentLinkedQueue<>();
+        final Queue<Path> files = new ConcurrentLinkedQueue<>();
+        new DirectoryTraversal(this, cache, pool, new HostPreferences(session.getHost()).getInteger("browser.search.connections")) {
+            @Override
+            protected AttributedList<Path> list(final Session<?> session, final Path directory) throws BackgroundException {
+                // Get filtered list from search
+                return session.getFeature(Search.class).search(directory, new RecursiveSearchFilter(filter),
+                        new SearchListProgressListener());
+            }
+
+            @Override
+            protected void found(final Path directory, final AttributedList<Path> list) {
+                for(Path f : list) {
+                    if(f.isDirectory()) {
+                        directories.add(f);
+                    }
+                    else if(filter.accept(f)) {
+                        files.add(f);
                     }
                 }
             }
+        }.run(session, directory);
+        final AttributedList<Path> list = new AttributedList<>();
+        final Set<String> parents = new HashSet<>();
+        list.addAll(directories);
+        for(Path f : files) {
+            list.add(f);
+            this.index(parents, f);
         }
-        else {
-            for(final Path f : list) {
-                if(f.isDirectory()) {
-                    log.debug("Recursively search in {}", f);
-                    final AttributedList<Path> children = this.search(search, f);
-                    list.addAll(children);
-                    if(children.isEmpty()) {
-                        removal.add(f);
-                    }
-                }
+        return this.result(list, parents);
+    }
+
+    /**
+     * Add all parent directories of file to set of directories not to prune
+     */
+    private void index(final Set<String> parents, final Path file) {
+        for(Path parent = file.getParent(); !parent.isRoot() && !parent.equals(directory); parent = parent.getParent()) {
+            if(!parents.add(parent.getAbsolute())) {
+                // Already indexed with all parents
+                break;
             }
         }
-        return list.filter(new NullFilter<Path>() {
+    }
+
+    /**
+     * @param parents Directories with matching files
+     * @return Matching files and directories with matching files
+     */
+    private AttributedList<Path> result(final AttributedList<Path> list, final Set<String> parents) {
+        return list.filter(new RecursiveSearchFilter(filter) {
             @Override
             public boolean accept(final Path file) {
-                return !removal.contains(file);
+                if(file.isDirectory()) {
+                    return parents.contains(file.getAbsolute());
+                }
+                return super.accept(file);
             }
-        }).filter(new RecursiveSearchFilter(filter));
+        });
+    }
+
+    /**
+     * Forward matching files in every chunk of listing to listener while search is in progress
+     */
+    private final class SearchListProgressListener extends WorkerListProgressListener {
+        public SearchListProgressListener() {
+            super(SearchWorker.this, listener);
+        }
+
+        @Override
+        public void chunk(final Path directory, final AttributedList<Path> list) throws ConnectionCanceledException {
+            super.chunk(directory, list);
+            listener.chunk(directory, list.filter(new RecursiveSearchFilter(filter) {
+                @Override
+                public boolean accept(final Path file) {
+                    if(file.isDirectory()) {
+                        return false;
+                    }
+                    return super.accept(file);
+                }
+            }));
+        }
     }
 
     @Override
@@ -139,7 +199,7 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
         return sb.toString();
     }
 
-    private static final class RecursiveSearchFilter implements Filter<Path> {
+    private static class RecursiveSearchFilter implements Filter<Path> {
         private final Filter<Path> proxy;
 
         public RecursiveSearchFilter(final Filter<Path> proxy) {
@@ -0,0 +1,104 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Single first-in-first-out queue for all tasks disregarding lane
+ */
+public class ThreadPoolTransferScheduler implements TransferScheduler {
+    private static final Logger log = LogManager.getLogger(ThreadPoolTransferScheduler.class);
+
+    private final ThreadPool pool;
+    private final CompletionService<TransferStatus> completion;
+    // Keep number of submitted tasks
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ThreadPoolTransferScheduler(final String prefix, final Integer size, final ThreadPool.Priority priority) {
+        this(ThreadPoolFactory.get(prefix, size, priority, new LinkedBlockingQueue<>(Integer.MAX_VALUE)));
+    }
+
+    public ThreadPoolTransferScheduler(final ThreadPool pool) {
+        this.pool = pool;
+        this.completion = new ExecutorCompletionService<>(pool.executor());
+    }
+
+    @Override
+    public Future<TransferStatus> submit(final TransferWorker.TransferCallable callable, final Lane lane) {
+        log.info("Submit {} to pool", callable);
+        final Future<TransferStatus> f = completion.submit(callable);
+        size.incrementAndGet();
+        return f;
+    }
+
+    @Override
+    public void await() throws BackgroundException {
+        while(size.get() > 0) {
+            // Repeat until no new entries in queue found
+            try {
+                log.info("Await completion for {} submitted tasks in queue", size.get());
+                final TransferStatus status = completion.take().get();
+                log.info("Finished task with return value {}", status);
+            }
+            catch(InterruptedException e) {
+                // Errors are handled in transfer worker error callback already
+                log.warn("Unhandled failure {}", e.getMessage());
+                throw new ConnectionCanceledException(e);
+            }
+            catch(ExecutionException e) {
+                for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                    Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+                }
+                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+            }
+            finally {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown(final boolean gracefully) {
+        pool.shutdown(gracefully);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ThreadPoolTransferScheduler{");
+        sb.append("pool=").append(pool);
+        sb.append(", size=").append(size);
+        sb.append('}');
+        return sb.toString();
+    }
+}
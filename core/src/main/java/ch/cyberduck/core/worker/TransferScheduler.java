@@ -0,0 +1,72 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import java.util.concurrent.Future;
+
+/**
+ * Executes transfer tasks submitted by a concurrent transfer worker
+ */
+public interface TransferScheduler {
+
+    /**
+     * Submit task to scheduler
+     *
+     * @param callable Task
+     * @param lane     Kind of work used to order tasks
+     * @return Future transfer status
+     */
+    Future<TransferStatus> submit(TransferWorker.TransferCallable callable, Lane lane);
+
+    /**
+     * Wait for all submitted tasks including tasks submitted while waiting to complete
+     *
+     * @throws BackgroundException Failure of first failed task
+     */
+    void await() throws BackgroundException;
+
+    /**
+     * Shutdown scheduler and reject any further submissions
+     *
+     * @param gracefully Wait for running tasks to complete
+     */
+    void shutdown(boolean gracefully);
+
+    /**
+     * Ordered by precedence when picking the next task to run
+     */
+    enum Lane {
+        /**
+         * Listing or recursing into directory
+         */
+        directory,
+        /**
+         * Transfer of file or segment smaller than threshold
+         */
+        file,
+        /**
+         * Transfer of file or segment exceeding threshold
+         */
+        large,
+        /**
+         * Blocking until other tasks have completed such as concatenating segments
+         */
+        await
+    }
+}
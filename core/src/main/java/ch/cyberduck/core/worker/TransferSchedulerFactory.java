@@ -0,0 +1,69 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Factory;
+import ch.cyberduck.core.FactoryException;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+public class TransferSchedulerFactory extends Factory<TransferScheduler> {
+
+    private Constructor<? extends TransferScheduler> constructor;
+
+    public TransferSchedulerFactory() {
+        super("factory.transferscheduler.class");
+    }
+
+    public TransferSchedulerFactory(final Class<? extends TransferScheduler> clazz) {
+        super(clazz);
+    }
+
+    /**
+     * @param prefix   Thread name
+     * @param size     Number of concurrent tasks
+     * @param priority Thread priority
+     * @return Scheduler for transfer tasks
+     */
+    protected TransferScheduler create(final String prefix, final Integer size, final ThreadPool.Priority priority) {
+        try {
+            if(null == constructor) {
+                constructor = ConstructorUtils.getMatchingAccessibleConstructor(clazz,
+                        prefix.getClass(), size.getClass(), priority.getClass());
+            }
+            if(null == constructor) {
+                throw new FactoryException(String.format("No matching constructor for %s", clazz));
+            }
+            return constructor.newInstance(prefix, size, priority);
+        }
+        catch(InstantiationException | InvocationTargetException | IllegalAccessException e) {
+            throw new FactoryException(e.getMessage(), e);
+        }
+    }
+
+    private static TransferSchedulerFactory singleton;
+
+    public static synchronized TransferScheduler get(final String prefix, final int size, final ThreadPool.Priority priority) {
+        if(null == singleton) {
+            singleton = new TransferSchedulerFactory();
+        }
+        return singleton.create(prefix, size, priority);
+    }
+}
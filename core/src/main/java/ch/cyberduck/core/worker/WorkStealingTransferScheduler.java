@@ -0,0 +1,410 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.LoggingUncaughtExceptionHandler;
+import ch.cyberduck.core.threading.NamedThreadFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Scheduler with a deque per lane for every thread. Tasks submitted from a scheduler thread are queued in its own deques
+ * and taken last-in-first-out by the owner while idle threads steal first-in-first-out from other threads. Lanes are
+ * drained in order of precedence with the number of threads running tasks in the large lane limited to leave connections
+ * for directories and small files while there is such work queued or running.
+ */
+public class WorkStealingTransferScheduler implements TransferScheduler {
+    private static final Logger log = LogManager.getLogger(WorkStealingTransferScheduler.class);
+
+    private final Slot[] slots;
+    private final ThreadFactory factory;
+    /**
+     * Maximum number of threads running tasks in large lane while other work is pending
+     */
+    private final int limit;
+    /**
+     * Idle time in milliseconds before thread is terminated
+     */
+    private final long keepalive;
+    /**
+     * Number of running tasks per lane
+     */
+    private final AtomicIntegerArray running = new AtomicIntegerArray(Lane.values().length);
+    /**
+     * Round-robin index for submissions from threads not owned by this scheduler
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+    /**
+     * Number of threads waiting for work
+     */
+    private final AtomicInteger idle = new AtomicInteger();
+    private final Object monitor = new Object();
+    private final ThreadLocal<Slot> current = new ThreadLocal<>();
+    private final BlockingQueue<Future<TransferStatus>> completion = new LinkedBlockingQueue<>();
+    // Keep number of submitted tasks
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile boolean shutdown;
+
+    public WorkStealingTransferScheduler(final String prefix, final Integer size, final ThreadPool.Priority priority) {
+        this(prefix, size, priority, PreferencesFactory.get().getInteger("queue.scheduler.large.reserve"));
+    }
+
+    /**
+     * @param prefix   Thread name prefix
+     * @param size     Number of threads
+     * @param priority Thread priority
+     * @param reserve  Number of threads not to use for tasks in large lane while other work is pending
+     */
+    public WorkStealingTransferScheduler(final String prefix, final int size, final ThreadPool.Priority priority, final int reserve) {
+        this.slots = new Slot[Math.max(1, size)];
+        for(int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+        this.limit = Math.max(1, slots.length - reserve);
+        this.factory = new NamedThreadFactory(prefix, priority, new LoggingUncaughtExceptionHandler());
+        this.keepalive = TimeUnit.SECONDS.toMillis(PreferencesFactory.get().getLong("threading.pool.keepalive.seconds"));
+    }
+
+    @Override
+    public Future<TransferStatus> submit(final TransferWorker.TransferCallable callable, final Lane lane) {
+        if(shutdown) {
+            throw new RejectedExecutionException(String.format("Rejected execution of %s", callable));
+        }
+        log.info("Submit {} to lane {}", callable, lane);
+        final Task task = new Task(callable, lane);
+        size.incrementAndGet();
+        final Slot owner = current.get();
+        if(null == owner) {
+            slots[Math.floorMod(cursor.getAndIncrement(), slots.length)].deque(lane).addLast(task);
+        }
+        else {
+            owner.deque(lane).addLast(task);
+        }
+        this.signal();
+        return task;
+    }
+
+    /**
+     * Wake up waiting thread or start new thread if none is waiting
+     */
+    private void signal() {
+        if(idle.get() > 0) {
+            synchronized(monitor) {
+                monitor.notify();
+            }
+        }
+        else if(this.available()) {
+            for(Slot slot : slots) {
+                if(slot.start()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void loop(final Slot slot) {
+        current.set(slot);
+        try {
+            while(true) {
+                final Task task = this.poll(slot);
+                if(null != task) {
+                    this.run(task);
+                    continue;
+                }
+                if(shutdown) {
+                    break;
+                }
+                if(!this.park()) {
+                    slot.running.set(false);
+                    // Check for work submitted after timeout
+                    if(this.available() && slot.running.compareAndSet(false, true)) {
+                        continue;
+                    }
+                    log.debug("Terminate idle thread {}", Thread.currentThread());
+                    return;
+                }
+            }
+        }
+        finally {
+            current.remove();
+        }
+        slot.running.set(false);
+    }
+
+    private void run(final Task task) {
+        try {
+            task.run();
+        }
+        finally {
+            running.decrementAndGet(task.lane.ordinal());
+            if(task.lane != Lane.await && this.pending(Lane.large)) {
+                // Limit for large lane may be cleared
+                this.signal();
+            }
+        }
+    }
+
+    /**
+     * @return False when no work was available before timeout
+     */
+    private boolean park() {
+        synchronized(monitor) {
+            idle.incrementAndGet();
+            try {
+                if(this.available()) {
+                    return true;
+                }
+                final long start = System.currentTimeMillis();
+                monitor.wait(keepalive);
+                return this.available() || System.currentTimeMillis() - start < keepalive;
+            }
+            catch(InterruptedException e) {
+                log.warn("Interrupted waiting for work in {}", this);
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            finally {
+                idle.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return True if there is a task that can be taken by an idle thread
+     */
+    private boolean available() {
+        if(this.pending(Lane.directory) || this.pending(Lane.file) || this.pending(Lane.await)) {
+            return true;
+        }
+        return this.pending(Lane.large) && this.isLargeAllowed(running.get(Lane.large.ordinal()));
+    }
+
+    private boolean pending(final Lane lane) {
+        for(Slot slot : slots) {
+            if(!slot.deque(lane).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isLargeAllowed(final int count) {
+        if(count < limit) {
+            return true;
+        }
+        // Use all threads when no other work is pending
+        return running.get(Lane.directory.ordinal()) == 0 && running.get(Lane.file.ordinal()) == 0
+                && !this.pending(Lane.directory) && !this.pending(Lane.file);
+    }
+
+    private Task poll(final Slot slot) {
+        for(Lane lane : Lane.values()) {
+            if(lane == Lane.large) {
+                // Reserve slot in large lane before taking task
+                final int count = running.get(lane.ordinal());
+                if(!this.isLargeAllowed(count) || !running.compareAndSet(lane.ordinal(), count, count + 1)) {
+                    continue;
+                }
+                final Task task = this.poll(slot, lane);
+                if(null == task) {
+                    running.decrementAndGet(lane.ordinal());
+                    continue;
+                }
+                return task;
+            }
+            final Task task = this.poll(slot, lane);
+            if(null != task) {
+                running.incrementAndGet(lane.ordinal());
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private Task poll(final Slot slot, final Lane lane) {
+        // Own work depth first except for tasks awaiting completion of other work
+        final Task task = lane == Lane.await ? slot.deque(lane).pollFirst() : slot.deque(lane).pollLast();
+        if(null != task) {
+            return task;
+        }
+        // Steal oldest task from other threads
+        for(Slot victim : slots) {
+            if(victim == slot) {
+                continue;
+            }
+            final Task stolen = victim.deque(lane).pollFirst();
+            if(null != stolen) {
+                log.debug("Stole task {} in lane {}", stolen, lane);
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void await() throws BackgroundException {
+        while(size.get() > 0) {
+            // Repeat until no new entries in queue found
+            try {
+                log.info("Await completion for {} submitted tasks in queue", size.get());
+                final TransferStatus status = completion.take().get();
+                log.info("Finished task with return value {}", status);
+            }
+            catch(InterruptedException e) {
+                // Errors are handled in transfer worker error callback already
+                log.warn("Unhandled failure {}", e.getMessage());
+                throw new ConnectionCanceledException(e);
+            }
+            catch(ExecutionException e) {
+                for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                    Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+                }
+                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+            }
+            finally {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown(final boolean gracefully) {
+        log.info("Shutdown scheduler {}", this);
+        shutdown = true;
+        for(Slot slot : slots) {
+            if(!gracefully) {
+                for(Lane lane : Lane.values()) {
+                    slot.deque(lane).clear();
+                }
+                final Thread thread = slot.thread;
+                if(null != thread) {
+                    thread.interrupt();
+                }
+            }
+        }
+        synchronized(monitor) {
+            monitor.notifyAll();
+        }
+        for(Slot slot : slots) {
+            final Thread thread = slot.thread;
+            if(null == thread || thread == Thread.currentThread()) {
+                continue;
+            }
+            try {
+                while(slot.running.get()) {
+                    thread.join(TimeUnit.SECONDS.toMillis(1L));
+                    if(thread.isAlive()) {
+                        log.warn("Await termination for thread {}", thread);
+                    }
+                    else {
+                        break;
+                    }
+                }
+            }
+            catch(InterruptedException e) {
+                log.error("Failure awaiting scheduler termination. {}", e.getMessage());
+            }
+        }
+    }
+
+    private final class Slot {
+        private final Deque<Task>[] lanes;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile Thread thread;
+
+        @SuppressWarnings("unchecked")
+        private Slot() {
+            lanes = new Deque[Lane.values().length];
+            for(Lane lane : Lane.values()) {
+                lanes[lane.ordinal()] = new ConcurrentLinkedDeque<>();
+            }
+        }
+
+        private Deque<Task> deque(final Lane lane) {
+            return lanes[lane.ordinal()];
+        }
+
+        /**
+         * @return False if thread for slot is already running
+         */
+        private boolean start() {
+            if(shutdown) {
+                return false;
+            }
+            if(running.compareAndSet(false, true)) {
+                thread = factory.newThread(() -> loop(this));
+                thread.start();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class Task extends FutureTask<TransferStatus> {
+        private final TransferWorker.TransferCallable callable;
+        private final Lane lane;
+
+        private Task(final TransferWorker.TransferCallable callable, final Lane lane) {
+            super(callable);
+            this.callable = callable;
+            this.lane = lane;
+        }
+
+        @Override
+        protected void done() {
+            completion.add(this);
+        }
+
+        @Override
+        public String toString() {
+            return callable.toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WorkStealingTransferScheduler{");
+        sb.append("threads=").append(slots.length);
+        sb.append(", limit=").append(limit);
+        sb.append(", size=").append(size);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -1,8 +1,12 @@
 package ch.cyberduck.core;
 
+import ch.cyberduck.core.shared.ListFilteringFeature;
+
 import org.junit.Test;
 
+import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
@@ -80,4 +84,93 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testFindIndexed() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(list.add(new Path(directory, String.format("f-%d", i), EnumSet.of(Path.Type.file))));
+        }
+        final Path f = new Path(directory, "f-500", EnumSet.of(Path.Type.file));
+        assertSame(list.get(500), list.find(new SimplePathPredicate(f)));
+        assertSame(list.get(500), list.find(new DefaultPathPredicate(f)));
+        assertNull(list.find(new SimplePathPredicate(new Path(directory, "f-500", EnumSet.of(Path.Type.directory)))));
+        assertNull(list.find(new SimplePathPredicate(new Path(directory, "F-500", EnumSet.of(Path.Type.file)))));
+        assertSame(list.get(500), list.find(new CaseInsensitivePathPredicate(new Path(directory, "F-500", EnumSet.of(Path.Type.file)))));
+        assertSame(list.get(500), list.find(new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.insensitive,
+                new Path(directory, "F-500", EnumSet.of(Path.Type.file)))));
+        assertNull(list.find(new ListFilteringFeature.ListFilteringPredicate(Protocol.Case.sensitive,
+                new Path(directory, "F-500", EnumSet.of(Path.Type.file)))));
+        assertEquals(500, list.indexOf(f));
+        assertTrue(list.contains(f));
+        assertSame(list.get(500), list.get(f));
+        // Index updated when appending
+        final Path g = new Path(directory, "g", EnumSet.of(Path.Type.file));
+        assertFalse(list.contains(g));
+        assertNull(list.find(new SimplePathPredicate(g)));
+        list.add(g);
+        assertTrue(list.contains(g));
+        assertSame(g, list.find(new SimplePathPredicate(g)));
+        assertEquals(1, list.findAll(new SimplePathPredicate(g)).size());
+        // Index rebuilt after removal
+        assertTrue(list.remove(f));
+        assertFalse(list.contains(f));
+        assertNull(list.find(new SimplePathPredicate(f)));
+        assertEquals(999, list.indexOf(g));
+    }
+
+    @Test
+    public void testFindFirstDuplicate() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("1"));
+        final Path b = new Path("/a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("2"));
+        list.add(a);
+        list.add(b);
+        assertSame(a, list.find(new SimplePathPredicate(b)));
+        assertSame(b, list.find(new DefaultPathPredicate(b)));
+        assertEquals(1, list.indexOf(b));
+        assertEquals(2, list.findAll(new SimplePathPredicate(b)).size());
+    }
+
+    @Test
+    public void testFindAfterTypeChange() {
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        list.add(a);
+        assertTrue(list.contains(a));
+        a.setType(EnumSet.of(Path.Type.directory));
+        assertTrue(list.contains(new Path("/a", EnumSet.of(Path.Type.directory))));
+        assertFalse(list.contains(new Path("/a", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testIteratorSnapshot() {
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path("/a", EnumSet.of(Path.Type.file)));
+        final Iterator<Path> iterator = list.iterator();
+        list.add(new Path("/b", EnumSet.of(Path.Type.file)));
+        list.remove(0);
+        assertEquals(new Path("/a", EnumSet.of(Path.Type.file)), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(1, list.size());
+        assertEquals(new Path("/b", EnumSet.of(Path.Type.file)), list.get(0));
+    }
+
+    @Test
+    public void testSortCopy() {
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path("/b", EnumSet.of(Path.Type.file)));
+        list.add(new Path("/a", EnumSet.of(Path.Type.file)));
+        final AttributedList<Path> sorted = list.filter(new Comparator<Path>() {
+            @Override
+            public int compare(final Path o1, final Path o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        assertEquals("a", sorted.get(0).getName());
+        assertEquals("b", list.get(0).getName());
+        assertEquals(0, sorted.indexOf(new Path("/a", EnumSet.of(Path.Type.file))));
+        assertEquals(1, list.indexOf(new Path("/a", EnumSet.of(Path.Type.file))));
+    }
 }
@@ -94,4 +94,42 @@ public class PathCacheTest {
         assertTrue(cache.containsKey(new Path("/", EnumSet.of(Path.Type.directory))));
         assertTrue(cache.isCached(new Path("/", EnumSet.of(Path.Type.directory))));
     }
+
+    @Test
+    public void testEvictWeight() {
+        final PathCache cache = new PathCache(Integer.MAX_VALUE, 1024L * 1024L);
+        for(int i = 0; i < 1000; i++) {
+            final Path directory = new Path(String.format("/d%d", i), EnumSet.of(Path.Type.directory));
+            final AttributedList<Path> list = new AttributedList<>();
+            for(int j = 0; j < 10; j++) {
+                list.add(new Path(directory, String.valueOf(j), EnumSet.of(Path.Type.file)));
+            }
+            cache.put(directory, list);
+        }
+        assertTrue(cache.weight() <= 1024L * 1024L);
+        assertTrue(cache.getEvictionCount() > 0L);
+        assertEquals(1000L, cache.size() + cache.getEvictionCount());
+        assertTrue(cache.isCached(new Path("/d999", EnumSet.of(Path.Type.directory))));
+    }
+
+    @Test
+    public void testStatistics() {
+        final PathCache cache = new PathCache(1);
+        final Path f = new Path("/t", EnumSet.of(Path.Type.directory));
+        cache.get(f);
+        cache.put(f, new AttributedList<>());
+        cache.get(f);
+        cache.get(new Path("/t", EnumSet.of(Path.Type.directory)));
+        assertEquals(2L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+    @Test
+    public void testInternReference() {
+        final PathCache first = new PathCache(1);
+        final PathCache second = new PathCache(1);
+        first.put(new Path("/t", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        second.put(new Path("/t", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        assertSame(first.asMap().keySet().iterator().next(), second.asMap().keySet().iterator().next());
+    }
 }
@@ -0,0 +1,115 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class SpillingTransferItemCacheTest {
+
+    @Test
+    public void testSpill() {
+        final SpillingTransferItemCache cache = new SpillingTransferItemCache(Integer.MAX_VALUE, 1L);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem parent = new TransferItem(directory, new Local("/l/d"));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file), new PathAttributes().withSize(3L).withVersionId("v"));
+        final Path folder = new Path(directory, "s", EnumSet.of(Path.Type.directory));
+        cache.put(parent, new AttributedList<>(Arrays.asList(
+                new TransferItem(file, new Local("/l/d/f")),
+                new TransferItem(folder, new Local("/l/d/s")))));
+        assertEquals(1L, cache.getSpillCount());
+        assertTrue(cache.isCached(parent));
+        final AttributedList<TransferItem> children = cache.get(parent);
+        assertEquals(2, children.size());
+        assertEquals(new TransferItem(file, new Local("/l/d/f")), children.get(0));
+        assertSame(directory, children.get(0).remote.getParent());
+        assertEquals(3L, children.get(0).remote.attributes().getSize());
+        assertEquals("v", children.get(0).remote.attributes().getVersionId());
+        assertTrue(children.get(1).remote.isDirectory());
+        assertEquals(2, cache.remove(parent).size());
+        assertFalse(cache.isCached(parent));
+        assertTrue(cache.get(parent).isEmpty());
+        cache.clear();
+    }
+
+    @Test
+    public void testKeepInMemoryBelowThreshold() {
+        final SpillingTransferItemCache cache = new SpillingTransferItemCache(Integer.MAX_VALUE, 2L);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem parent = new TransferItem(directory);
+        final AttributedList<TransferItem> list = new AttributedList<>(Arrays.asList(
+                new TransferItem(new Path(directory, "a", EnumSet.of(Path.Type.file))),
+                new TransferItem(new Path(directory, "b", EnumSet.of(Path.Type.file)))));
+        cache.put(parent, list);
+        assertEquals(0L, cache.getSpillCount());
+        assertSame(list, cache.get(parent));
+        final TransferItem sibling = new TransferItem(new Path("/e", EnumSet.of(Path.Type.directory)));
+        cache.put(sibling, new AttributedList<>(Arrays.asList(
+                new TransferItem(new Path(sibling.remote, "c", EnumSet.of(Path.Type.file))))));
+        assertEquals(1L, cache.getSpillCount());
+        assertEquals(2L, cache.size());
+        cache.remove(parent);
+        cache.clear();
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testKeepInMemoryVault() {
+        final SpillingTransferItemCache cache = new SpillingTransferItemCache(Integer.MAX_VALUE, 0L);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem parent = new TransferItem(directory);
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        file.attributes().setVault(directory);
+        cache.put(parent, new AttributedList<>(Arrays.asList(new TransferItem(file))));
+        assertEquals(0L, cache.getSpillCount());
+        assertSame(directory, cache.get(parent).get(0).remote.attributes().getVault());
+    }
+
+    @Test
+    public void testKeepInMemoryEncryptionAndAccessed() {
+        final SpillingTransferItemCache cache = new SpillingTransferItemCache(Integer.MAX_VALUE, 0L);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path encrypted = new Path(directory, "e", EnumSet.of(Path.Type.file));
+        encrypted.attributes().setEncryption(new Encryption.Algorithm("AES256", null));
+        cache.put(new TransferItem(directory), new AttributedList<>(Arrays.asList(new TransferItem(encrypted))));
+        final Path sibling = new Path("/s", EnumSet.of(Path.Type.directory));
+        final Path accessed = new Path(sibling, "a", EnumSet.of(Path.Type.file));
+        accessed.attributes().setAccessedDate(1L);
+        cache.put(new TransferItem(sibling), new AttributedList<>(Arrays.asList(new TransferItem(accessed))));
+        assertEquals(0L, cache.getSpillCount());
+        assertEquals("AES256", cache.get(new TransferItem(directory)).get(0).remote.attributes().getEncryption().algorithm);
+        assertEquals(1L, cache.get(new TransferItem(sibling)).get(0).remote.attributes().getAccessedDate());
+    }
+
+    @Test
+    public void testDelete() {
+        final SpillingTransferItemCache cache = new SpillingTransferItemCache(Integer.MAX_VALUE, 0L);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem parent = new TransferItem(directory);
+        cache.put(parent, new AttributedList<>(Arrays.asList(new TransferItem(new Path(directory, "f", EnumSet.of(Path.Type.file))))));
+        assertEquals(1L, cache.getSpillCount());
+        cache.delete(parent);
+        assertEquals(0L, cache.getSpillCount());
+        assertFalse(cache.isCached(parent));
+        cache.clear();
+    }
+}
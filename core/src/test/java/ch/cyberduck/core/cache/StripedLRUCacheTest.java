@@ -0,0 +1,109 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StripedLRUCacheTest {
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        final StripedLRUCache<String, String> cache = new StripedLRUCache<>(1, 2, Long.MAX_VALUE, (k, v) -> 1L);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertEquals(2L, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1L, cache.getEvictionCount());
+        assertEquals(3L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictWeight() {
+        final StripedLRUCache<String, String> cache = new StripedLRUCache<>(1, Integer.MAX_VALUE, 10L, (k, v) -> (long) v.length());
+        cache.put("a", "12345");
+        cache.put("b", "12345");
+        assertEquals(10L, cache.weight());
+        cache.put("c", "1");
+        assertEquals(6L, cache.weight());
+        assertFalse(cache.contains("a"));
+        // Retain single entry exceeding limit
+        cache.put("d", "123456789012");
+        assertEquals(1L, cache.size());
+        assertEquals(12L, cache.weight());
+        assertEquals(3L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testReplace() {
+        final StripedLRUCache<String, String> cache = new StripedLRUCache<>(Integer.MAX_VALUE, Long.MAX_VALUE, (k, v) -> (long) v.length());
+        assertNull(cache.put("a", "1"));
+        assertEquals("1", cache.put("a", "12"));
+        assertEquals(1L, cache.size());
+        assertEquals(2L, cache.weight());
+        assertEquals("12", cache.remove("a"));
+        assertEquals(0L, cache.weight());
+        assertTrue(cache.isEmpty());
+        assertNull(cache.remove("a"));
+    }
+
+    @Test
+    public void testPutNull() {
+        final StripedLRUCache<String, String> cache = new StripedLRUCache<>(Integer.MAX_VALUE, Long.MAX_VALUE, (k, v) -> 1L);
+        cache.put("a", "1");
+        assertEquals("1", cache.put("a", null));
+        assertFalse(cache.contains("a"));
+        assertNull(cache.put(null, "1"));
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final StripedLRUCache<Integer, Integer> cache = new StripedLRUCache<>(100, Long.MAX_VALUE, (k, v) -> 1L);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for(int i = 0; i < 10000; i++) {
+                    cache.put(i % 1000, i);
+                    cache.get((i + 1) % 1000);
+                }
+            }));
+        }
+        for(Future<?> f : futures) {
+            f.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(cache.size() <= 100);
+        assertEquals(cache.size(), cache.asMap().size());
+        assertEquals(cache.size(), cache.weight());
+        assertEquals(80000L, cache.getHitCount() + cache.getMissCount());
+    }
+}
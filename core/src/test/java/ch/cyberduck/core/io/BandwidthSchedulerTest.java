@@ -0,0 +1,62 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BandwidthSchedulerTest {
+
+    @After
+    public void reset() {
+        BandwidthScheduler.setRate(BandwidthThrottle.UNLIMITED);
+        BandwidthScheduler.setHostRate(BandwidthThrottle.UNLIMITED);
+    }
+
+    @Test
+    public void testSetRate() {
+        final Host host = new Host(new TestProtocol(), "bandwidth.scheduler.test");
+        final BandwidthThrottle transfer = BandwidthScheduler.create(host, BandwidthThrottle.UNLIMITED);
+        BandwidthScheduler.setRate(1000f);
+        assertEquals(1000f, BandwidthScheduler.global().getRate(), 0f);
+        assertEquals(1000f, transfer.getParent().getParent().getRate(), 0f);
+        BandwidthScheduler.setHostRate(500f);
+        assertEquals(500f, transfer.getParent().getRate(), 0f);
+        assertEquals(500f, PreferencesFactory.get().getFloat("queue.bandwidth.host.bytes"), 0f);
+    }
+
+    @Test
+    public void testReload() {
+        final Host host = new Host(new TestProtocol(), "bandwidth.scheduler.test");
+        final BandwidthThrottle shared = BandwidthScheduler.get(host);
+        PreferencesFactory.get().setProperty("queue.bandwidth.host.bytes", 2000f);
+        BandwidthScheduler.reload();
+        assertEquals(2000f, shared.getRate(), 0f);
+    }
+
+    @Test
+    public void testSharedByHostAndPort() {
+        final Host host = new Host(new TestProtocol(), "bandwidth.scheduler.test", 21);
+        assertSame(BandwidthScheduler.get(host), BandwidthScheduler.get(new Host(new TestProtocol(), "BANDWIDTH.scheduler.test", 21)));
+        assertNotSame(BandwidthScheduler.get(host), BandwidthScheduler.get(new Host(new TestProtocol(), "bandwidth.scheduler.test", 22)));
+    }
+}
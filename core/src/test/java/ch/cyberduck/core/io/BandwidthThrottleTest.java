@@ -0,0 +1,86 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BandwidthThrottleTest {
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(new BandwidthThrottle(BandwidthThrottle.UNLIMITED), BandwidthThrottle.UNLIMITED);
+        assertEquals(1024 * 1024, throttle.request(1024 * 1024));
+    }
+
+    @Test
+    public void testGrant() {
+        final BandwidthThrottle parent = new BandwidthThrottle(null, 1000f, 0L);
+        final BandwidthThrottle throttle = new BandwidthThrottle(parent, BandwidthThrottle.UNLIMITED, 0L);
+        // Limited to bytes per tick of parent
+        assertEquals(100, throttle.request(1024));
+        assertEquals(10, throttle.request(10));
+        parent.setRate(BandwidthThrottle.UNLIMITED);
+        assertEquals(1024, throttle.request(1024));
+    }
+
+    @Test
+    public void testRate() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(null, 100000f, 0L);
+        final long start = System.nanoTime();
+        for(int remaining = 50000; remaining > 0; ) {
+            remaining -= throttle.request(remaining);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 400L);
+    }
+
+    @Test
+    public void testBurst() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(null, 100000f, TimeUnit.SECONDS.toNanos(1L));
+        final long start = System.nanoTime();
+        // Initial burst credit
+        for(int remaining = 50000; remaining > 0; ) {
+            remaining -= throttle.request(remaining);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400L);
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        final BandwidthThrottle parent = new BandwidthThrottle(null, 100000f, 0L);
+        final List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            final BandwidthThrottle throttle = new BandwidthThrottle(parent, BandwidthThrottle.UNLIMITED, 0L);
+            threads.add(new Thread(() -> {
+                for(int remaining = 12500; remaining > 0; ) {
+                    remaining -= throttle.request(remaining);
+                }
+            }));
+        }
+        final long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        // Aggregate rate limited by shared parent
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 400L);
+    }
+}
@@ -0,0 +1,186 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class ParallelChecksumComputeTest {
+
+    @Test
+    public void testCompute() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(1000 * 1024 + 17);
+        final Local file = this.create(content);
+        try {
+            final long partsize = 100 * 1024;
+            final MultipartChecksum checksum = new ParallelChecksumCompute(4, 32768L).compute(file, content.length, partsize,
+                    EnumSet.of(HashAlgorithm.md5, HashAlgorithm.sha256), new TransferStatus());
+            assertEquals(11, checksum.size());
+            final MessageDigest composite = MessageDigest.getInstance("MD5");
+            for(int part = 1; part <= checksum.size(); part++) {
+                final long offset = (part - 1) * partsize;
+                final long length = Math.min(partsize, content.length - offset);
+                final TransferStatus status = new TransferStatus().withOffset(offset).withLength(length);
+                final Checksum md5 = new MD5ChecksumCompute().compute(new ByteArrayInputStream(content), status);
+                assertEquals(md5, checksum.get(HashAlgorithm.md5, part));
+                assertEquals(md5, checksum.get(HashAlgorithm.md5, offset, length));
+                assertEquals(new SHA256ChecksumCompute().compute(new ByteArrayInputStream(content), status), checksum.get(HashAlgorithm.sha256, part));
+                assertEquals(2, checksum.get(offset, length).size());
+                composite.update(Hex.decodeHex(md5.hash));
+            }
+            assertEquals(String.format("%s-%d", Hex.encodeHexString(composite.digest()), 11), checksum.composite(HashAlgorithm.md5));
+            assertNull(checksum.composite(HashAlgorithm.sha1));
+            assertEquals(Checksum.NONE, checksum.get(HashAlgorithm.sha1, 1));
+            // Not aligned with part boundaries
+            assertTrue(checksum.get(1L, partsize).isEmpty());
+            assertTrue(checksum.get(0L, partsize - 1).isEmpty());
+            assertTrue(checksum.get(10 * partsize, partsize).isEmpty());
+            assertEquals(Checksum.NONE, checksum.get(HashAlgorithm.md5, 0L, content.length));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSinglePart() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(1024);
+        final Local file = this.create(content);
+        try {
+            final MultipartChecksum checksum = new ParallelChecksumCompute().compute(file, content.length, 5 * 1024 * 1024,
+                    EnumSet.of(HashAlgorithm.sha1), new TransferStatus());
+            assertEquals(1, checksum.size());
+            assertEquals(new SHA1ChecksumCompute().compute(new ByteArrayInputStream(content), new TransferStatus()),
+                    checksum.get(HashAlgorithm.sha1, 0L, content.length));
+            assertEquals(checksum.get(HashAlgorithm.sha1, 1), checksum.tree(HashAlgorithm.sha1));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSequentialWithoutFileChannel() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(3 * 1024 + 1);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random()) {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(content);
+            }
+        };
+        final MultipartChecksum checksum = new ParallelChecksumCompute(2, 1000L).compute(file, content.length, 1024,
+                EnumSet.of(HashAlgorithm.md5), new TransferStatus());
+        assertEquals(4, checksum.size());
+        for(int part = 1; part <= checksum.size(); part++) {
+            final long offset = (part - 1) * 1024L;
+            assertEquals(new MD5ChecksumCompute().compute(new ByteArrayInputStream(content),
+                            new TransferStatus().withOffset(offset).withLength(Math.min(1024L, content.length - offset))),
+                    checksum.get(HashAlgorithm.md5, part));
+        }
+    }
+
+    @Test
+    public void testTree() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(3 * 1024);
+        final Local file = this.create(content);
+        try {
+            final MultipartChecksum checksum = new ParallelChecksumCompute().compute(file, content.length, 1024,
+                    EnumSet.of(HashAlgorithm.sha256), new TransferStatus());
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(Hex.decodeHex(checksum.get(HashAlgorithm.sha256, 1).hash));
+            md.update(Hex.decodeHex(checksum.get(HashAlgorithm.sha256, 2).hash));
+            final byte[] left = md.digest();
+            md.update(left);
+            md.update(Hex.decodeHex(checksum.get(HashAlgorithm.sha256, 3).hash));
+            assertEquals(new Checksum(HashAlgorithm.sha256, md.digest()), checksum.tree(HashAlgorithm.sha256));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final Local file = this.create(new byte[0]);
+        try {
+            final MultipartChecksum checksum = new ParallelChecksumCompute().compute(file, 0L, 1024,
+                    EnumSet.of(HashAlgorithm.md5), new TransferStatus());
+            assertEquals(0, checksum.size());
+            assertEquals(Checksum.NONE, checksum.tree(HashAlgorithm.md5));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testCanceled() throws Exception {
+        final Local file = this.create(RandomUtils.nextBytes(10 * 1024));
+        try {
+            final TransferStatus status = new TransferStatus();
+            status.setCanceled();
+            new ParallelChecksumCompute().compute(file, 10 * 1024, 1024, EnumSet.of(HashAlgorithm.md5), status);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = ChecksumException.class)
+    public void testUnsupportedAlgorithm() throws Exception {
+        final Local file = this.create(new byte[1]);
+        try {
+            new ParallelChecksumCompute().compute(file, 1L, 1024, EnumSet.of(HashAlgorithm.crc32), new TransferStatus());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = ChecksumException.class)
+    public void testLengthExceedsFile() throws Exception {
+        final Local file = this.create(new byte[1]);
+        try {
+            new ParallelChecksumCompute().compute(file, 2L, 1024, EnumSet.of(HashAlgorithm.md5), new TransferStatus());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    private Local create(final byte[] content) throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try (OutputStream out = file.getOutputStream(false)) {
+            out.write(content);
+        }
+        return file;
+    }
+}
@@ -12,6 +12,16 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -183,4 +193,158 @@ public class StreamCopierTest {
         assertEquals(32768L, count.getSent());
         assertEquals(0L, status.getOffset());
     }
+
+    @Test
+    public void testTransferFileChannel() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(439865);
+        final File source = File.createTempFile("source", null);
+        final File target = File.createTempFile("target", null);
+        try {
+            Files.write(source.toPath(), bytes);
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            final FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+            new StreamCopier(status, status).withChannelsize(32768).withListener(count)
+                    .transfer(new SeekableByteChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+                            new VoidStatusOutputStream(new ChannelOutputStream(out)));
+            assertFalse(out.isOpen());
+            assertEquals(bytes.length, count.getRecv());
+            assertEquals(bytes.length, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(bytes, Files.readAllBytes(target.toPath()));
+        }
+        finally {
+            source.delete();
+            target.delete();
+        }
+    }
+
+    @Test
+    public void testTransferFileChannelOffsetLimit() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(439865);
+        final File source = File.createTempFile("source", null);
+        try {
+            Files.write(source.toPath(), bytes);
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new StreamCopier(status, status).withChannelsize(32768).withOffset(1000L).withLimit(100000L).withListener(count)
+                    .transfer(new SeekableByteChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+                            new ChannelOutputStream(Channels.newChannel(out)));
+            assertEquals(100000L, count.getRecv());
+            assertEquals(100000L, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 1000, 101000), out.toByteArray());
+        }
+        finally {
+            source.delete();
+        }
+    }
+
+    @Test
+    public void testTransferFileChannelThrottled() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(100000);
+        final File source = File.createTempFile("source", null);
+        try {
+            Files.write(source.toPath(), bytes);
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener() {
+                @Override
+                public void recv(final long bytes) {
+                    // Limited by throttle per request
+                    assertTrue(bytes <= 50000L);
+                    super.recv(bytes);
+                }
+            };
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new StreamCopier(status, status).withListener(count)
+                    .transfer(new ThrottledInputStream(new SeekableByteChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+                                    new BandwidthThrottle(500000f)),
+                            new ChannelOutputStream(Channels.newChannel(out)));
+            assertEquals(bytes.length, count.getRecv());
+            assertTrue(status.isComplete());
+            assertArrayEquals(bytes, out.toByteArray());
+        }
+        finally {
+            source.delete();
+        }
+    }
+
+    @Test
+    public void testTransferToFileChannel() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(139865);
+        final File target = File.createTempFile("target", null);
+        try {
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            new StreamCopier(status, status).withChannelsize(32768).withListener(count)
+                    .transfer(new ChannelInputStream(Channels.newChannel(new ByteArrayInputStream(bytes))),
+                            new ChannelOutputStream(FileChannel.open(target.toPath(), StandardOpenOption.WRITE)));
+            assertEquals(bytes.length, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(bytes, Files.readAllBytes(target.toPath()));
+        }
+        finally {
+            target.delete();
+        }
+    }
+
+    @Test
+    public void testTransferDirectBuffer() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(139865);
+        final TransferStatus status = new TransferStatus();
+        final BytecountStreamListener count = new BytecountStreamListener();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamCopier(status, status).withChannelsize(32768).withLimit(100000L).withListener(count)
+                .transfer(new ChannelInputStream(Channels.newChannel(new ByteArrayInputStream(bytes))),
+                        new ChannelOutputStream(Channels.newChannel(out)));
+        assertEquals(100000L, count.getSent());
+        assertTrue(status.isComplete());
+        assertArrayEquals(Arrays.copyOf(bytes, 100000), out.toByteArray());
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testTransferFileChannelCanceled() throws Exception {
+        final File source = File.createTempFile("source", null);
+        try {
+            Files.write(source.toPath(), RandomUtils.nextBytes(100000));
+            final TransferStatus status = new TransferStatus();
+            new StreamCopier(status, status).withChannelsize(32768).withListener(new DisabledStreamListener() {
+                        @Override
+                        public void sent(final long bytes) {
+                            status.setCanceled();
+                        }
+                    })
+                    .transfer(new SeekableByteChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+                            new ChannelOutputStream(Channels.newChannel(NullOutputStream.NULL_OUTPUT_STREAM)));
+        }
+        finally {
+            source.delete();
+        }
+    }
+
+    private static final class ChannelInputStream extends InputStream implements ChannelStream {
+        private final ReadableByteChannel channel;
+        private final InputStream proxy;
+
+        public ChannelInputStream(final ReadableByteChannel channel) {
+            this.channel = channel;
+            this.proxy = Channels.newInputStream(channel);
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws IOException {
+            proxy.close();
+        }
+
+        @Override
+        public Channel getChannel() {
+            return channel;
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package ch.cyberduck.core.local;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.io.watchservice.NIOEventWatchService;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.Watchable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LocalChangeJournalTest {
+
+    @Test(expected = IOException.class)
+    public void testRegisterNotfound() throws Exception {
+        new LocalChangeJournal(new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random()),
+                new NIOEventWatchService(), 10).register();
+    }
+
+    @Test
+    public void testDrain() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local folder = new Local(directory, "d");
+        folder.mkdir();
+        final LocalChangeJournal journal = new LocalChangeJournal(directory, new NIOEventWatchService(), 10);
+        journal.register();
+        // Full scan before first transfer
+        assertTrue(journal.drain().isAll());
+        final Local file = new Local(folder, "f");
+        new DefaultLocalTouchFeature().touch(file);
+        LocalChangeJournal.Changes changes = journal.drain();
+        for(int i = 0; i < 100 && !changes.contains(file); i++) {
+            Thread.sleep(100L);
+            changes = journal.drain();
+        }
+        assertFalse(changes.isAll());
+        assertTrue(changes.contains(file));
+        assertTrue(changes.contains(folder));
+        assertTrue(changes.contains(directory));
+        assertFalse(changes.contains(new Local(folder, "g")));
+        assertFalse(changes.contains(new Local(directory, "g")));
+        journal.invalidate();
+        assertTrue(journal.drain().isAll());
+        journal.close();
+        file.delete();
+        folder.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testRegisterRootOnlyForRecursiveService() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local folder = new Local(directory, "d");
+        folder.mkdir();
+        final AtomicInteger registered = new AtomicInteger();
+        final LocalChangeJournal journal = new LocalChangeJournal(directory, new NIOEventWatchService() {
+            @Override
+            public WatchKey register(final Watchable folder, final WatchEvent.Kind<?>[] events, final WatchEvent.Modifier... modifiers) throws IOException {
+                registered.incrementAndGet();
+                return super.register(folder, events, modifiers);
+            }
+
+            @Override
+            public boolean isRecursive() {
+                return true;
+            }
+        }, 10);
+        journal.register();
+        assertEquals(1, registered.get());
+        journal.close();
+        folder.delete();
+        directory.delete();
+    }
+}
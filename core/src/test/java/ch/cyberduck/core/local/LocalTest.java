@@ -1,6 +1,7 @@
 package ch.cyberduck.core.local;
 
 import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.exception.AccessDeniedException;
@@ -52,6 +53,42 @@ public class LocalTest {
         }).isEmpty());
     }
 
+    @Test
+    public void testListSnapshot() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local file = new Local(directory, "f");
+        new DefaultLocalTouchFeature().touch(file);
+        final Local folder = new Local(directory, "d");
+        folder.mkdir();
+        final AttributedList<Local> list = directory.list();
+        assertEquals(2, list.size());
+        final Local f = list.find(file::equals);
+        assertNotNull(f.getSnapshot());
+        assertTrue(f.isFile());
+        assertFalse(f.isDirectory());
+        assertFalse(f.isSymbolicLink());
+        assertTrue(f.exists());
+        assertEquals(0L, f.attributes().getSize());
+        final Local d = list.find(folder::equals);
+        assertNotNull(d.getSnapshot());
+        assertTrue(d.isDirectory());
+        assertFalse(d.isFile());
+        // Invalidated when written
+        final OutputStream out = f.getOutputStream(false);
+        assertNull(f.getSnapshot());
+        out.write(new byte[]{1});
+        out.close();
+        assertEquals(1L, f.attributes().getSize());
+        assertNotNull(f.snapshot());
+        assertEquals(1L, f.attributes().getSize());
+        f.delete();
+        assertNull(f.getSnapshot());
+        assertFalse(f.exists());
+        d.delete();
+        directory.delete();
+    }
+
     @Test
     public void testListNotfound() {
         assertThrows(LocalAccessDeniedException.class, () -> new Local(new AlphanumericRandomStringService().random()).list());
@@ -0,0 +1,104 @@
+package ch.cyberduck.core.local;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.NullFilter;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class LocalTreeWalkerTest {
+
+    @Test
+    public void testWalk() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local a = new Local(directory, "a");
+        a.mkdir();
+        final Local b = new Local(a, "b");
+        b.mkdir();
+        final Local skipped = new Local(directory, "s");
+        skipped.mkdir();
+        new DefaultLocalTouchFeature().touch(new Local(b, "f"));
+        new DefaultLocalTouchFeature().touch(new Local(skipped, "f"));
+        final Map<Local, AttributedList<Local>> listings = new LocalTreeWalker(new NullFilter<Local>() {
+            @Override
+            public boolean accept(final Local file) {
+                return !file.getName().equals("s");
+            }
+        }, 2, Integer.MAX_VALUE).walk(directory);
+        assertEquals(3, listings.size());
+        assertEquals(2, listings.get(directory).size());
+        assertEquals(1, listings.get(a).size());
+        assertEquals(1, listings.get(b).size());
+        assertNotNull(listings.get(b).get(0).getSnapshot());
+        assertFalse(listings.containsKey(skipped));
+        assertEquals(1, new LocalTreeWalker(new NullFilter<>(), 2, 1).walk(directory).size());
+        new Local(b, "f").delete();
+        new Local(skipped, "f").delete();
+        b.delete();
+        a.delete();
+        skipped.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testWalkBackground() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local a = new Local(directory, "a");
+        a.mkdir();
+        final Local b = new Local(a, "b");
+        b.mkdir();
+        new DefaultLocalTouchFeature().touch(new Local(b, "f"));
+        final Map<Local, AttributedList<Local>> listings = new ConcurrentHashMap<>();
+        new LocalTreeWalker(new NullFilter<>(), 2, Integer.MAX_VALUE).walk(directory, directory.list(), listings).get();
+        // Root listing already read is not added
+        assertEquals(2, listings.size());
+        assertFalse(listings.containsKey(directory));
+        assertEquals(1, listings.get(a).size());
+        assertEquals(1, listings.get(b).size());
+        new Local(b, "f").delete();
+        b.delete();
+        a.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testWalkBackgroundKeepExisting() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local a = new Local(directory, "a");
+        a.mkdir();
+        new DefaultLocalTouchFeature().touch(new Local(a, "f"));
+        final Map<Local, AttributedList<Local>> listings = new ConcurrentHashMap<>();
+        // Directory already listed for transfer
+        final AttributedList<Local> consumed = new AttributedList<>();
+        listings.put(a, consumed);
+        new LocalTreeWalker(new NullFilter<>(), 2, Integer.MAX_VALUE).walk(directory, directory.list(), listings).get();
+        assertSame(consumed, listings.get(a));
+        new Local(a, "f").delete();
+        a.delete();
+        directory.delete();
+    }
+}
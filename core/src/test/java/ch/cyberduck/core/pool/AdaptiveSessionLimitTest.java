@@ -0,0 +1,145 @@
+package ch.cyberduck.core.pool;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundActionState;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveSessionLimitTest {
+
+    @Test
+    public void testFairOrder() throws Exception {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1);
+        limit.acquire(BackgroundActionState.running);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            final int n = i;
+            final Thread t = new Thread(() -> {
+                try {
+                    limit.acquire(BackgroundActionState.running);
+                    order.add(n);
+                    limit.release();
+                }
+                catch(ConnectionCanceledException e) {
+                    fail();
+                }
+            });
+            t.start();
+            threads.add(t);
+            // Wait for thread to enqueue
+            while(limit.getWaiting() <= i) {
+                Thread.sleep(10L);
+            }
+        }
+        limit.release();
+        for(Thread t : threads) {
+            t.join(TimeUnit.MINUTES.toMillis(1L));
+        }
+        assertEquals(Arrays.asList(0, 1, 2), order);
+        assertEquals(0, limit.getWaiting());
+    }
+
+    @Test
+    public void testFailureDecrease() throws Exception {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1, 8);
+        for(int i = 0; i < 8; i++) {
+            limit.acquire(BackgroundActionState.running);
+        }
+        limit.failure();
+        assertEquals(4, limit.getLimit());
+        limit.failure();
+        assertEquals(2, limit.getLimit());
+        limit.failure();
+        limit.failure();
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testIncreaseWhileWaiting() throws Exception {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1, 8);
+        limit.acquire(BackgroundActionState.running);
+        limit.failure();
+        assertEquals(1, limit.getLimit());
+        final CountDownLatch entered = new CountDownLatch(1);
+        final Thread waiting = new Thread(() -> {
+            try {
+                limit.acquire(BackgroundActionState.running);
+                entered.countDown();
+            }
+            catch(ConnectionCanceledException e) {
+                fail();
+            }
+        });
+        waiting.start();
+        while(limit.getWaiting() == 0) {
+            Thread.sleep(10L);
+        }
+        // Window of completions with borrower waiting
+        limit.latency(10L);
+        limit.success();
+        assertEquals(2, limit.getLimit());
+        assertTrue(entered.await(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testLatencyJitter() {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1, 4);
+        limit.latency(1L);
+        limit.success();
+        // Jitter of borrows from idle sessions
+        limit.latency(40L);
+        limit.success();
+        assertEquals(4, limit.getLimit());
+        limit.latency(200L);
+        limit.success();
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testCancel() throws Exception {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1);
+        limit.acquire(BackgroundActionState.running);
+        limit.acquire(new BackgroundActionState() {
+            @Override
+            public boolean isCanceled() {
+                return true;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return false;
+            }
+        });
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testClose() throws Exception {
+        final AdaptiveSessionLimit limit = new AdaptiveSessionLimit(1);
+        limit.close();
+        limit.acquire(BackgroundActionState.running);
+    }
+}
@@ -15,13 +15,19 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.local.DefaultLocalTouchFeature;
+import ch.cyberduck.core.transfer.TransferItem;
 
 import org.junit.Test;
 
+import java.io.OutputStream;
 import java.util.Calendar;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -205,4 +211,67 @@ public class DefaultComparePathFilterTest {
         assertTrue(found.get());
         assertTrue(attr.get());
     }
+
+    @Test
+    public void testCompareIndex() throws Exception {
+        final AttributesFinder attributes = new AttributesFinder() {
+            @Override
+            public PathAttributes find(final Path file, final ListProgressListener listener) {
+                return new PathAttributes().withSize(3L).withChecksum(new Checksum(HashAlgorithm.md5, "a"));
+            }
+        };
+        final Find find = new Find() {
+            @Override
+            public boolean find(final Path file, final ListProgressListener listener) {
+                return true;
+            }
+        };
+        final AtomicInteger count = new AtomicInteger();
+        final Map<TransferItem, SyncIndexEntry> entries = new HashMap<>();
+        final SyncIndex index = new SyncIndex() {
+            @Override
+            public SyncIndexEntry get(final TransferItem item) {
+                return entries.get(item);
+            }
+
+            @Override
+            public void put(final TransferItem item, final SyncIndexEntry entry) {
+                entries.put(item, entry);
+            }
+
+            @Override
+            public void close() {
+                //
+            }
+        };
+        final DefaultComparePathFilter s = new DefaultComparePathFilter(new NullSession(new Host(new TestProtocol()))) {
+            @Override
+            protected Checksum checksum(final HashAlgorithm algorithm, final Local local) {
+                count.incrementAndGet();
+                return new Checksum(HashAlgorithm.md5, "a");
+            }
+        };
+        s.withFinder(find).withAttributes(attributes);
+        s.withIndex(index);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        new DefaultLocalTouchFeature().touch(local);
+        try (OutputStream out = local.getOutputStream(false)) {
+            out.write(new byte[3]);
+        }
+        try {
+            final Path file = new Path(local.getName(), EnumSet.of(Path.Type.file));
+            assertEquals(Comparison.equal, s.compare(file, local, new DisabledProgressListener()));
+            assertEquals(1, count.get());
+            assertEquals(1, entries.size());
+            // Unchanged local and remote file
+            assertEquals(Comparison.equal, s.compare(file, local, new DisabledProgressListener()));
+            assertEquals(1, count.get());
+            local.attributes().setModificationDate(local.attributes().getModificationDate() - 10000L);
+            assertEquals(Comparison.equal, s.compare(file, local, new DisabledProgressListener()));
+            assertEquals(2, count.get());
+        }
+        finally {
+            local.delete();
+        }
+    }
 }
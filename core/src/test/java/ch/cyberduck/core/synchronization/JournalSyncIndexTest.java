@@ -0,0 +1,110 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class JournalSyncIndexTest {
+
+    @Test
+    public void testPersist() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final TransferItem item = new TransferItem(new Path("/f", EnumSet.of(Path.Type.file)), new Local("/l/f"));
+            final JournalSyncIndex index = new JournalSyncIndex(file, 100);
+            assertNull(index.get(item));
+            final PathAttributes remote = new PathAttributes().withSize(3L).withModificationDate(1000L)
+                    .withChecksum(new Checksum(HashAlgorithm.md5, "a")).withETag("e").withVersionId("v");
+            remote.setRevision(2L);
+            index.put(item, new SyncIndexEntry("(dev=1,ino=2)", new PathAttributes().withSize(3L).withModificationDate(2000L)
+                    .withChecksum(new Checksum(HashAlgorithm.md5, "a", "b")), remote, Comparison.equal));
+            index.close();
+            final SyncIndexEntry entry = new JournalSyncIndex(file, 100).get(item);
+            assertNotNull(entry);
+            assertEquals(Comparison.equal, entry.getComparison());
+            assertEquals("b", entry.getLocal().getChecksum().base64);
+            assertTrue(entry.isLocalUnchanged("(dev=1,ino=2)", new PathAttributes().withSize(3L).withModificationDate(2000L)));
+            assertFalse(entry.isLocalUnchanged("(dev=1,ino=3)", new PathAttributes().withSize(3L).withModificationDate(2000L)));
+            assertFalse(entry.isLocalUnchanged("(dev=1,ino=2)", new PathAttributes().withSize(3L).withModificationDate(2001L)));
+            assertTrue(entry.isRemoteUnchanged(remote));
+            assertFalse(entry.isRemoteUnchanged(new PathAttributes().withSize(3L).withModificationDate(1000L)
+                    .withChecksum(new Checksum(HashAlgorithm.md5, "a")).withETag("e").withVersionId("v2")));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final JournalSyncIndex index = new JournalSyncIndex(file, 100);
+            for(int i = 0; i < 2; i++) {
+                index.put(new TransferItem(new Path("/f" + i, EnumSet.of(Path.Type.file)), new Local("/l/f" + i)),
+                        new SyncIndexEntry(null, new PathAttributes(), new PathAttributes(), Comparison.equal));
+            }
+            index.close();
+            try (RandomAccessFile f = new RandomAccessFile(new File(file.getAbsolute()), "rw")) {
+                f.setLength(f.length() - 1);
+            }
+            final JournalSyncIndex reopened = new JournalSyncIndex(file, 100);
+            assertNotNull(reopened.get(new TransferItem(new Path("/f0", EnumSet.of(Path.Type.file)), new Local("/l/f0"))));
+            assertNull(reopened.get(new TransferItem(new Path("/f1", EnumSet.of(Path.Type.file)), new Local("/l/f1"))));
+            reopened.put(new TransferItem(new Path("/f2", EnumSet.of(Path.Type.file)), new Local("/l/f2")),
+                    new SyncIndexEntry(null, new PathAttributes(), new PathAttributes(), Comparison.remote));
+            reopened.close();
+            final SyncIndexEntry entry = new JournalSyncIndex(file, 100).get(new TransferItem(new Path("/f2", EnumSet.of(Path.Type.file)), new Local("/l/f2")));
+            assertNotNull(entry);
+            assertEquals(Comparison.remote, entry.getComparison());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final TransferItem item = new TransferItem(new Path("/f", EnumSet.of(Path.Type.file)), new Local("/l/f"));
+            final JournalSyncIndex index = new JournalSyncIndex(file, 10);
+            for(int i = 0; i < 100; i++) {
+                index.put(item, new SyncIndexEntry(null, new PathAttributes().withSize(i), new PathAttributes(), Comparison.equal));
+            }
+            index.close();
+            // Single record remaining
+            assertTrue(new File(file.getAbsolute()).length() < 100L);
+            assertEquals(99L, new JournalSyncIndex(file, 10).get(item).getLocal().getSize());
+        }
+        finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SegmentSchedulerTest {
+
+    @Test
+    public void testWindow() throws Exception {
+        final ThreadPool pool = new DefaultThreadPool("test", 8);
+        final SegmentScheduler<Integer> scheduler = new SegmentScheduler<>(pool, 2, 2, 1L, 1L, 1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Integer> expected = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            final int segment = i;
+            expected.add(segment);
+            scheduler.submit(1L, () -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(10L);
+                running.decrementAndGet();
+                return segment;
+            });
+        }
+        assertEquals(expected, scheduler.await());
+        assertTrue(max.get() <= 2);
+        pool.shutdown(true);
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void testFailure() throws Exception {
+        final ThreadPool pool = new DefaultThreadPool("test", 2);
+        final SegmentScheduler<Integer> scheduler = new SegmentScheduler<>(pool, 2, 2, 1L, 1L, 1);
+        try {
+            scheduler.submit(1L, () -> {
+                throw new AccessDeniedException();
+            });
+            scheduler.submit(1L, () -> {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1L));
+                return 1;
+            });
+            scheduler.await();
+        }
+        finally {
+            pool.shutdown(false);
+        }
+    }
+
+    @Test
+    public void testIncreaseSegmentsize() {
+        final SegmentScheduler<Integer> scheduler = new SegmentScheduler<>(new DefaultThreadPool("test", 1), 1, 2, 1L, 8L, 2);
+        assertEquals(1L, scheduler.getSegmentsize(1));
+        assertEquals(1L, scheduler.getSegmentsize(2));
+        assertEquals(2L, scheduler.getSegmentsize(3));
+        assertEquals(2L, scheduler.getSegmentsize(4));
+        assertEquals(4L, scheduler.getSegmentsize(5));
+        assertEquals(8L, scheduler.getSegmentsize(7));
+        assertEquals(8L, scheduler.getSegmentsize(1000));
+    }
+
+    @Test
+    public void testLayoutResumed() {
+        // Same layout for resumed upload regardless of segments completed
+        final SegmentScheduler<Integer> initial = new SegmentScheduler<>(new DefaultThreadPool("test", 1), 4, 8, 5L, 80L, 3);
+        final SegmentScheduler<Integer> resumed = new SegmentScheduler<>(new DefaultThreadPool("test", 1), 1, 1, 5L, 80L, 3);
+        for(int i = 1; i < 100; i++) {
+            assertEquals(initial.getSegmentsize(i), resumed.getSegmentsize(i));
+        }
+    }
+
+    @Test
+    public void testFixedSegmentsize() throws Exception {
+        final ThreadPool pool = new DefaultThreadPool("test", 2);
+        final SegmentScheduler<Integer> scheduler = new SegmentScheduler<>(pool, 1, 2, 5L, 5L, 1);
+        for(int i = 1; i <= 10; i++) {
+            scheduler.submit(scheduler.getSegmentsize(i), () -> 0);
+        }
+        assertEquals(10, scheduler.await().size());
+        assertEquals(5L, scheduler.getSegmentsize(10));
+        pool.shutdown(true);
+    }
+}
@@ -18,6 +18,7 @@ package ch.cyberduck.core.transfer;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.DisabledProgressListener;
@@ -32,7 +33,10 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.io.watchservice.NIOEventWatchService;
 import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
+import ch.cyberduck.core.local.DefaultLocalTouchFeature;
+import ch.cyberduck.core.local.LocalChangeJournal;
 import ch.cyberduck.core.synchronization.Comparison;
 
 import org.junit.Test;
@@ -271,4 +275,48 @@ public class SyncTransferTest {
         assertTrue(t.filter(session, null, TransferAction.upload, new DisabledProgressListener()).accept(root, directory, new TransferStatus().exists(true)));
         assertFalse(t.filter(session, null, TransferAction.upload, new DisabledProgressListener()).accept(a, local, new TransferStatus().exists(true)));
     }
+
+    @Test
+    public void testJournalIgnoredForDownload() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        new DefaultLocalDirectoryFeature().mkdir(directory);
+        final Local a = new Local(directory, "a");
+        new DefaultLocalDirectoryFeature().mkdir(a);
+        final Local b = new Local(directory, "b");
+        new DefaultLocalDirectoryFeature().mkdir(b);
+        final LocalChangeJournal journal = new LocalChangeJournal(directory, new NIOEventWatchService(), 100);
+        journal.register();
+        // Full scan in previous run with upload action
+        assertTrue(journal.drain().isAll());
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final SyncTransfer t = new SyncTransfer(new Host(new TestProtocol()), new TransferItem(root, directory), TransferAction.download);
+        t.withJournal(journal);
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                return AttributedList.emptyList();
+            }
+        };
+        try {
+            t.reset();
+            final Local changed = new Local(b, "f");
+            new DefaultLocalTouchFeature().touch(changed);
+            Thread.sleep(1000L);
+            t.reset();
+            // Remote changes in any subtree must be found
+            assertEquals(2, t.list(session, root, directory, new DisabledListProgressListener()).size());
+            // Changes are kept for next run with upload action
+            final LocalChangeJournal.Changes changes = journal.drain();
+            assertFalse(changes.isAll());
+            assertTrue(changes.contains(b));
+            assertFalse(changes.contains(a));
+        }
+        finally {
+            t.close();
+            new Local(b, "f").delete();
+            a.delete();
+            b.delete();
+            directory.delete();
+        }
+    }
 }
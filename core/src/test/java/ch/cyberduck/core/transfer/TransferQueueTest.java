@@ -21,6 +21,8 @@ import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundActionState;
 
 import org.junit.Test;
 
@@ -182,4 +184,117 @@ public class TransferQueueTest {
         assertTrue(c.await(10, TimeUnit.SECONDS));
         assertEquals(0, c.getCount());
     }
+
+    @Test
+    public void testPreemptPriority() throws Exception {
+        final TransferQueue queue = new TransferQueue(1, 0);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d3 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t3", EnumSet.of(Path.Type.directory)), null);
+        d3.setPriority(Transfer.Priority.high);
+        queue.add(d1, new DisabledProgressListener());
+        final CountDownLatch c = new CountDownLatch(1);
+        new Thread(() -> {
+            queue.add(d2, new DisabledProgressListener());
+            c.countDown();
+        }).start();
+        assertFalse(c.await(1, TimeUnit.SECONDS));
+        // Admitted with running transfer of lower priority
+        queue.add(d3, new DisabledProgressListener());
+        assertEquals(1, c.getCount());
+        queue.remove(d1);
+        assertEquals(1, c.getCount());
+        queue.remove(d3);
+        assertTrue(c.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAdmitPriority() throws Exception {
+        final TransferQueue queue = new TransferQueue(1, 0);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        d1.setPriority(Transfer.Priority.high);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        d2.setPriority(Transfer.Priority.low);
+        final DownloadTransfer d3 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t3", EnumSet.of(Path.Type.directory)), null);
+        queue.add(d1, new DisabledProgressListener());
+        final CountDownLatch low = new CountDownLatch(1);
+        new Thread(() -> {
+            queue.add(d2, new DisabledProgressListener());
+            low.countDown();
+        }).start();
+        assertFalse(low.await(1, TimeUnit.SECONDS));
+        final CountDownLatch normal = new CountDownLatch(1);
+        new Thread(() -> {
+            queue.add(d3, new DisabledProgressListener());
+            normal.countDown();
+        }).start();
+        assertFalse(normal.await(1, TimeUnit.SECONDS));
+        queue.remove(d1);
+        // Waiting transfer with higher priority admitted first
+        assertTrue(normal.await(10, TimeUnit.SECONDS));
+        assertFalse(low.await(1, TimeUnit.SECONDS));
+        queue.remove(d3);
+        assertTrue(low.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConnectionShare() throws Exception {
+        final TransferQueue queue = new TransferQueue(2, 3);
+        final DownloadTransfer t1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer t2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        t2.setPriority(Transfer.Priority.high);
+        // Use all connections while no other transfer is waiting
+        for(int i = 0; i < 3; i++) {
+            queue.acquire(t1, BackgroundActionState.running);
+        }
+        assertEquals(3, queue.getConnections(t1));
+        final CountDownLatch a = this.acquire(queue, t2);
+        assertFalse(a.await(1, TimeUnit.SECONDS));
+        queue.release(t1);
+        assertTrue(a.await(10, TimeUnit.SECONDS));
+        final CountDownLatch b = this.acquire(queue, t1);
+        final CountDownLatch c = this.acquire(queue, t2);
+        assertFalse(c.await(1, TimeUnit.SECONDS));
+        queue.release(t1);
+        // Transfer above its share yields to transfer with higher priority
+        assertTrue(c.await(10, TimeUnit.SECONDS));
+        assertFalse(b.await(1, TimeUnit.SECONDS));
+        assertEquals(1, queue.getConnections(t1));
+        assertEquals(2, queue.getConnections(t2));
+        queue.release(t2);
+        assertTrue(b.await(10, TimeUnit.SECONDS));
+        assertEquals(2, queue.getConnections(t1));
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testAcquireCanceled() throws Exception {
+        final TransferQueue queue = new TransferQueue(1, 1);
+        final DownloadTransfer t = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t", EnumSet.of(Path.Type.directory)), null);
+        queue.acquire(t, BackgroundActionState.running);
+        queue.acquire(t, new BackgroundActionState() {
+            @Override
+            public boolean isCanceled() {
+                return true;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return false;
+            }
+        });
+    }
+
+    private CountDownLatch acquire(final TransferQueue queue, final Transfer t) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(() -> {
+            try {
+                queue.acquire(t, BackgroundActionState.running);
+                latch.countDown();
+            }
+            catch(ConnectionCanceledException e) {
+                fail();
+            }
+        }).start();
+        return latch;
+    }
 }
@@ -18,8 +18,14 @@ package ch.cyberduck.core.transfer;
  *  dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.TransferStatusCanceledException;
+
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.*;
 
 public class TransferStatusTest {
@@ -46,6 +52,50 @@ public class TransferStatusTest {
         assertTrue(status.await());
     }
 
+    @Test
+    public void testAwaitFailure() throws Exception {
+        final TransferStatus status = new TransferStatus();
+        final CountDownLatch entry = new CountDownLatch(1);
+        final Thread waiting = new Thread(() -> {
+            entry.countDown();
+            try {
+                assertFalse(status.await());
+            }
+            catch(ConnectionCanceledException e) {
+                fail();
+            }
+        });
+        waiting.start();
+        entry.await();
+        status.setFailure(new ConnectionCanceledException());
+        waiting.join(TimeUnit.MINUTES.toMillis(1L));
+        assertFalse(waiting.isAlive());
+        assertFalse(status.isComplete());
+    }
+
+    @Test
+    public void testFlags() throws Exception {
+        final TransferStatus status = new TransferStatus().exists(true).append(true).segment(true).positional(true).hidden(true).reject(true);
+        assertTrue(status.isExists());
+        assertTrue(status.isAppend());
+        assertTrue(status.isSegment());
+        assertTrue(status.isPositional());
+        assertTrue(status.isHidden());
+        assertTrue(status.isRejected());
+        status.setCanceled();
+        final TransferStatus copy = new TransferStatus(status.exists(false));
+        assertFalse(copy.isExists());
+        assertTrue(copy.isAppend());
+        assertTrue(copy.isHidden());
+        try {
+            copy.validate();
+            fail();
+        }
+        catch(TransferStatusCanceledException e) {
+            //
+        }
+    }
+
     @Test
     public void testEquals() {
         assertEquals(new TransferStatus(), new TransferStatus());
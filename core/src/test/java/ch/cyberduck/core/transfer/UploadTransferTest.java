@@ -16,6 +16,7 @@ import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.DefaultLocalTouchFeature;
 import ch.cyberduck.core.local.LocalTouchFactory;
 import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.upload.AbstractUploadFilter;
 import ch.cyberduck.core.transfer.upload.UploadFilterOptions;
 import ch.cyberduck.core.transfer.upload.UploadRegexPriorityComparator;
@@ -471,4 +472,52 @@ public class UploadTransferTest {
         assertNull(status.getRename().local);
         assertNull(status.getRename().remote);
     }
+
+    @Test
+    public void testListChangedSubtreesWithJournal() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        new DefaultLocalDirectoryFeature().mkdir(directory);
+        final Local a = new Local(directory, "a");
+        new DefaultLocalDirectoryFeature().mkdir(a);
+        new DefaultLocalTouchFeature().touch(new Local(a, "f"));
+        final Local b = new Local(directory, "b");
+        new DefaultLocalDirectoryFeature().mkdir(b);
+        new DefaultLocalTouchFeature().touch(new Local(b, "f"));
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        PreferencesFactory.get().setProperty("queue.journal.enable", true);
+        final UploadTransfer t;
+        try {
+            t = new UploadTransfer(new Host(new TestProtocol()), root, directory);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.journal.enable");
+        }
+        try {
+            // First run with full scan
+            t.reset();
+            assertEquals(2, t.list(session, root, directory, new DisabledListProgressListener()).size());
+            final Local changed = new Local(b, "g");
+            new DefaultLocalTouchFeature().touch(changed);
+            List<TransferItem> children = Collections.emptyList();
+            for(int i = 0; i < 100 && children.isEmpty(); i++) {
+                Thread.sleep(100L);
+                // Second run with changes recorded since first run
+                t.reset();
+                children = t.list(session, root, directory, new DisabledListProgressListener());
+            }
+            assertEquals(Collections.singletonList(new TransferItem(new Path(root, "b", EnumSet.of(Path.Type.directory)), b)), children);
+            assertEquals(Collections.singletonList(new TransferItem(new Path(new Path(root, "b", EnumSet.of(Path.Type.directory)), "g", EnumSet.of(Path.Type.file)), changed)),
+                    t.list(session, new Path(root, "b", EnumSet.of(Path.Type.directory)), b, new DisabledListProgressListener()));
+        }
+        finally {
+            t.close();
+            new Local(a, "f").delete();
+            new Local(b, "f").delete();
+            new Local(b, "g").delete();
+            a.delete();
+            b.delete();
+            directory.delete();
+        }
+    }
 }
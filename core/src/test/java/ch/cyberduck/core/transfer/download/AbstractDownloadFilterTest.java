@@ -15,8 +15,22 @@ package ch.cyberduck.core.transfer.download;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
+
 import org.junit.Test;
 
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+
 import static ch.cyberduck.core.transfer.download.AbstractDownloadFilterTest.Unit.GiB;
 import static ch.cyberduck.core.transfer.download.AbstractDownloadFilterTest.Unit.MiB;
 import static org.junit.Assert.assertEquals;
@@ -85,6 +99,70 @@ public class AbstractDownloadFilterTest {
         }
     }
 
+    @Test
+    public void testFindSegmentSizeBandwidth() {
+        // 10 seconds at 8 MiB/s with enough connections
+        assertEquals(convertSize(80, MiB), AbstractDownloadFilter.findSegmentSize(convertSize(16, GiB), 10,
+                convertSize(10, MiB), convertSize(128, MiB), 1024, convertSize(80, MiB)));
+        // Limited to maximum segment size
+        assertEquals(convertSize(128, MiB), AbstractDownloadFilter.findSegmentSize(convertSize(16, GiB), 10,
+                convertSize(10, MiB), convertSize(128, MiB), 1024, convertSize(1, GiB)));
+        // Not smaller than threshold for slow connection
+        assertEquals(convertSize(10, MiB), AbstractDownloadFilter.findSegmentSize(convertSize(1, GiB), 10,
+                convertSize(10, MiB), convertSize(128, MiB), 1024, convertSize(1, MiB)));
+        // Split to use all connections
+        assertEquals(convertSize(25, MiB), AbstractDownloadFilter.findSegmentSize(convertSize(100, MiB), 4,
+                convertSize(10, MiB), convertSize(128, MiB), 128, convertSize(80, MiB)));
+        // Limit number of segments
+        assertEquals(convertSize(256, MiB), AbstractDownloadFilter.findSegmentSize(convertSize(16, GiB), 10,
+                convertSize(10, MiB), convertSize(128, MiB), 64, convertSize(80, MiB)));
+    }
+
+    @Test
+    public void testApplyTruncateStaleSegmentFile() throws Exception {
+        final Local segmentFile = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        // Leftover from previous download of larger file
+        try (OutputStream out = segmentFile.getOutputStream(false)) {
+            out.write(new byte[100]);
+        }
+        final TransferStatus status = new TransferStatus().withSegments(Arrays.asList(
+                new TransferStatus().positional(true).withOffset(0L).withLength(20L).withRename(segmentFile),
+                new TransferStatus().positional(true).withOffset(20L).withLength(20L).withRename(segmentFile)));
+        new OverwriteFilter(new DisabledDownloadSymlinkResolver(), new NullSession(new Host(new TestProtocol())))
+                .apply(new Path("/f", EnumSet.of(Path.Type.file)), new Local(System.getProperty("java.io.tmpdir"), "f"),
+                        status, new DisabledProgressListener());
+        assertEquals(40L, segmentFile.attributes().getSize());
+        segmentFile.delete();
+    }
+
+    @Test
+    public void testCompleteRecordsPositionalSegment() throws Exception {
+        final Local segmentFile = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final TransferStatus first = new TransferStatus().segment(true).positional(true).withOffset(0L).withLength(20L).withRename(segmentFile);
+        final TransferStatus second = new TransferStatus().segment(true).positional(true).withOffset(20L).withLength(20L).withRename(segmentFile);
+        final TransferStatus status = new TransferStatus().withSegments(Arrays.asList(first, second));
+        final OverwriteFilter filter = new OverwriteFilter(new DisabledDownloadSymlinkResolver(), new NullSession(new Host(new TestProtocol())));
+        filter.apply(new Path("/f", EnumSet.of(Path.Type.file)), new Local(System.getProperty("java.io.tmpdir"), "f"),
+                status, new DisabledProgressListener());
+        filter.complete(new Path("/f", EnumSet.of(Path.Type.file)), segmentFile, first.complete(), new DisabledProgressListener());
+        final CompletedSegments completed = new CompletedSegments(segmentFile);
+        assertTrue(completed.contains(0L, 20L));
+        assertTrue(completed.contains(5L, 10L));
+        assertFalse(completed.contains(20L, 20L));
+        assertFalse(completed.contains(10L, 20L));
+        filter.complete(new Path("/f", EnumSet.of(Path.Type.file)), segmentFile, second.complete(), new DisabledProgressListener());
+        // Covered by adjacent segments recorded
+        assertTrue(completed.contains(10L, 20L));
+        // Discarded when no segment is resumed
+        filter.apply(new Path("/f", EnumSet.of(Path.Type.file)), new Local(System.getProperty("java.io.tmpdir"), "f"),
+                new TransferStatus().withSegments(Arrays.asList(
+                        new TransferStatus().positional(true).withOffset(0L).withLength(20L).withRename(segmentFile),
+                        new TransferStatus().positional(true).withOffset(20L).withLength(20L).withRename(segmentFile))),
+                new DisabledProgressListener());
+        assertFalse(completed.contains(0L, 20L));
+        segmentFile.delete();
+    }
+
     class SegmentSizePair {
         public final long length;
         public final int connections;
@@ -1,9 +1,11 @@
 package ch.cyberduck.core.transfer.upload;
 
 import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -20,6 +22,7 @@ import ch.cyberduck.core.transfer.symlink.DisabledUploadSymlinkResolver;
 
 import org.junit.Test;
 
+import java.io.OutputStream;
 import java.util.EnumSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -103,6 +106,26 @@ public class OverwriteFilterTest {
             new DisabledProgressListener()).getLength(), 0L);
     }
 
+    @Test
+    public void testSizeChangedAfterListing() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        directory.mkdir();
+        final Local file = new Local(directory, "f");
+        try (OutputStream out = file.getOutputStream(false)) {
+            out.write(new byte[1]);
+        }
+        final Local listed = directory.list().get(0);
+        assertEquals(1L, listed.attributes().getSize());
+        try (OutputStream out = file.getOutputStream(false)) {
+            out.write(new byte[3]);
+        }
+        final OverwriteFilter f = new OverwriteFilter(new DisabledUploadSymlinkResolver(), new NullSession(new Host(new TestProtocol())));
+        assertEquals(3L, f.prepare(new Path("/f", EnumSet.of(Path.Type.file)), listed, new TransferStatus(),
+                new DisabledProgressListener()).getLength());
+        file.delete();
+        directory.delete();
+    }
+
     @Test
     public void testPermissionsNoChange() throws Exception {
         final OverwriteFilter f = new OverwriteFilter(new DisabledUploadSymlinkResolver(), new NullSession(new Host(new TestProtocol())));
@@ -1,18 +1,33 @@
 package ch.cyberduck.core.worker;
 
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledPasswordCallback;
 import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.TestLoginConnectionService;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
 
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class CalculateSizeWorkerTest {
 
@@ -46,4 +61,143 @@ public class CalculateSizeWorkerTest {
             }
         }.run(new NullSession(new Host(new TestProtocol()))), 0L);
     }
+
+    @Test
+    public void testParallel() throws Exception {
+        final Set<String> listed = ConcurrentHashMap.newKeySet();
+        final NullSession session = new NullSession(new Host(new TestProtocol(), "localhost")) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) {
+                assertTrue(listed.add(folder.getAbsolute()));
+                final AttributedList<Path> list = new AttributedList<>();
+                if(folder.getAbsolute().split("/").length <= 3) {
+                    for(int i = 0; i < 4; i++) {
+                        list.add(new Path(folder, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                    }
+                }
+                final Path file = new Path(folder, "f", EnumSet.of(Path.Type.file));
+                file.attributes().setSize(2L);
+                list.add(file);
+                return list;
+            }
+        };
+        final StatelessSessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session,
+                new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Path root = new Path("/", EnumSet.of(Path.Type.directory));
+        final PathCache cache = new PathCache(Integer.MAX_VALUE);
+        final AtomicLong updated = new AtomicLong();
+        final CalculateSizeWorker worker = new CalculateSizeWorker(Collections.singletonList(root), cache, new DisabledProgressListener(), pool) {
+            @Override
+            protected void update(final long size) {
+                updated.accumulateAndGet(size, Math::max);
+            }
+        };
+        // Root with 4 + 16 + 64 directories
+        assertEquals(170L, worker.run(session), 0L);
+        assertEquals(85, listed.size());
+        assertEquals(170L, updated.get());
+        assertEquals(170L, root.attributes().getSize());
+        assertTrue(cache.isCached(new Path("/d1/d2", EnumSet.of(Path.Type.directory))));
+        listed.clear();
+        // Reuse cached listings
+        assertEquals(170L, new CalculateSizeWorker(Collections.singletonList(root), cache, new DisabledProgressListener(), pool) {
+            @Override
+            protected void update(final long size) {
+                //
+            }
+        }.run(session), 0L);
+        assertTrue(listed.isEmpty());
+    }
+
+    @Test
+    public void testRecursiveSearch() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol(), "localhost")) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Search.class) {
+                    return (T) new Search() {
+                        @Override
+                        public AttributedList<Path> search(final Path workdir, final Filter<Path> regex, final ListProgressListener listener) throws BackgroundException {
+                            final AttributedList<Path> list = new AttributedList<>();
+                            for(int i = 0; i < 10; i++) {
+                                final Path file = new Path(String.format("/d/%d/f", i), EnumSet.of(Path.Type.file));
+                                file.attributes().setSize(3L);
+                                list.add(file);
+                                listener.chunk(workdir, list);
+                            }
+                            list.add(new Path("/d/placeholder", EnumSet.of(Path.Type.directory)));
+                            return list;
+                        }
+
+                        @Override
+                        public EnumSet<Flags> features() {
+                            return EnumSet.of(Flags.recursive, Flags.listing);
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+        };
+        final List<Long> updates = new ArrayList<>();
+        assertEquals(30L, new CalculateSizeWorker(Collections.singletonList(new Path("/d", EnumSet.of(Path.Type.directory))),
+                new DisabledProgressListener()) {
+            @Override
+            protected void update(final long size) {
+                updates.add(size);
+            }
+        }.run(session), 0L);
+        // Partial totals for every chunk
+        assertEquals(3L, updates.get(0), 0L);
+        assertEquals(30L, updates.get(updates.size() - 1), 0L);
+        assertEquals(11, updates.size());
+    }
+
+    @Test
+    public void testRecursiveSearchWithQuery() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol(), "localhost")) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Search.class) {
+                    return (T) new Search() {
+                        @Override
+                        public AttributedList<Path> search(final Path workdir, final Filter<Path> regex, final ListProgressListener listener) {
+                            // Server side query built from filter
+                            fail();
+                            return null;
+                        }
+
+                        @Override
+                        public EnumSet<Flags> features() {
+                            return EnumSet.of(Flags.recursive);
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) {
+                final AttributedList<Path> list = new AttributedList<>();
+                final Path file = new Path(folder, "f", EnumSet.of(Path.Type.file));
+                file.attributes().setSize(3L);
+                list.add(file);
+                return list;
+            }
+        };
+        assertEquals(3L, new CalculateSizeWorker(Collections.singletonList(new Path("/d", EnumSet.of(Path.Type.directory))),
+                new DisabledProgressListener()) {
+            @Override
+            protected void update(final long size) {
+                //
+            }
+        }.run(session), 0L);
+    }
 }
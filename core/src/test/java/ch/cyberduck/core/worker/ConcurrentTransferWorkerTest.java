@@ -50,6 +50,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 
@@ -209,6 +210,82 @@ public class ConcurrentTransferWorkerTest {
         worker.cleanup(true);
     }
 
+    @Test
+    public void testStreaming() throws Exception {
+        final Path first = new Path("/t1", EnumSet.of(Path.Type.file));
+        final Path second = new Path("/t2", EnumSet.of(Path.Type.file));
+        final CountDownLatch transferred = new CountDownLatch(1);
+        final AtomicBoolean overlap = new AtomicBoolean();
+        final List<TransferItem> list = new ArrayList<>();
+        list.add(new TransferItem(first, new NullLocal("/t1")));
+        list.add(new TransferItem(second, new NullLocal("/t2")));
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, list) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                if(file.equals(first)) {
+                    transferred.countDown();
+                }
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        if(file.equals(second)) {
+                            try {
+                                // Transfer of first file must not wait for second file to be prepared
+                                overlap.set(transferred.await(10, TimeUnit.SECONDS));
+                            }
+                            catch(InterruptedException e) {
+                                fail();
+                            }
+                        }
+                        return new TransferStatus();
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+                new DefaultVaultRegistry(new DisabledPasswordCallback()),
+                new DisabledTranscriptListener(), host);
+        final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+                pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+                new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+        );
+        pool.withMaxTotal(3);
+        final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+        assertTrue(worker.run(session));
+        worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+        assertTrue(overlap.get());
+        worker.cleanup(true);
+    }
+
     @Test
     public void testBorrowTimeoutNoSessionAvailable() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost", new Credentials("u", "p"));
@@ -20,9 +20,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class DeleteWorkerTest {
@@ -203,4 +206,62 @@ public class DeleteWorkerTest {
                 new DisabledProgressListener());
         worker.run(session);
     }
+
+    @Test
+    public void testDeleteInBatches() throws Exception {
+        final List<List<Path>> batches = new ArrayList<>();
+        final Session session = new NullSession(new Host(new TestProtocol()) {
+            @Override
+            public String getProperty(final String key) {
+                if("delete.batch.size".equals(key)) {
+                    return String.valueOf(3);
+                }
+                return super.getProperty(key);
+            }
+        }) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            assertTrue(files.size() <= 3);
+                            batches.add(new ArrayList<>(files.keySet()));
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                final AttributedList<Path> list = new AttributedList<>();
+                if(file.getParent().isRoot()) {
+                    for(int i = 0; i < 3; i++) {
+                        list.add(new Path(file, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                    }
+                }
+                for(int i = 0; i < 2; i++) {
+                    list.add(new Path(file, String.format("f%d", i), EnumSet.of(Path.Type.file)));
+                }
+                return list;
+            }
+        };
+        final Path directory = new Path("/t", EnumSet.of(Path.Type.directory));
+        final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(),
+                Arrays.asList(directory, new Path(directory, "d1", EnumSet.of(Path.Type.directory))),
+                new DisabledProgressListener());
+        final List<Path> deleted = worker.run(session);
+        // 3 directories with 2 files each and 2 files and parent
+        assertEquals(12, deleted.size());
+        assertEquals(4, batches.size());
+        assertEquals(directory, deleted.get(deleted.size() - 1));
+        for(int i = 0; i < deleted.size(); i++) {
+            for(int j = i + 1; j < deleted.size(); j++) {
+                // Children before parent
+                assertFalse(deleted.get(j).isChild(deleted.get(i)));
+            }
+        }
+    }
 }
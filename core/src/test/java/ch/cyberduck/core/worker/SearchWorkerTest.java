@@ -17,20 +17,29 @@ package ch.cyberduck.core.worker;
 
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledPasswordCallback;
+import ch.cyberduck.core.DisabledTranscriptListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.TestLoginConnectionService;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.ui.browser.SearchFilter;
 
 import org.junit.Test;
 
 import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class SearchWorkerTest {
 
@@ -102,4 +111,111 @@ public class SearchWorkerTest {
         assertTrue(cache.get(new Path("/folder", EnumSet.of(Path.Type.directory))).contains(
             new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.gif", EnumSet.of(Path.Type.file))));
     }
+
+    @Test
+    public void testParallel() throws Exception {
+        final Set<String> listed = ConcurrentHashMap.newKeySet();
+        final NullSession session = new NullSession(new Host(new TestProtocol(), "localhost") {
+            @Override
+            public String getProperty(final String key) {
+                if("browser.traversal.frontier".equals(key)) {
+                    return String.valueOf(2);
+                }
+                return super.getProperty(key);
+            }
+        }) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) {
+                assertTrue(listed.add(folder.getAbsolute()));
+                try {
+                    // Allow connections from pool to take directories from frontier
+                    Thread.sleep(1L);
+                }
+                catch(InterruptedException e) {
+                    fail();
+                }
+                final AttributedList<Path> list = new AttributedList<>();
+                if(folder.getAbsolute().split("/").length <= 4) {
+                    for(int i = 0; i < 4; i++) {
+                        list.add(new Path(folder, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                    }
+                }
+                if(folder.getName().equals("d1")) {
+                    list.add(new Path(folder, "f.png", EnumSet.of(Path.Type.file)));
+                }
+                list.add(new Path(folder, "f.gif", EnumSet.of(Path.Type.file)));
+                return list;
+            }
+        };
+        final StatelessSessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session,
+                new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Path root = new Path("/", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> found = new SearchWorker(root, new SearchFilter(".png"), new PathCache(Integer.MAX_VALUE),
+                new DisabledListProgressListener(), pool).run(session);
+        // Root with 4 + 16 + 64 + 256 directories
+        assertEquals(341, listed.size());
+        final Path d1 = new Path(root, "d1", EnumSet.of(Path.Type.directory));
+        assertTrue(found.contains(d1));
+        assertTrue(found.contains(new Path(d1, "f.png", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path(new Path(d1, "d1", EnumSet.of(Path.Type.directory)), "f.png", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path(root, "d0", EnumSet.of(Path.Type.directory))));
+        assertFalse(found.contains(new Path("/d0/d0/d0/d0", EnumSet.of(Path.Type.directory))));
+        assertFalse(found.contains(new Path(d1, "f.gif", EnumSet.of(Path.Type.file))));
+        // Directories named d1 at 4 levels with each having one match
+        assertEquals(85, found.toStream().filter(Path::isFile).count());
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void testParallelFailure() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol(), "localhost")) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) throws BackgroundException {
+                if(folder.getName().equals("d2")) {
+                    throw new AccessDeniedException();
+                }
+                final AttributedList<Path> list = new AttributedList<>();
+                if(folder.isRoot()) {
+                    for(int i = 0; i < 4; i++) {
+                        list.add(new Path(folder, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                    }
+                }
+                return list;
+            }
+        };
+        final StatelessSessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session,
+                new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        new SearchWorker(new Path("/", EnumSet.of(Path.Type.directory)), new SearchFilter(".png"), new PathCache(Integer.MAX_VALUE),
+                new DisabledListProgressListener(), pool).run(session);
+    }
+
+    @Test
+    public void testChunk() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) throws BackgroundException {
+                final AttributedList<Path> list = new AttributedList<>();
+                if(folder.isRoot()) {
+                    list.add(new Path(folder, "d", EnumSet.of(Path.Type.directory)));
+                }
+                list.add(new Path(folder, "f.png", EnumSet.of(Path.Type.file)));
+                listener.chunk(folder, list);
+                list.add(new Path(folder, "f.gif", EnumSet.of(Path.Type.file)));
+                listener.chunk(folder, list);
+                return list;
+            }
+        };
+        final Set<Path> chunked = ConcurrentHashMap.newKeySet();
+        final AttributedList<Path> found = new SearchWorker(new Path("/", EnumSet.of(Path.Type.directory)), new SearchFilter(".png"),
+                new PathCache(Integer.MAX_VALUE), new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) {
+                chunked.addAll(list.toList());
+            }
+        }).run(session);
+        // Matches reported while search is in progress
+        assertEquals(2, chunked.size());
+        assertTrue(chunked.contains(new Path("/f.png", EnumSet.of(Path.Type.file))));
+        assertTrue(chunked.contains(new Path("/d/f.png", EnumSet.of(Path.Type.file))));
+        assertTrue(found.contains(new Path("/d/f.png", EnumSet.of(Path.Type.file))));
+    }
 }
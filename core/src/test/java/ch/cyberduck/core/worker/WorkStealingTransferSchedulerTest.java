@@ -0,0 +1,178 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WorkStealingTransferSchedulerTest {
+
+    @Test
+    public void testAwait() throws Exception {
+        final WorkStealingTransferScheduler scheduler = new WorkStealingTransferScheduler("test", 3, ThreadPool.Priority.norm, 1);
+        final AtomicInteger count = new AtomicInteger();
+        for(int i = 0; i < 100; i++) {
+            scheduler.submit(new TransferWorker.TransferCallable() {
+                @Override
+                public TransferStatus call() {
+                    // Submit from scheduler thread to own deque
+                    scheduler.submit(new TransferWorker.TransferCallable() {
+                        @Override
+                        public TransferStatus call() {
+                            count.incrementAndGet();
+                            return null;
+                        }
+                    }, TransferScheduler.Lane.file);
+                    count.incrementAndGet();
+                    return null;
+                }
+            }, TransferScheduler.Lane.directory);
+        }
+        scheduler.await();
+        assertEquals(200, count.get());
+        scheduler.shutdown(true);
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void testAwaitFailure() throws Exception {
+        final WorkStealingTransferScheduler scheduler = new WorkStealingTransferScheduler("test", 2, ThreadPool.Priority.norm, 1);
+        scheduler.submit(new TransferWorker.TransferCallable() {
+            @Override
+            public TransferStatus call() throws AccessDeniedException {
+                throw new AccessDeniedException();
+            }
+        }, TransferScheduler.Lane.file);
+        try {
+            scheduler.await();
+        }
+        finally {
+            scheduler.shutdown(false);
+        }
+    }
+
+    @Test
+    public void testLanePrecedence() throws Exception {
+        final WorkStealingTransferScheduler scheduler = new WorkStealingTransferScheduler("test", 1, ThreadPool.Priority.norm, 0);
+        final CountDownLatch lock = new CountDownLatch(1);
+        final List<TransferScheduler.Lane> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.submit(new TransferWorker.TransferCallable() {
+            @Override
+            public TransferStatus call() throws ConnectionCanceledException {
+                try {
+                    lock.await(1, TimeUnit.MINUTES);
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                return null;
+            }
+        }, TransferScheduler.Lane.file);
+        for(TransferScheduler.Lane lane : Arrays.asList(TransferScheduler.Lane.await, TransferScheduler.Lane.large,
+                TransferScheduler.Lane.file, TransferScheduler.Lane.directory)) {
+            scheduler.submit(new TransferWorker.TransferCallable() {
+                @Override
+                public TransferStatus call() {
+                    order.add(lane);
+                    return null;
+                }
+            }, lane);
+        }
+        lock.countDown();
+        scheduler.await();
+        assertEquals(Arrays.asList(TransferScheduler.Lane.directory, TransferScheduler.Lane.file,
+                TransferScheduler.Lane.large, TransferScheduler.Lane.await), order);
+        scheduler.shutdown(true);
+    }
+
+    @Test
+    public void testReserveForSmallFiles() throws Exception {
+        final WorkStealingTransferScheduler scheduler = new WorkStealingTransferScheduler("test", 2, ThreadPool.Priority.norm, 1);
+        final CountDownLatch small = new CountDownLatch(1);
+        final CountDownLatch directory = new CountDownLatch(1);
+        final AtomicInteger large = new AtomicInteger();
+        scheduler.submit(new TransferWorker.TransferCallable() {
+            @Override
+            public TransferStatus call() throws ConnectionCanceledException {
+                // Keep directory lane busy while submitting large files
+                for(int i = 0; i < 2; i++) {
+                    scheduler.submit(new TransferWorker.TransferCallable() {
+                        @Override
+                        public TransferStatus call() throws ConnectionCanceledException {
+                            large.incrementAndGet();
+                            try {
+                                assertTrue(small.await(1, TimeUnit.MINUTES));
+                            }
+                            catch(InterruptedException e) {
+                                throw new ConnectionCanceledException(e);
+                            }
+                            return null;
+                        }
+                    }, TransferScheduler.Lane.large);
+                }
+                try {
+                    assertTrue(directory.await(1, TimeUnit.MINUTES));
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                scheduler.submit(new TransferWorker.TransferCallable() {
+                    @Override
+                    public TransferStatus call() {
+                        // Only one large file in progress with connection reserved
+                        assertEquals(1, large.get());
+                        small.countDown();
+                        return null;
+                    }
+                }, TransferScheduler.Lane.file);
+                return null;
+            }
+        }, TransferScheduler.Lane.directory);
+        while(large.get() == 0) {
+            Thread.sleep(10L);
+        }
+        directory.countDown();
+        scheduler.await();
+        assertEquals(2, large.get());
+        scheduler.shutdown(true);
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() {
+        final WorkStealingTransferScheduler scheduler = new WorkStealingTransferScheduler("test", 1, ThreadPool.Priority.norm, 0);
+        scheduler.shutdown(true);
+        scheduler.submit(new TransferWorker.TransferCallable() {
+            @Override
+            public TransferStatus call() {
+                return null;
+            }
+        }, TransferScheduler.Lane.file);
+    }
+}
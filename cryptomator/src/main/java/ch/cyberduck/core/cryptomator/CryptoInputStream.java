@@ -15,23 +15,49 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.cryptomator.cryptolib.api.CryptoException;
 import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * Decrypt content chunks ahead of the reader in parallel. Buffers for ciphertext and cleartext chunks are allocated once
+ * per stream and reused for subsequent chunks.
+ */
 public class CryptoInputStream extends ProxyInputStream {
 
     private final InputStream proxy;
     private final FileContentCryptor cryptor;
     private final FileHeader header;
+    private final ForkJoinPool pool;
+    /**
+     * Maximum number of chunks decrypted ahead
+     */
+    private final int parallelism;
+
+    private final Deque<ForkJoinTask<Chunk>> pending = new ArrayDeque<>();
+    /**
+     * Free chunk buffers for reuse
+     */
+    private final Deque<Chunk> free = new ArrayDeque<>();
 
+    private Chunk current;
     private ByteBuffer buffer = ByteBuffer.allocate(0);
+    private boolean eof;
 
     /**
      * Position proxy content cryptor
@@ -40,18 +66,32 @@ public class CryptoInputStream extends ProxyInputStream {
     private final int chunkSize;
 
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, chunkIndexOffset, CryptoStreamPool.get(), PreferencesFactory.get().getInteger("cryptomator.stream.parallel"));
+    }
+
+    /**
+     * @param pool        Pool to decrypt chunks
+     * @param parallelism Maximum number of chunks decrypted ahead. Decrypt on reading thread if less than 2
+     */
+    public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final ForkJoinPool pool, final int parallelism) {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.pool = pool;
+        this.parallelism = Math.max(1, parallelism);
     }
 
     @Override
     public int read() throws IOException {
         if(!buffer.hasRemaining()) {
-            this.readNextChunk();
+            final int read = this.readNextChunk();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
         }
         return buffer.get();
     }
@@ -79,20 +119,107 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        for(ForkJoinTask<Chunk> task : pending) {
+            task.cancel(false);
+        }
+        pending.clear();
+        super.close();
+    }
+
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
+        if(null != current) {
+            // Release buffer of consumed chunk
+            free.push(current);
+            current = null;
+        }
+        if(parallelism < 2) {
+            final Chunk chunk = this.fill();
+            if(null == chunk) {
+                return IOUtils.EOF;
+            }
+            try {
+                current = chunk.decrypt();
+            }
+            catch(CryptoException e) {
+                throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+            }
+        }
+        else {
+            this.submit();
+            final ForkJoinTask<Chunk> task = pending.poll();
+            if(null == task) {
+                return IOUtils.EOF;
+            }
+            try {
+                current = task.get();
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                    if(cause instanceof CryptoException) {
+                        throw new IOException(cause.getMessage(), new CryptoAuthenticationException(cause.getMessage(), (CryptoException) cause));
+                    }
+                }
+                throw new IOException(e.getCause());
+            }
+            // Keep decrypting ahead while chunk is consumed
+            this.submit();
+        }
+        buffer = current.cleartext;
+        return buffer.remaining();
+    }
+
+    /**
+     * Read chunks from proxy until maximum number of chunks is pending
+     */
+    private void submit() throws IOException {
+        while(pending.size() < parallelism) {
+            final Chunk chunk = this.fill();
+            if(null == chunk) {
+                return;
+            }
+            pending.add(pool.submit(ForkJoinTask.adapt(chunk::decrypt)));
+        }
+    }
+
+    /**
+     * @return Chunk with ciphertext read from proxy or null when end of stream is reached
+     */
+    private Chunk fill() throws IOException {
+        if(eof) {
+            return null;
+        }
+        final Chunk chunk = free.isEmpty() ? new Chunk() : free.pop();
+        final int read = IOUtils.read(proxy, chunk.ciphertext.array());
         if(read == 0) {
-            return IOUtils.EOF;
+            eof = true;
+            free.push(chunk);
+            return null;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
-        try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+        if(read < chunkSize) {
+            // Last chunk
+            eof = true;
         }
-        catch(CryptoException e) {
-            throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+        chunk.ciphertext.clear();
+        chunk.ciphertext.limit(read);
+        chunk.index = chunkIndexOffset++;
+        return chunk;
+    }
+
+    private final class Chunk {
+        private final ByteBuffer ciphertext = ByteBuffer.allocate(chunkSize);
+        private final ByteBuffer cleartext = ByteBuffer.allocate(cryptor.cleartextChunkSize());
+        private long index;
+
+        private Chunk decrypt() throws CryptoException {
+            cleartext.clear();
+            cryptor.decryptChunk(ciphertext, cleartext, index, header, true);
+            cleartext.flip();
+            return this;
         }
-        return read;
     }
 }
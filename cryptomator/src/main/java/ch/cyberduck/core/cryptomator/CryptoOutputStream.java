@@ -16,23 +16,43 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.random.NonceGenerator;
 
 import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.cryptomator.cryptolib.api.CryptoException;
 import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * Encrypt content chunks in parallel with ciphertext written to the proxy in order of chunks
+ */
 public class CryptoOutputStream extends ProxyOutputStream {
 
     public CryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, CryptoStreamPool.get(), PreferencesFactory.get().getInteger("cryptomator.stream.parallel"));
+    }
+
+    /**
+     * @param pool        Pool to encrypt chunks
+     * @param parallelism Maximum number of chunks pending encryption. Encrypt on writing thread if less than 2
+     */
+    public CryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset, final ForkJoinPool pool, final int parallelism) {
+        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset, pool, parallelism),
                 cryptor.cleartextChunkSize()));
     }
 
@@ -51,16 +71,26 @@ public class CryptoOutputStream extends ProxyOutputStream {
         private final FileHeader header;
         private final int chunksize;
         private final NonceGenerator nonces;
+        private final ForkJoinPool pool;
+        private final int parallelism;
         private long chunkIndexOffset;
 
+        private final Deque<ForkJoinTask<ByteBuffer>> pending = new ArrayDeque<>();
+        /**
+         * Free cleartext buffers for reuse
+         */
+        private final Deque<ByteBuffer> free = new ConcurrentLinkedDeque<>();
+
         public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
-                                      final NonceGenerator nonces, final long chunkIndexOffset) {
+                                      final NonceGenerator nonces, final long chunkIndexOffset, final ForkJoinPool pool, final int parallelism) {
             super(proxy);
             this.cryptor = cryptor;
             this.header = header;
             this.chunksize = cryptor.cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.pool = pool;
+            this.parallelism = Math.max(1, parallelism);
         }
 
         @Override
@@ -71,19 +101,96 @@ public class CryptoOutputStream extends ProxyOutputStream {
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    final byte[] encrypted = new byte[encryptedChunk.remaining()];
-                    encryptedChunk.get(encrypted);
-                    super.write(encrypted);
+                for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                    final int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                    final ByteBuffer buffer = free.poll();
+                    final ByteBuffer cleartext = null == buffer ? ByteBuffer.allocate(chunksize) : buffer;
+                    cleartext.clear();
+                    cleartext.put(b, chunkOffset, chunkLen);
+                    cleartext.flip();
+                    // Obtain nonce and chunk index in order of chunks
+                    final long index = chunkIndexOffset++;
+                    final byte[] nonce = nonces.next();
+                    if(parallelism < 2) {
+                        this.output(this.encrypt(cleartext, index, nonce));
+                        continue;
+                    }
+                    while(pending.size() >= parallelism) {
+                        this.output(this.await());
+                    }
+                    pending.add(pool.submit(ForkJoinTask.adapt(() -> this.encrypt(cleartext, index, nonce))));
                 }
             }
             catch(CryptoException e) {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
             }
         }
+
+        private ByteBuffer encrypt(final ByteBuffer cleartext, final long index, final byte[] nonce) throws CryptoException {
+            final ByteBuffer encrypted = cryptor.encryptChunk(cleartext, index, header, nonce);
+            free.push(cleartext);
+            return encrypted;
+        }
+
+        private void output(final ByteBuffer encrypted) throws IOException {
+            if(encrypted.hasArray()) {
+                super.write(encrypted.array(), encrypted.arrayOffset() + encrypted.position(), encrypted.remaining());
+            }
+            else {
+                final byte[] bytes = new byte[encrypted.remaining()];
+                encrypted.get(bytes);
+                super.write(bytes);
+            }
+        }
+
+        /**
+         * @return Ciphertext of oldest pending chunk
+         */
+        private ByteBuffer await() throws IOException {
+            final ForkJoinTask<ByteBuffer> task = pending.poll();
+            try {
+                return task.get();
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                    if(cause instanceof CryptoException) {
+                        throw new IOException(cause.getMessage(), new CryptoAuthenticationException(cause.getMessage(), (CryptoException) cause));
+                    }
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        /**
+         * Write ciphertext of all pending chunks
+         */
+        private void drain() throws IOException {
+            while(!pending.isEmpty()) {
+                this.output(this.await());
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain();
+            }
+            finally {
+                for(ForkJoinTask<ByteBuffer> task : pending) {
+                    task.cancel(false);
+                }
+                pending.clear();
+                super.close();
+            }
+        }
     }
 }
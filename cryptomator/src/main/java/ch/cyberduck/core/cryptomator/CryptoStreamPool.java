@@ -0,0 +1,52 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Pool shared by all vault streams to encrypt and decrypt content chunks. Separate from the common pool with the number
+ * of threads limited to the number of processors.
+ */
+public final class CryptoStreamPool {
+    private static final Logger log = LogManager.getLogger(CryptoStreamPool.class);
+
+    private static ForkJoinPool pool;
+
+    private CryptoStreamPool() {
+        //
+    }
+
+    public static synchronized ForkJoinPool get() {
+        if(null == pool) {
+            final int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                    PreferencesFactory.get().getInteger("cryptomator.stream.threads")));
+            log.debug("Create pool with {} threads for vault streams", threads);
+            pool = new ForkJoinPool(threads, p -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName(String.format("cryptomator-stream-%d", thread.getPoolIndex()));
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+}
@@ -27,6 +27,7 @@ import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LoginCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.*;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultTouchFeature;
@@ -56,8 +57,12 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -311,6 +316,10 @@ public class CryptoVault implements Vault {
             if(filenameProvider != null) {
                 filenameProvider.destroy();
             }
+            if(fileNameCryptor != null) {
+                log.debug("Filename decryption {}", fileNameCryptor.getDecryptStatistics());
+                log.debug("Filename encryption {}", fileNameCryptor.getEncryptStatistics());
+            }
         }
         cryptor = null;
         fileNameCryptor = null;
@@ -526,6 +535,39 @@ public class CryptoVault implements Vault {
         }
     }
 
+    /**
+     * Decrypt filenames in parallel except for files with shortened names where the full name must be read first
+     */
+    @Override
+    public List<Path> decrypt(final Session<?> session, final List<Path> files) {
+        final long start = System.nanoTime();
+        final Path[] decrypted = new Path[files.size()];
+        final List<Integer> parallel = new ArrayList<>(files.size());
+        final boolean enabled = new HostPreferences(session.getHost()).getBoolean("cryptomator.listing.parallel");
+        for(int i = 0; i < files.size(); i++) {
+            if(enabled && !filenameProvider.isDeflated(files.get(i).getName())) {
+                parallel.add(i);
+            }
+            else {
+                decrypted[i] = this.decryptOrNull(session, files.get(i));
+            }
+        }
+        parallel.parallelStream().forEach(i -> decrypted[i] = this.decryptOrNull(session, files.get(i)));
+        log.debug("Decrypted {} files in {}ms with {}", files.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                fileNameCryptor.getDecryptStatistics());
+        return Arrays.asList(decrypted);
+    }
+
+    private Path decryptOrNull(final Session<?> session, final Path file) {
+        try {
+            return this.decrypt(session, file);
+        }
+        catch(BackgroundException e) {
+            log.error("Failure {} decrypting {}", e, file);
+            return null;
+        }
+    }
+
     private boolean isDirectory(final Path p) {
         if(vaultVersion == VAULT_VERSION_DEPRECATED) {
             return p.getName().startsWith(DIR_PREFIX);
@@ -15,68 +15,118 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+/**
+ * Thread safe cache for filename encryption and decryption. Concurrent lookups for the same key are computed once.
+ */
 public class CryptorCache {
 
     public static final BaseEncoding BASE32 = BaseEncoding.base32();
 
-    private final LRUCache<String, String> directoryIdCache = LRUCache.build(250);
-    private final LRUCache<CacheKey, String> decryptCache = LRUCache.build(5000);
-    private final LRUCache<CacheKey, String> encryptCache = LRUCache.build(5000);
+    private final Cache<String, String> directoryIdCache;
+    private final Cache<CacheKey, String> decryptCache;
+    private final Cache<CacheKey, String> encryptCache;
 
     private final FileNameCryptor impl;
 
     public CryptorCache(final FileNameCryptor impl) {
+        this(impl, PreferencesFactory.get().getLong("cryptomator.cache.directoryid.size"),
+                PreferencesFactory.get().getLong("cryptomator.cache.filename.size"));
+    }
+
+    /**
+     * @param directories Maximum number of hashed directory IDs
+     * @param filenames   Maximum number of filenames cached in each direction
+     */
+    public CryptorCache(final FileNameCryptor impl, final long directories, final long filenames) {
         this.impl = impl;
+        this.directoryIdCache = CacheBuilder.newBuilder().maximumSize(directories).recordStats().build();
+        this.decryptCache = CacheBuilder.newBuilder().maximumSize(filenames).recordStats().build();
+        this.encryptCache = CacheBuilder.newBuilder().maximumSize(filenames).recordStats().build();
     }
 
     public String hashDirectoryId(final String cleartextDirectoryId) {
-        if(!directoryIdCache.contains(cleartextDirectoryId)) {
-            directoryIdCache.put(cleartextDirectoryId, impl.hashDirectoryId(cleartextDirectoryId));
-        }
-        return directoryIdCache.get(cleartextDirectoryId);
+        return get(directoryIdCache, cleartextDirectoryId, () -> impl.hashDirectoryId(cleartextDirectoryId));
     }
 
     public String encryptFilename(final BaseEncoding encoding, final String cleartextName, final byte[] associatedData) {
-        final CacheKey key = new CacheKey(encoding, cleartextName, associatedData);
-        if(encryptCache.contains(key)) {
-            return encryptCache.get(key);
-        }
-        final String ciphertextName = impl.encryptFilename(encoding, cleartextName, associatedData);
-        encryptCache.put(key, ciphertextName);
-        decryptCache.put(new CacheKey(encoding, ciphertextName, associatedData), cleartextName);
-        return ciphertextName;
+        return get(encryptCache, new CacheKey(encoding, cleartextName, associatedData), () -> {
+            final String ciphertextName = impl.encryptFilename(encoding, cleartextName, associatedData);
+            decryptCache.put(new CacheKey(encoding, ciphertextName, associatedData), cleartextName);
+            return ciphertextName;
+        });
     }
 
     public String decryptFilename(final BaseEncoding encoding, final String ciphertextName, final byte[] associatedData) throws AuthenticationFailedException {
-        final CacheKey key = new CacheKey(encoding, ciphertextName, associatedData);
-        if(decryptCache.contains(key)) {
-            return decryptCache.get(key);
+        return get(decryptCache, new CacheKey(encoding, ciphertextName, associatedData), () -> {
+            final String cleartextName = impl.decryptFilename(encoding, ciphertextName, associatedData);
+            encryptCache.put(new CacheKey(encoding, cleartextName, associatedData), ciphertextName);
+            return cleartextName;
+        });
+    }
+
+    /**
+     * Single lookup loading value on cache miss
+     */
+    private static <K> String get(final Cache<K, String> cache, final K key, final Callable<String> loader) {
+        try {
+            return cache.get(key, loader);
         }
-        final String cleartextName = impl.decryptFilename(encoding, ciphertextName, associatedData);
-        decryptCache.put(key, cleartextName);
-        encryptCache.put(new CacheKey(encoding, cleartextName, associatedData), ciphertextName);
-        return cleartextName;
+        catch(UncheckedExecutionException | ExecutionException e) {
+            // Rethrow failure from cryptor such as AuthenticationFailedException
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    /**
+     * @return Hit count and load time for hashing directory IDs
+     */
+    public CacheStats getDirectoryIdStatistics() {
+        return directoryIdCache.stats();
+    }
+
+    /**
+     * @return Hit rate and average decrypt latency as load penalty in nanoseconds
+     */
+    public CacheStats getDecryptStatistics() {
+        return decryptCache.stats();
+    }
+
+    /**
+     * @return Hit rate and average encrypt latency as load penalty in nanoseconds
+     */
+    public CacheStats getEncryptStatistics() {
+        return encryptCache.stats();
     }
 
-    private static class CacheKey {
+    private static final class CacheKey {
         private final BaseEncoding encoding;
         private final String value;
         private final byte[] data;
+        private final int hash;
 
         public CacheKey(final BaseEncoding encoding, final String value, final byte[] data) {
             this.encoding = encoding;
             this.value = value;
             this.data = data;
+            this.hash = 31 * Objects.hash(encoding, value) + Arrays.hashCode(data);
         }
 
         @Override
@@ -88,16 +138,15 @@ public class CryptorCache {
                 return false;
             }
             final CacheKey cacheKey = (CacheKey) o;
-            return Objects.equals(encoding, cacheKey.encoding) &&
+            return hash == cacheKey.hash &&
+                Objects.equals(encoding, cacheKey.encoding) &&
                 Objects.equals(value, cacheKey.value) &&
                 Arrays.equals(data, cacheKey.data);
         }
 
         @Override
         public int hashCode() {
-            int result = Objects.hash(encoding, value);
-            result = 31 * result + Arrays.hashCode(data);
-            return result;
+            return hash;
         }
     }
 }
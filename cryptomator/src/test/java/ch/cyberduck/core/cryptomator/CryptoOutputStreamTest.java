@@ -125,4 +125,38 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testParallel() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream stream = new CryptoOutputStream(
+                new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(vault.getNonceSize()), 0,
+                CryptoStreamPool.get(), 4);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 10 + 1);
+        stream.write(cleartext, 0, cleartext.length);
+        stream.close();
+
+        {
+            // Decrypt with single chunk at a time
+            final byte[] read = new byte[cleartext.length];
+            final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0,
+                    CryptoStreamPool.get(), 1);
+            IOUtils.readFully(cryptoInputStream, read);
+            assertEquals(IOUtils.EOF, cryptoInputStream.read());
+            cryptoInputStream.close();
+            assertArrayEquals(cleartext, read);
+        }
+        {
+            final byte[] read = new byte[cleartext.length];
+            final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0,
+                    CryptoStreamPool.get(), 3);
+            IOUtils.readFully(cryptoInputStream, read);
+            assertEquals(IOUtils.EOF, cryptoInputStream.read());
+            cryptoInputStream.close();
+            assertArrayEquals(cleartext, read);
+        }
+    }
 }
@@ -16,6 +16,7 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 import org.junit.Test;
 
@@ -85,4 +86,25 @@ public class CryptorCacheTest {
         cryptor.decryptFilename(CryptorCache.BASE32, "first", "id2".getBytes());
         verify(mock, times(4)).decryptFilename(any(), any(), any());
     }
+
+    @Test
+    public void testStatistics() {
+        final FileNameCryptor mock = mock(FileNameCryptor.class);
+        final CryptorCache cryptor = new CryptorCache(mock, 10L, 10L);
+        when(mock.decryptFilename(any(), any(), any())).thenReturn("cleartext");
+        cryptor.decryptFilename(CryptorCache.BASE32, "first", "id1".getBytes());
+        cryptor.decryptFilename(CryptorCache.BASE32, "first", "id1".getBytes());
+        cryptor.decryptFilename(CryptorCache.BASE32, "first", "id1".getBytes());
+        assertEquals(1L, cryptor.getDecryptStatistics().missCount());
+        assertEquals(2L, cryptor.getDecryptStatistics().hitCount());
+        assertEquals(1L, cryptor.getDecryptStatistics().loadSuccessCount());
+    }
+
+    @Test(expected = AuthenticationFailedException.class)
+    public void testDecryptFailure() {
+        final FileNameCryptor mock = mock(FileNameCryptor.class);
+        final CryptorCache cryptor = new CryptorCache(mock);
+        when(mock.decryptFilename(any(), any(), any())).thenThrow(new AuthenticationFailedException("test"));
+        cryptor.decryptFilename(CryptorCache.BASE32, "first", "id1".getBytes());
+    }
 }
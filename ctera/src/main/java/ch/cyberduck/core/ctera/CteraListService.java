@@ -18,16 +18,14 @@ package ch.cyberduck.core.ctera;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.dav.DAVListService;
 import ch.cyberduck.core.dav.DAVPathEncoder;
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
 import ch.cyberduck.core.exception.BackgroundException;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.sardine.DavResource;
-
 import static ch.cyberduck.core.ctera.CteraAttributesFinderFeature.*;
 
 public class CteraListService extends DAVListService {
@@ -40,10 +38,10 @@ public class CteraListService extends DAVListService {
     }
 
     @Override
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1, Collections.unmodifiableSet(Stream.concat(
+    protected void list(final Path directory, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1, Collections.unmodifiableSet(Stream.concat(
                 Stream.of(GUID_QN), ALL_ACL_QN.stream()
-        ).collect(Collectors.toSet())));
+        ).collect(Collectors.toSet())), callback);
     }
 
     @Override
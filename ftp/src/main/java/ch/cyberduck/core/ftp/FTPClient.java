@@ -182,26 +182,58 @@ public class FTPClient extends FTPSClient {
     }
 
     public List<String> list(final FTPCmd command, final String pathname) throws IOException {
+        final List<String> results = new ArrayList<String>();
+        this.list(command, pathname, new LineCallback() {
+            @Override
+            public boolean line(final String line) {
+                return results.add(line);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Read response from data connection line by line
+     *
+     * @param callback Notified for every line while data connection is open
+     */
+    public void list(final FTPCmd command, final String pathname, final LineCallback callback) throws IOException {
         this.pret(command, null == pathname ? StringUtils.EMPTY : pathname);
 
         Socket socket = _openDataConnection_(command, pathname);
 
-        BufferedReader reader = new BufferedReader(
-            new InputStreamReader(socket.getInputStream(), getControlEncoding()));
-        ArrayList<String> results = new ArrayList<String>();
-        String line;
-        while((line = reader.readLine()) != null) {
-            _commandSupport_.fireReplyReceived(-1, line);
-            results.add(line);
+        boolean aborted = false;
+        try(BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), getControlEncoding()))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                _commandSupport_.fireReplyReceived(-1, line);
+                if(!callback.line(line)) {
+                    log.warn("Abort reading from data connection for {}", command);
+                    aborted = true;
+                    break;
+                }
+            }
+        }
+        finally {
+            socket.close();
         }
-
-        reader.close();
-        socket.close();
 
         if(!this.completePendingCommand()) {
+            if(aborted) {
+                // Expected failure reply after closing data connection
+                return;
+            }
             throw new FTPException(this.getReplyCode(), this.getReplyString());
         }
-        return results;
+    }
+
+    public interface LineCallback {
+        /**
+         * @param line Line read from data connection
+         * @return False to close data connection without reading remaining lines
+         */
+        boolean line(String line);
     }
 
     /**
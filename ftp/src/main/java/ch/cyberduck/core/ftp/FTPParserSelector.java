@@ -17,16 +17,26 @@ package ch.cyberduck.core.ftp;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FTPParserSelector {
     private static final Logger log = LogManager.getLogger(FTPParserSelector.class);
 
+    /**
+     * Matching parser implementation by server and system type
+     */
+    private static final Map<String, AtomicInteger> selections = new ConcurrentHashMap<>();
+
     public CompositeFileEntryParser getParser(final String system) {
         return this.getParser(system, TimeZone.getDefault());
     }
@@ -38,4 +48,12 @@ public class FTPParserSelector {
         parser.configure(null);
         return parser;
     }
+
+    /**
+     * @return Parser starting with implementation matched previously for any connection to the same server
+     */
+    public CompositeFileEntryParser getParser(final Host host, final String system, final TimeZone zone) {
+        return this.getParser(system, zone).withSelection(selections.computeIfAbsent(String.format("%s %s",
+                new HostUrlProvider().withUsername(false).withPath(false).get(host), system), key -> new AtomicInteger(-1)));
+    }
 }
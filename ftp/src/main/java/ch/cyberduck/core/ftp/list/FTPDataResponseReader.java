@@ -23,4 +23,28 @@ import java.util.List;
 public interface FTPDataResponseReader {
 
     AttributedList<Path> read(Path parent, List<String> replies) throws FTPInvalidListException;
+
+    /**
+     * @param parent Directory listed
+     * @return Parser for single lines of response as received
+     */
+    Parser parser(Path parent);
+
+    interface Parser {
+        /**
+         * @param line Single line of response
+         */
+        void parse(String line);
+
+        /**
+         * @return Entries parsed so far
+         */
+        AttributedList<Path> list();
+
+        /**
+         * @return Entries parsed
+         * @throws FTPInvalidListException No valid entry in response
+         */
+        AttributedList<Path> finish() throws FTPInvalidListException;
+    }
 }
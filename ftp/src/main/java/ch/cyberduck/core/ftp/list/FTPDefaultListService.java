@@ -27,9 +27,9 @@ import ch.cyberduck.core.ftp.FTPException;
 import ch.cyberduck.core.ftp.FTPExceptionMappingService;
 import ch.cyberduck.core.ftp.FTPSession;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import java.io.IOException;
-import java.util.List;
 
 public class FTPDefaultListService implements ListService {
 
@@ -55,18 +55,22 @@ public class FTPDefaultListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            final FTPStreamingResponseReader list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<FTPStreamingResponseReader>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
+                public FTPStreamingResponseReader execute() throws BackgroundException {
+                    // Parse entries while reading from data connection
+                    final FTPStreamingResponseReader stream = new FTPStreamingResponseReader(reader, directory, listener,
+                            new HostPreferences(session.getHost()).getInteger("ftp.listing.chunksize"));
                     try {
-                        return session.getClient().list(command.getCommand(), command.getArg());
+                        session.getClient().list(command.getCommand(), command.getArg(), stream);
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
+                    return stream;
                 }
             });
-            return reader.read(directory, list);
+            return list.finish();
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
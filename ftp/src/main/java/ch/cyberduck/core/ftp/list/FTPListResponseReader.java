@@ -27,7 +27,9 @@ import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -48,16 +50,47 @@ public class FTPListResponseReader implements FTPDataResponseReader {
 
     @Override
     public AttributedList<Path> read(final Path directory, final List<String> replies) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<Path>();
-        // At least one entry successfully parsed
-        boolean success = false;
+        final Parser reader = new ListParser(directory, false);
         // Call hook for those implementors which need to perform some action upon the list after it has been created
         // from the server stream, but before any clients see the list
         parser.preParse(replies);
         for(String line : replies) {
+            reader.parse(line);
+        }
+        return reader.finish();
+    }
+
+    @Override
+    public Parser parser(final Path directory) {
+        return new ListParser(directory, true);
+    }
+
+    private final class ListParser implements Parser {
+        private final Path directory;
+        private final AttributedList<Path> children = new AttributedList<>();
+        /**
+         * Call pre parse hook for every line read
+         */
+        private final boolean preparse;
+        // At least one entry successfully parsed
+        private boolean success = false;
+
+        private ListParser(final Path directory, final boolean preparse) {
+            this.directory = directory;
+            this.preparse = preparse;
+        }
+
+        @Override
+        public void parse(final String line) {
+            if(preparse) {
+                if(parser.preParse(new ArrayList<>(Collections.singletonList(line))).isEmpty()) {
+                    log.debug("Skip line {}", line);
+                    return;
+                }
+            }
             final FTPFile f = parser.parseFTPEntry(line);
             if(null == f) {
-                continue;
+                return;
             }
             final String name = f.getName();
             if(!success) {
@@ -66,13 +99,13 @@ public class FTPListResponseReader implements FTPDataResponseReader {
                     // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
                     if(directory.getName().equals(name)) {
                         log.warn("Skip {} matching parent directory name", f.getName());
-                        continue;
+                        return;
                     }
                     if(name.contains(String.valueOf(Path.DELIMITER))) {
                         if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
                             // Workaround for #2434.
                             log.warn("Skip {} with delimiter in name", name);
-                            continue;
+                            return;
                         }
                     }
                 }
@@ -80,7 +113,7 @@ public class FTPListResponseReader implements FTPDataResponseReader {
             success = true;
             if(name.equals(".") || name.equals("..")) {
                 log.debug("Skip {}", f.getName());
-                continue;
+                return;
             }
             final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
             switch(f.getType()) {
@@ -157,9 +190,18 @@ public class FTPListResponseReader implements FTPDataResponseReader {
             }
             children.add(parsed);
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
+
+        @Override
+        public AttributedList<Path> list() {
+            return children;
+        }
+
+        @Override
+        public AttributedList<Path> finish() throws FTPInvalidListException {
+            if(!success) {
+                throw new FTPInvalidListException(children);
+            }
+            return children;
         }
-        return children;
     }
 }
@@ -94,7 +94,7 @@ public class FTPListService implements ListService {
     public FTPListService(final FTPSession session, final String system, final TimeZone zone) {
         this.session = session;
         // Directory listing parser depending on response for SYST command
-        final CompositeFileEntryParser parser = new FTPParserSelector().getParser(system, zone);
+        final CompositeFileEntryParser parser = new FTPParserSelector().getParser(session.getHost(), system, zone);
         this.implementations.put(Command.list, new FTPDefaultListService(session, parser, Command.list));
         final PreferencesReader preferences = new HostPreferences(session.getHost());
         if(preferences.getBoolean("ftp.command.stat")) {
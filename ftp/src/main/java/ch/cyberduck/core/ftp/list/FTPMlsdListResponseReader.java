@@ -46,17 +46,37 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
 
     @Override
     public AttributedList<Path> read(final Path directory, final List<String> replies) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<>();
-        if(replies.isEmpty()) {
-            return children;
+        final Parser reader = this.parser(directory);
+        for(String line : replies) {
+            reader.parse(line);
         }
+        return reader.finish();
+    }
+
+    @Override
+    public Parser parser(final Path directory) {
+        return new MlsdParser(directory);
+    }
+
+    private final class MlsdParser implements Parser {
+        private final Path directory;
+        private final AttributedList<Path> children = new AttributedList<>();
         // At least one entry successfully parsed
-        boolean success = false;
-        for(String line : replies) {
-            final Map<String, Map<String, String>> file = this.parseFacts(line);
+        private boolean success = false;
+        // Any line read
+        private boolean empty = true;
+
+        private MlsdParser(final Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public void parse(final String line) {
+            empty = false;
+            final Map<String, Map<String, String>> file = FTPMlsdListResponseReader.this.parseFacts(line);
             if(null == file) {
                 log.error("Error parsing line {}", line);
-                continue;
+                return;
             }
             for(Map.Entry<String, Map<String, String>> f : file.entrySet()) {
                 final String name = f.getKey();
@@ -158,19 +178,32 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
                 }
                 if(facts.containsKey("modify")) {
                     // Time values are always represented in UTC
-                    parsed.attributes().setModificationDate(this.parseTimestamp(facts.get("modify")));
+                    parsed.attributes().setModificationDate(FTPMlsdListResponseReader.this.parseTimestamp(facts.get("modify")));
                 }
                 if(facts.containsKey("create")) {
                     // Time values are always represented in UTC
-                    parsed.attributes().setCreationDate(this.parseTimestamp(facts.get("create")));
+                    parsed.attributes().setCreationDate(FTPMlsdListResponseReader.this.parseTimestamp(facts.get("create")));
                 }
                 children.add(parsed);
             }
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
+
+        @Override
+        public AttributedList<Path> list() {
+            return children;
+        }
+
+        @Override
+        public AttributedList<Path> finish() throws FTPInvalidListException {
+            if(empty) {
+                // No entries in response
+                return children;
+            }
+            if(!success) {
+                throw new FTPInvalidListException(children);
+            }
+            return children;
         }
-        return children;
     }
 
     /**
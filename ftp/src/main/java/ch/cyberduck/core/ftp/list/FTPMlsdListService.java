@@ -26,11 +26,11 @@ import ch.cyberduck.core.ftp.FTPClient;
 import ch.cyberduck.core.ftp.FTPException;
 import ch.cyberduck.core.ftp.FTPExceptionMappingService;
 import ch.cyberduck.core.ftp.FTPSession;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.commons.net.ftp.FTPCmd;
 
 import java.io.IOException;
-import java.util.List;
 
 public class FTPMlsdListService implements ListService {
 
@@ -53,18 +53,22 @@ public class FTPMlsdListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            final FTPStreamingResponseReader list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<FTPStreamingResponseReader>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
+                public FTPStreamingResponseReader execute() throws BackgroundException {
+                    // Parse entries while reading from data connection
+                    final FTPStreamingResponseReader stream = new FTPStreamingResponseReader(reader, directory, listener,
+                            new HostPreferences(session.getHost()).getInteger("ftp.listing.chunksize"));
                     try {
-                        return session.getClient().list(FTPCmd.MLSD);
+                        session.getClient().list(FTPCmd.MLSD, null, stream);
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
+                    return stream;
                 }
             });
-            return reader.read(directory, list);
+            return list.finish();
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -23,6 +23,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.ftp.FTPException;
 import ch.cyberduck.core.ftp.FTPExceptionMappingService;
 import ch.cyberduck.core.ftp.FTPSession;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPFileEntryParser;
@@ -50,7 +51,15 @@ public class FTPStatListService implements ListService {
         try {
             final int response = session.getClient().stat(directory.getAbsolute());
             if(FTPReply.isPositiveCompletion(response)) {
-                return reader.read(directory, this.parse(response, session.getClient().getReplyStrings()));
+                // Reply is read from control connection before parsing
+                final FTPStreamingResponseReader stream = new FTPStreamingResponseReader(reader, directory, listener,
+                        new HostPreferences(session.getHost()).getInteger("ftp.listing.chunksize"));
+                for(String line : this.parse(response, session.getClient().getReplyStrings())) {
+                    if(!stream.line(line)) {
+                        break;
+                    }
+                }
+                return stream.finish();
             }
             else {
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
@@ -0,0 +1,81 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.ftp.FTPClient;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Parse lines of response as received and notify listener with entries parsed so far for every chunk
+ */
+public class FTPStreamingResponseReader implements FTPClient.LineCallback {
+    private static final Logger log = LogManager.getLogger(FTPStreamingResponseReader.class);
+
+    private final Path directory;
+    private final FTPDataResponseReader.Parser parser;
+    private final ListProgressListener listener;
+    /**
+     * Number of entries parsed before notifying listener
+     */
+    private final int chunksize;
+
+    private int notified = 0;
+    private ConnectionCanceledException canceled;
+
+    public FTPStreamingResponseReader(final FTPDataResponseReader reader, final Path directory,
+                                      final ListProgressListener listener, final int chunksize) {
+        this.directory = directory;
+        this.parser = reader.parser(directory);
+        this.listener = listener;
+        this.chunksize = Math.max(1, chunksize);
+    }
+
+    @Override
+    public boolean line(final String line) {
+        parser.parse(line);
+        final AttributedList<Path> list = parser.list();
+        if(list.size() - notified >= chunksize) {
+            notified = list.size();
+            try {
+                listener.chunk(directory, list);
+            }
+            catch(ConnectionCanceledException e) {
+                log.warn("Listing of {} canceled after {} entries", directory, list.size());
+                canceled = e;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Entries parsed
+     * @throws ConnectionCanceledException Listener canceled reading response
+     * @throws FTPInvalidListException     No valid entry in response
+     */
+    public AttributedList<Path> finish() throws BackgroundException {
+        if(null != canceled) {
+            throw canceled;
+        }
+        return parser.finish();
+    }
+}
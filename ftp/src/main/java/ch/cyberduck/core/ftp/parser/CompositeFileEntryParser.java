@@ -9,6 +9,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This implementation allows to pack some FileEntryParsers together
@@ -24,11 +25,23 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
 
     private final List<? extends FTPFileEntryParser> parsers;
     private FTPFileEntryParser current;
+    /**
+     * Index of last matching parser shared with other instances
+     */
+    private AtomicInteger selection = new AtomicInteger(-1);
 
     public CompositeFileEntryParser(final List<? extends FTPFileEntryParser> parsers) {
         this.parsers = parsers;
     }
 
+    /**
+     * @param selection Index of matching parser implementation shared with other connections to the same server
+     */
+    public CompositeFileEntryParser withSelection(final AtomicInteger selection) {
+        this.selection = selection;
+        return this;
+    }
+
     @Override
     public List<String> preParse(final List<String> original) {
         for(FTPFileEntryParser parser : parsers) {
@@ -40,6 +53,13 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
     @Override
     public FTPFile parseFTPEntry(final String line) {
         log.debug("Parse {}", line);
+        if(null == current) {
+            final int index = selection.get();
+            if(index >= 0 && index < parsers.size()) {
+                // Previous match for server
+                current = parsers.get(index);
+            }
+        }
         if(current != null) {
             final FTPFile parsed = current.parseFTPEntry(line);
             if(null != parsed) {
@@ -48,10 +68,12 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
             log.info("Switching parser implementation because {} failed", current);
             current = null;
         }
-        for(FTPFileEntryParser parser : parsers) {
+        for(int i = 0; i < parsers.size(); i++) {
+            final FTPFileEntryParser parser = parsers.get(i);
             final FTPFile matched = parser.parseFTPEntry(line);
             if(matched != null) {
                 current = parser;
+                selection.set(i);
                 log.info("Caching {} parser implementation", current);
                 return matched;
             }
@@ -0,0 +1,75 @@
+package ch.cyberduck.core.ftp.list;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ListCanceledException;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FTPStreamingResponseReaderTest {
+
+    @Test
+    public void testChunks() throws Exception {
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        final List<Integer> chunks = new ArrayList<>();
+        final FTPStreamingResponseReader reader = new FTPStreamingResponseReader(
+                new FTPListResponseReader(new FTPParserSelector().getParser("UNIX")), directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path parent, final AttributedList<Path> list) {
+                chunks.add(list.size());
+            }
+        }, 2);
+        assertTrue(reader.line("total 5"));
+        for(int i = 0; i < 5; i++) {
+            assertTrue(reader.line(String.format("-rw-r--r--   1 ftp      ftp          1024 Jan  1  2020 f%d", i)));
+        }
+        assertEquals(5, reader.finish().size());
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0), 0);
+        assertEquals(4, chunks.get(1), 0);
+    }
+
+    @Test(expected = ListCanceledException.class)
+    public void testCancel() throws Exception {
+        final Path directory = new Path("/", EnumSet.of(Path.Type.directory));
+        final FTPStreamingResponseReader reader = new FTPStreamingResponseReader(
+                new FTPListResponseReader(new FTPParserSelector().getParser("UNIX")), directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path parent, final AttributedList<Path> list) throws ListCanceledException {
+                throw new ListCanceledException(list);
+            }
+        }, 1);
+        assertFalse(reader.line("drwxr-xr-x   2 ftp      ftp          4096 Jan  1  2020 d"));
+        reader.finish();
+    }
+
+    @Test(expected = FTPInvalidListException.class)
+    public void testInvalid() throws Exception {
+        final FTPStreamingResponseReader reader = new FTPStreamingResponseReader(new FTPMlsdListResponseReader(),
+                new Path("/", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener(), 1);
+        assertTrue(reader.line("invalid"));
+        reader.finish();
+    }
+}
@@ -0,0 +1,63 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CompositeFileEntryParserTest {
+
+    @Test
+    public void testSharedSelection() {
+        final AtomicInteger selection = new AtomicInteger(-1);
+        final CountingParser first = new CountingParser(false);
+        final CountingParser second = new CountingParser(true);
+        final CompositeFileEntryParser parser = new CompositeFileEntryParser(Arrays.asList(first, second)).withSelection(selection);
+        assertNotNull(parser.parseFTPEntry("f"));
+        assertEquals(1, first.count);
+        assertEquals(1, selection.get());
+        final CountingParser other = new CountingParser(false);
+        final CompositeFileEntryParser cached = new CompositeFileEntryParser(Arrays.asList(other, new CountingParser(true))).withSelection(selection);
+        assertNotNull(cached.parseFTPEntry("f"));
+        // Previous match used for new instance
+        assertEquals(0, other.count);
+    }
+
+    private static final class CountingParser extends FTPFileEntryParserImpl {
+        private final boolean match;
+        private int count;
+
+        private CountingParser(final boolean match) {
+            this.match = match;
+        }
+
+        @Override
+        public FTPFile parseFTPEntry(final String line) {
+            count++;
+            if(match) {
+                final FTPFile file = new FTPFile();
+                file.setName(line);
+                return file;
+            }
+            return null;
+        }
+    }
+}
@@ -67,6 +67,6 @@ public class GoogleStorageSearchFeature implements Search {
 
     @Override
     public EnumSet<Flags> features() {
-        return EnumSet.of(Flags.recursive);
+        return EnumSet.of(Flags.recursive, Flags.listing);
     }
 }
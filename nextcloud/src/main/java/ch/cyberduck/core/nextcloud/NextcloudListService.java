@@ -21,14 +21,12 @@ import ch.cyberduck.core.dav.DAVListService;
 import ch.cyberduck.core.dav.DAVPathEncoder;
 import ch.cyberduck.core.dav.DAVSession;
 import ch.cyberduck.core.dav.DAVTimestampFeature;
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.sardine.DavResource;
-
 public class NextcloudListService extends DAVListService {
 
     private final DAVSession session;
@@ -43,14 +41,14 @@ public class NextcloudListService extends DAVListService {
     }
 
     @Override
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
+    protected void list(final Path directory, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1,
                 Stream.of(
                                 NextcloudAttributesFinderFeature.OC_FILEID_CUSTOM_NAMESPACE,
                                 NextcloudAttributesFinderFeature.OC_CHECKSUMS_CUSTOM_NAMESPACE,
                                 NextcloudAttributesFinderFeature.OC_SIZE_CUSTOM_NAMESPACE,
                                 DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
                                 DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                        collect(Collectors.toSet()));
+                        collect(Collectors.toSet()), callback);
     }
 }
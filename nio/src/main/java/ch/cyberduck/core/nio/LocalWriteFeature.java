@@ -19,12 +19,12 @@ import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.ChannelOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.io.VoidStatusOutputStream;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import java.io.IOException;
-import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
@@ -68,7 +68,7 @@ public class LocalWriteFeature implements Write<Void> {
             }
             final FileChannel channel = FileChannel.open(session.toPath(file), options.stream().toArray(OpenOption[]::new));
             channel.position(status.getOffset());
-            return new VoidStatusOutputStream(Channels.newOutputStream(channel));
+            return new VoidStatusOutputStream(new ChannelOutputStream(channel));
         }
         catch(IOException e) {
             throw new LocalExceptionMappingService().map("Upload {0} failed", e, file);
@@ -0,0 +1,204 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.*;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.nio.LocalDirectoryFeature;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.proxy.DisabledProxyFinder;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
+import ch.cyberduck.core.transfer.DisabledTransferPrompt;
+import ch.cyberduck.core.transfer.DownloadTransfer;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferSpeedometer;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Download a synthetic tree with many small files in directories and few large files and check that large files do not
+ * occupy all connections while small files are pending
+ */
+@Category(IntegrationTest.class)
+public class LocalConcurrentTransferWorkerTest {
+    private static final Logger log = LogManager.getLogger(LocalConcurrentTransferWorkerTest.class);
+
+    private static final int DIRECTORIES = 20;
+    private static final int FILES = 100;
+    private static final int SMALL = 4096;
+    private static final int LARGE = 4;
+    private static final int LARGE_SIZE = 64 * 1024 * 1024;
+
+    @After
+    public void reset() {
+        PreferencesFactory.get().deleteProperty("queue.scheduler.large.threshold");
+    }
+
+    @Test
+    public void testMixedSizeTree() throws Exception {
+        final Host host = new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()) {
+            @Override
+            public String getProperty(final String key) {
+                if("queue.download.segments".equals(key)) {
+                    return String.valueOf(false);
+                }
+                if("queue.connections.limit".equals(key)) {
+                    return String.valueOf(4);
+                }
+                return super.getProperty(key);
+            }
+        };
+        final LocalSession session = new LocalSession(host);
+        session.open(new DisabledProxyFinder(), new DisabledHostKeyCallback(), new DisabledLoginCallback(), new DisabledCancelCallback());
+        session.login(new DisabledLoginCallback(), new DisabledCancelCallback());
+        PreferencesFactory.get().setProperty("queue.scheduler.large.threshold", LARGE_SIZE);
+        final File temporary = new File(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        assertTrue(temporary.mkdir());
+        final Path source = new Path(new File(temporary, "source").getAbsolutePath(), EnumSet.of(Path.Type.directory));
+        this.create(session, source);
+        try {
+            final Result fifo = this.download(session, source, new Local(new File(temporary, "fifo").getAbsolutePath()),
+                    new ThreadPoolTransferScheduler("fifo", 4, ThreadPool.Priority.norm));
+            final Result stealing = this.download(session, source, new Local(new File(temporary, "stealing").getAbsolutePath()),
+                    new WorkStealingTransferScheduler("stealing", 4, ThreadPool.Priority.norm, 1));
+            log.info("Single queue {}", fifo);
+            log.info("Work stealing {}", stealing);
+            assertEquals(fifo.bytes, stealing.bytes);
+            // Reserved thread is not used for large files while small files are pending
+            assertTrue(stealing.large <= 3);
+        }
+        finally {
+            FileUtils.deleteDirectory(temporary);
+            session.close();
+        }
+    }
+
+    private void create(final LocalSession session, final Path source) throws BackgroundException {
+        new LocalDirectoryFeature(session).mkdir(source, new TransferStatus());
+        for(int i = 0; i < LARGE; i++) {
+            this.write(new Path(source, String.format("large-%d", i), EnumSet.of(Path.Type.file)), LARGE_SIZE);
+        }
+        for(int i = 0; i < DIRECTORIES; i++) {
+            final Path directory = new Path(source, String.format("directory-%d", i), EnumSet.of(Path.Type.directory));
+            new LocalDirectoryFeature(session).mkdir(directory, new TransferStatus());
+            for(int j = 0; j < FILES; j++) {
+                this.write(new Path(directory, String.format("small-%d", j), EnumSet.of(Path.Type.file)), SMALL);
+            }
+        }
+    }
+
+    private void write(final Path file, final int length) {
+        try {
+            FileUtils.writeByteArrayToFile(new File(file.getAbsolute()), RandomUtils.nextBytes(length));
+        }
+        catch(IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private Result download(final LocalSession session, final Path source, final Local target, final TransferScheduler scheduler) throws Exception {
+        // Number of large files transferring
+        final AtomicInteger large = new AtomicInteger();
+        // Maximum number of large files transferring while small files are not complete
+        final AtomicInteger maximum = new AtomicInteger();
+        // Number of small files complete
+        final AtomicInteger small = new AtomicInteger();
+        final Transfer download = new DownloadTransfer(session.getHost(), source, target) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback prompt, final ProgressListener listener, final StreamListener streamListener) throws BackgroundException {
+                if(file.isFile() && segment.getLength() >= LARGE_SIZE) {
+                    final int count = large.incrementAndGet();
+                    if(small.get() < DIRECTORIES * FILES) {
+                        maximum.accumulateAndGet(count, Math::max);
+                    }
+                    try {
+                        super.transfer(source, destination, file, local, options, overall, segment, prompt, listener, streamListener);
+                    }
+                    finally {
+                        large.decrementAndGet();
+                    }
+                }
+                else {
+                    super.transfer(source, destination, file, local, options, overall, segment, prompt, listener, streamListener);
+                    if(file.isFile()) {
+                        small.incrementAndGet();
+                    }
+                }
+            }
+        };
+        final StatelessSessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session,
+                new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        assertTrue(new ConcurrentTransferWorker(pool, SessionPool.DISCONNECTED, download, scheduler, new TransferOptions(),
+                new TransferSpeedometer(download), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(), new DisabledConnectionCallback(), new DisabledProgressListener(),
+                new DisabledStreamListener(), new DisabledNotificationService()).run(session));
+        assertTrue(download.isComplete());
+        assertEquals((long) LARGE * LARGE_SIZE + (long) DIRECTORIES * FILES * SMALL, download.getTransferred(), 0L);
+        assertEquals(DIRECTORIES * FILES, small.get());
+        return new Result(download.getTransferred(), maximum.get());
+    }
+
+    private static final class Result {
+        private final long bytes;
+        /**
+         * Maximum number of large files transferring concurrently while small files are pending
+         */
+        private final int large;
+
+        private Result(final long bytes, final int large) {
+            this.bytes = bytes;
+            this.large = large;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bytes with up to %d large files transferring while small files pending", bytes, large);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.*;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.proxy.DisabledProxyFinder;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
+import ch.cyberduck.core.transfer.DisabledTransferPrompt;
+import ch.cyberduck.core.transfer.DownloadTransfer;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferSpeedometer;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class LocalSegmentedTransferWorkerTest {
+
+    @Test
+    public void testDownloadPositional() throws Exception {
+        final Host host = new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()) {
+            @Override
+            public String getProperty(final String key) {
+                if("queue.connections.limit".equals(key)) {
+                    return String.valueOf(4);
+                }
+                return super.getProperty(key);
+            }
+        };
+        final LocalSession session = new LocalSession(host);
+        session.open(new DisabledProxyFinder(), new DisabledHostKeyCallback(), new DisabledLoginCallback(), new DisabledCancelCallback());
+        session.login(new DisabledLoginCallback(), new DisabledCancelCallback());
+        final File temporary = new File(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        assertTrue(temporary.mkdir());
+        try {
+            final byte[] content = RandomUtils.nextBytes(32 * 1024 * 1024 + 1);
+            final File source = new File(temporary, "source");
+            FileUtils.writeByteArrayToFile(source, content);
+            final File target = new File(temporary, "target");
+            final Transfer download = new DownloadTransfer(host, new Path(source.getAbsolutePath(), EnumSet.of(Path.Type.file)),
+                    new Local(target.getAbsolutePath()));
+            final StatelessSessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session,
+                    new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+            assertTrue(new ConcurrentTransferWorker(pool, SessionPool.DISCONNECTED, download,
+                    new ThreadPoolTransferScheduler("test", 4, ThreadPool.Priority.norm), new TransferOptions(),
+                    new TransferSpeedometer(download), new DisabledTransferPrompt() {
+                @Override
+                public TransferAction prompt(final TransferItem file) {
+                    return TransferAction.overwrite;
+                }
+            }, new DisabledTransferErrorCallback(), new DisabledConnectionCallback(), new DisabledProgressListener(),
+                    new DisabledStreamListener(), new DisabledNotificationService()).run(session));
+            assertTrue(download.isComplete());
+            assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+            // No temporary segment file left
+            assertFalse(new File(temporary, "target.cyberducksegment").exists());
+            assertEquals(2, temporary.list().length);
+        }
+        finally {
+            FileUtils.deleteDirectory(temporary);
+            session.close();
+        }
+    }
+}
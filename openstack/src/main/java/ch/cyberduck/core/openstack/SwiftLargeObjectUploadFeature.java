@@ -26,7 +26,6 @@ import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.concurrency.Interruptibles;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Delete;
@@ -38,9 +37,8 @@ import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
+import ch.cyberduck.core.transfer.SegmentScheduler;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
@@ -50,8 +48,8 @@ import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.Future;
 
 import ch.iterate.openstack.swift.exception.GenericException;
 import ch.iterate.openstack.swift.model.StorageObject;
@@ -102,7 +100,8 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
                                 final StreamListener listener,
                                 final TransferStatus status,
                                 final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final SegmentScheduler<StorageObject> scheduler = new SegmentScheduler<>(concurrency, segmentSize, Math.max(segmentSize,
+                new HostPreferences(session.getHost()).getLong("queue.upload.multipart.partsize.maximum")));
         final List<Path> existingSegments = new ArrayList<>();
         if(status.isAppend()) {
             // Get a lexicographically ordered list of the existing file segments
@@ -127,39 +126,39 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
         // this is important for building the manifest, and is not a problem in terms of performance
         // because we should only continue when all segments have uploaded successfully
         final List<StorageObject> completed = new ArrayList<>();
-        // Submit file segments for concurrent upload
-        final List<Future<StorageObject>> segments = new ArrayList<>();
-        long remaining = status.getLength();
+        // Submit file segments for concurrent upload. Offset and length of segments only depend on segment number
+        final long size = status.getOffset() + status.getLength();
         long offset = 0;
-        for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-            final long length = Math.min(segmentSize, remaining);
+        for(int segmentNumber = 1; offset < size; segmentNumber++) {
+            final long length = Math.min(scheduler.getSegmentsize(segmentNumber), size - offset);
             // Segment name with left padded segment number
             final Path segment = segmentService.getSegment(file, segmentNumber);
-            if(existingSegments.contains(segment)) {
-                final Path existingSegment = existingSegments.get(existingSegments.indexOf(segment));
+            final int index = existingSegments.indexOf(segment);
+            if(index != -1 && existingSegments.get(index).attributes().getSize() == length) {
+                final Path existingSegment = existingSegments.get(index);
                 log.debug("Skip segment {}", existingSegment);
                 final StorageObject stored = new StorageObject(containerService.getKey(segment));
                 if(HashAlgorithm.md5.equals(existingSegment.attributes().getChecksum().algorithm)) {
                     stored.setMd5sum(existingSegment.attributes().getChecksum().hash);
                 }
                 stored.setSize(existingSegment.attributes().getSize());
-                offset += existingSegment.attributes().getSize();
                 completed.add(stored);
             }
             else {
                 // Submit to queue
-                segments.add(this.submit(pool, segment, local, throttle, listener, status, offset, length, callback));
+                this.submit(scheduler, segment, local, throttle, listener, status, offset, length, callback);
                 log.debug("Segment {} submitted with size {} and offset {}", segment, length, offset);
-                remaining -= length;
-                offset += length;
             }
+            offset += length;
         }
         try {
-            completed.addAll(Interruptibles.awaitAll(segments));
+            completed.addAll(scheduler.await());
         }
         finally {
-            pool.shutdown(false);
+            scheduler.cancel();
         }
+        // Skipped segments are not in order of submission. Segment names are left padded with segment number
+        completed.sort(Comparator.comparing(StorageObject::getName));
         log.info("Finished large file upload {} with {} parts", file, completed.size());
         // Create and upload the large object manifest. It is best to upload all the segments first and
         // then create or update the manifest.
@@ -189,11 +188,11 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
         }
     }
 
-    private Future<StorageObject> submit(final ThreadPool pool, final Path segment, final Local local,
-                                         final BandwidthThrottle throttle, final StreamListener listener,
-                                         final TransferStatus overall, final Long offset, final Long length, final ConnectionCallback callback) {
+    private void submit(final SegmentScheduler<StorageObject> scheduler, final Path segment, final Local local,
+                        final BandwidthThrottle throttle, final StreamListener listener,
+                        final TransferStatus overall, final Long offset, final Long length, final ConnectionCallback callback) throws BackgroundException {
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<StorageObject>() {
+        scheduler.submit(length, new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<StorageObject>() {
             @Override
             public StorageObject call() throws BackgroundException {
                 overall.validate();
@@ -221,7 +221,7 @@ public class BrowserController extends WindowController implements NSToolbar.Del
      * Caching files listings of previously listed directories
      */
     private final Cache<Path> cache
-            = new ReverseLookupCache<>(new PathCache(preferences.getInteger("browser.cache.size")), preferences.getInteger("browser.cache.size"));
+            = new ReverseLookupCache<>(new PathCache(preferences.getInteger("browser.cache.size"), preferences.getLong("browser.cache.weight")), preferences.getInteger("browser.cache.size"));
 
     private Scheduler scheduler;
 
@@ -1839,12 +1839,18 @@ public class BrowserController extends WindowController implements NSToolbar.Del
                                 @Override
                                 public void callback(int returncode) {
                                     if(returncode == DEFAULT_OPTION) {
+                                        // Additional connections to list directories in parallel
+                                        final SessionPool connections = pool.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ?
+                                                SessionPoolFactory.create(BrowserController.this, pool.getHost()) : pool;
                                         // Delay render until path is cached in the background
                                         background(new WorkerBackgroundAction<>(BrowserController.this, pool,
-                                                new SearchWorker(workdir, filenameFilter, cache, listener) {
+                                                new SearchWorker(workdir, filenameFilter, cache, listener, connections) {
                                                     @Override
                                                     public void cleanup(final AttributedList<Path> list) {
                                                         super.cleanup(list);
+                                                        if(connections != pool) {
+                                                            connections.shutdown();
+                                                        }
                                                         // Set filter with search result
                                                         setFilter(new RecursiveSearchFilter(list));
                                                         // Reload browser
@@ -107,6 +107,7 @@ public class InfoController extends ToolbarWindowController {
     private static NSPoint cascade = new NSPoint(0, 0);
 
     private final Controller controller;
+    private final Cache<Path> cache;
     private final SessionPool session;
     private final NSComboBoxCell aclPermissionCellPrototype = NSComboBoxCell.comboBoxCell();
     private final NSNotificationCenter notificationCenter
@@ -304,8 +305,16 @@ public class InfoController extends ToolbarWindowController {
     private NSView panelVersions;
 
     public InfoController(final Controller controller, final SessionPool session, final List<Path> files, final ReloadCallback reload) {
+        this(controller, session, PathCache.empty(), files, reload);
+    }
+
+    /**
+     * @param cache Directory listings of browser reused to calculate size of folders
+     */
+    public InfoController(final Controller controller, final SessionPool session, final Cache<Path> cache, final List<Path> files, final ReloadCallback reload) {
         this.controller = controller;
         this.session = session;
+        this.cache = cache;
         this.files = files;
         this.reload = new DelegatingReloadCallback(new InternalVersionsReloadCallback(), reload);
     }
@@ -2571,10 +2580,16 @@ public class InfoController extends ToolbarWindowController {
     @Action
     public void calculateSizeButtonClicked(final ID sender) {
         if(this.toggleSizeSettings(false)) {
+            // Additional connections to list directories in parallel
+            final SessionPool connections = session.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ?
+                    SessionPoolFactory.create(controller, session.getHost()) : session;
             this.background(new WorkerBackgroundAction<>(controller, session,
-                    new CalculateSizeWorker(files, controller) {
+                    new CalculateSizeWorker(files, cache, controller, connections) {
                         @Override
                         public void cleanup(final Long size) {
+                            if(connections != session) {
+                                connections.shutdown();
+                            }
                             setSize(size);
                             toggleSizeSettings(true);
                         }
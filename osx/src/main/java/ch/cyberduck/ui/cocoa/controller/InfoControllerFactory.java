@@ -43,7 +43,7 @@ public final class InfoControllerFactory {
                 return c;
             }
         }
-        final InfoController info = new InfoController(controller, controller.getSession(), selected, new ReloadCallback() {
+        final InfoController info = new InfoController(controller, controller.getSession(), controller.getCache(), selected, new ReloadCallback() {
             @Override
             public void done(final List<Path> files) {
                 controller.reload(controller.workdir(), selected, selected);
@@ -40,6 +40,7 @@ import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.TransferCollection;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.BandwidthScheduler;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.local.ApplicationLauncherFactory;
 import ch.cyberduck.core.local.LocalTrashFactory;
@@ -301,6 +302,8 @@ public final class TransferController extends WindowController implements Transf
         if(null == sender.representedObject()) {
             return;
         }
+        // Apply changes to limits shared by all transfers from preferences
+        BandwidthScheduler.reload();
         final NSIndexSet selected = transferTable.selectedRowIndexes();
         final float bandwidth = Float.parseFloat(sender.representedObject());
         for(NSUInteger index = selected.firstIndex(); !index.equals(NSIndexSet.NSNotFound); index = selected.indexGreaterThanIndex(index)) {
@@ -596,7 +599,7 @@ public final class TransferController extends WindowController implements Transf
      */
     public void start(final Transfer transfer, final TransferOptions options, final TransferCallback callback) {
         final ProgressController progress = transferTableModel.getController(transfer);
-        final Cache<Path> cache = new PathCache(preferences.getInteger("transfer.cache.size"));
+        final Cache<Path> cache = new PathCache(preferences.getInteger("transfer.cache.size"), preferences.getLong("transfer.cache.weight"));
         final Host source = transfer.getSource();
         final Host destination = transfer.getDestination();
         final TransferBackgroundAction action = new TransferCollectionBackgroundAction(this,
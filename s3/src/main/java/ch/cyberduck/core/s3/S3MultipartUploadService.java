@@ -23,7 +23,6 @@ import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.concurrency.Interruptibles;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ChecksumException;
@@ -35,12 +34,13 @@ import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.MultipartChecksum;
+import ch.cyberduck.core.io.ParallelChecksumCompute;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
+import ch.cyberduck.core.transfer.SegmentScheduler;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -58,12 +58,12 @@ import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Future;
 
 public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, MessageDigest> {
     private static final Logger log = LogManager.getLogger(S3MultipartUploadService.class);
@@ -99,7 +99,23 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        // Full size of file
+        final long size = status.getOffset() + status.getLength();
+        // Last part can be less than 5 MB. Adjust part size.
+        final long partlength = Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize);
+        // Keep part size for uploads to vault
+        final long maximum = file.getType().contains(Path.Type.encrypted) ? partlength : Math.max(partlength,
+                new HostPreferences(session.getHost()).getLong("queue.upload.multipart.partsize.maximum"));
+        final SegmentScheduler<MultipartPart> scheduler;
+        if(maximum > partlength) {
+            // Part size grows with throughput. Compute digest for every part when read instead of ahead for fixed parts
+            status.setMultipartChecksum(null);
+            scheduler = new SegmentScheduler<>(concurrency, partlength, maximum);
+        }
+        else {
+            this.checksum(file, local, status, size, partlength);
+            scheduler = new SegmentScheduler<>(concurrency, partlength);
+        }
         try {
             MultipartUpload multipart = null;
             try {
@@ -130,34 +146,36 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                     completed.addAll(multipartService.list(multipart));
                 }
             }
-            // Full size of file
-            final long size = status.getOffset() + status.getLength();
-            final List<Future<MultipartPart>> parts = new ArrayList<>();
-            long remaining = status.getLength();
+            // Offset and length of parts only depend on part number
             long offset = 0;
-            for(int partNumber = 1; remaining > 0; partNumber++) {
+            for(int partNumber = 1; offset < size; partNumber++) {
+                final long length = Math.min(scheduler.getSegmentsize(partNumber), size - offset);
                 boolean skip = false;
                 if(status.isAppend()) {
                     log.info("Determine if part number {} can be skipped", partNumber);
                     for(MultipartPart c : completed) {
                         if(c.getPartNumber().equals(partNumber)) {
-                            log.info("Skip completed part number {}", partNumber);
-                            skip = true;
-                            offset += c.getSize();
+                            if(c.getSize() == length) {
+                                log.info("Skip completed part number {}", partNumber);
+                                skip = true;
+                            }
+                            else {
+                                log.warn("Upload part number {} again with size {} not matching length {}", partNumber, c.getSize(), length);
+                                completed.remove(c);
+                            }
                             break;
                         }
                     }
                 }
                 if(!skip) {
-                    // Last part can be less than 5 MB. Adjust part size.
-                    final long length = Math.min(Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
                     // Submit to queue
-                    parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
-                    remaining -= length;
-                    offset += length;
+                    this.submit(scheduler, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback);
                 }
+                offset += length;
             }
-            completed.addAll(Interruptibles.awaitAll(parts));
+            completed.addAll(scheduler.await());
+            // Parts skipped for resumed upload are not in order of submission
+            completed.sort(new MultipartPart.PartNumberComparator());
             // Combining all the given parts into the final object. Processing of a Complete Multipart Upload request
             // could take several minutes to complete. Because a request could fail after the initial 200 OK response
             // has been sent, it is important that you check the response body to determine whether the request succeeded.
@@ -169,13 +187,21 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             }
             else {
                 if(S3Session.isAwsHostname(session.getHost().getHostname())) {
-                    completed.sort(new MultipartPart.PartNumberComparator());
-                    final StringBuilder concat = new StringBuilder();
-                    for(MultipartPart part : completed) {
-                        concat.append(part.getEtag());
+                    final String expected;
+                    final MultipartChecksum checksum = status.getMultipartChecksum();
+                    if(!status.isAppend() && null != checksum && checksum.getAlgorithms().contains(HashAlgorithm.md5)) {
+                        // Verify with digests of parts computed from local file
+                        expected = checksum.composite(HashAlgorithm.md5);
+                    }
+                    else {
+                        completed.sort(new MultipartPart.PartNumberComparator());
+                        final StringBuilder concat = new StringBuilder();
+                        for(MultipartPart part : completed) {
+                            concat.append(part.getEtag());
+                        }
+                        expected = String.format("%s-%d",
+                                ChecksumComputeFactory.get(HashAlgorithm.md5).compute(concat.toString()), completed.size());
                     }
-                    final String expected = String.format("%s-%d",
-                            ChecksumComputeFactory.get(HashAlgorithm.md5).compute(concat.toString()), completed.size());
                     final String reference = StringUtils.remove(complete.getEtag(), "\"");
                     if(!StringUtils.equalsIgnoreCase(expected, reference)) {
                         throw new ChecksumException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
@@ -200,17 +226,17 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }
         finally {
             // Cancel future tasks
-            pool.shutdown(false);
+            scheduler.cancel();
         }
     }
 
-    private Future<MultipartPart> submit(final ThreadPool pool, final Path file, final Local local,
-                                         final BandwidthThrottle throttle, final StreamListener listener,
-                                         final TransferStatus overall, final MultipartUpload multipart,
-                                         final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
+    private void submit(final SegmentScheduler<MultipartPart> scheduler, final Path file, final Local local,
+                        final BandwidthThrottle throttle, final StreamListener listener,
+                        final TransferStatus overall, final MultipartUpload multipart,
+                        final int partNumber, final long offset, final long length, final ConnectionCallback callback) throws BackgroundException {
         log.info("Submit part {} of {} to queue with offset {} and length {}", partNumber, file, offset, length);
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
+        scheduler.submit(length, new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
             @Override
             public MultipartPart call() throws BackgroundException {
                 overall.validate();
@@ -223,7 +249,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 status.setParameters(requestParameters);
                 status.setPart(partNumber);
                 status.setHeader(overall.getHeader());
-                final Set<Checksum> checksum = writer.checksum(file, status).computeAll(local.getInputStream(), status);
+                final Set<Checksum> checksum = S3MultipartUploadService.this.checksum(file, local, overall, status);
                 switch(session.getSignatureVersion()) {
                     case AWS4HMACSHA256:
                         checksum.stream().filter(v -> v.algorithm.equals(HashAlgorithm.sha256)).findFirst().ifPresent(status::setChecksum);
@@ -249,6 +275,49 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }, overall, counter));
     }
 
+    /**
+     * Compute digests for all parts in a single pass ahead of upload for large files
+     *
+     * @param size       Full size of file
+     * @param partlength Size of parts
+     */
+    private void checksum(final Path file, final Local local, final TransferStatus status, final long size, final long partlength) throws BackgroundException {
+        if(file.getType().contains(Path.Type.encrypted)) {
+            log.debug("Skip computing checksum for parts of {} with client side encryption enabled", file);
+            return;
+        }
+        if(size < new HostPreferences(session.getHost()).getLong("queue.upload.checksum.parallel.threshold")) {
+            return;
+        }
+        final MultipartChecksum cached = status.getMultipartChecksum();
+        if(null != cached && cached.getLength() == size && cached.getPartsize() == partlength) {
+            log.debug("Reuse checksum {} for parts of {}", cached, file);
+            return;
+        }
+        final EnumSet<HashAlgorithm> algorithms = EnumSet.of(HashAlgorithm.md5);
+        switch(session.getSignatureVersion()) {
+            case AWS4HMACSHA256:
+                algorithms.add(HashAlgorithm.sha256);
+                break;
+        }
+        status.setMultipartChecksum(new ParallelChecksumCompute().compute(local, size, partlength, algorithms, status));
+    }
+
+    /**
+     * @return Checksum computed ahead for part or calculated from local file
+     */
+    private Set<Checksum> checksum(final Path file, final Local local, final TransferStatus overall, final TransferStatus status) throws BackgroundException {
+        final MultipartChecksum parts = overall.getMultipartChecksum();
+        if(null != parts) {
+            final Set<Checksum> checksum = parts.get(status.getOffset(), status.getLength());
+            if(!checksum.isEmpty()) {
+                log.debug("Use checksum {} computed ahead for part {}", checksum, status.getPart());
+                return checksum;
+            }
+        }
+        return writer.checksum(file, status).computeAll(local.getInputStream(), status);
+    }
+
     @Override
     public Write.Append append(final Path file, final TransferStatus status) throws BackgroundException {
         try {
@@ -28,8 +28,10 @@ import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -38,8 +40,14 @@ import org.jets3t.service.ServiceException;
 import org.jets3t.service.StorageObjectsChunk;
 import org.jets3t.service.model.StorageObject;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Future;
 
 public class S3ObjectListService extends S3AbstractListService implements ListService {
     private static final Logger log = LogManager.getLogger(S3ObjectListService.class);
@@ -48,17 +56,35 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
     private final S3Session session;
     private final S3AttributesFinderFeature attributes;
 
+    /**
+     * Use HEAD request for every object found to add complete metadata in file attributes
+     */
     private final boolean metadata;
+    /**
+     * Number of threads to list partitions of key space without delimiter and to read metadata
+     */
+    private final int concurrency;
 
     public S3ObjectListService(final S3Session session, final S3AccessControlListFeature acl) {
         this(session, acl, new HostPreferences(session.getHost()).getBoolean("s3.listing.metadata.enable"));
     }
 
     public S3ObjectListService(final S3Session session, final S3AccessControlListFeature acl, final boolean metadata) {
+        this(session, acl, new HostPreferences(session.getHost()).getInteger("s3.listing.concurrency"), metadata);
+    }
+
+    /**
+     * @param session     Connection
+     * @param acl
+     * @param concurrency Number of threads to list partitions of key space and read metadata
+     * @param metadata    Read metadata of every object with HEAD request
+     */
+    public S3ObjectListService(final S3Session session, final S3AccessControlListFeature acl, final int concurrency, final boolean metadata) {
         super(session);
         this.session = session;
         this.attributes = new S3AttributesFinderFeature(session, acl);
         this.containerService = session.getFeature(PathContainerService.class);
+        this.concurrency = concurrency;
         this.metadata = metadata;
     }
 
@@ -72,6 +98,8 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
     }
 
     protected AttributedList<Path> list(final Path directory, final ListProgressListener listener, final String delimiter, final int chunksize) throws BackgroundException {
+        final S3ParallelListing parallel = new S3ParallelListing(session, concurrency,
+                new HostPreferences(session.getHost()).getInteger("s3.listing.partition.depth"));
         try {
             final String prefix = this.createPrefix(directory);
             log.debug("List with prefix {}", prefix);
@@ -82,64 +110,61 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
             // not returned elsewhere in the response.
             final Path bucket = containerService.getContainer(directory);
             final AttributedList<Path> objects = new AttributedList<>();
-            // Null if listing is complete
-            String priorLastKey = null;
             boolean hasDirectoryPlaceholder = bucket.isRoot() || containerService.isContainer(directory);
-            do {
-                // Read directory listing in chunks. List results are always returned
-                // in lexicographic (alphabetical) order.
-                final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
-                        bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), prefix, delimiter,
-                        chunksize, priorLastKey, false);
-
-                for(StorageObject object : chunk.getObjects()) {
-                    final String key = URIEncoder.decode(object.getKey());
-                    if(new SimplePathPredicate(PathNormalizer.compose(bucket, key)).test(directory)) {
-                        log.debug("Skip placeholder key {}", key);
-                        hasDirectoryPlaceholder = true;
-                        continue;
-                    }
-                    final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
-                            ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
-                    final Path f;
-                    final PathAttributes attr = new S3AttributesAdapter(session.getHost()).toAttributes(object);
-                    // Copy bucket location
-                    attr.setRegion(bucket.attributes().getRegion());
-                    if(null == delimiter) {
-                        f = new Path(String.format("%s/%s", bucket.getAbsolute(), key), types, attr);
-                    }
-                    else {
-                        f = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), types, attr);
-                    }
-                    if(metadata) {
-                        f.withAttributes(attributes.find(f));
-                    }
-                    objects.add(f);
-                }
-                final String[] prefixes = chunk.getCommonPrefixes();
-                for(String common : prefixes) {
-                    log.debug("Handle common prefix {}", common);
-                    final String key = StringUtils.chomp(URIEncoder.decode(common), String.valueOf(Path.DELIMITER));
-                    if(new SimplePathPredicate(PathNormalizer.compose(bucket, key)).test(directory)) {
-                        continue;
-                    }
-                    final Path f;
-                    final PathAttributes attr = new PathAttributes();
-                    attr.setRegion(bucket.attributes().getRegion());
-                    if(null == delimiter) {
-                        f = new Path(String.format("%s/%s", bucket.getAbsolute(), key),
-                                EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
+            final List<S3ParallelListing.Partition> partitions = null == delimiter && parallel.isParallel() ?
+                    parallel.partition(directory, bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), prefix, chunksize) :
+                    Collections.emptyList();
+            if(partitions.size() > 1 || partitions.size() == 1 && !partitions.get(0).isPrefix()) {
+                // Recursive listing of all keys with prefix
+                hasDirectoryPlaceholder |= this.list(parallel, partitions, bucket, directory, chunksize, objects, listener);
+            }
+            else {
+                // No partitions found for prefix with more direct children than a single chunk. List with progress for every chunk
+                // Null if listing is complete
+                String priorLastKey = null;
+                do {
+                    // Read directory listing in chunks. List results are always returned
+                    // in lexicographic (alphabetical) order.
+                    final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
+                            bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), prefix, delimiter,
+                            chunksize, priorLastKey, false);
+                    for(StorageObject object : chunk.getObjects()) {
+                        final Path f = this.toPath(bucket, directory, delimiter, object);
+                        if(null == f) {
+                            hasDirectoryPlaceholder = true;
+                            continue;
+                        }
+                        if(metadata) {
+                            parallel.attributes(attributes, f);
+                        }
+                        objects.add(f);
                     }
-                    else {
-                        f = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key),
-                                EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
+                    final String[] prefixes = chunk.getCommonPrefixes();
+                    for(String common : prefixes) {
+                        log.debug("Handle common prefix {}", common);
+                        final String key = StringUtils.chomp(URIEncoder.decode(common), String.valueOf(Path.DELIMITER));
+                        if(new SimplePathPredicate(PathNormalizer.compose(bucket, key)).test(directory)) {
+                            continue;
+                        }
+                        final Path f;
+                        final PathAttributes attr = new PathAttributes();
+                        attr.setRegion(bucket.attributes().getRegion());
+                        if(null == delimiter) {
+                            f = new Path(String.format("%s/%s", bucket.getAbsolute(), key),
+                                    EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
+                        }
+                        else {
+                            f = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key),
+                                    EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
+                        }
+                        objects.add(f);
                     }
-                    objects.add(f);
+                    priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
+                    parallel.flush();
+                    listener.chunk(directory, objects);
                 }
-                priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
-                listener.chunk(directory, objects);
+                while(priorLastKey != null);
             }
-            while(priorLastKey != null);
             if(!hasDirectoryPlaceholder && objects.isEmpty()) {
                 // Only for AWS
                 if(S3Session.isAwsHostname(session.getHost().getHostname())) {
@@ -163,5 +188,118 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
+        finally {
+            // Cancel future tasks
+            parallel.shutdown();
+        }
+    }
+
+    /**
+     * List all keys with prefix splitting the key space into partitions by common prefixes listed concurrently.
+     * Partitions are merged in lexicographic order with listings of following partitions running in the background.
+     *
+     * @return True if placeholder object for directory was found
+     */
+    private boolean list(final S3ParallelListing parallel, final List<S3ParallelListing.Partition> partitions, final Path bucket, final Path directory,
+                         final int chunksize, final AttributedList<Path> objects, final ListProgressListener listener) throws BackgroundException {
+        boolean hasDirectoryPlaceholder = false;
+        log.debug("List {} partitions for {}", partitions.size(), directory);
+        // Listings submitted for prefixes ahead of merged partition
+        final Deque<Future<List<Path>>> window = new ArrayDeque<>();
+        int submitted = 0;
+        int notified = 0;
+        for(S3ParallelListing.Partition partition : partitions) {
+            while(submitted < partitions.size() && window.size() < concurrency * 2) {
+                final S3ParallelListing.Partition next = partitions.get(submitted++);
+                if(next.isPrefix()) {
+                    window.add(parallel.execute(new BackgroundExceptionCallable<List<Path>>() {
+                        @Override
+                        public List<Path> call() throws BackgroundException {
+                            return list(bucket, directory, next.getKey(), chunksize);
+                        }
+                    }));
+                }
+            }
+            if(partition.isPrefix()) {
+                for(Path f : S3ParallelListing.await(window.removeFirst())) {
+                    if(metadata) {
+                        parallel.attributes(attributes, f);
+                    }
+                    objects.add(f);
+                }
+            }
+            else {
+                final Path f = this.toPath(bucket, directory, null, partition.getObject());
+                if(null == f) {
+                    hasDirectoryPlaceholder = true;
+                    continue;
+                }
+                if(metadata) {
+                    parallel.attributes(attributes, f);
+                }
+                objects.add(f);
+            }
+            if(objects.size() - notified >= chunksize) {
+                parallel.flush();
+                listener.chunk(directory, objects);
+                notified = objects.size();
+            }
+        }
+        parallel.flush();
+        listener.chunk(directory, objects);
+        return hasDirectoryPlaceholder;
+    }
+
+    /**
+     * List all keys with prefix in partition without delimiter
+     *
+     * @param prefix URI decoded common prefix
+     */
+    private List<Path> list(final Path bucket, final Path directory, final String prefix, final int chunksize) throws BackgroundException {
+        try {
+            final List<Path> objects = new ArrayList<>();
+            String priorLastKey = null;
+            do {
+                if(Thread.currentThread().isInterrupted()) {
+                    // Listing canceled with shutdown of thread pool
+                    throw new ConnectionCanceledException();
+                }
+                final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
+                        bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), prefix, null,
+                        chunksize, priorLastKey, false);
+                for(StorageObject object : chunk.getObjects()) {
+                    final Path f = this.toPath(bucket, directory, null, object);
+                    if(null != f) {
+                        objects.add(f);
+                    }
+                }
+                priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
+            }
+            while(priorLastKey != null);
+            return objects;
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @return Null for placeholder object of directory listed
+     */
+    private Path toPath(final Path bucket, final Path directory, final String delimiter, final StorageObject object) {
+        final String key = URIEncoder.decode(object.getKey());
+        if(new SimplePathPredicate(PathNormalizer.compose(bucket, key)).test(directory)) {
+            log.debug("Skip placeholder key {}", key);
+            return null;
+        }
+        final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
+                ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+        final PathAttributes attr = new S3AttributesAdapter(session.getHost()).toAttributes(object);
+        // Copy bucket location
+        attr.setRegion(bucket.attributes().getRegion());
+        if(null == delimiter) {
+            return new Path(String.format("%s/%s", bucket.getAbsolute(), key), types, attr);
+        }
+        return new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), types, attr);
     }
 }
@@ -0,0 +1,298 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.URIEncoder;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jets3t.service.ServiceException;
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.model.StorageObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Runs requests of a single directory listing concurrently. Splits the key space of a listing without delimiter into
+ * partitions by common prefixes found with delimiter listings to list partitions in parallel and fans out HEAD
+ * requests for object metadata with a bounded number of requests pending.
+ */
+public class S3ParallelListing {
+    private static final Logger log = LogManager.getLogger(S3ParallelListing.class);
+
+    /**
+     * Lexicographic order of keys as returned by S3 comparing UTF-8 encoded bytes which equals the order of code points
+     */
+    public static final Comparator<String> KEY_ORDER = (a, b) -> {
+        int i = 0, j = 0;
+        while(i < a.length() && j < b.length()) {
+            final int x = a.codePointAt(i);
+            final int y = b.codePointAt(j);
+            if(x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+
+    private final S3Session session;
+    private final int concurrency;
+    /**
+     * Maximum number of delimiter listings to descend for partitions
+     */
+    private final int depth;
+
+    /**
+     * Pending HEAD requests for metadata in order of submission
+     */
+    private final Deque<Future<Path>> pending = new ArrayDeque<>();
+
+    private ThreadPool list;
+    private ThreadPool metadata;
+
+    /**
+     * @param session     Connection
+     * @param concurrency Number of threads for listing requests and number of threads for metadata requests
+     * @param depth       Maximum number of prefix levels to descend when partitioning key space
+     */
+    public S3ParallelListing(final S3Session session, final int concurrency, final int depth) {
+        this.session = session;
+        this.concurrency = Math.max(1, concurrency);
+        this.depth = depth;
+    }
+
+    public boolean isParallel() {
+        return concurrency > 1;
+    }
+
+    /**
+     * Execute listing request on thread pool
+     */
+    public <T> Future<T> execute(final BackgroundExceptionCallable<T> task) {
+        if(null == list) {
+            list = ThreadPoolFactory.get("list", concurrency);
+        }
+        return list.execute(task);
+    }
+
+    /**
+     * Split key space with prefix into partitions. Descends into common prefixes while fewer partitions than the
+     * number of threads are found. Objects found while descending are returned as single key partitions and do not
+     * need to be listed again. Only a single chunk is requested for every prefix to discover. A prefix with more
+     * direct children is not descended and returned as a single partition.
+     *
+     * @param directory Directory listed
+     * @param bucket    Bucket name
+     * @param prefix    Prefix of all keys in listing
+     * @param chunksize Number of keys to request with delimiter listings
+     * @return Partitions in lexicographic order covering all keys with prefix
+     */
+    public List<Partition> partition(final Path directory, final String bucket, final String prefix, final int chunksize) throws BackgroundException {
+        final List<Partition> partitions = new ArrayList<>();
+        List<String> frontier = Collections.singletonList(prefix);
+        for(int level = 0; level < depth && !frontier.isEmpty() && frontier.size() < concurrency; level++) {
+            final List<Future<Partitions>> futures = new ArrayList<>();
+            for(String next : frontier) {
+                futures.add(this.execute(new BackgroundExceptionCallable<Partitions>() {
+                    @Override
+                    public Partitions call() throws BackgroundException {
+                        return discover(directory, bucket, next, chunksize);
+                    }
+                }));
+            }
+            final List<String> prefixes = new ArrayList<>();
+            for(int i = 0; i < futures.size(); i++) {
+                final Partitions result = await(futures.get(i));
+                if(result.truncated) {
+                    // Keep prefix with more direct children than a single chunk as partition
+                    partitions.add(new Partition(frontier.get(i), null));
+                    continue;
+                }
+                partitions.addAll(result.objects);
+                prefixes.addAll(result.prefixes);
+            }
+            frontier = prefixes;
+            log.debug("Found {} prefixes at level {} for {}", frontier.size(), level, prefix);
+        }
+        for(String common : frontier) {
+            partitions.add(new Partition(common, null));
+        }
+        partitions.sort(Comparator.comparing(Partition::getKey, KEY_ORDER));
+        return partitions;
+    }
+
+    /**
+     * List objects and common prefixes directly contained in prefix with a single request
+     */
+    private Partitions discover(final Path directory, final String bucket, final String prefix, final int chunksize) throws BackgroundException {
+        if(Thread.currentThread().isInterrupted()) {
+            throw new ConnectionCanceledException();
+        }
+        try {
+            final Partitions result = new Partitions();
+            final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(bucket, prefix,
+                    String.valueOf(Path.DELIMITER), chunksize, null, false);
+            if(null != chunk.getPriorLastKey()) {
+                log.debug("Skip discovery of partitions for prefix {} with more than {} keys", prefix, chunksize);
+                result.truncated = true;
+                return result;
+            }
+            for(StorageObject object : chunk.getObjects()) {
+                result.objects.add(new Partition(URIEncoder.decode(object.getKey()), object));
+            }
+            for(String common : chunk.getCommonPrefixes()) {
+                result.prefixes.add(URIEncoder.decode(common));
+            }
+            return result;
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * Read metadata of file with HEAD request in background. Waits for the oldest pending request when twice as many
+     * requests as threads are pending.
+     *
+     * @param feature Attributes finder
+     * @param file    File to update attributes in place
+     */
+    public void attributes(final S3AttributesFinderFeature feature, final Path file) throws BackgroundException {
+        if(null == metadata) {
+            metadata = ThreadPoolFactory.get("metadata", concurrency);
+        }
+        while(pending.size() >= concurrency * 2) {
+            await(pending.removeFirst());
+        }
+        pending.add(metadata.execute(new BackgroundExceptionCallable<Path>() {
+            @Override
+            public Path call() throws BackgroundException {
+                return file.withAttributes(feature.find(file));
+            }
+        }));
+    }
+
+    /**
+     * Wait for all pending metadata requests to complete
+     */
+    public void flush() throws BackgroundException {
+        while(!pending.isEmpty()) {
+            await(pending.removeFirst());
+        }
+    }
+
+    /**
+     * Wait for task result
+     *
+     * @throws BackgroundException Failure of task
+     */
+    public static <T> T await(final Future<T> future) throws BackgroundException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        }
+        catch(ExecutionException e) {
+            log.warn("Listing failed with execution failure {}", e.getMessage());
+            for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
+                Throwables.throwIfInstanceOf(cause, BackgroundException.class);
+            }
+            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+        }
+    }
+
+    /**
+     * Cancel pending tasks
+     */
+    public void shutdown() {
+        if(null != list) {
+            list.shutdown(false);
+        }
+        if(null != metadata) {
+            metadata.shutdown(false);
+        }
+    }
+
+    /**
+     * Objects and common prefixes found with delimiter listing
+     */
+    private static final class Partitions {
+        private final List<Partition> objects = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+        /**
+         * More keys than requested with single chunk
+         */
+        private boolean truncated;
+    }
+
+    /**
+     * Part of key space with either a single object or all keys with a prefix
+     */
+    public static final class Partition {
+        private final String key;
+        private final StorageObject object;
+
+        public Partition(final String key, final StorageObject object) {
+            this.key = key;
+            this.object = object;
+        }
+
+        /**
+         * @return URI decoded key of object or common prefix
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return Null for partition with all keys starting with prefix
+         */
+        public StorageObject getObject() {
+            return object;
+        }
+
+        public boolean isPrefix() {
+            return null == object;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Partition{");
+            sb.append("key='").append(key).append('\'');
+            sb.append(", prefix=").append(this.isPrefix());
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
@@ -73,6 +73,6 @@ public class S3SearchFeature implements Search {
 
     @Override
     public EnumSet<Flags> features() {
-        return EnumSet.of(Flags.recursive);
+        return EnumSet.of(Flags.recursive, Flags.listing);
     }
 }
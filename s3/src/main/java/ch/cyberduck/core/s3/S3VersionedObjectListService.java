@@ -29,12 +29,8 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jets3t.service.ServiceException;
@@ -48,12 +44,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
-import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.util.concurrent.Uninterruptibles;
 
 public class S3VersionedObjectListService extends S3AbstractListService implements ListService {
     private static final Logger log = LogManager.getLogger(S3VersionedObjectListService.class);
@@ -81,7 +74,7 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
     /**
      * @param session     Connection
      * @param acl
-     * @param concurrency Number of threads to handle prefixes
+     * @param concurrency Number of threads to handle prefixes and read metadata
      */
     public S3VersionedObjectListService(final S3Session session, final S3AccessControlListFeature acl, final Integer concurrency, final boolean metadata) {
         super(session);
@@ -94,7 +87,8 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("list", concurrency);
+        final S3ParallelListing parallel = new S3ParallelListing(session, concurrency,
+                new HostPreferences(session.getHost()).getInteger("s3.listing.partition.depth"));
         try {
             final String prefix = this.createPrefix(directory);
             log.debug("List with prefix {}", prefix);
@@ -150,7 +144,7 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
                     if(metadata) {
                         // Method Not Allowed for delete marker
                         if(!marker.isDeleteMarker()) {
-                            f.withAttributes(attributes.find(f));
+                            parallel.attributes(attributes, f);
                         }
                     }
                     objects.add(f);
@@ -162,22 +156,14 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
                     if(new SimplePathPredicate(PathNormalizer.compose(bucket, URIEncoder.decode(common))).test(directory)) {
                         continue;
                     }
-                    folders.add(this.submit(pool, bucket, directory, URIEncoder.decode(common)));
+                    folders.add(this.submit(parallel, bucket, directory, URIEncoder.decode(common)));
                 }
                 for(Future<Path> f : folders) {
-                    try {
-                        objects.add(Uninterruptibles.getUninterruptibly(f));
-                    }
-                    catch(ExecutionException e) {
-                        log.warn("Listing versioned objects failed with execution failure {}", e.getMessage());
-                        for(Throwable cause : ExceptionUtils.getThrowableList(e)) {
-                            Throwables.throwIfInstanceOf(cause, BackgroundException.class);
-                        }
-                        throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-                    }
+                    objects.add(S3ParallelListing.await(f));
                 }
                 priorLastKey = null != chunk.getNextKeyMarker() ? URIEncoder.decode(chunk.getNextKeyMarker()) : null;
                 priorLastVersionId = chunk.getNextVersionIdMarker();
+                parallel.flush();
                 listener.chunk(directory, objects);
             }
             while(priorLastKey != null);
@@ -207,7 +193,7 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
         }
         finally {
             // Cancel future tasks
-            pool.shutdown(false);
+            parallel.shutdown();
         }
     }
 
@@ -215,14 +201,14 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
      * Determine path from prefix. Path will have duplicate marker set in attributes when all containing files for the
      * prefix have a delete marker set.
      *
-     * @param pool      Thread pool to run task with
+     * @param parallel  Executor to run task with
      * @param bucket    Bucket
      * @param directory The directory for which contents are listed
      * @param prefix    URI decoded common prefix found in directory
      * @return Path to add to directory list
      */
-    private Future<Path> submit(final ThreadPool pool, final Path bucket, final Path directory, final String prefix) {
-        return pool.execute(new BackgroundExceptionCallable<Path>() {
+    private Future<Path> submit(final S3ParallelListing parallel, final Path bucket, final Path directory, final String prefix) {
+        return parallel.execute(new BackgroundExceptionCallable<Path>() {
             @Override
             public Path call() throws BackgroundException {
                 final PathAttributes attr = new PathAttributes();
@@ -36,6 +36,7 @@ import org.junit.experimental.categories.Category;
 
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -289,6 +290,30 @@ public class S3ObjectListServiceTest extends AbstractS3Test {
                 new Path("test-eu-central-1-cyberduck", EnumSet.of(Path.Type.volume, Path.Type.directory)), new DisabledListProgressListener());
     }
 
+    @Test
+    public void testListRecursivePartitioned() throws Exception {
+        final Path container = new Path("test-eu-central-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final S3AccessControlListFeature acl = new S3AccessControlListFeature(session);
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session, acl), acl).mkdir(
+                new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), new TransferStatus());
+        final List<Path> files = new ArrayList<>();
+        for(String name : Arrays.asList("a", "a.txt", "b", "c")) {
+            final Path folder = new Path(directory, name, EnumSet.of(Path.Type.directory));
+            files.add(new S3TouchFeature(session, acl).touch(new Path(folder, "f", EnumSet.of(Path.Type.file)), new TransferStatus()));
+            files.add(new S3TouchFeature(session, acl).touch(new Path(new Path(folder, "d", EnumSet.of(Path.Type.directory)), "f", EnumSet.of(Path.Type.file)), new TransferStatus()));
+        }
+        files.add(new S3TouchFeature(session, acl).touch(new Path(directory, "a0", EnumSet.of(Path.Type.file)), new TransferStatus()));
+        final AttributedList<Path> sequential = new S3ObjectListService(session, acl, 1, false).list(directory, new DisabledListProgressListener(), null);
+        final AttributedList<Path> partitioned = new S3ObjectListService(session, acl, 25, false).list(directory, new DisabledListProgressListener(), null);
+        assertEquals(files.size(), partitioned.size());
+        assertEquals(sequential.toList(), partitioned.toList());
+        for(Path file : files) {
+            assertTrue(partitioned.contains(file));
+        }
+        files.add(directory);
+        new S3DefaultDeleteFeature(session, acl).delete(files, new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
     @Test
     public void testListFilePlusCharacter() throws Exception {
         final Path container = new Path("test-eu-central-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
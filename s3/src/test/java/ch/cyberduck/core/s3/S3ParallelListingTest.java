@@ -0,0 +1,41 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class S3ParallelListingTest {
+
+    @Test
+    public void testKeyOrder() {
+        final List<String> keys = Arrays.asList("a/", "a0", "a.txt", "a", "b/c/", "\uFFFD", "\uD83D\uDE00", "a/b");
+        keys.sort(S3ParallelListing.KEY_ORDER);
+        assertEquals(Arrays.asList("a", "a.txt", "a/", "a/b", "a0", "b/c/", "\uFFFD", "\uD83D\uDE00"), keys);
+    }
+
+    @Test
+    public void testPrefixSortsBeforeKeysInPrefix() {
+        assertTrue(S3ParallelListing.KEY_ORDER.compare("a/", "a/0") < 0);
+        assertTrue(S3ParallelListing.KEY_ORDER.compare("a.txt", "a/") < 0);
+        assertTrue(S3ParallelListing.KEY_ORDER.compare("a0", "a/") > 0);
+        assertEquals(0, S3ParallelListing.KEY_ORDER.compare("a/", "a/"));
+    }
+}
@@ -0,0 +1,92 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.RemoteDirectory;
+import net.schmizz.sshj.sftp.RemoteResourceInfo;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * Read directory handle one READDIR response at a time with the request for the next batch already sent before
+ * returning the entries of the current response.
+ */
+public class SFTPDirectoryReader extends RemoteDirectory {
+
+    private final Charset charset;
+
+    /**
+     * Outstanding READDIR request or null when end of directory is reached
+     */
+    private Promise<Response, SFTPException> next;
+
+    private SFTPDirectoryReader(final SFTPEngine requester, final String path, final byte[] handle) throws IOException {
+        super(requester, path, handle);
+        this.charset = requester.getSubsystem().getRemoteCharset();
+        this.next = requester.request(this.newRequest(PacketType.READDIR));
+    }
+
+    public static SFTPDirectoryReader open(final SFTPEngine sftp, final String path) throws IOException {
+        final byte[] handle = sftp.request(sftp.newRequest(PacketType.OPENDIR).putString(path, sftp.getSubsystem().getRemoteCharset()))
+                .retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS)
+                .ensurePacketTypeIs(PacketType.HANDLE).readBytes();
+        return new SFTPDirectoryReader(sftp, path, handle);
+    }
+
+    /**
+     * @return Entries of next READDIR response excluding <code>.</code> and <code>..</code> or null when end of directory is reached
+     */
+    public List<RemoteResourceInfo> read() throws IOException {
+        if(null == next) {
+            return null;
+        }
+        final Response response = next.retrieve(requester.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        next = null;
+        switch(response.getType()) {
+            case NAME:
+                // Send request for next batch before parsing current response
+                next = requester.request(this.newRequest(PacketType.READDIR));
+                final int count = response.readUInt32AsInt();
+                final List<RemoteResourceInfo> entries = new ArrayList<>(count);
+                for(int i = 0; i < count; i++) {
+                    final String name = response.readString(charset);
+                    // Ignore long name
+                    response.readString();
+                    final FileAttributes attributes = response.readFileAttributes();
+                    if(".".equals(name) || "..".equals(name)) {
+                        continue;
+                    }
+                    entries.add(new RemoteResourceInfo(requester.getPathHelper().getComponents(path, name), attributes));
+                }
+                return entries;
+            case STATUS:
+                response.ensureStatusIs(Response.StatusCode.EOF);
+                return null;
+            default:
+                throw new SFTPException(String.format("Unexpected packet %s", response.getType()));
+        }
+    }
+}
@@ -34,14 +34,26 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import net.schmizz.concurrent.Promise;
 import net.schmizz.sshj.sftp.FileAttributes;
 import net.schmizz.sshj.sftp.FileMode;
+import net.schmizz.sshj.sftp.PacketType;
 import net.schmizz.sshj.sftp.RemoteDirectory;
 import net.schmizz.sshj.sftp.RemoteResourceFilter;
 import net.schmizz.sshj.sftp.RemoteResourceInfo;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
 import net.schmizz.sshj.sftp.SFTPException;
 
 public class SFTPListService implements ListService {
@@ -57,6 +69,9 @@ public class SFTPListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(new HostPreferences(session.getHost()).getBoolean("sftp.listing.pipeline")) {
+            return this.pipeline(directory, listener);
+        }
         final AttributedList<Path> children = new AttributedList<Path>();
         try (RemoteDirectory handle = session.sftp().openDir(directory.getAbsolute())) {
             for(List<RemoteResourceInfo> list : ListUtils.partition(handle.scan(new RemoteResourceFilter() {
@@ -67,20 +82,7 @@ public class SFTPListService implements ListService {
                     }),
                     new HostPreferences(session.getHost()).getInteger("sftp.listing.chunksize"))) {
                 for(RemoteResourceInfo f : list) {
-                    final PathAttributes attr = attributes.toAttributes(f.getAttributes());
-                    final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
-                    switch(f.getAttributes().getType()) {
-                        case DIRECTORY:
-                            type.add(Path.Type.directory);
-                            break;
-                        case SYMLINK:
-                            type.add(Path.Type.symboliclink);
-                            break;
-                        default:
-                            type.add(Path.Type.file);
-                            break;
-                    }
-                    final Path file = new Path(directory, f.getName(), type, attr);
+                    final Path file = this.toPath(directory, f);
                     if(this.post(file)) {
                         children.add(file);
                         listener.chunk(directory, children);
@@ -94,51 +96,129 @@ public class SFTPListService implements ListService {
         }
     }
 
-    protected boolean post(final Path file) throws BackgroundException {
-        if(file.isSymbolicLink()) {
-            final Path target;
-            Path.Type type;
-            PathAttributes attr;
-            try {
-                final String link = session.sftp().readLink(file.getAbsolute());
-                if(link.startsWith(String.valueOf(Path.DELIMITER))) {
-                    target = new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file));
+    /**
+     * Notify listener for every READDIR response with symbolic links in the response resolved using pipelined requests
+     */
+    protected AttributedList<Path> pipeline(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        try (SFTPDirectoryReader handle = SFTPDirectoryReader.open(session.sftp(), directory.getAbsolute())) {
+            List<RemoteResourceInfo> list;
+            while((list = handle.read()) != null) {
+                final List<Path> files = new ArrayList<>(list.size());
+                for(RemoteResourceInfo f : list) {
+                    files.add(this.toPath(directory, f));
+                }
+                final Set<Path> failed = this.resolve(files.stream().filter(Path::isSymbolicLink).collect(Collectors.toList()));
+                for(Path file : files) {
+                    if(failed.contains(file)) {
+                        continue;
+                    }
+                    children.add(file);
                 }
-                else {
-                    target = new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file));
+                listener.chunk(directory, children);
+            }
+            return children;
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    private Path toPath(final Path directory, final RemoteResourceInfo f) {
+        final PathAttributes attr = attributes.toAttributes(f.getAttributes());
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        switch(f.getAttributes().getType()) {
+            case DIRECTORY:
+                type.add(Path.Type.directory);
+                break;
+            case SYMLINK:
+                type.add(Path.Type.symboliclink);
+                break;
+            default:
+                type.add(Path.Type.file);
+                break;
+        }
+        return new Path(directory, f.getName(), type, attr);
+    }
+
+    /**
+     * Send READLINK requests for all symbolic links before awaiting the first reply and then STAT requests for all
+     * link targets the same way
+     *
+     * @param symlinks Symbolic links
+     * @return Files where the link could not be read
+     */
+    protected Set<Path> resolve(final List<Path> symlinks) throws BackgroundException {
+        final Set<Path> failed = new HashSet<>();
+        if(symlinks.isEmpty()) {
+            return failed;
+        }
+        final SFTPEngine sftp = session.sftp();
+        if(sftp.getOperativeProtocolVersion() < 3) {
+            // READLINK not supported
+            for(Path file : symlinks) {
+                if(!this.post(file)) {
+                    failed.add(file);
                 }
+            }
+            return failed;
+        }
+        final Charset charset = sftp.getSubsystem().getRemoteCharset();
+        try {
+            final Map<Path, Promise<Response, SFTPException>> links = new LinkedHashMap<>();
+            for(Path file : symlinks) {
+                links.put(file, sftp.request(sftp.newRequest(PacketType.READLINK).putString(file.getAbsolute(), charset)));
+            }
+            final Map<Path, Path> targets = new LinkedHashMap<>();
+            for(Map.Entry<Path, Promise<Response, SFTPException>> entry : links.entrySet()) {
                 try {
-                    final FileAttributes stat = session.sftp().stat(target.getAbsolute());
-                    if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
-                        type = Path.Type.directory;
+                    final Response response = entry.getValue().retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS)
+                            .ensurePacketTypeIs(PacketType.NAME);
+                    if(response.readUInt32AsInt() != 1) {
+                        throw new SFTPException(String.format("Unexpected data in %s packet", response.getType()));
                     }
-                    else {
-                        type = Path.Type.file;
-                    }
-                    attr = attributes.toAttributes(stat);
+                    targets.put(entry.getKey(), this.toTarget(entry.getKey(), response.readString(charset)));
+                }
+                catch(IOException e) {
+                    log.warn("Failure to read symbolic link of {}. {}", entry.getKey(), e.getMessage());
+                    failed.add(entry.getKey());
+                }
+            }
+            final Map<Path, Promise<Response, SFTPException>> stats = new LinkedHashMap<>();
+            for(Map.Entry<Path, Path> entry : targets.entrySet()) {
+                stats.put(entry.getKey(), sftp.request(sftp.newRequest(PacketType.STAT).putString(entry.getValue().getAbsolute(), charset)));
+            }
+            for(Map.Entry<Path, Promise<Response, SFTPException>> entry : stats.entrySet()) {
+                final Path file = entry.getKey();
+                try {
+                    this.setSymlinkTarget(file, targets.get(file), entry.getValue().retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS)
+                            .ensurePacketTypeIs(PacketType.ATTRS).readFileAttributes());
                 }
                 catch(SFTPException e) {
-                    final BackgroundException reason = new SFTPExceptionMappingService().map(e);
-                    if(reason instanceof NotfoundException) {
-                        log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
-                    }
-                    else if(reason instanceof AccessDeniedException) {
-                        log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
-                    }
-                    else if(reason instanceof InteroperabilityException) {
-                        log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
-                    }
-                    else {
-                        log.warn("Unknown failure reading symbolic link target of {}. {}", file, reason.toString());
-                        throw reason;
-                    }
-                    type = Path.Type.file;
-                    attr = PathAttributes.EMPTY;
+                    this.setSymlinkTarget(file, targets.get(file), e);
+                }
+                catch(IOException e) {
+                    log.warn("Failure to read symbolic link of {}. {}", file, e.getMessage());
+                    failed.add(file);
+                }
+            }
+            return failed;
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map(e);
+        }
+    }
+
+    protected boolean post(final Path file) throws BackgroundException {
+        if(file.isSymbolicLink()) {
+            try {
+                final Path target = this.toTarget(file, session.sftp().readLink(file.getAbsolute()));
+                try {
+                    this.setSymlinkTarget(file, target, session.sftp().stat(target.getAbsolute()));
+                }
+                catch(SFTPException e) {
+                    this.setSymlinkTarget(file, target, e);
                 }
-                file.setType(EnumSet.of(Path.Type.symboliclink, type));
-                target.setType(EnumSet.of(type));
-                target.setAttributes(attr);
-                file.setSymlinkTarget(target);
             }
             catch(IOException e) {
                 log.warn("Failure to read symbolic link of {}. {}", file, e.getMessage());
@@ -147,4 +227,50 @@ public class SFTPListService implements ListService {
         }
         return true;
     }
+
+    private Path toTarget(final Path file, final String link) {
+        if(link.startsWith(String.valueOf(Path.DELIMITER))) {
+            return new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file));
+        }
+        return new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file));
+    }
+
+    private void setSymlinkTarget(final Path file, final Path target, final FileAttributes stat) {
+        final Path.Type type;
+        if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
+            type = Path.Type.directory;
+        }
+        else {
+            type = Path.Type.file;
+        }
+        this.setSymlinkTarget(file, target, type, attributes.toAttributes(stat));
+    }
+
+    /**
+     * Failure reading attributes of symbolic link target
+     */
+    private void setSymlinkTarget(final Path file, final Path target, final SFTPException e) throws BackgroundException {
+        final BackgroundException reason = new SFTPExceptionMappingService().map(e);
+        if(reason instanceof NotfoundException) {
+            log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
+        }
+        else if(reason instanceof AccessDeniedException) {
+            log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
+        }
+        else if(reason instanceof InteroperabilityException) {
+            log.warn("Cannot find symbolic link target of {}. {}", file, reason.toString());
+        }
+        else {
+            log.warn("Unknown failure reading symbolic link target of {}. {}", file, reason.toString());
+            throw reason;
+        }
+        this.setSymlinkTarget(file, target, Path.Type.file, PathAttributes.EMPTY);
+    }
+
+    private void setSymlinkTarget(final Path file, final Path target, final Path.Type type, final PathAttributes attr) {
+        file.setType(EnumSet.of(Path.Type.symboliclink, type));
+        target.setType(EnumSet.of(type));
+        target.setAttributes(attr);
+        file.setSymlinkTarget(target);
+    }
 }
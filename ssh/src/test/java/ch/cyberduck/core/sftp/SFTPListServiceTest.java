@@ -33,10 +33,13 @@ import ch.cyberduck.test.IntegrationTest;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -69,6 +72,38 @@ public class SFTPListServiceTest extends AbstractSFTPTest {
         new SFTPDeleteFeature(session).delete(Arrays.asList(file, symlinkAbsolute, symlinkRelative, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
     }
 
+    @Test
+    public void testListManySymlinks() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path directory = new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        new SFTPDirectoryFeature(session).mkdir(directory, new TransferStatus());
+        final Path file = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        new SFTPTouchFeature(session).touch(file, new TransferStatus());
+        final List<Path> files = new ArrayList<>();
+        for(int i = 0; i < 250; i++) {
+            final Path symlink = new Path(directory, String.format("link-%d", i), EnumSet.of(Path.Type.file, AbstractPath.Type.symboliclink));
+            new SFTPSymlinkFeature(session).symlink(symlink, file.getName());
+            files.add(symlink);
+        }
+        final AtomicInteger chunks = new AtomicInteger();
+        final AttributedList<Path> list = new SFTPListService(session).list(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) {
+                chunks.incrementAndGet();
+            }
+        });
+        assertEquals(251, list.size());
+        assertTrue(chunks.get() > 0);
+        for(Path symlink : files) {
+            assertTrue(list.contains(symlink));
+            assertEquals(file, list.get(symlink).getSymlinkTarget());
+            assertTrue(list.get(symlink).getSymlinkTarget().isFile());
+        }
+        files.add(file);
+        files.add(directory);
+        new SFTPDeleteFeature(session).delete(files, new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
     @Test
     public void testInvalidSymlinkTarget() throws Exception {
         final Path home = new SFTPHomeDirectoryService(session).find();
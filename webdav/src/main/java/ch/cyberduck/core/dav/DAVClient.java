@@ -38,6 +38,7 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -45,12 +46,16 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
 import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.impl.methods.HttpPropFind;
+import com.github.sardine.model.Allprop;
 import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.ObjectFactory;
+import com.github.sardine.model.Prop;
 import com.github.sardine.model.Propfind;
 import com.github.sardine.model.Response;
 import com.github.sardine.util.SardineUtil;
@@ -131,6 +136,55 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * Read all properties of resources with callback for every response element parsed
+     */
+    public void list(final String url, final int depth, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        final Propfind body = new Propfind();
+        body.setAllprop(new Allprop());
+        this.propfind(url, depth, body, callback);
+    }
+
+    /**
+     * Read default and custom properties of resources with callback for every response element parsed
+     *
+     * @param props Custom properties
+     */
+    public void list(final String url, final int depth, final Set<QName> props, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        final Propfind body = new Propfind();
+        final Prop prop = new Prop();
+        final ObjectFactory factory = new ObjectFactory();
+        prop.setGetcontentlength(factory.createGetcontentlength());
+        prop.setGetlastmodified(factory.createGetlastmodified());
+        prop.setCreationdate(factory.createCreationdate());
+        prop.setDisplayname(factory.createDisplayname());
+        prop.setGetcontenttype(factory.createGetcontenttype());
+        prop.setResourcetype(factory.createResourcetype());
+        prop.setGetetag(factory.createGetetag());
+        prop.setLockdiscovery(factory.createLockdiscovery());
+        for(QName property : props) {
+            prop.getAny().add(SardineUtil.createElement(property));
+        }
+        body.setProp(prop);
+        this.propfind(url, depth, body, callback);
+    }
+
+    protected void propfind(final String url, final int depth, final Propfind body, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        if(!PreferencesFactory.get().getBoolean("webdav.list.handler.sax")) {
+            for(DavResource resource : this.propfind(url, depth, body)) {
+                if(!callback.resource(resource)) {
+                    break;
+                }
+            }
+            return;
+        }
+        final HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        // Resources are passed to callback while parsing response
+        this.execute(entity, new SaxPropFindResponseHandler(callback));
+    }
+
     public HttpClientContext getContext() {
         return context;
     }
@@ -29,13 +29,12 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.http.HttpExceptionMappingService;
 import ch.cyberduck.core.preferences.HostPreferences;
 
-import org.apache.commons.collections4.ListUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.util.EnumSet;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,24 +60,40 @@ public class DAVListService implements ListService {
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
             final AttributedList<Path> children = new AttributedList<>();
-            for(List<DavResource> list : ListUtils.partition(this.list(directory),
-                    new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize"))) {
-                for(final DavResource resource : list) {
-                    if(new SimplePathPredicate(new Path(resource.getHref().getPath(), EnumSet.of(Path.Type.directory))).test(directory)) {
-                        log.warn("Ignore resource {}", resource);
-                        // Do not include self
-                        if(resource.isDirectory()) {
-                            continue;
+            final int chunksize = new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize");
+            final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+            // Add files while parsing response
+            this.list(directory, new SaxPropFindResponseHandler.Callback() {
+                @Override
+                public boolean resource(final DavResource resource) {
+                    try {
+                        if(new SimplePathPredicate(new Path(resource.getHref().getPath(), EnumSet.of(Path.Type.directory))).test(directory)) {
+                            log.warn("Ignore resource {}", resource);
+                            // Do not include self
+                            if(resource.isDirectory()) {
+                                return true;
+                            }
+                            throw new NotfoundException(directory.getAbsolute());
                         }
-                        throw new NotfoundException(directory.getAbsolute());
+                        final PathAttributes attr = attributes.toAttributes(resource);
+                        final Path file = new Path(directory, PathNormalizer.name(resource.getHref().getPath()),
+                                resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+                        children.add(file);
+                        if(children.size() % chunksize == 0) {
+                            listener.chunk(directory, children);
+                        }
+                        return true;
+                    }
+                    catch(BackgroundException e) {
+                        failure.set(e);
+                        return false;
                     }
-                    final PathAttributes attr = attributes.toAttributes(resource);
-                    final Path file = new Path(directory, PathNormalizer.name(resource.getHref().getPath()),
-                            resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
-                    children.add(file);
-                    listener.chunk(directory, children);
                 }
+            });
+            if(null != failure.get()) {
+                throw failure.get();
             }
+            listener.chunk(directory, children);
             return children;
         }
         catch(SardineException e) {
@@ -89,11 +104,16 @@ public class DAVListService implements ListService {
         }
     }
 
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
+    /**
+     * Send PROPFIND request for directory
+     *
+     * @param callback Notified for every resource parsed from response
+     */
+    protected void list(final Path directory, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1,
                 Stream.of(
                                 DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
                                 DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                        collect(Collectors.toSet()));
+                        collect(Collectors.toSet()), callback);
     }
 }
@@ -33,7 +33,9 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 
+import com.github.sardine.DavResource;
 import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.model.*;
 import com.github.sardine.util.SardineUtil;
@@ -41,6 +43,19 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = LogManager.getLogger(SaxPropFindResponseHandler.class);
 
+    private final Callback callback;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param callback Notified for every response element parsed which is then not added to the returned multistatus
+     */
+    public SaxPropFindResponseHandler(final Callback callback) {
+        this.callback = callback;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -48,10 +63,15 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(callback);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
-            xmlReader.parse(new InputSource(stream));
+            try {
+                xmlReader.parse(new InputSource(stream));
+            }
+            catch(AbortedException e) {
+                log.warn("Stop reading response after callback returned false");
+            }
             return handler.getMultistatus();
         }
         catch(IOException | SAXException | ParserConfigurationException e) {
@@ -59,7 +79,20 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
     }
 
+    public interface Callback {
+        /**
+         * @param resource Resource parsed from response element
+         * @return False to stop reading response
+         */
+        boolean resource(DavResource resource);
+    }
+
+    private static final class AbortedException extends SAXException {
+        private static final long serialVersionUID = -2155094931407297472L;
+    }
+
     private static final class SaxHandler extends DefaultHandler {
+        private final Callback callback;
 
         private Multistatus multistatus;
         private Response response;
@@ -73,6 +106,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        private SaxHandler(final Callback callback) {
+            this.callback = callback;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -81,7 +118,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && callback == null) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -135,10 +172,42 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
-            if(StringUtils.isBlank(text.toString())) {
-                return;
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if(StringUtils.isNotBlank(text.toString())) {
+                this.value(uri, localName);
             }
+            switch(localName) {
+                case "response": {
+                    if(callback != null && response != null) {
+                        this.callback(response);
+                    }
+                    response = null;
+                    break;
+                }
+                case "propstat": {
+                    propstat = null;
+                    break;
+                }
+                case "prop": {
+                    prop = null;
+                    break;
+                }
+                case "lockdiscovery": {
+                    lockdiscovery = null;
+                    break;
+                }
+                case "activelock": {
+                    activelock = null;
+                    break;
+                }
+                case "locktoken": {
+                    locktoken = null;
+                    break;
+                }
+            }
+        }
+
+        private void value(final String uri, final String localName) {
             if(response != null) {
                 switch(localName) {
                     case "href": {
@@ -212,32 +281,6 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     }
                 }
             }
-            switch(localName) {
-                case "response": {
-                    response = null;
-                    break;
-                }
-                case "propstat": {
-                    propstat = null;
-                    break;
-                }
-                case "prop": {
-                    prop = null;
-                    break;
-                }
-                case "lockdiscovery": {
-                    lockdiscovery = null;
-                    break;
-                }
-                case "activelock": {
-                    activelock = null;
-                    break;
-                }
-                case "locktoken": {
-                    locktoken = null;
-                    break;
-                }
-            }
             if(!SardineUtil.DEFAULT_NAMESPACE_URI.equals(uri)) {
                 // Custom property
                 if(prop != null) {
@@ -248,6 +291,20 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
             }
         }
 
+        private void callback(final Response response) throws SAXException {
+            final DavResource resource;
+            try {
+                resource = new DavResource(response);
+            }
+            catch(URISyntaxException e) {
+                log.warn("Ignore resource with invalid URI {}", response.getHref().get(0));
+                return;
+            }
+            if(!callback.resource(resource)) {
+                throw new AbortedException();
+            }
+        }
+
         public Multistatus getMultistatus() {
             return multistatus;
         }
@@ -20,11 +20,9 @@ import ch.cyberduck.core.dav.DAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.DAVListService;
 import ch.cyberduck.core.dav.DAVPathEncoder;
 import ch.cyberduck.core.dav.DAVSession;
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
 
 import java.io.IOException;
-import java.util.List;
-
-import com.github.sardine.DavResource;
 
 public class MicrosoftIISDAVListService extends DAVListService {
 
@@ -36,7 +34,7 @@ public class MicrosoftIISDAVListService extends DAVListService {
     }
 
     @Override
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1, true);
+    protected void list(final Path directory, final SaxPropFindResponseHandler.Callback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1, callback);
     }
 }
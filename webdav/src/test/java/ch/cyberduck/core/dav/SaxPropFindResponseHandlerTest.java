@@ -0,0 +1,78 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2024 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.model.Multistatus;
+
+import static org.junit.Assert.*;
+
+public class SaxPropFindResponseHandlerTest {
+
+    private static String response(final int count) {
+        final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?><d:multistatus xmlns:d=\"DAV:\">");
+        for(int i = 0; i < count; i++) {
+            xml.append("<d:response><d:href>/dav/f").append(i).append("</d:href><d:propstat><d:prop>")
+                    .append("<d:getcontentlength>").append(i).append("</d:getcontentlength>")
+                    .append("<d:resourcetype/></d:prop><d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>");
+        }
+        return xml.append("</d:multistatus>").toString();
+    }
+
+    @Test
+    public void testMultistatus() throws Exception {
+        final Multistatus multistatus = new SaxPropFindResponseHandler().getMultistatus(
+                new ByteArrayInputStream(response(3).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, multistatus.getResponse().size());
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        final List<DavResource> resources = new ArrayList<>();
+        final Multistatus multistatus = new SaxPropFindResponseHandler(new SaxPropFindResponseHandler.Callback() {
+            @Override
+            public boolean resource(final DavResource resource) {
+                resources.add(resource);
+                return true;
+            }
+        }).getMultistatus(new ByteArrayInputStream(response(3).getBytes(StandardCharsets.UTF_8)));
+        assertTrue(multistatus.getResponse().isEmpty());
+        assertEquals(3, resources.size());
+        assertEquals("/dav/f2", resources.get(2).getHref().getPath());
+        assertEquals(2L, resources.get(2).getContentLength(), 0L);
+        assertFalse(resources.get(2).isDirectory());
+    }
+
+    @Test
+    public void testCallbackAbort() throws Exception {
+        final List<DavResource> resources = new ArrayList<>();
+        new SaxPropFindResponseHandler(new SaxPropFindResponseHandler.Callback() {
+            @Override
+            public boolean resource(final DavResource resource) {
+                resources.add(resource);
+                return resources.size() < 2;
+            }
+        }).getMultistatus(new ByteArrayInputStream(response(5).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, resources.size());
+    }
+}
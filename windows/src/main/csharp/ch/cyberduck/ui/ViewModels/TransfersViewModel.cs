@@ -428,6 +428,8 @@ public sealed partial class TransfersViewModel : ObservableObject, IDisposable
 
     private void OnSelectedBandwidthChanged(BandwidthViewModel value)
     {
+        // Apply changes to limits shared by all transfers from preferences
+        ch.cyberduck.core.io.BandwidthScheduler.reload();
         foreach (var transfer in SelectedTransfers)
         {
             transfer.Transfer.Model.setBandwidth(value.Bandwidth);